@@ -0,0 +1,104 @@
+package org.deeplearning4j.benchmarks;
+
+import org.nd4j.shade.jackson.databind.JsonNode;
+import org.nd4j.shade.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files in JSON format (for example, from two versions of DL4J), and prints one tab-separated
+ * line per benchmark and parameter combination present in both files:<br>
+ * benchmark, params, mode, unit, baseline score, new score, change (%), verdict<br>
+ * Change is the relative difference of the new score to the baseline. The verdict is "faster" or "slower" if the
+ * difference is larger than the sum of the two score errors (99.9% confidence intervals, as reported by JMH),
+ * "same" otherwise. For throughput modes higher is better; for time modes lower is better.<br>
+ * Usage: BenchmarkComparator baseline.json new.json
+ */
+public class BenchmarkComparator {
+
+    private BenchmarkComparator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkComparator <baseline.json> <new.json>");
+            System.exit(1);
+            return;
+        }
+
+        Map<String, JsonNode> baseline = readResults(new File(args[0]));
+        Map<String, JsonNode> current = readResults(new File(args[1]));
+
+        System.out.println("benchmark\tparams\tmode\tunit\tbaseline\tnew\tchange(%)\tverdict");
+        for (Map.Entry<String, JsonNode> entry : baseline.entrySet()) {
+            JsonNode b = entry.getValue();
+            JsonNode c = current.get(entry.getKey());
+            if (c == null)
+                continue;
+
+            String mode = b.get("mode").asText();
+            JsonNode bMetric = b.get("primaryMetric");
+            JsonNode cMetric = c.get("primaryMetric");
+            double bScore = bMetric.get("score").asDouble();
+            double cScore = cMetric.get("score").asDouble();
+            double error = errorOf(bMetric) + errorOf(cMetric);
+            double changePercent = 100.0 * (cScore - bScore) / bScore;
+
+            String verdict = "same";
+            if (Math.abs(cScore - bScore) > error) {
+                boolean higherIsBetter = "thrpt".equals(mode);
+                verdict = (cScore > bScore) == higherIsBetter ? "faster" : "slower";
+            }
+
+            System.out.println(b.get("benchmark").asText() + "\t" + paramsOf(b) + "\t" + mode + "\t"
+                            + bMetric.get("scoreUnit").asText() + "\t" + format(bScore) + "\t" + format(cScore) + "\t"
+                            + String.format("%+.1f", changePercent) + "\t" + verdict);
+        }
+    }
+
+    /**
+     * @return Results by benchmark name, mode and parameters
+     */
+    private static Map<String, JsonNode> readResults(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        Map<String, JsonNode> out = new LinkedHashMap<>();
+        for (JsonNode result : root) {
+            out.put(result.get("benchmark").asText() + "|" + result.get("mode").asText() + "|" + paramsOf(result),
+                            result);
+        }
+        return out;
+    }
+
+    private static String paramsOf(JsonNode result) {
+        JsonNode params = result.get("params");
+        if (params == null)
+            return "";
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> iter = params.fields();
+        while (iter.hasNext()) {
+            Map.Entry<String, JsonNode> e = iter.next();
+            sorted.put(e.getKey(), e.getValue().asText());
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : sorted.entrySet()) {
+            if (sb.length() > 0)
+                sb.append(',');
+            sb.append(e.getKey()).append('=').append(e.getValue());
+        }
+        return sb.toString();
+    }
+
+    private static double errorOf(JsonNode metric) {
+        JsonNode error = metric.get("scoreError");
+        //Score error is "NaN" (a string) when there were too few measurement iterations
+        return (error == null || !error.isNumber() ? 0.0 : error.asDouble());
+    }
+
+    private static String format(double d) {
+        return String.format("%.4g", d);
+    }
+}
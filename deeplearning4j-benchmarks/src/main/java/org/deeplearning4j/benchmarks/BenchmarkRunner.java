@@ -0,0 +1,67 @@
+package org.deeplearning4j.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of the benchmarks jar. Usage:
+ * <pre>
+ * java -jar benchmarks.jar [JMH options]                 Run benchmarks (all by default; pass a regex to select)
+ * java -jar benchmarks.jar compare baseline.json new.json Compare two result files, see {@link BenchmarkComparator}
+ * </pre>
+ * All standard JMH options are supported (-h for a list). Unless a result format/file is specified with -rf/-rff,
+ * results are written as JSON to dl4j-benchmarks-&lt;version&gt;.json, for comparison between versions.
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "compare".equals(args[0])) {
+            BenchmarkComparator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        CommandLineOptions cmdOptions;
+        try {
+            cmdOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListProfilers()
+                        || cmdOptions.shouldListResultFormats()) {
+            //Listing and help: handled by the standard JMH main
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+        if (!cmdOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmdOptions.getResult().hasValue()) {
+            builder.result(defaultResultFile(cmdOptions));
+        }
+        if (cmdOptions.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+
+        new Runner(builder.build()).run();
+    }
+
+    private static String defaultResultFile(CommandLineOptions cmdOptions) {
+        String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+        if (version == null)
+            version = "dev";
+        ResultFormatType format = cmdOptions.getResultFormat().orElse(ResultFormatType.JSON);
+        return "dl4j-benchmarks-" + version + "." + format.toString().toLowerCase();
+    }
+}
@@ -0,0 +1,135 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.PoolingType;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.conf.layers.SubsamplingLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.Random;
+
+/**
+ * Synthetic models and data for the benchmarks. Everything is generated from a fixed seed, so results are comparable
+ * between runs and versions.
+ */
+public class BenchmarkUtils {
+
+    public static final long SEED = 12345;
+
+    /** Model types used in the network benchmarks */
+    public enum ModelType {
+        /** 3 layer MLP: 784 -> 512 -> 512 -> 10 */
+        MLP,
+        /** LeNet-style CNN on 28x28x1 input */
+        CNN,
+        /** 2 layer GravesLSTM: 32 -> 128 -> 128 -> 10, 50 time steps */
+        LSTM
+    }
+
+    public static final int MLP_N_IN = 784;
+    public static final int CNN_HEIGHT = 28;
+    public static final int CNN_WIDTH = 28;
+    public static final int LSTM_N_IN = 32;
+    public static final int LSTM_TIME_SERIES_LENGTH = 50;
+    public static final int NUM_CLASSES = 10;
+
+    private BenchmarkUtils() {}
+
+    public static MultiLayerConfiguration getConfiguration(ModelType modelType, Updater updater) {
+        NeuralNetConfiguration.Builder builder = new NeuralNetConfiguration.Builder().seed(SEED).iterations(1)
+                        .learningRate(0.01).updater(updater).weightInit(WeightInit.XAVIER);
+        switch (modelType) {
+            case MLP:
+                return builder.list()
+                                .layer(0, new DenseLayer.Builder().nIn(MLP_N_IN).nOut(512).activation(Activation.RELU)
+                                                .build())
+                                .layer(1, new DenseLayer.Builder().nIn(512).nOut(512).activation(Activation.RELU)
+                                                .build())
+                                .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                                .activation(Activation.SOFTMAX).nIn(512).nOut(NUM_CLASSES).build())
+                                .build();
+            case CNN:
+                return builder.list()
+                                .layer(0, new ConvolutionLayer.Builder(5, 5).nOut(20).activation(Activation.IDENTITY)
+                                                .build())
+                                .layer(1, new SubsamplingLayer.Builder(PoolingType.MAX).kernelSize(2, 2).stride(2, 2)
+                                                .build())
+                                .layer(2, new ConvolutionLayer.Builder(5, 5).nOut(50).activation(Activation.IDENTITY)
+                                                .build())
+                                .layer(3, new SubsamplingLayer.Builder(PoolingType.MAX).kernelSize(2, 2).stride(2, 2)
+                                                .build())
+                                .layer(4, new DenseLayer.Builder().nOut(500).activation(Activation.RELU).build())
+                                .layer(5, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                                .activation(Activation.SOFTMAX).nOut(NUM_CLASSES).build())
+                                .setInputType(InputType.convolutionalFlat(CNN_HEIGHT, CNN_WIDTH, 1)).build();
+            case LSTM:
+                return builder.list()
+                                .layer(0, new GravesLSTM.Builder().nIn(LSTM_N_IN).nOut(128)
+                                                .activation(Activation.TANH).build())
+                                .layer(1, new GravesLSTM.Builder().nIn(128).nOut(128).activation(Activation.TANH)
+                                                .build())
+                                .layer(2, new RnnOutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                                .activation(Activation.SOFTMAX).nIn(128).nOut(NUM_CLASSES).build())
+                                .build();
+            default:
+                throw new IllegalArgumentException("Unknown model type: " + modelType);
+        }
+    }
+
+    public static MultiLayerNetwork getNetwork(ModelType modelType, Updater updater) {
+        MultiLayerNetwork net = new MultiLayerNetwork(getConfiguration(modelType, updater));
+        net.init();
+        return net;
+    }
+
+    /**
+     * @return Random features and one-hot labels for the given model type and minibatch size
+     */
+    public static DataSet getData(ModelType modelType, int miniBatchSize) {
+        Nd4j.getRandom().setSeed(SEED);
+        switch (modelType) {
+            case MLP:
+                return new DataSet(Nd4j.rand(miniBatchSize, MLP_N_IN), oneHot(miniBatchSize, NUM_CLASSES));
+            case CNN:
+                return new DataSet(Nd4j.rand(miniBatchSize, CNN_HEIGHT * CNN_WIDTH),
+                                oneHot(miniBatchSize, NUM_CLASSES));
+            case LSTM:
+                INDArray features = Nd4j.rand(new int[] {miniBatchSize, LSTM_N_IN, LSTM_TIME_SERIES_LENGTH});
+                INDArray labels = Nd4j.create(new int[] {miniBatchSize, NUM_CLASSES, LSTM_TIME_SERIES_LENGTH}, 'f');
+                Random r = new Random(SEED);
+                for (int i = 0; i < miniBatchSize; i++) {
+                    for (int t = 0; t < LSTM_TIME_SERIES_LENGTH; t++) {
+                        labels.putScalar(new int[] {i, r.nextInt(NUM_CLASSES), t}, 1.0);
+                    }
+                }
+                return new DataSet(features, labels);
+            default:
+                throw new IllegalArgumentException("Unknown model type: " + modelType);
+        }
+    }
+
+    /**
+     * @return Random one-hot array, with shape [rows, numClasses]
+     */
+    public static INDArray oneHot(int rows, int numClasses) {
+        Random r = new Random(SEED);
+        INDArray out = Nd4j.create(rows, numClasses);
+        for (int i = 0; i < rows; i++) {
+            out.putScalar(i, r.nextInt(numClasses), 1.0);
+        }
+        return out;
+    }
+}
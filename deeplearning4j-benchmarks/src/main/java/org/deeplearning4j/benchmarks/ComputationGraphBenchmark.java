@@ -0,0 +1,130 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ComputationGraph output, feedForward and fit, for a graph with 4 independent branches that are merged before the
+ * output layer: either 2 dense layers per branch, or (Inception-style) 2 convolution layers per branch.
+ * Sequential and concurrent branch execution, at several minibatch sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ComputationGraphBenchmark {
+
+    private static final int N_IN = 256;
+    private static final int LAYER_SIZE = 256;
+    private static final int NUM_BRANCHES = 4;
+    private static final int CONV_SIZE = 16;
+    private static final int CONV_DEPTH = 8;
+
+    public enum BranchType {
+        DENSE, CONV
+    }
+
+    @Param({"1", "32", "128"})
+    public int miniBatchSize;
+
+    @Param({"1", "4"})
+    public int branchParallelism;
+
+    @Param({"DENSE", "CONV"})
+    public BranchType branchType;
+
+    private ComputationGraph graph;
+    private INDArray features;
+    private INDArray labels;
+
+    @Setup
+    public void setup() {
+        ComputationGraphConfiguration.GraphBuilder builder = new NeuralNetConfiguration.Builder()
+                        .seed(BenchmarkUtils.SEED).learningRate(0.01).updater(Updater.NESTEROVS)
+                        .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in")
+                        .branchParallelism(branchParallelism);
+
+        String[] branchOutputs = new String[NUM_BRANCHES];
+        for (int i = 0; i < NUM_BRANCHES; i++) {
+            if (branchType == BranchType.DENSE) {
+                builder.addLayer("b" + i + "_0", new DenseLayer.Builder().nIn(N_IN).nOut(LAYER_SIZE)
+                                .activation(Activation.RELU).build(), "in");
+                builder.addLayer("b" + i + "_1", new DenseLayer.Builder().nIn(LAYER_SIZE).nOut(LAYER_SIZE)
+                                .activation(Activation.RELU).build(), "b" + i + "_0");
+            } else {
+                //Different kernel size per branch, as in Inception towers
+                int k = 2 * (i % 2) + 1;
+                builder.addLayer("b" + i + "_0", new ConvolutionLayer.Builder(k, k).padding(k / 2, k / 2)
+                                .nOut(CONV_DEPTH).activation(Activation.RELU).build(), "in");
+                builder.addLayer("b" + i + "_1", new ConvolutionLayer.Builder(3, 3).padding(1, 1)
+                                .nOut(CONV_DEPTH).activation(Activation.RELU).build(), "b" + i + "_0");
+            }
+            branchOutputs[i] = "b" + i + "_1";
+        }
+        builder.addVertex("merge", new MergeVertex(), branchOutputs)
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nOut(BenchmarkUtils.NUM_CLASSES).build(),
+                                        "merge")
+                        .setOutputs("out");
+        if (branchType == BranchType.DENSE) {
+            builder.setInputTypes(InputType.feedForward(N_IN));
+        } else {
+            builder.setInputTypes(InputType.convolutional(CONV_SIZE, CONV_SIZE, CONV_DEPTH));
+        }
+
+        graph = new ComputationGraph(builder.build());
+        graph.init();
+
+        Nd4j.getRandom().setSeed(BenchmarkUtils.SEED);
+        if (branchType == BranchType.DENSE) {
+            features = Nd4j.rand(miniBatchSize, N_IN);
+        } else {
+            features = Nd4j.rand(new int[] {miniBatchSize, CONV_DEPTH, CONV_SIZE, CONV_SIZE});
+        }
+        labels = BenchmarkUtils.oneHot(miniBatchSize, BenchmarkUtils.NUM_CLASSES);
+    }
+
+    @Benchmark
+    public INDArray[] output() {
+        return graph.output(false, features);
+    }
+
+    @Benchmark
+    public Map<String, INDArray> feedForward() {
+        return graph.feedForward(features, false);
+    }
+
+    @Benchmark
+    public ComputationGraph fit() {
+        graph.fit(new INDArray[] {features}, new INDArray[] {labels});
+        return graph;
+    }
+}
@@ -0,0 +1,52 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.benchmarks.BenchmarkUtils.ModelType;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first {@link MultiLayerConfiguration#fromJson(String)} in a fresh JVM: one single shot per fork.
+ *
+ * "index" uses subtypes from the build-time subtype index only, "scan" additionally runs the full classpath scan
+ * before deserialization, as was done on mapper initialization before the index was introduced. Index lookup itself
+ * happens when the configuration is built in setup, so the difference between the two is the cost of scanning.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ConfigurationJsonBenchmark {
+
+    @Param({"index", "scan"})
+    public String subtypes;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = BenchmarkUtils.getConfiguration(ModelType.CNN, Updater.ADAM).toJson();
+    }
+
+    @Benchmark
+    public MultiLayerConfiguration firstFromJson() {
+        if ("scan".equals(subtypes))
+            NeuralNetConfiguration.scanForSubtypes();
+        return MultiLayerConfiguration.fromJson(json);
+    }
+}
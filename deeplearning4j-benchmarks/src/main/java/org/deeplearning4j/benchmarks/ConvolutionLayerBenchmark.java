@@ -0,0 +1,89 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.layers.LayerHelperLoader;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Convolution layer forward pass and backprop, for 3x3 and 5x5 kernels at several minibatch sizes. Time per call.<br>
+ * Compares the built-in im2col/gemm implementation (cpuHelpers=false) with the CPU helper loaded via
+ * ServiceLoader (cpuHelpers=true, see LayerHelperLoader). Both give the built-in implementation on backends where
+ * the CPU helper can't be loaded, and CuDNN is used if available regardless.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConvolutionLayerBenchmark {
+
+    private static final int IN_DEPTH = 16;
+    private static final int OUT_DEPTH = 32;
+    private static final int SIZE = 32;
+
+    @Param({"1", "16", "64"})
+    public int miniBatchSize;
+
+    @Param({"3", "5"})
+    public int kernelSize;
+
+    @Param({"false", "true"})
+    public boolean cpuHelpers;
+
+    private Layer layer;
+    private INDArray input;
+    private INDArray epsilon;
+
+    @Setup
+    public void setup() {
+        //Helpers are looked up when the layer is instantiated
+        System.setProperty(LayerHelperLoader.ENABLE_HELPERS_PROPERTY, String.valueOf(cpuHelpers));
+
+        NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder().seed(BenchmarkUtils.SEED)
+                        .weightInit(WeightInit.XAVIER)
+                        .layer(new ConvolutionLayer.Builder(kernelSize, kernelSize).nIn(IN_DEPTH).nOut(OUT_DEPTH)
+                                        .activation(Activation.RELU).build())
+                        .build();
+        int numParams = conf.getLayer().initializer().numParams(conf);
+        layer = conf.getLayer().instantiate(conf, null, 0, Nd4j.create(1, numParams), true);
+        layer.setBackpropGradientsViewArray(Nd4j.create(1, numParams));
+
+        Nd4j.getRandom().setSeed(BenchmarkUtils.SEED);
+        input = Nd4j.rand(new int[] {miniBatchSize, IN_DEPTH, SIZE, SIZE});
+        int outSize = SIZE - kernelSize + 1;
+        epsilon = Nd4j.rand(new int[] {miniBatchSize, OUT_DEPTH, outSize, outSize});
+    }
+
+    @Benchmark
+    public INDArray activate() {
+        return layer.activate(input, false);
+    }
+
+    @Benchmark
+    public Pair<Gradient, INDArray> backprop() {
+        //Backprop requires the forward pass state (input and pre-output) of the layer
+        layer.activate(input, true);
+        return layer.backpropGradient(epsilon);
+    }
+}
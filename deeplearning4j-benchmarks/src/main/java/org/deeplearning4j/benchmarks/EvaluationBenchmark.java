@@ -0,0 +1,88 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.eval.Evaluation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation: eval of one minibatch of 2d predictions, masked time series eval, and merging of two evaluations.
+ * Time series have about miniBatchSize time steps in total, so both eval benchmarks cover similar numbers of examples.
+ * Time per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({"10", "1000"})
+    public int numClasses;
+
+    @Param({"32", "4096"})
+    public int miniBatchSize;
+
+    private static final int TS_LENGTH = 20;
+
+    private INDArray labels;
+    private INDArray predictions;
+    private INDArray labelsTs;
+    private INDArray predictionsTs;
+    private INDArray labelsMask;
+    private Evaluation other;
+
+    @Setup
+    public void setup() {
+        Nd4j.getRandom().setSeed(BenchmarkUtils.SEED);
+        labels = BenchmarkUtils.oneHot(miniBatchSize, numClasses);
+        predictions = Nd4j.rand(miniBatchSize, numClasses);
+
+        int tsMiniBatchSize = Math.max(1, miniBatchSize / TS_LENGTH);
+        labelsTs = Nd4j.zeros(new int[] {tsMiniBatchSize, numClasses, TS_LENGTH});
+        for (int i = 0; i < tsMiniBatchSize; i++) {
+            for (int j = 0; j < TS_LENGTH; j++) {
+                labelsTs.putScalar(new int[] {i, (i + j) % numClasses, j}, 1.0);
+            }
+        }
+        predictionsTs = Nd4j.rand(new int[] {tsMiniBatchSize, numClasses, TS_LENGTH});
+        labelsMask = Nd4j.rand(tsMiniBatchSize, TS_LENGTH).gt(0.3);
+
+        other = new Evaluation(numClasses);
+        other.eval(labels, predictions);
+    }
+
+    @Benchmark
+    public Evaluation eval() {
+        Evaluation evaluation = new Evaluation(numClasses);
+        evaluation.eval(labels, predictions);
+        return evaluation;
+    }
+
+    @Benchmark
+    public Evaluation evalTimeSeries() {
+        Evaluation evaluation = new Evaluation(numClasses);
+        evaluation.evalTimeSeries(labelsTs, predictionsTs, labelsMask);
+        return evaluation;
+    }
+
+    @Benchmark
+    public Evaluation merge() {
+        Evaluation evaluation = new Evaluation(numClasses);
+        evaluation.merge(other);
+        return evaluation;
+    }
+}
@@ -0,0 +1,108 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.nn.conf.BackpropType;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single GravesLSTM layer (plus RnnOutputLayer): full BPTT fit, truncated BPTT fit, output and rnnTimeStep (one time
+ * step per call), for the standard and fused implementations. Time per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LSTMBenchmark {
+
+    private static final int N_IN = 64;
+    private static final int TIME_SERIES_LENGTH = 100;
+    private static final int TBPTT_LENGTH = 25;
+
+    @Param({"1", "32"})
+    public int miniBatchSize;
+
+    @Param({"128", "256"})
+    public int layerSize;
+
+    @Param({"false", "true"})
+    public boolean fused;
+
+    private MultiLayerNetwork net;
+    private MultiLayerNetwork netTbptt;
+    private DataSet data;
+    private INDArray timeStep;
+
+    @Setup
+    public void setup() {
+        net = getNetwork(BackpropType.Standard);
+        netTbptt = getNetwork(BackpropType.TruncatedBPTT);
+
+        Nd4j.getRandom().setSeed(BenchmarkUtils.SEED);
+        INDArray features = Nd4j.rand(new int[] {miniBatchSize, N_IN, TIME_SERIES_LENGTH});
+        INDArray labels = Nd4j.rand(new int[] {miniBatchSize, BenchmarkUtils.NUM_CLASSES, TIME_SERIES_LENGTH});
+        data = new DataSet(features, labels);
+        timeStep = Nd4j.rand(miniBatchSize, N_IN);
+    }
+
+    private MultiLayerNetwork getNetwork(BackpropType backpropType) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(BenchmarkUtils.SEED)
+                        .learningRate(0.01).updater(Updater.RMSPROP).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new GravesLSTM.Builder().nIn(N_IN).nOut(layerSize).activation(Activation.TANH)
+                                        .fusedExecution(fused).build())
+                        .layer(1, new RnnOutputLayer.Builder(LossFunctions.LossFunction.MSE)
+                                        .activation(Activation.IDENTITY).nIn(layerSize)
+                                        .nOut(BenchmarkUtils.NUM_CLASSES).build())
+                        .backpropType(backpropType).tBPTTForwardLength(TBPTT_LENGTH)
+                        .tBPTTBackwardLength(TBPTT_LENGTH).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    @Benchmark
+    public MultiLayerNetwork fit() {
+        net.fit(data);
+        return net;
+    }
+
+    @Benchmark
+    public MultiLayerNetwork fitTbptt() {
+        netTbptt.fit(data);
+        return netTbptt;
+    }
+
+    @Benchmark
+    public INDArray output() {
+        return net.output(data.getFeatures(), false);
+    }
+
+    @Benchmark
+    public INDArray rnnTimeStep() {
+        return net.rnnTimeStep(timeStep);
+    }
+}
@@ -0,0 +1,87 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.benchmarks.BenchmarkUtils.ModelType;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ModelSerializer: write and restore (with updater state) for MLP, CNN and LSTM networks, to and from memory and
+ * files, for both the default (deflated) format and uncompressed parameters. Time per model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ModelSerializerBenchmark {
+
+    @Param({"MLP", "CNN", "LSTM"})
+    public ModelType modelType;
+
+    @Param({"false", "true"})
+    public boolean uncompressedParams;
+
+    private MultiLayerNetwork net;
+    private byte[] serialized;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        net = BenchmarkUtils.getNetwork(modelType, Updater.ADAM);
+        //Fit once, so that the updater state is initialized
+        net.fit(BenchmarkUtils.getData(modelType, 8));
+        serialized = write().toByteArray();
+
+        file = File.createTempFile("ModelSerializerBenchmark", ".zip");
+        file.deleteOnExit();
+        writeFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream write() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(serialized == null ? 1 << 20 : serialized.length);
+        ModelSerializer.writeModel(net, baos, true, uncompressedParams);
+        return baos;
+    }
+
+    @Benchmark
+    public MultiLayerNetwork restore() throws IOException {
+        return ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(serialized), true);
+    }
+
+    @Benchmark
+    public File writeFile() throws IOException {
+        ModelSerializer.writeModel(net, file, true, uncompressedParams);
+        return file;
+    }
+
+    @Benchmark
+    public MultiLayerNetwork restoreFile() throws IOException {
+        return ModelSerializer.restoreMultiLayerNetwork(file, true);
+    }
+}
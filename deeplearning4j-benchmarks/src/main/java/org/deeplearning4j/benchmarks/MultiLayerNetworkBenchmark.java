@@ -0,0 +1,59 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.benchmarks.BenchmarkUtils.ModelType;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MultiLayerNetwork fit(DataSet) and output(INDArray, boolean)
+ * for MLP, CNN and LSTM networks, at several minibatch sizes. Time per minibatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MultiLayerNetworkBenchmark {
+
+    @Param({"MLP", "CNN", "LSTM"})
+    public ModelType modelType;
+
+    @Param({"1", "32", "128"})
+    public int miniBatchSize;
+
+    private MultiLayerNetwork net;
+    private DataSet data;
+
+    @Setup
+    public void setup() {
+        net = BenchmarkUtils.getNetwork(modelType, Updater.NESTEROVS);
+        data = BenchmarkUtils.getData(modelType, miniBatchSize);
+    }
+
+    @Benchmark
+    public MultiLayerNetwork fit() {
+        net.fit(data);
+        return net;
+    }
+
+    @Benchmark
+    public INDArray output() {
+        return net.output(data.getFeatures(), false);
+    }
+}
@@ -0,0 +1,120 @@
+package org.deeplearning4j.benchmarks;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.deeplearning4j.datasets.datavec.RecordReaderDataSetIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ETL throughput of RecordReaderDataSetIterator: one full pass over 20,000 records with 100 feature columns and a class
+ * index, read from memory (CollectionRecordReader: DataSet assembly only) or from a CSV file (CSVRecordReader: parsing
+ * and DataSet assembly). Results are in records per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RecordReaderDataSetIteratorBenchmark {
+
+    private static final int NUM_RECORDS = 20000;
+    private static final int NUM_COLUMNS = 100;
+    private static final int BATCH_SIZE = 64;
+
+    public enum Source {
+        MEMORY, CSV
+    }
+
+    @Param({"MEMORY", "CSV"})
+    public Source source;
+
+    @Param({"false", "true"})
+    public boolean bulkConversion;
+
+    private Collection<Collection<Writable>> records;
+    private File csvFile;
+
+    @Setup
+    public void setup() throws IOException {
+        Random r = new Random(BenchmarkUtils.SEED);
+        if (source == Source.MEMORY) {
+            records = new ArrayList<>(NUM_RECORDS);
+            for (int i = 0; i < NUM_RECORDS; i++) {
+                List<Writable> record = new ArrayList<>(NUM_COLUMNS + 1);
+                for (int j = 0; j < NUM_COLUMNS; j++)
+                    record.add(new DoubleWritable(r.nextDouble()));
+                record.add(new IntWritable(r.nextInt(BenchmarkUtils.NUM_CLASSES)));
+                records.add(record);
+            }
+        } else {
+            csvFile = File.createTempFile("dl4j_benchmark", ".csv");
+            csvFile.deleteOnExit();
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(csvFile))) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < NUM_RECORDS; i++) {
+                    sb.setLength(0);
+                    for (int j = 0; j < NUM_COLUMNS; j++)
+                        sb.append(r.nextDouble()).append(',');
+                    sb.append(r.nextInt(BenchmarkUtils.NUM_CLASSES));
+                    writer.write(sb.toString());
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (csvFile != null) {
+            csvFile.delete();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public void iterate(Blackhole bh) throws Exception {
+        RecordReader rr;
+        if (source == Source.MEMORY) {
+            rr = new CollectionRecordReader(records);
+        } else {
+            rr = new CSVRecordReader();
+            rr.initialize(new FileSplit(csvFile));
+        }
+
+        RecordReaderDataSetIterator iter =
+                        new RecordReaderDataSetIterator(rr, BATCH_SIZE, NUM_COLUMNS, BenchmarkUtils.NUM_CLASSES);
+        iter.setBulkConversion(bulkConversion);
+        while (iter.hasNext()) {
+            bh.consume(iter.next());
+        }
+    }
+}
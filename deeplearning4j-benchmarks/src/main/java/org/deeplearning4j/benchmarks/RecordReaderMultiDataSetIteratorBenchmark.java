@@ -0,0 +1,104 @@
+package org.deeplearning4j.benchmarks;
+
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionSequenceRecordReader;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.deeplearning4j.datasets.datavec.RecordReaderMultiDataSetIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ETL throughput of RecordReaderMultiDataSetIterator, in-memory records only (MultiDataSet assembly). 2d: 20,000
+ * records with 100 feature columns and a one-hot label. 3d: 2,000 variable length sequences (25 to 49 steps) of the
+ * same records, aligned at the end, so masks are created as well. Results are in records (or sequences) per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RecordReaderMultiDataSetIteratorBenchmark {
+
+    private static final int NUM_RECORDS = 20000;
+    private static final int NUM_SEQUENCES = 2000;
+    private static final int SEQUENCE_LENGTH = 50;
+    private static final int NUM_COLUMNS = 100;
+    private static final int BATCH_SIZE = 64;
+
+    @Param({"false", "true"})
+    public boolean bulkConversion;
+
+    private Collection<Collection<Writable>> records;
+    private Collection<Collection<Collection<Writable>>> sequences;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(BenchmarkUtils.SEED);
+        records = new ArrayList<>(NUM_RECORDS);
+        for (int i = 0; i < NUM_RECORDS; i++)
+            records.add(record(r));
+
+        sequences = new ArrayList<>(NUM_SEQUENCES);
+        for (int i = 0; i < NUM_SEQUENCES; i++) {
+            int length = SEQUENCE_LENGTH / 2 + r.nextInt(SEQUENCE_LENGTH / 2);
+            Collection<Collection<Writable>> sequence = new ArrayList<>(length);
+            for (int t = 0; t < length; t++)
+                sequence.add(record(r));
+            sequences.add(sequence);
+        }
+    }
+
+    private static Collection<Writable> record(Random r) {
+        List<Writable> record = new ArrayList<>(NUM_COLUMNS + 1);
+        for (int j = 0; j < NUM_COLUMNS; j++)
+            record.add(new DoubleWritable(r.nextDouble()));
+        record.add(new IntWritable(r.nextInt(BenchmarkUtils.NUM_CLASSES)));
+        return record;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_RECORDS)
+    public void iterate2d(Blackhole bh) {
+        RecordReaderMultiDataSetIterator iter = new RecordReaderMultiDataSetIterator.Builder(BATCH_SIZE)
+                        .addReader("r", new CollectionRecordReader(records)).addInput("r", 0, NUM_COLUMNS - 1)
+                        .addOutputOneHot("r", NUM_COLUMNS, BenchmarkUtils.NUM_CLASSES).build();
+        iter.setBulkConversion(bulkConversion);
+        while (iter.hasNext()) {
+            bh.consume(iter.next());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_SEQUENCES)
+    public void iterateSequences(Blackhole bh) {
+        RecordReaderMultiDataSetIterator iter = new RecordReaderMultiDataSetIterator.Builder(BATCH_SIZE)
+                        .addSequenceReader("s", new CollectionSequenceRecordReader(sequences))
+                        .sequenceAlignmentMode(RecordReaderMultiDataSetIterator.AlignmentMode.ALIGN_END)
+                        .addInput("s", 0, NUM_COLUMNS - 1)
+                        .addOutputOneHot("s", NUM_COLUMNS, BenchmarkUtils.NUM_CLASSES).build();
+        iter.setBulkConversion(bulkConversion);
+        while (iter.hasNext()) {
+            bh.consume(iter.next());
+        }
+    }
+}
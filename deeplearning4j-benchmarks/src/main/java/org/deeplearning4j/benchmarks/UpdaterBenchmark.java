@@ -0,0 +1,65 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.benchmarks.BenchmarkUtils.ModelType;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updater application (learning rate, momentum, etc.) for the MLP network, about 670k parameters. The updater
+ * modifies the gradient in place, so the original gradient is restored before each update: the time includes one
+ * copy of the gradient array. Time per update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UpdaterBenchmark {
+
+    private static final int MINIBATCH_SIZE = 32;
+
+    @Param({"SGD", "NESTEROVS", "ADAGRAD", "RMSPROP", "ADAM"})
+    public Updater updater;
+
+    private MultiLayerNetwork net;
+    private Gradient gradient;
+    private INDArray gradientView;
+    private INDArray originalGradient;
+    private int iteration;
+
+    @Setup
+    public void setup() {
+        net = BenchmarkUtils.getNetwork(ModelType.MLP, updater);
+        DataSet data = BenchmarkUtils.getData(ModelType.MLP, MINIBATCH_SIZE);
+        net.setInput(data.getFeatures());
+        net.setLabels(data.getLabels());
+        net.computeGradientAndScore();
+        gradient = net.gradient();
+        gradientView = gradient.gradient();
+        originalGradient = gradientView.dup();
+    }
+
+    @Benchmark
+    public Gradient update() {
+        gradientView.assign(originalGradient);
+        net.getUpdater().update(net, gradient, iteration++, MINIBATCH_SIZE);
+        return gradient;
+    }
+}
@@ -0,0 +1,89 @@
+package org.deeplearning4j.benchmarks;
+
+import org.deeplearning4j.models.embeddings.learning.impl.elements.CBOW;
+import org.deeplearning4j.models.embeddings.learning.impl.elements.SkipGram;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.Word2Vec;
+import org.deeplearning4j.text.sentenceiterator.CollectionSentenceIterator;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word2Vec training throughput (one epoch per invocation) with SkipGram and CBOW, on a synthetic corpus: 10,000
+ * distinct words with a Zipf-like frequency distribution, 5,000 sentences of 20 words. The vocabulary is built once,
+ * in setup. Results are in words per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class Word2VecBenchmark {
+
+    private static final int VOCAB_SIZE = 10000;
+    private static final int NUM_SENTENCES = 5000;
+    private static final int SENTENCE_LENGTH = 20;
+    private static final int TOTAL_WORDS = NUM_SENTENCES * SENTENCE_LENGTH;
+
+    public enum Algorithm {
+        SKIPGRAM, CBOW
+    }
+
+    @Param({"SKIPGRAM", "CBOW"})
+    public Algorithm algorithm;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    private Word2Vec vec;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(BenchmarkUtils.SEED);
+        List<String> sentences = new ArrayList<>(NUM_SENTENCES);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < NUM_SENTENCES; i++) {
+            sb.setLength(0);
+            for (int j = 0; j < SENTENCE_LENGTH; j++) {
+                //Approximately Zipf: word index ~ VOCAB_SIZE^u for uniform u
+                int word = (int) Math.pow(VOCAB_SIZE, r.nextDouble()) - 1;
+                if (j > 0)
+                    sb.append(' ');
+                sb.append('w').append(word);
+            }
+            sentences.add(sb.toString());
+        }
+
+        vec = new Word2Vec.Builder().minWordFrequency(1).layerSize(100).windowSize(5).epochs(1).iterations(1)
+                        .seed(BenchmarkUtils.SEED).workers(workers)
+                        .elementsLearningAlgorithm(algorithm == Algorithm.SKIPGRAM ? new SkipGram<VocabWord>()
+                                        : new CBOW<VocabWord>())
+                        .iterate(new CollectionSentenceIterator(sentences))
+                        .tokenizerFactory(new DefaultTokenizerFactory()).resetModel(false).build();
+        vec.buildVocab();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL_WORDS)
+    public Word2Vec fit() {
+        vec.fit();
+        return vec;
+    }
+}
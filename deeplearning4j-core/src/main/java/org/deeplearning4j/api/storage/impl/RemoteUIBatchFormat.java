@@ -0,0 +1,106 @@
+package org.deeplearning4j.api.storage.impl;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.deeplearning4j.api.storage.StorageType;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary format used by {@link RemoteUIStatsStorageRouter} to post many encoded
+ * {@link org.deeplearning4j.api.storage.Persistable} instances to the remote UI in a single request.<br>
+ * Layout: 4 bytes of magic, version byte, flags byte, then (optionally gzip compressed) number of entries, followed by
+ * type, class name, and length-prefixed encoded bytes of each entry.
+ */
+public class RemoteUIBatchFormat {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final int MAGIC = 0x444C3455; // "DL4U"
+    private static final byte VERSION = 1;
+    private static final byte FLAG_GZIP = 1;
+
+    private RemoteUIBatchFormat() {}
+
+    /**
+     * Single entry of the batch: type of storage information, class name and bytes of the encoded instance
+     */
+    @AllArgsConstructor
+    @Data
+    public static class Entry {
+        private final StorageType type;
+        private final String className;
+        private final byte[] bytes;
+    }
+
+    /**
+     * @param entries  Entries to write
+     * @param compress Whether entries should be gzip compressed
+     * @return Batch as byte array, ready to be posted
+     */
+    public static byte[] write(List<Entry> entries, boolean compress) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(baos);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(compress ? FLAG_GZIP : 0);
+        header.flush();
+
+        OutputStream os = compress ? new GZIPOutputStream(baos) : baos;
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os));
+        dos.writeInt(entries.size());
+        for (Entry e : entries) {
+            dos.writeByte(e.getType().ordinal());
+            dos.writeUTF(e.getClassName());
+            dos.writeInt(e.getBytes().length);
+            dos.write(e.getBytes());
+        }
+        dos.close();
+
+        return baos.toByteArray();
+    }
+
+    /**
+     * @param bytes Batch, as written by {@link #write(List, boolean)}
+     * @return Entries of the batch, in original order
+     * @throws IOException If bytes are not a valid batch
+     */
+    public static List<Entry> read(byte[] bytes) throws IOException {
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < 6 || header.readInt() != MAGIC)
+            throw new IOException("Invalid remote UI batch: unknown format");
+
+        byte version = header.readByte();
+        if (version != VERSION)
+            throw new IOException("Invalid remote UI batch: unsupported version " + version);
+
+        boolean compressed = (header.readByte() & FLAG_GZIP) != 0;
+        InputStream is = compressed ? new GZIPInputStream(header) : header;
+
+        StorageType[] types = StorageType.values();
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(is))) {
+            int count = dis.readInt();
+            if (count < 0)
+                throw new IOException("Invalid remote UI batch: negative number of entries");
+
+            List<Entry> entries = new ArrayList<>(Math.min(count, 1024));
+            for (int i = 0; i < count; i++) {
+                int type = dis.readUnsignedByte();
+                if (type >= types.length)
+                    throw new IOException("Invalid remote UI batch: unknown storage type " + type);
+                String className = dis.readUTF();
+                int length = dis.readInt();
+                if (length < 0)
+                    throw new IOException("Invalid remote UI batch: negative entry length");
+                byte[] data = new byte[length];
+                dis.readFully(data);
+                entries.add(new Entry(types[type], className, data));
+            }
+            return entries;
+        }
+    }
+}
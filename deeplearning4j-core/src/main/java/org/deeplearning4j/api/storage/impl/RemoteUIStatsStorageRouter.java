@@ -13,7 +13,9 @@ import javax.xml.bind.DatatypeConverter;
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -26,6 +28,11 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Asynchronously post all updates to a remote UI that has remote listening enabled.<br>
  * Typically used with UIServer (don't forget to enable remote listener support - UIServer.getInstance().enableRemoteListener()
+ * <br>
+ * Everything queued since the last post is sent as a single binary request (see {@link RemoteUIBatchFormat}), over a
+ * persistent connection. If the remote UI doesn't support batches, each item is posted separately as JSON instead.<br>
+ * The queue is bounded: when it is full, updates are dropped according to the {@link QueueFullPolicy}. Storage metadata
+ * and static info are never dropped.
  *
  * @author Alex Black
  */
@@ -48,17 +55,54 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
      * Default backoff multiplicative factor for retrying
      */
     public static final double DEFAULT_RETRY_BACKOFF_FACTOR = 2.0;
+    /**
+     * Default maximum number of items waiting to be posted, before updates are dropped
+     */
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 10000;
+    /**
+     * Default maximum number of items posted in a single request
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    /**
+     * Maximum (uncompressed) size of encoded items in a single request. Should be below the maximum request size of
+     * the remote UI
+     */
+    public static final int MAX_BATCH_BYTES = 4 * 1024 * 1024;
+    /**
+     * Path of the batch endpoint, relative to the main path - i.e., http://localhost:9000/remoteReceive/batch
+     */
+    public static final String BATCH_PATH = "batch";
+
+    /**
+     * What to do with updates when the queue is full:<br>
+     * DROP_OLDEST: drop the oldest queued update, keeping the most recent ones<br>
+     * SAMPLE: drop every second queued update, so queued updates still cover the whole period, at lower resolution
+     */
+    public enum QueueFullPolicy {
+        DROP_OLDEST, SAMPLE
+    }
 
     private static final long MAX_SHUTDOWN_WARN_COUNT = 5;
 
     private final String USER_AGENT = "Mozilla/5.0";
 
     private URL url;
+    private URL batchUrl;
     private int maxRetryCount;
     private long retryDelayMS;
     private double retryBackoffFactor;
+    private int maxQueueSize;
+    private QueueFullPolicy queueFullPolicy;
+    private int maxBatchSize;
+    private boolean compress;
 
     private LinkedBlockingDeque<ToPost> queue = new LinkedBlockingDeque<>();
+    private final Object queueLock = new Object();
+    private AtomicLong droppedCount = new AtomicLong(0);
+
+    private AtomicLong requestCount = new AtomicLong(0);
+    private AtomicLong postedBytes = new AtomicLong(0);
+    private volatile boolean batchSupported = true;
 
     private Thread postThread;
 
@@ -98,9 +142,40 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
      */
     public RemoteUIStatsStorageRouter(String address, String path, int maxRetryCount, long retryDelayMS,
                     double retryBackoffFactor) {
+        this(address, path, maxRetryCount, retryDelayMS, retryBackoffFactor, DEFAULT_MAX_QUEUE_SIZE,
+                        QueueFullPolicy.DROP_OLDEST, DEFAULT_MAX_BATCH_SIZE, true);
+    }
+
+    /**
+     * @param address            Address of the remote UI: for example, "http://localhost:9000"
+     * @param path               Path/endpoint to post to: for example "remoteReceive" -> added to path to become like
+     *                           "http://localhost:9000/remoteReceive"
+     * @param maxRetryCount      Maximum number of retries before failing. Set to -1 to always retry
+     * @param retryDelayMS       Base delay before retrying, in milliseconds
+     * @param retryBackoffFactor Backoff factor for retrying: 2.0 for example gives delays of 1000, 2000, 4000, 8000,
+     *                           etc milliseconds, with a base retry delay of 1000
+     * @param maxQueueSize       Maximum number of items waiting to be posted. When exceeded, updates are dropped
+     * @param queueFullPolicy    Which updates to drop when the queue is full
+     * @param maxBatchSize       Maximum number of items to post in a single request
+     * @param compress           Whether batches should be gzip compressed
+     */
+    public RemoteUIStatsStorageRouter(String address, String path, int maxRetryCount, long retryDelayMS,
+                    double retryBackoffFactor, int maxQueueSize, QueueFullPolicy queueFullPolicy, int maxBatchSize,
+                    boolean compress) {
+        if (maxQueueSize <= 0)
+            throw new IllegalArgumentException("Maximum queue size must be positive, got " + maxQueueSize);
+        if (maxBatchSize <= 0)
+            throw new IllegalArgumentException("Maximum batch size must be positive, got " + maxBatchSize);
+        if (queueFullPolicy == null)
+            throw new IllegalArgumentException("Queue full policy must not be null");
+
         this.maxRetryCount = maxRetryCount;
         this.retryDelayMS = retryDelayMS;
         this.retryBackoffFactor = retryBackoffFactor;
+        this.maxQueueSize = maxQueueSize;
+        this.queueFullPolicy = queueFullPolicy;
+        this.maxBatchSize = maxBatchSize;
+        this.compress = compress;
 
         String url = address;
         if (path != null) {
@@ -113,6 +188,7 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
 
         try {
             this.url = new URL(url);
+            this.batchUrl = new URL(url.endsWith("/") ? url + BATCH_PATH : url + "/" + BATCH_PATH);
         } catch (MalformedURLException e) {
             throw new RuntimeException(e);
         }
@@ -139,7 +215,7 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
             }
         } else {
             for (StorageMetaData m : storageMetaData) {
-                queue.add(new ToPost(m, null, null));
+                enqueue(new ToPost(m, null, null));
             }
         }
     }
@@ -161,7 +237,7 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
             }
         } else {
             for (Persistable p : staticInfo) {
-                queue.add(new ToPost(null, p, null));
+                enqueue(new ToPost(null, p, null));
             }
         }
     }
@@ -183,11 +259,75 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
             }
         } else {
             for (Persistable p : updates) {
-                queue.add(new ToPost(null, null, p));
+                enqueue(new ToPost(null, null, p));
             }
         }
     }
 
+    /**
+     * @return Number of updates dropped so far, due to the queue being full
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return Number of successful requests to the remote UI so far
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return Number of bytes (request bodies) successfully posted to the remote UI so far
+     */
+    public long getPostedBytes() {
+        return postedBytes.get();
+    }
+
+    private void enqueue(ToPost toPost) {
+        if (toPost.getUpdate() == null) {
+            //Metadata and static info are small and required by the UI: never dropped
+            queue.add(toPost);
+            return;
+        }
+
+        synchronized (queueLock) {
+            if (queue.size() >= maxQueueSize) {
+                long dropped = makeRoom();
+                if (dropped > 0 && droppedCount.getAndAdd(dropped) == 0) {
+                    log.warn("RemoteUIStatsStorageRouter: queue is full (max size {}), dropping updates using"
+                                    + " policy {}. Remote UI at {} is unavailable or can't keep up", maxQueueSize,
+                                    queueFullPolicy, url);
+                }
+            }
+            queue.add(toPost);
+        }
+    }
+
+    private long makeRoom() {
+        long dropped = 0;
+        boolean keep = true;
+        Iterator<ToPost> iter = queue.iterator();
+        while (iter.hasNext()) {
+            ToPost t = iter.next();
+            if (t.getUpdate() == null) {
+                continue;
+            }
+            if (queueFullPolicy == QueueFullPolicy.DROP_OLDEST) {
+                iter.remove();
+                dropped++;
+                break;
+            }
+            if (!keep) {
+                iter.remove();
+                dropped++;
+            }
+            keep = !keep;
+        }
+        return dropped;
+    }
+
     @AllArgsConstructor
     @Data
     private static class ToPost {
@@ -225,34 +365,82 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
                     continue;
                 }
                 list.add(t);
-                queue.drainTo(list); //Non-blocking
-
-                int successCount = 0;
-                for (ToPost toPost : list) {
-                    boolean success;
-                    try {
-                        success = tryPost(toPost);
-                    } catch (IOException e) {
-                        failureCount++;
-                        log.warn("Error posting to remote UI at {}, consecutive failure count = {}. Waiting {} ms before retrying",
-                                        url, failureCount, nextDelayMs, e);
-                        success = false;
-                    }
-                    if (!success) {
-                        for (int i = list.size() - 1; i > successCount; i--) {
-                            queue.addFirst(list.get(i)); //Add remaining back to be processed in original order
-                        }
-                        waitForRetry();
-                        break;
-                    } else {
-                        successCount++;
-                        failureCount = 0;
-                        nextDelayMs = retryDelayMS;
-                    }
+                queue.drainTo(list, maxBatchSize - 1); //Non-blocking
+
+                if (batchSupported) {
+                    postBatch(list);
+                } else {
+                    postIndividually(list);
+                }
+            }
+        }
+
+        private void postBatch(List<ToPost> list) {
+            List<RemoteUIBatchFormat.Entry> entries = new ArrayList<>(list.size());
+            long totalBytes = 0;
+            for (ToPost toPost : list) {
+                RemoteUIBatchFormat.Entry e = toEntry(toPost);
+                entries.add(e);
+                totalBytes += e.getBytes().length;
+                if (totalBytes >= MAX_BATCH_BYTES) {
+                    break;
+                }
+            }
+            requeue(list, entries.size()); //Anything beyond maximum batch bytes: posted with next batch
+            List<ToPost> posted = list.subList(0, entries.size());
+
+            boolean success;
+            try {
+                success = tryPostBatch(entries);
+            } catch (IOException e) {
+                log.warn("Error posting to remote UI at {}, consecutive failure count = {}. Waiting {} ms before retrying",
+                                batchUrl, failureCount + 1, nextDelayMs, e);
+                success = false;
+            }
+
+            if (!batchSupported) {
+                //Remote UI doesn't support batches: post everything (again) using individual requests
+                requeue(posted, 0);
+            } else if (!success) {
+                failureCount++;
+                requeue(posted, 0);
+                waitForRetry();
+            } else {
+                failureCount = 0;
+                nextDelayMs = retryDelayMS;
+            }
+        }
+
+        private void postIndividually(List<ToPost> list) {
+            int successCount = 0;
+            for (ToPost toPost : list) {
+                boolean success;
+                try {
+                    success = tryPost(toPost);
+                } catch (IOException e) {
+                    log.warn("Error posting to remote UI at {}, consecutive failure count = {}. Waiting {} ms before retrying",
+                                    url, failureCount + 1, nextDelayMs, e);
+                    success = false;
+                }
+                if (!success) {
+                    failureCount++;
+                    requeue(list, successCount); //Add remaining back to be processed in original order
+                    waitForRetry();
+                    break;
+                } else {
+                    successCount++;
+                    failureCount = 0;
+                    nextDelayMs = retryDelayMS;
                 }
             }
         }
 
+        private void requeue(List<ToPost> list, int fromIdx) {
+            for (int i = list.size() - 1; i >= fromIdx; i--) {
+                queue.addFirst(list.get(i));
+            }
+        }
+
         private void waitForRetry() {
             if (maxRetryCount >= 0 && failureCount > maxRetryCount) {
                 throw new RuntimeException("RemoteUIStatsStorageRouter: hit maximum consecutive failures("
@@ -268,44 +456,67 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
     }
 
 
-    private HttpURLConnection getConnection() throws IOException {
+    private HttpURLConnection getConnection(URL url, String contentType) throws IOException {
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setRequestMethod("POST");
         connection.setRequestProperty("User-Agent", USER_AGENT);
-        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setRequestProperty("Content-Type", contentType);
         connection.setDoOutput(true);
         return connection;
     }
 
-    private boolean tryPost(ToPost toPost) throws IOException {
-
-        HttpURLConnection connection = getConnection();
-
-        String className;
-        byte[] asBytes;
+    private static RemoteUIBatchFormat.Entry toEntry(ToPost toPost) {
+        Persistable p;
         StorageType type;
         if (toPost.getMeta() != null) {
-            StorageMetaData smd = toPost.getMeta();
-            className = smd.getClass().getName();
-            asBytes = smd.encode();
+            p = toPost.getMeta();
             type = StorageType.MetaData;
         } else if (toPost.getStaticInfo() != null) {
-            Persistable p = toPost.getStaticInfo();
-            className = p.getClass().getName();
-            asBytes = p.encode();
+            p = toPost.getStaticInfo();
             type = StorageType.StaticInfo;
         } else {
-            Persistable p = toPost.getUpdate();
-            className = p.getClass().getName();
-            asBytes = p.encode();
+            p = toPost.getUpdate();
             type = StorageType.Update;
         }
+        return new RemoteUIBatchFormat.Entry(type, p.getClass().getName(), p.encode());
+    }
+
+    private boolean tryPostBatch(List<RemoteUIBatchFormat.Entry> entries) throws IOException {
+        byte[] content = RemoteUIBatchFormat.write(entries, compress);
+
+        HttpURLConnection connection = getConnection(batchUrl, RemoteUIBatchFormat.CONTENT_TYPE);
+        connection.setFixedLengthStreamingMode(content.length);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(content);
+        }
 
-        String base64 = DatatypeConverter.printBase64Binary(asBytes);
+        int responseCode = connection.getResponseCode();
+        String response = readResponse(connection);
+        if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+            log.warn("Remote UI at {} does not support batched posting (response code 404). Posting each item"
+                            + " separately to {}", batchUrl, url);
+            batchSupported = false;
+            return false;
+        } else if (responseCode != HttpURLConnection.HTTP_OK) {
+            logErrorResponse(responseCode, response);
+            return false;
+        }
+
+        requestCount.incrementAndGet();
+        postedBytes.addAndGet(content.length);
+        return true;
+    }
+
+    private boolean tryPost(ToPost toPost) throws IOException {
+
+        HttpURLConnection connection = getConnection(url, "application/json");
+
+        RemoteUIBatchFormat.Entry entry = toEntry(toPost);
+        String base64 = DatatypeConverter.printBase64Binary(entry.getBytes());
 
         Map<String, String> jsonObj = new LinkedHashMap<>();
-        jsonObj.put("type", type.name());
-        jsonObj.put("class", className);
+        jsonObj.put("type", entry.getType().name());
+        jsonObj.put("class", entry.getClassName());
         jsonObj.put("data", base64);
 
         String str;
@@ -320,37 +531,51 @@ public class RemoteUIStatsStorageRouter implements StatsStorageRouter {
         dos.flush();
         dos.close();
 
-        try {
-            int responseCode = connection.getResponseCode();
-
-            if (responseCode != 200) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
+        int responseCode = connection.getResponseCode();
+        String response = readResponse(connection);
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            logErrorResponse(responseCode, response);
+            return false;
+        }
 
-                log.warn("Error posting to remote UI - received response code {}\tContent: {}", response,
-                                response.toString());
+        requestCount.incrementAndGet();
+        postedBytes.addAndGet(str.length());
+        return true;
+    }
 
-                return false;
-            }
+    /**
+     * Read the response (or error response) fully and close it, so the underlying connection can be reused
+     * by subsequent requests (HTTP keep-alive)
+     */
+    private static String readResponse(HttpURLConnection connection) throws IOException {
+        InputStream is;
+        try {
+            is = connection.getInputStream();
         } catch (IOException e) {
-            String msg = e.getMessage();
-            if (msg.contains("403 for URL")) {
-                log.warn("Error posting to remote UI at {} (Response code: 403)."
-                                + " Remote listener support is not enabled? use UIServer.getInstance().enableRemoteListener()",
-                                url, e);
-            } else {
-                log.warn("Error posting to remote UI at {}", url, e);
-            }
+            is = connection.getErrorStream();
+        }
+        if (is == null) {
+            return "";
+        }
 
-            return false;
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(is, "UTF-8"))) {
+            String inputLine;
+            while ((inputLine = in.readLine()) != null) {
+                response.append(inputLine);
+            }
         }
+        return response.toString();
+    }
 
-        return true;
+    private void logErrorResponse(int responseCode, String response) {
+        if (responseCode == HttpURLConnection.HTTP_FORBIDDEN) {
+            log.warn("Error posting to remote UI at {} (Response code: 403)."
+                            + " Remote listener support is not enabled? use UIServer.getInstance().enableRemoteListener()",
+                            url);
+        } else {
+            log.warn("Error posting to remote UI at {} - received response code {}\tContent: {}", url, responseCode,
+                            response);
+        }
     }
 }
@@ -131,6 +131,14 @@ public class DataPoint implements Serializable {
         this.index = index;
     }
 
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    public boolean isInvert() {
+        return invert;
+    }
+
     public INDArray getPoint() {
         return point;
     }
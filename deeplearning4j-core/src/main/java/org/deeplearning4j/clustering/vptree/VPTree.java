@@ -22,30 +22,51 @@ import org.deeplearning4j.berkeley.CounterMap;
 import org.deeplearning4j.berkeley.PriorityQueue;
 import org.deeplearning4j.clustering.sptree.DataPoint;
 import org.deeplearning4j.clustering.sptree.HeapItem;
-import org.deeplearning4j.util.MathUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Vantage point tree implementation
  *
+ * Points are copied into a single flat float[] slab, ordered the same way as tree nodes, so both build and search
+ * work on primitive arrays only. Tree is built in O(n log n) distance computations: each level partitions only its
+ * own [lower, upper) range around the median distance using quickselect, and no pairwise distances are cached.
+ *
+ * Search is re-entrant: all search state is kept per call, so single tree can be queried from multiple threads,
+ * and {@link #search(INDArray, int)} fans batch of queries out over fork-join pool.
+ *
  * @author Adam Gibson
  */
 public class VPTree {
 
     public static final String EUCLIDEAN = "euclidean";
+    // number of queries handled by single fork-join task
+    protected static final int SEARCH_CHUNK = 32;
+    private static ForkJoinPool searchPool;
+
     private List<DataPoint> items;
-    private double tau;
+    private INDArray itemsArray;
     private Node root;
-    private CounterMap<DataPoint, DataPoint> distances;
     private String similarityFunction;
     private boolean invert = true;
 
+    // points in tree order, row-major: dims floats per point
+    private float[] data;
+    // L2 norms of points in tree order, used for cosine similarity only
+    private float[] norms;
+    // tree position -> position of the item in original items
+    private int[] order;
+    private int dims;
+    private int size;
+    // kept for backward compatibility only, never used for search
+    private CounterMap<DataPoint, DataPoint> distances;
+
     /**
      *
      * @param items the items to use
@@ -53,53 +74,62 @@ public class VPTree {
      * @param invert whether to invert the distance (similarity functions have different min/max objectives)
      */
     public VPTree(INDArray items, String similarityFunction, boolean invert) {
-        List<DataPoint> thisItems = new ArrayList<>();
         this.similarityFunction = similarityFunction;
         this.invert = invert;
-        for (int i = 0; i < items.slices(); i++)
-            thisItems.add(new DataPoint(i, items.slice(i), this.similarityFunction, invert));
-        this.items = thisItems;
-        final int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
-        distances = CounterMap.runPairWise(thisItems, new CounterMap.CountFunction<DataPoint>() {
-            @Override
-            public double count(DataPoint v1, DataPoint v2) {
-                Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), deviceId);
-                return v1.distance(v2);
-            }
-        });
-
+        this.itemsArray = items;
+        this.size = items.slices();
+        this.dims = size == 0 ? 0 : items.length() / size;
+        this.data = toFloats(items);
 
-        root = buildFromPoints(0, this.items.size());
+        build();
     }
 
     /**
      *
      * @param items the items to use
-     * @param distances the distances
+     * @param distances ignored, distances aren't cached anymore
      * @param similarityFunction the similarity function to use
      * @param invert whether to invert the metric (different optimization objective)
+     * @deprecated pairwise distances cache isn't used anymore, please use {@link #VPTree(List, String, boolean)}
      */
+    @Deprecated
     public VPTree(List<DataPoint> items, CounterMap<DataPoint, DataPoint> distances, String similarityFunction,
                     boolean invert) {
-        this.items = items;
+        this(items, similarityFunction, invert);
         this.distances = distances;
-        this.invert = invert;
-        this.similarityFunction = similarityFunction;
-        root = buildFromPoints(0, items.size());
-
     }
 
+    /**
+     * PLEASE NOTE: distances are computed using similarity function and invert flag of the DataPoints provided,
+     * same as {@link DataPoint#distance(DataPoint)} does.
+     *
+     * @param items the items to use
+     * @param similarityFunction the similarity function to use
+     * @param invert whether to invert the metric (different optimization objective)
+     */
     public VPTree(List<DataPoint> items, String similarityFunction, boolean invert) {
         this.items = items;
-        this.invert = invert;
-        this.similarityFunction = similarityFunction;
-        distances = CounterMap.runPairWise(items, new CounterMap.CountFunction<DataPoint>() {
-            @Override
-            public double count(DataPoint v1, DataPoint v2) {
-                return v1.distance(v2);
-            }
-        });
-        root = buildFromPoints(0, items.size());
+        this.size = items.size();
+        if (size > 0) {
+            this.similarityFunction = items.get(0).getFunctionName();
+            this.invert = items.get(0).isInvert();
+            this.dims = items.get(0).getD();
+        } else {
+            this.similarityFunction = similarityFunction;
+            this.invert = invert;
+        }
+
+        this.data = new float[size * dims];
+        for (int i = 0; i < size; i++) {
+            float[] point = toFloats(items.get(i).getPoint());
+            if (point.length != dims)
+                throw new IllegalArgumentException("All points should have the same length: expected [" + dims
+                                + "], got [" + point.length + "] at position " + i);
+
+            System.arraycopy(point, 0, data, i * dims, dims);
+        }
+
+        build();
     }
 
 
@@ -107,9 +137,12 @@ public class VPTree {
         this(items, similarityFunction, true);
     }
 
+    /**
+     * @deprecated pairwise distances cache isn't used anymore, please use {@link #VPTree(List, String)}
+     */
+    @Deprecated
     public VPTree(List<DataPoint> items, CounterMap<DataPoint, DataPoint> distances, String similarityFunction) {
         this(items, distances, similarityFunction, true);
-
     }
 
     public VPTree(List<DataPoint> items, String similarityFunction) {
@@ -121,9 +154,12 @@ public class VPTree {
         this(items, EUCLIDEAN);
     }
 
+    /**
+     * @deprecated pairwise distances cache isn't used anymore, please use {@link #VPTree(List)}
+     */
+    @Deprecated
     public VPTree(List<DataPoint> items, CounterMap<DataPoint, DataPoint> distances) {
         this(items, distances, EUCLIDEAN);
-
     }
 
     public VPTree(List<DataPoint> items) {
@@ -138,139 +174,477 @@ public class VPTree {
     }
 
 
-    public List<DataPoint> getItems() {
+    /**
+     * Returns items this tree was built from. For trees built from INDArray, DataPoints are created on first call.
+     */
+    public synchronized List<DataPoint> getItems() {
+        if (items == null) {
+            List<DataPoint> thisItems = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                thisItems.add(new DataPoint(i, itemsArray.slice(i), similarityFunction, invert));
+            items = thisItems;
+        }
         return items;
     }
 
-    public void setItems(List<DataPoint> items) {
+    public synchronized void setItems(List<DataPoint> items) {
         this.items = items;
     }
 
-    private double getDistance(DataPoint d1, DataPoint d2) {
-        double count = distances.getCount(d1, d2);
-        if (count == 0) {
-            double realDistance = d1.distance(d2);
-            distances.setCount(d1, d2, realDistance);
-            distances.setCount(d2, d1, realDistance);
-            return realDistance;
+    public Node getRoot() {
+        return root;
+    }
+
+    protected DataPoint getItem(int position) {
+        if (items == null)
+            return new DataPoint(position, itemsArray.slice(position), similarityFunction, invert);
+
+        return items.get(position);
+    }
+
+    protected static float[] toFloats(INDArray array) {
+        return array.dup('c').data().asFloat();
+    }
+
+    protected void build() {
+        order = new int[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+
+        // distances from current vantage point, indexed by tree position
+        double[] scratch = new double[size];
+        Random rng = new Random(12345);
+        boolean cosine = "cosinesimilarity".equals(similarityFunction);
+
+        float[] originalNorms = cosine ? computeNorms(data, size, dims) : null;
+        root = buildFromPoints(0, size, scratch, rng, originalNorms);
+
+        // now we reorder points, so nodes visited together are stored close in memory
+        float[] sorted = new float[data.length];
+        for (int i = 0; i < size; i++)
+            System.arraycopy(data, order[i] * dims, sorted, i * dims, dims);
+
+        data = sorted;
+        norms = cosine ? computeNorms(data, size, dims) : null;
+    }
+
+    protected static float[] computeNorms(float[] data, int size, int dims) {
+        float[] result = new float[size];
+        for (int i = 0; i < size; i++) {
+            double sum = 0.0;
+            int offset = i * dims;
+            for (int e = 0; e < dims; e++)
+                sum += data[offset + e] * data[offset + e];
+
+            result[i] = (float) Math.sqrt(sum);
         }
-        return count;
+        return result;
     }
 
-    private Node buildFromPoints(int lower, int upper) {
+    private Node buildFromPoints(int lower, int upper, double[] scratch, Random rng, float[] originalNorms) {
         if (upper == lower)
             return null;
+
         Node ret = new Node(lower, 0);
         if (upper - lower > 1) {
-            int randomPoint = MathUtils.randomNumberBetween(lower, upper - 1);
+            // pick random vantage point, and move it to the lower position
+            swap(order, lower, lower + rng.nextInt(upper - lower));
+
+            int base = order[lower];
+            float baseNorm = originalNorms == null ? 0.0f : originalNorms[base];
+            for (int i = lower + 1; i < upper; i++) {
+                int other = order[i];
+                scratch[i] = distance(data, base * dims, baseNorm, data, other * dims,
+                                originalNorms == null ? 0.0f : originalNorms[other]);
+            }
 
-            // Partition around the median distance
+            // partition the rest of the range around the median distance
             int median = (upper + lower) / 2;
-            double distances[] = new double[items.size()];
-            double sortedDistances[] = new double[items.size()];
-            DataPoint basePoint = items.get(randomPoint);
-            for (int i = 0; i < items.size(); ++i) {
-                distances[i] = getDistance(basePoint, items.get(i));
-                sortedDistances[i] = distances[i];
-            }
+            select(scratch, order, lower + 1, upper - 1, median, rng);
 
-            Arrays.sort(sortedDistances);
-            final double medianDistance = sortedDistances[sortedDistances.length / 2];
-            List<DataPoint> leftPoints = new ArrayList<>(sortedDistances.length);
-            List<DataPoint> rightPoints = new ArrayList<>(sortedDistances.length);
+            ret.setThreshold(scratch[median]);
+            ret.setLeft(buildFromPoints(lower + 1, median, scratch, rng, originalNorms));
+            ret.setRight(buildFromPoints(median, upper, scratch, rng, originalNorms));
+        }
 
-            for (int i = 0; i < distances.length; i++) {
-                if (distances[i] < medianDistance) {
-                    leftPoints.add(items.get(i));
-                } else {
-                    rightPoints.add(items.get(i));
-                }
-            }
+        return ret;
+    }
 
-            for (int i = 0; i < leftPoints.size(); ++i) {
-                items.set(i, leftPoints.get(i));
+    /**
+     * Quickselect: after this call element at position k is the one that would be there if [left, right] range was
+     * sorted by distance, with smaller distances on its left and greater or equal on its right.
+     *
+     * Three-way partition is used, so ranges of equal distances (i.e. duplicate points) are handled in linear time
+     */
+    private static void select(double[] dist, int[] order, int left, int right, int k, Random rng) {
+        while (right > left) {
+            double pivot = dist[left + rng.nextInt(right - left + 1)];
+
+            // [left, lt) < pivot, [lt, i) == pivot, (gt, right] > pivot
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (dist[i] < pivot)
+                    swap(dist, order, lt++, i++);
+                else if (dist[i] > pivot)
+                    swap(dist, order, i, gt--);
+                else
+                    i++;
             }
 
-            for (int i = 0; i < rightPoints.size(); ++i) {
-                items.set(i + leftPoints.size(), rightPoints.get(i));
-            }
+            if (k < lt)
+                right = lt - 1;
+            else if (k > gt)
+                left = gt + 1;
+            else
+                return;
+        }
+    }
+
+    private static void swap(double[] dist, int[] order, int a, int b) {
+        double t = dist[a];
+        dist[a] = dist[b];
+        dist[b] = t;
+        swap(order, a, b);
+    }
 
-            ret.setThreshold(getDistance(items.get(lower), items.get(median)));
-            ret.setIndex(lower);
-            ret.setLeft(buildFromPoints(lower + 1, median));
-            ret.setRight(buildFromPoints(median, upper));
+    private static void swap(int[] order, int a, int b) {
+        int t = order[a];
+        order[a] = order[b];
+        order[b] = t;
+    }
 
+    private double distance(float[] x, int xOffset, float xNorm, float[] y, int yOffset, float yNorm) {
+        double ret;
+        switch (similarityFunction) {
+            case "cosinesimilarity": {
+                double dot = 0.0;
+                for (int e = 0; e < dims; e++)
+                    dot += x[xOffset + e] * y[yOffset + e];
+
+                double denom = (double) xNorm * yNorm;
+                ret = denom == 0.0 ? 0.0 : dot / denom;
+                break;
+            }
+            case "manhattan": {
+                double sum = 0.0;
+                for (int e = 0; e < dims; e++)
+                    sum += Math.abs(x[xOffset + e] - y[yOffset + e]);
 
+                ret = sum;
+                break;
+            }
+            case "dot": {
+                double dot = 0.0;
+                for (int e = 0; e < dims; e++)
+                    dot += x[xOffset + e] * y[yOffset + e];
 
-        }
+                ret = dot;
+                break;
+            }
+            case "euclidean":
+            default: {
+                double sum = 0.0;
+                for (int e = 0; e < dims; e++) {
+                    double diff = x[xOffset + e] - y[yOffset + e];
+                    sum += diff * diff;
+                }
 
-        return ret;
+                ret = Math.sqrt(sum);
+                break;
+            }
+        }
 
+        return invert ? -ret : ret;
     }
 
 
     public void search(DataPoint target, int k, List<DataPoint> results, List<Double> distances) {
-        PriorityQueue<HeapItem> pq = new PriorityQueue<>();
-        tau = Double.MAX_VALUE;
-        search(root, target, k, pq);
+        float[] query = toFloats(target.getPoint());
+        SearchState state = new SearchState(k);
+        search(query, 0, state);
 
         results.clear();
         distances.clear();
 
-        while (!pq.isEmpty()) {
-            results.add(items.get(pq.peek().getIndex()));
-            distances.add(pq.peek().getDistance());
-            pq.next();
+        for (int i = 0; i < state.size; i++) {
+            results.add(getItem(order[state.heapIndex[i]]));
+            distances.add(state.heapDistance[i]);
         }
-
-        Collections.reverse(results);
-        Collections.reverse(distances);
     }
 
-
+    /**
+     * @deprecated search state isn't shared between calls anymore, please use
+     *             {@link #search(DataPoint, int, List, List)}. HeapItem indices are positions within items.
+     */
+    @Deprecated
     public void search(Node node, DataPoint target, int k, PriorityQueue<HeapItem> pq) {
-        if (node == null)
-            return;
-        DataPoint get = items.get(node.getIndex());
-        double distance = getDistance(get, target);
-        if (distance < tau) {
-            if (pq.size() == k)
+        float[] query = toFloats(target.getPoint());
+        float queryNorm = 0.0f;
+        if (norms != null)
+            queryNorm = computeNorms(query, 1, dims)[0];
+
+        SearchState state = new SearchState(k);
+        search(node, query, 0, queryNorm, state);
+
+        // pq is max-heap by distance, bounded by k, same as before
+        for (int i = 0; i < state.size; i++) {
+            double distance = state.heapDistance[i];
+            if (pq.size() == k) {
+                if (k == 0 || pq.getPriority() <= distance)
+                    continue;
                 pq.next();
-            pq.add(new HeapItem(node.index, distance), distance);
-            if (pq.size() == k)
-                tau = pq.peek().getDistance();
+            }
+            pq.add(new HeapItem(order[state.heapIndex[i]], distance), distance);
+        }
+    }
+
+    /**
+     * This method does k-nearest search for each row of queries matrix, using fork-join pool
+     *
+     * @param queries matrix of query points, one point per row
+     * @param k number of neighbours to return
+     * @return list of neighbours for each query, nearest first
+     */
+    public List<List<DataPoint>> search(INDArray queries, int k) {
+        int numQueries = queries.rows();
+        int[][] indices = new int[numQueries][];
+        double[][] distances = new double[numQueries][];
+        search(queries, k, indices, distances);
+
+        List<List<DataPoint>> results = new ArrayList<>(numQueries);
+        for (int q = 0; q < numQueries; q++) {
+            List<DataPoint> neighbours = new ArrayList<>(indices[q].length);
+            for (int idx : indices[q])
+                neighbours.add(getItem(idx));
+
+            results.add(neighbours);
+        }
+
+        return results;
+    }
+
+    /**
+     * This method does k-nearest search for each row of queries matrix, using fork-join pool
+     *
+     * @param queries matrix of query points, one point per row
+     * @param k number of neighbours to return
+     * @param indices output: positions of neighbours within original items for each query, nearest first
+     * @param distances output: distances to neighbours for each query, nearest first
+     */
+    public void search(INDArray queries, final int k, final int[][] indices, final double[][] distances) {
+        final int numQueries = queries.rows();
+        if (queries.columns() != dims)
+            throw new IllegalArgumentException("Queries should have [" + dims + "] columns, got ["
+                            + queries.columns() + "] instead");
+
+        if (indices.length < numQueries || distances.length < numQueries)
+            throw new IllegalArgumentException("Output arrays should have at least [" + numQueries + "] rows");
+
+        final float[] flat = toFloats(queries);
+        getSearchPool().invoke(new SearchTask(flat, k, 0, numQueries, indices, distances));
+    }
+
+    private static synchronized ForkJoinPool getSearchPool() {
+        if (searchPool == null)
+            searchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
+        return searchPool;
+    }
+
+    private void search(float[] query, int queryOffset, SearchState state) {
+        float queryNorm = 0.0f;
+        if (norms != null) {
+            double sum = 0.0;
+            for (int e = 0; e < dims; e++)
+                sum += query[queryOffset + e] * query[queryOffset + e];
 
+            queryNorm = (float) Math.sqrt(sum);
         }
 
+        search(root, query, queryOffset, queryNorm, state);
+        state.sort();
+    }
+
+    private void search(Node node, float[] query, int queryOffset, float queryNorm, SearchState state) {
+        if (node == null)
+            return;
+
+        int position = node.getIndex();
+        double distance = distance(data, position * dims, norms == null ? 0.0f : norms[position], query,
+                        queryOffset, queryNorm);
+        if (distance < state.tau)
+            state.offer(position, distance);
+
         if (node.getLeft() == null && node.getRight() == null)
             return;
 
         if (distance < node.getThreshold()) {
-            if (distance - tau <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child first
-                search(node.getLeft(), target, k, pq);
+            if (distance - state.tau <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child first
+                search(node.getLeft(), query, queryOffset, queryNorm, state);
             }
 
-            if (distance + tau >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child
-                search(node.getRight(), target, k, pq);
+            if (distance + state.tau >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child
+                search(node.getRight(), query, queryOffset, queryNorm, state);
             }
 
         } else {
-            if (distance + tau >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child first
-                search(node.getRight(), target, k, pq);
+            if (distance + state.tau >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child first
+                search(node.getRight(), query, queryOffset, queryNorm, state);
             }
 
-            if (distance - tau <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child
-                search(node.getLeft(), target, k, pq);
+            if (distance - state.tau <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child
+                search(node.getLeft(), query, queryOffset, queryNorm, state);
             }
         }
 
     }
 
+
+    /**
+     * Per-query search state: bounded max-heap of k best candidates, and current search radius
+     */
+    private static class SearchState {
+        private final int k;
+        private final int[] heapIndex;
+        private final double[] heapDistance;
+        private int size;
+        private double tau = Double.MAX_VALUE;
+
+        private SearchState(int k) {
+            this.k = k;
+            this.heapIndex = new int[k];
+            this.heapDistance = new double[k];
+        }
+
+        private void offer(int index, double distance) {
+            if (k == 0)
+                return;
+
+            if (size < k) {
+                int pos = size++;
+                heapIndex[pos] = index;
+                heapDistance[pos] = distance;
+                siftUp(pos);
+            } else {
+                heapIndex[0] = index;
+                heapDistance[0] = distance;
+                siftDown(0, size);
+            }
+
+            if (size == k)
+                tau = heapDistance[0];
+        }
+
+        private void siftUp(int pos) {
+            while (pos > 0) {
+                int parent = (pos - 1) / 2;
+                if (heapDistance[parent] >= heapDistance[pos])
+                    break;
+
+                swapHeap(pos, parent);
+                pos = parent;
+            }
+        }
+
+        private void siftDown(int pos, int limit) {
+            while (true) {
+                int left = 2 * pos + 1;
+                if (left >= limit)
+                    break;
+
+                int largest = left;
+                int right = left + 1;
+                if (right < limit && heapDistance[right] > heapDistance[left])
+                    largest = right;
+
+                if (heapDistance[pos] >= heapDistance[largest])
+                    break;
+
+                swapHeap(pos, largest);
+                pos = largest;
+            }
+        }
+
+        private void swapHeap(int a, int b) {
+            int i = heapIndex[a];
+            heapIndex[a] = heapIndex[b];
+            heapIndex[b] = i;
+
+            double d = heapDistance[a];
+            heapDistance[a] = heapDistance[b];
+            heapDistance[b] = d;
+        }
+
+        /**
+         * Heapsort in place, so candidates end up in ascending distance order
+         */
+        private void sort() {
+            for (int end = size - 1; end > 0; end--) {
+                swapHeap(0, end);
+                siftDown(0, end);
+            }
+        }
+    }
+
+
+    private class SearchTask extends RecursiveAction {
+        private final float[] queries;
+        private final int k;
+        private final int from;
+        private final int to;
+        private final int[][] indices;
+        private final double[][] distances;
+
+        private SearchTask(float[] queries, int k, int from, int to, int[][] indices, double[][] distances) {
+            this.queries = queries;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+            this.indices = indices;
+            this.distances = distances;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEARCH_CHUNK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SearchTask(queries, k, from, middle, indices, distances),
+                                new SearchTask(queries, k, middle, to, indices, distances));
+                return;
+            }
+
+            for (int q = from; q < to; q++) {
+                SearchState state = new SearchState(k);
+                search(queries, q * dims, state);
+
+                int[] idx = new int[state.size];
+                double[] dist = new double[state.size];
+                for (int i = 0; i < state.size; i++) {
+                    idx[i] = order[state.heapIndex[i]];
+                    dist[i] = state.heapDistance[i];
+                }
+
+                indices[q] = idx;
+                distances[q] = dist;
+            }
+        }
+    }
+
+    /**
+     * @deprecated pairwise distances cache isn't used anymore, this method returns the map passed to constructor
+     *             or {@link #setDistances(CounterMap)}, if any
+     */
+    @Deprecated
     public CounterMap<DataPoint, DataPoint> getDistances() {
         return distances;
     }
 
+    /**
+     * @deprecated pairwise distances cache isn't used anymore, provided map is stored but ignored
+     */
+    @Deprecated
     public void setDistances(CounterMap<DataPoint, DataPoint> distances) {
         this.distances = distances;
     }
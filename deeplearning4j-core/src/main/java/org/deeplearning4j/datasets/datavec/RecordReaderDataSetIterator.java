@@ -69,6 +69,15 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
     @Setter
     private boolean collectMetaData = false;
 
+    /**
+     * If true (default), batches of plain scalar records are written into primitive staging buffers, and features/labels
+     * are created with one bulk copy each, instead of building one DataSet per record and merging them afterwards.
+     * Batches with NDArrayWritables, empty values or ragged records always use per-record path.
+     */
+    @Getter
+    @Setter
+    private boolean bulkConversion = true;
+
     public RecordReaderDataSetIterator(RecordReader recordReader, WritableConverter converter, int batchSize) {
         this(recordReader, converter, batchSize, -1,
                         recordReader.getLabels() == null ? -1 : recordReader.getLabels().size());
@@ -163,7 +172,7 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
             return last;
         }
 
-        List<DataSet> dataSets = new ArrayList<>();
+        List<List<Writable>> records = new ArrayList<>(num);
         List<RecordMetaData> meta = (collectMetaData ? new ArrayList<RecordMetaData>() : null);
         for (int i = 0; i < num; i++) {
             if (!hasNext())
@@ -174,25 +183,23 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
                     sequenceIter = sequenceRecord.iterator();
                 }
 
-                List<Writable> record = sequenceIter.next();
-                dataSets.add(getDataSet(record));
+                records.add(sequenceIter.next());
             } else {
                 if (collectMetaData) {
                     Record record = recordReader.nextRecord();
-                    dataSets.add(getDataSet(record.getRecord()));
+                    records.add(record.getRecord());
                     meta.add(record.getMetaData());
                 } else {
-                    List<Writable> record = recordReader.next();
-                    dataSets.add(getDataSet(record));
+                    records.add(recordReader.next());
                 }
             }
         }
         batchNum++;
 
-        if (dataSets.isEmpty())
+        if (records.isEmpty())
             return new DataSet();
 
-        DataSet ret = DataSet.merge(dataSets);
+        DataSet ret = getDataSet(records);
         if (collectMetaData) {
             ret.setExampleMetaData(meta);
         }
@@ -206,6 +213,93 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
     }
 
 
+    private DataSet getDataSet(List<List<Writable>> records) {
+        if (bulkConversion) {
+            DataSet bulk = getDataSetBulk(records);
+            if (bulk != null)
+                return bulk;
+        }
+
+        List<DataSet> dataSets = new ArrayList<>(records.size());
+        for (List<Writable> record : records)
+            dataSets.add(getDataSet(record));
+
+        return DataSet.merge(dataSets);
+    }
+
+    /**
+     * Fast path: converts whole batch at once, writing features and labels into primitive buffers.
+     * Produces the same result as getDataSet(record) for each record followed by DataSet.merge().
+     * Returns null if any record requires per-record handling.
+     */
+    private DataSet getDataSetBulk(List<List<Writable>> records) {
+        int columns = records.get(0).size();
+
+        //allow people to specify label index as -1 and infer the last possible label
+        if (numPossibleLabels >= 1 && labelIndex < 0) {
+            labelIndex = columns - 1;
+        }
+
+        if (labelIndex >= columns || (!regression && labelIndex >= 0 && numPossibleLabels < 1))
+            return null;
+
+        int labelFrom = -1;
+        int labelTo = -1;
+        if (labelIndex >= 0) {
+            labelFrom = labelIndex;
+            labelTo = regression ? labelIndexTo : labelIndex;
+            if (labelTo < labelFrom || labelTo >= columns)
+                return null;
+        }
+
+        int nLabelColumns = labelFrom < 0 ? 0 : labelTo - labelFrom + 1;
+        int nFeatures = columns - nLabelColumns;
+        if (nFeatures < 1)
+            return null;
+
+        int rows = records.size();
+        BulkArrayBuilder features = new BulkArrayBuilder(new int[] {rows, nFeatures}, 'c');
+        BulkArrayBuilder labels = null;
+        if (labelFrom >= 0)
+            labels = new BulkArrayBuilder(new int[] {rows, regression ? nLabelColumns : numPossibleLabels}, 'c');
+
+        for (int i = 0; i < rows; i++) {
+            List<Writable> record = records.get(i);
+            if (record.size() != columns)
+                return null;
+
+            int featureCount = 0;
+            int j = 0;
+            for (Writable current : record) {
+                if (!BulkArrayBuilder.isScalar(current))
+                    return null;
+
+                if (j >= labelFrom && j <= labelTo) {
+                    if (regression) {
+                        labels.put(i, j - labelFrom, current.toDouble());
+                    } else {
+                        if (converter != null)
+                            try {
+                                current = converter.convert(current);
+                            } catch (WritableConverterException e) {
+                                e.printStackTrace();
+                            }
+                        int curr = current.toInt();
+                        if (curr < 0 || curr >= numPossibleLabels)
+                            return null; //Per-record path reports the invalid label
+                        labels.put(i, curr, 1.0);
+                    }
+                } else {
+                    features.put(i, featureCount++, current.toDouble());
+                }
+                j++;
+            }
+        }
+
+        INDArray featureMatrix = features.build();
+        return new DataSet(featureMatrix, labels != null ? labels.build() : featureMatrix.dup());
+    }
+
     private DataSet getDataSet(List<Writable> record) {
         List<Writable> currList;
         if (record instanceof List)
@@ -421,18 +515,18 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
      */
     public DataSet loadFromMetaData(List<RecordMetaData> list) throws IOException {
         List<Record> records = recordReader.loadFromMetaData(list);
-        List<DataSet> dataSets = new ArrayList<>();
+        List<List<Writable>> writables = new ArrayList<>(records.size());
         List<RecordMetaData> meta = new ArrayList<>();
         for (Record r : records) {
-            dataSets.add(getDataSet(r.getRecord()));
+            writables.add(r.getRecord());
             meta.add(r.getMetaData());
         }
 
-        if (dataSets.isEmpty()) {
+        if (writables.isEmpty()) {
             return new DataSet();
         }
 
-        DataSet ret = DataSet.merge(dataSets);
+        DataSet ret = getDataSet(writables);
         ret.setExampleMetaData(meta);
         last = ret;
         if (preProcessor != null)
@@ -77,6 +77,14 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
     @Setter
     private boolean collectMetaData = false;
 
+    /**
+     * If true (default), scalar writables are written into primitive staging buffer, and each array is created with one
+     * bulk copy. Batches containing NDArrayWritables (or values that can't be converted directly) always use per-element path.
+     */
+    @Getter
+    @Setter
+    private boolean bulkConversion = true;
+
     private MultiDataSetPreProcessor preProcessor;
 
     private RecordReaderMultiDataSetIterator(Builder builder) {
@@ -256,6 +264,12 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
     }
 
     private INDArray convertWritables(List<List<Writable>> list, int minValues, SubsetDetails details) {
+        if (bulkConversion) {
+            INDArray bulk = convertWritablesBulk(list, minValues, details);
+            if (bulk != null)
+                return bulk;
+        }
+
         INDArray arr;
         if (details.entireReader) {
             if (list.get(0).size() == 1 && list.get(0).get(0) instanceof NDArrayWritable) {
@@ -339,6 +353,66 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
         return arr;
     }
 
+    /**
+     * Fast path for convertWritables: fills primitive buffer in 'c' order and creates array with single copy.
+     * Returns null if any value requires per-element handling (NDArrayWritable, ragged records, invalid class index),
+     * in which case caller falls back to the general path - including its error reporting.
+     */
+    private INDArray convertWritablesBulk(List<List<Writable>> list, int minValues, SubsetDetails details) {
+        int columns;
+        if (details.entireReader)
+            columns = list.get(0).size();
+        else if (details.oneHot)
+            columns = details.oneHotNumClasses;
+        else
+            columns = details.subsetEndInclusive - details.subsetStart + 1;
+
+        BulkArrayBuilder builder = new BulkArrayBuilder(new int[] {minValues, columns}, 'c');
+        for (int i = 0; i < minValues; i++) {
+            List<Writable> c = list.get(i);
+            if (details.oneHot) {
+                Writable w = c.get(details.subsetStart);
+                if (w instanceof NDArrayWritable)
+                    return null;
+                int classIdx = w.toInt();
+                if (classIdx < 0 || classIdx >= columns)
+                    return null;
+                builder.put(i, classIdx, 1.0);
+            } else if (!putRecord(builder, c, i, -1, details, columns)) {
+                return null;
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Writes columns of a single record (or time step) into staging buffer. Returns false if per-element path is required
+     */
+    private static boolean putRecord(BulkArrayBuilder builder, List<Writable> record, int example, int timeStep,
+                    SubsetDetails details, int columns) {
+        int first = details.entireReader ? 0 : details.subsetStart;
+        if (details.entireReader ? record.size() != columns : record.size() <= details.subsetEndInclusive)
+            return false;
+
+        int j = 0;
+        for (Writable w : record) {
+            int col = j++ - first;
+            if (col < 0)
+                continue;
+            if (col >= columns)
+                break;
+            if (!BulkArrayBuilder.isScalar(w))
+                return false;
+
+            if (timeStep < 0)
+                builder.put(example, col, w.toDouble());
+            else
+                builder.put(example, col, timeStep, w.toDouble());
+        }
+        return true;
+    }
+
     private void putExample(INDArray arr, INDArray singleExample, int exampleIdx) {
         switch (arr.rank()) {
             case 2:
@@ -364,6 +438,97 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
                     int maxTSLength, SubsetDetails details, int[] longestSequence) {
         if (maxTSLength == -1)
             maxTSLength = list.get(0).size();
+
+        boolean needMaskArray = false;
+        for (List<List<Writable>> c : list) {
+            if (c.size() < maxTSLength)
+                needMaskArray = true;
+        }
+
+        INDArray arr = null;
+        if (bulkConversion)
+            arr = convertWritablesSequenceBulk(list, minValues, maxTSLength, details, longestSequence);
+        if (arr == null)
+            arr = convertWritablesSequenceSlow(list, minValues, maxTSLength, details, longestSequence);
+
+        INDArray maskArray = null;
+        if (needMaskArray) {
+            BulkArrayBuilder mask = new BulkArrayBuilder(new int[] {minValues, maxTSLength}, 'c');
+            mask.fill(1.0);
+            for (int i = 0; i < minValues; i++) {
+                int length = list.get(i).size();
+                //Masking array entries at start (for align end)
+                if (alignmentMode == AlignmentMode.ALIGN_END) {
+                    for (int t2 = 0; t2 < longestSequence[i] - length; t2++) {
+                        mask.put(i, t2, 0.0);
+                    }
+                }
+
+                //Masking array entries at end (for align start)
+                if (alignmentMode == AlignmentMode.ALIGN_START) {
+                    for (int t2 = length; t2 < maxTSLength; t2++) {
+                        mask.put(i, t2, 0.0);
+                    }
+                }
+            }
+            maskArray = mask.build();
+        }
+
+        return new Pair<>(arr, maskArray);
+    }
+
+    private int startOffset(List<List<Writable>> sequence, int example, int[] longestSequence) {
+        if (alignmentMode == AlignmentMode.ALIGN_START || alignmentMode == AlignmentMode.EQUAL_LENGTH)
+            return 0;
+
+        //Align end: only practical differences here are (a) offset, and (b) masking
+        return longestSequence[example] - sequence.size();
+    }
+
+    /**
+     * Fast path for convertWritablesSequence: fills primitive buffer in 'f' order, as expected for time series.
+     * Returns null if any value requires per-element handling.
+     */
+    private INDArray convertWritablesSequenceBulk(List<List<List<Writable>>> list, int minValues, int maxTSLength,
+                    SubsetDetails details, int[] longestSequence) {
+        int columns;
+        if (details.entireReader)
+            columns = list.get(0).iterator().next().size();
+        else if (details.oneHot)
+            columns = details.oneHotNumClasses;
+        else
+            columns = details.subsetEndInclusive - details.subsetStart + 1;
+
+        BulkArrayBuilder builder = new BulkArrayBuilder(new int[] {minValues, columns, maxTSLength}, 'f');
+        for (int i = 0; i < minValues; i++) {
+            List<List<Writable>> sequence = list.get(i);
+            int k = startOffset(sequence, i, longestSequence);
+            if (k < 0 || k + sequence.size() > maxTSLength)
+                return null;
+
+            for (List<Writable> timeStep : sequence) {
+                if (details.oneHot) {
+                    if (timeStep.size() <= details.subsetStart)
+                        return null;
+                    Writable w = timeStep.get(details.subsetStart);
+                    if (w instanceof NDArrayWritable)
+                        return null;
+                    int classIdx = w.toInt();
+                    if (classIdx < 0 || classIdx >= columns)
+                        return null;
+                    builder.put(i, classIdx, k, 1.0);
+                } else if (!putRecord(builder, timeStep, i, k, details, columns)) {
+                    return null;
+                }
+                k++;
+            }
+        }
+
+        return builder.build();
+    }
+
+    private INDArray convertWritablesSequenceSlow(List<List<List<Writable>>> list, int minValues, int maxTSLength,
+                    SubsetDetails details, int[] longestSequence) {
         INDArray arr;
         if (details.entireReader) {
             int size = list.get(0).iterator().next().size();
@@ -374,29 +539,11 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
             arr = Nd4j.create(new int[] {minValues, details.subsetEndInclusive - details.subsetStart + 1, maxTSLength},
                             'f');
 
-        boolean needMaskArray = false;
-        for (List<List<Writable>> c : list) {
-            if (c.size() < maxTSLength)
-                needMaskArray = true;
-        }
-        INDArray maskArray;
-        if (needMaskArray)
-            maskArray = Nd4j.ones(minValues, maxTSLength);
-        else
-            maskArray = null;
-
         for (int i = 0; i < minValues; i++) {
             List<List<Writable>> sequence = list.get(i);
 
             //Offset for alignment:
-            int startOffset;
-            if (alignmentMode == AlignmentMode.ALIGN_START || alignmentMode == AlignmentMode.EQUAL_LENGTH) {
-                startOffset = 0;
-            } else {
-                //Align end
-                //Only practical differences here are: (a) offset, and (b) masking
-                startOffset = longestSequence[i] - sequence.size();
-            }
+            int startOffset = startOffset(sequence, i, longestSequence);
 
             int t = 0;
             int k;
@@ -459,27 +606,9 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
                     }
                 }
             }
-
-            //For any remaining time steps: set mask array to 0 (just padding)
-            if (needMaskArray) {
-                //Masking array entries at start (for align end)
-                if (alignmentMode == AlignmentMode.ALIGN_END) {
-                    for (int t2 = 0; t2 < startOffset; t2++) {
-                        maskArray.putScalar(i, t2, 0.0);
-                    }
-                }
-
-                //Masking array entries at end (for align start)
-                if (alignmentMode == AlignmentMode.ALIGN_START) {
-                    for (int t2 = t; t2 < maxTSLength; t2++) {
-                        maskArray.putScalar(i, t2, 0.0);
-                    }
-                }
-            }
         }
 
-
-        return new Pair<>(arr, maskArray);
+        return arr;
     }
 
     @Override
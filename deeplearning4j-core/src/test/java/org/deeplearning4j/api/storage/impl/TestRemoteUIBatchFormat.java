@@ -0,0 +1,48 @@
+package org.deeplearning4j.api.storage.impl;
+
+import org.deeplearning4j.api.storage.StorageType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestRemoteUIBatchFormat {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Random r = new Random(12345);
+        List<RemoteUIBatchFormat.Entry> entries = new ArrayList<>();
+        StorageType[] types = StorageType.values();
+        for (int i = 0; i < 50; i++) {
+            byte[] bytes = new byte[r.nextInt(1000)];
+            r.nextBytes(bytes);
+            entries.add(new RemoteUIBatchFormat.Entry(types[i % types.length], "some.Class" + i, bytes));
+        }
+
+        for (boolean compress : new boolean[] {false, true}) {
+            byte[] batch = RemoteUIBatchFormat.write(entries, compress);
+            List<RemoteUIBatchFormat.Entry> read = RemoteUIBatchFormat.read(batch);
+
+            assertEquals(entries.size(), read.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(entries.get(i).getType(), read.get(i).getType());
+                assertEquals(entries.get(i).getClassName(), read.get(i).getClassName());
+                assertArrayEquals(entries.get(i).getBytes(), read.get(i).getBytes());
+            }
+        }
+
+        List<RemoteUIBatchFormat.Entry> empty = RemoteUIBatchFormat.read(RemoteUIBatchFormat.write(
+                        new ArrayList<RemoteUIBatchFormat.Entry>(), true));
+        assertEquals(0, empty.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidBatch() throws Exception {
+        RemoteUIBatchFormat.read("{\"type\":\"Update\"}".getBytes("UTF-8"));
+    }
+}
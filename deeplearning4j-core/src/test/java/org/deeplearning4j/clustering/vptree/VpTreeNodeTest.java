@@ -18,13 +18,19 @@
 
 package org.deeplearning4j.clustering.vptree;
 
+import org.deeplearning4j.berkeley.PriorityQueue;
 import org.deeplearning4j.clustering.sptree.DataPoint;
+import org.deeplearning4j.clustering.sptree.HeapItem;
 import org.junit.Test;
 import org.nd4j.linalg.factory.Nd4j;
 
+import org.nd4j.linalg.api.ndarray.INDArray;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -48,4 +54,85 @@ public class VpTreeNodeTest {
 
     }
 
+    @Test
+    public void testSearchMatchesBruteForce() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray points = Nd4j.rand(500, 5);
+        INDArray queries = Nd4j.rand(50, 5);
+        int k = 7;
+
+        VPTree tree = new VPTree(points, VPTree.EUCLIDEAN, false);
+
+        int[][] indices = new int[queries.rows()][];
+        double[][] distances = new double[queries.rows()][];
+        tree.search(queries, k, indices, distances);
+
+        for (int q = 0; q < queries.rows(); q++) {
+            double[] exact = new double[points.rows()];
+            for (int i = 0; i < points.rows(); i++)
+                exact[i] = points.getRow(i).distance2(queries.getRow(q));
+            Arrays.sort(exact);
+
+            assertEquals(k, indices[q].length);
+            for (int i = 0; i < k; i++) {
+                assertEquals(exact[i], distances[q][i], 1e-4);
+                assertEquals(distances[q][i], points.getRow(indices[q][i]).distance2(queries.getRow(q)), 1e-4);
+            }
+
+            // single-query api should give the same answer
+            List<DataPoint> results = new ArrayList<>();
+            List<Double> dists = new ArrayList<>();
+            tree.search(new DataPoint(0, queries.getRow(q)), k, results, dists);
+            int[] single = new int[results.size()];
+            for (int i = 0; i < single.length; i++)
+                single[i] = results.get(i).getIndex();
+
+            assertArrayEquals(indices[q], single);
+        }
+    }
+
+    @Test
+    public void testBatchSearchDataPoints() {
+        INDArray points = Nd4j.create(new double[][] {{0, 0}, {10, 10}, {1, 1}, {11, 11}});
+        VPTree tree = new VPTree(points, VPTree.EUCLIDEAN, false);
+
+        List<List<DataPoint>> results = tree.search(Nd4j.create(new double[][] {{0.1, 0.1}, {10.5, 10.5}}), 2);
+        assertEquals(2, results.size());
+        assertEquals(0, results.get(0).get(0).getIndex());
+        assertEquals(2, results.get(0).get(1).getIndex());
+        assertEquals(2, results.get(1).size());
+    }
+
+    @Test
+    public void testDuplicatePoints() {
+        // equal distances everywhere: build has to stay linear per level
+        INDArray points = Nd4j.zeros(5000, 3);
+        points.putRow(1234, Nd4j.create(new double[] {1, 1, 1}));
+        VPTree tree = new VPTree(points, VPTree.EUCLIDEAN, false);
+
+        List<DataPoint> results = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        tree.search(new DataPoint(0, Nd4j.create(new double[] {1, 1, 1.5})), 3, results, distances);
+
+        assertEquals(3, results.size());
+        assertEquals(1234, results.get(0).getIndex());
+        assertEquals(0.5, distances.get(0), 1e-5);
+        assertEquals(Math.sqrt(4.25), distances.get(1), 1e-5);
+        assertEquals(Math.sqrt(4.25), distances.get(2), 1e-5);
+    }
+
+    @Test
+    public void testDeprecatedNodeSearch() {
+        INDArray points = Nd4j.create(new double[][] {{0, 0}, {10, 10}, {1, 1}, {11, 11}});
+        VPTree tree = new VPTree(points, VPTree.EUCLIDEAN, false);
+
+        PriorityQueue<HeapItem> pq = new PriorityQueue<>();
+        tree.search(tree.getRoot(), new DataPoint(0, Nd4j.create(new double[] {0.1, 0.1})), 2, pq);
+
+        // queue is max-heap: farthest of k nearest goes first
+        assertEquals(2, pq.size());
+        assertEquals(2, pq.next().getIndex());
+        assertEquals(0, pq.next().getIndex());
+    }
+
 }
@@ -963,4 +963,34 @@ public class RecordReaderDataSetiteratorTest {
         assertEquals(expFeatures, ds.getFeatures());
         assertEquals(expLabels, ds.getLabels());
     }
+
+    @Test
+    public void testBulkConversionEquality() throws Exception {
+        for (boolean regression : new boolean[] {false, true}) {
+            RecordReader rr1 = new CSVRecordReader(0, ",");
+            rr1.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+            RecordReader rr2 = new CSVRecordReader(0, ",");
+            rr2.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+
+            RecordReaderDataSetIterator bulk;
+            RecordReaderDataSetIterator perRecord;
+            if (regression) {
+                bulk = new RecordReaderDataSetIterator(rr1, 16, 2, 4, true);
+                perRecord = new RecordReaderDataSetIterator(rr2, 16, 2, 4, true);
+            } else {
+                bulk = new RecordReaderDataSetIterator(rr1, 16, 4, 3);
+                perRecord = new RecordReaderDataSetIterator(rr2, 16, 4, 3);
+            }
+            perRecord.setBulkConversion(false);
+
+            while (bulk.hasNext()) {
+                DataSet d1 = bulk.next();
+                DataSet d2 = perRecord.next();
+                assertArrayEquals(d2.getFeatures().shape(), d1.getFeatures().shape());
+                assertEquals(d2.getFeatures(), d1.getFeatures());
+                assertEquals(d2.getLabels(), d1.getLabels());
+            }
+            assertFalse(perRecord.hasNext());
+        }
+    }
 }
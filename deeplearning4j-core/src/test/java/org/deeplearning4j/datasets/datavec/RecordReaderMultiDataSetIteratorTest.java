@@ -31,6 +31,51 @@ import static org.junit.Assert.*;
 
 public class RecordReaderMultiDataSetIteratorTest {
 
+    @Test
+    public void testBulkConversionEquality() throws Exception {
+        //need to manually extract
+        for (int i = 0; i < 3; i++) {
+            new ClassPathResource(String.format("csvsequence_%d.txt", i)).getTempFileFromArchive();
+            new ClassPathResource(String.format("csvsequencelabelsShort_%d.txt", i)).getTempFileFromArchive();
+        }
+        String featuresPath = new ClassPathResource("csvsequence_0.txt").getTempFileFromArchive().getAbsolutePath()
+                        .replaceAll("0", "%d");
+        String labelsPath = new ClassPathResource("csvsequencelabelsShort_0.txt").getTempFileFromArchive()
+                        .getAbsolutePath().replaceAll("0", "%d");
+
+        for (RecordReaderMultiDataSetIterator.AlignmentMode mode : new RecordReaderMultiDataSetIterator.AlignmentMode[] {
+                        RecordReaderMultiDataSetIterator.AlignmentMode.ALIGN_START,
+                        RecordReaderMultiDataSetIterator.AlignmentMode.ALIGN_END}) {
+            RecordReaderMultiDataSetIterator[] iters = new RecordReaderMultiDataSetIterator[2];
+            for (int j = 0; j < 2; j++) {
+                RecordReader rr = new CSVRecordReader(0, ",");
+                rr.initialize(new FileSplit(new ClassPathResource("iris.txt").getTempFileFromArchive()));
+                SequenceRecordReader featureReader = new CSVSequenceRecordReader(1, ",");
+                featureReader.initialize(new NumberedFileInputSplit(featuresPath, 0, 2));
+                SequenceRecordReader labelReader = new CSVSequenceRecordReader(1, ",");
+                labelReader.initialize(new NumberedFileInputSplit(labelsPath, 0, 2));
+
+                iters[j] = new RecordReaderMultiDataSetIterator.Builder(3).addReader("iris", rr)
+                                .addSequenceReader("in", featureReader).addSequenceReader("out", labelReader)
+                                .sequenceAlignmentMode(mode).addInput("iris", 0, 3).addInput("in")
+                                .addInput("in", 1, 2).addOutputOneHot("iris", 4, 3).addOutputOneHot("out", 0, 4)
+                                .build();
+            }
+            iters[1].setBulkConversion(false);
+
+            while (iters[0].hasNext()) {
+                MultiDataSet bulk = iters[0].next();
+                MultiDataSet perElement = iters[1].next();
+
+                assertArrayEquals(perElement.getFeatures(), bulk.getFeatures());
+                assertArrayEquals(perElement.getLabels(), bulk.getLabels());
+                assertArrayEquals(perElement.getFeaturesMaskArrays(), bulk.getFeaturesMaskArrays());
+                assertArrayEquals(perElement.getLabelsMaskArrays(), bulk.getLabelsMaskArrays());
+            }
+            assertFalse(iters[1].hasNext());
+        }
+    }
+
     @Test
     public void testsBasic() throws Exception {
         //Load details from CSV files; single input/output -> compare to RecordReaderDataSetIterator
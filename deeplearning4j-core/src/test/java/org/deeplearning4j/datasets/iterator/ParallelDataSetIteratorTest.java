@@ -0,0 +1,99 @@
+package org.deeplearning4j.datasets.iterator;
+
+import org.junit.Test;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ParallelDataSetIteratorTest {
+
+    private static List<DataSet> dataSets(int size, int offset) {
+        List<DataSet> list = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            list.add(new DataSet(Nd4j.create(1, 10).assign(offset + i), Nd4j.create(1, 2)));
+        return list;
+    }
+
+    private static int id(DataSet ds) {
+        return (int) ds.getFeatureMatrix().getDouble(0);
+    }
+
+    @Test
+    public void testOrderedSingleSource() throws Exception {
+        ParallelDataSetIterator iterator =
+                        new ParallelDataSetIterator(new ExistingDataSetIterator(dataSets(100, 0)), 4, 4);
+        // preprocessor runs on worker threads, order must be preserved anyway
+        iterator.setPreProcessor(new DataSetPreProcessor() {
+            @Override
+            public void preProcess(org.nd4j.linalg.dataset.api.DataSet toPreProcess) {
+                toPreProcess.getLabels().assign(1.0);
+            }
+        });
+
+        try {
+            for (int epoch = 0; epoch < 3; epoch++) {
+                int cnt = 0;
+                while (iterator.hasNext()) {
+                    DataSet ds = iterator.next();
+                    assertEquals(cnt++, id(ds));
+                    assertEquals(2.0, ds.getLabels().sumNumber().doubleValue(), 1e-5);
+
+                    // reset in the middle of epoch must not require to drain prefetched elements
+                    if (epoch == 1 && cnt == 10)
+                        break;
+                }
+                if (epoch != 1)
+                    assertEquals(100, cnt);
+                iterator.reset();
+            }
+        } finally {
+            iterator.shutdown();
+        }
+    }
+
+    @Test
+    public void testShards() throws Exception {
+        List<DataSetIterator> shards = new ArrayList<>();
+        shards.add(new ExistingDataSetIterator(dataSets(30, 0)));
+        shards.add(new ExistingDataSetIterator(dataSets(10, 1000)));
+        shards.add(new ExistingDataSetIterator(dataSets(20, 2000)));
+
+        ParallelDataSetIterator ordered = new ParallelDataSetIterator(shards, 6, 3, true);
+        try {
+            List<Integer> ids = new ArrayList<>();
+            while (ordered.hasNext())
+                ids.add(id(ordered.next()));
+
+            assertEquals(60, ids.size());
+            // round-robin over shards, while they have data
+            assertEquals(0, (int) ids.get(0));
+            assertEquals(1000, (int) ids.get(1));
+            assertEquals(2000, (int) ids.get(2));
+            assertEquals(1, (int) ids.get(3));
+            assertEquals(29, (int) ids.get(59));
+        } finally {
+            ordered.shutdown();
+        }
+
+        for (DataSetIterator shard : shards)
+            shard.reset();
+
+        ParallelDataSetIterator unordered = new ParallelDataSetIterator(shards, 6, 2, false);
+        try {
+            Set<Integer> ids = new HashSet<>();
+            while (unordered.hasNext())
+                assertTrue(ids.add(id(unordered.next())));
+            assertEquals(60, ids.size());
+        } finally {
+            unordered.shutdown();
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.split.FileSplit;
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.datasets.datavec.RecordReaderDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
@@ -297,6 +298,158 @@ public class EvalTest {
             assertEquals(evaluation.classCount(i), evaluation2.classCount(i));
     }
 
+    @Test
+    public void testEvalTimeSeriesVs2d() {
+        //Time series evaluation (argmax on 3d arrays + mask) should match evaluation of extracted 2d time steps,
+        // including for masks with gaps, and for 'f' order arrays
+        int miniBatch = 4;
+        int nOut = 5;
+        int tsLength = 7;
+
+        Nd4j.getRandom().setSeed(12345);
+        Random r = new Random(12345);
+        INDArray labels = Nd4j.zeros(new int[] {miniBatch, nOut, tsLength}, 'f');
+        for (int i = 0; i < miniBatch; i++) {
+            for (int j = 0; j < tsLength; j++) {
+                labels.putScalar(new int[] {i, r.nextInt(nOut), j}, 1.0);
+            }
+        }
+        INDArray predicted = Nd4j.rand(new int[] {miniBatch, nOut, tsLength});
+        INDArray labelsMask = Nd4j.zeros(miniBatch, tsLength);
+        for (int i = 0; i < miniBatch; i++) {
+            for (int j = 0; j < tsLength; j++) {
+                labelsMask.putScalar(i, j, r.nextBoolean() ? 1.0 : 0.0);
+            }
+        }
+
+        Evaluation evaluation = new Evaluation();
+        evaluation.evalTimeSeries(labels, predicted, labelsMask);
+
+        Pair<INDArray, INDArray> pair = EvaluationUtils.extractNonMaskedTimeSteps(labels, predicted, labelsMask);
+        Evaluation evaluation2d = new Evaluation();
+        evaluation2d.eval(pair.getFirst(), pair.getSecond());
+
+        assertEquals(evaluation2d.getNumRowCounter(), evaluation.getNumRowCounter());
+        assertEquals(labelsMask.sumNumber().intValue(), evaluation.getNumRowCounter());
+        assertEquals(evaluation2d.getConfusionMatrix(), evaluation.getConfusionMatrix());
+        assertMapEquals(evaluation2d.falsePositives(), evaluation.falsePositives());
+        assertMapEquals(evaluation2d.falseNegatives(), evaluation.falseNegatives());
+        assertMapEquals(evaluation2d.truePositives(), evaluation.truePositives());
+        assertMapEquals(evaluation2d.trueNegatives(), evaluation.trueNegatives());
+        assertEquals(evaluation2d.stats(), evaluation.stats());
+    }
+
+    @Test
+    public void testBinaryConfusionMatrix() {
+        //Single output column: labels and predictions are thresholded at 0.5
+        Evaluation eval = new Evaluation(1);
+        INDArray labels = Nd4j.create(new double[] {1, 1, 1, 0, 0, 0, 0}, new int[] {7, 1});
+        INDArray predicted = Nd4j.create(new double[] {0.9, 0.8, 0.2, 0.6, 0.1, 0.3, 0.4}, new int[] {7, 1});
+        eval.eval(labels, predicted);
+
+        ConfusionMatrix<Integer> cm = eval.getConfusionMatrix();
+        assertEquals(2, cm.getCount(1, 1)); //Order: actual, predicted
+        assertEquals(1, cm.getCount(1, 0));
+        assertEquals(1, cm.getCount(0, 1));
+        assertEquals(3, cm.getCount(0, 0));
+
+        assertEquals(2, (int) eval.truePositives().get(1));
+        assertEquals(1, (int) eval.falsePositives().get(1));
+        assertEquals(1, (int) eval.falseNegatives().get(1));
+        assertEquals(3, (int) eval.trueNegatives().get(1));
+        assertEquals(3, (int) eval.truePositives().get(0));
+        assertEquals(1, (int) eval.falsePositives().get(0));
+        assertEquals(1, (int) eval.falseNegatives().get(0));
+        assertEquals(2, (int) eval.trueNegatives().get(0));
+        assertEquals(5.0 / 7, eval.accuracy(), 1e-6);
+    }
+
+    @Test
+    public void testEvalTimeSeriesOrdering() {
+        //Known class for each (example, time step), with minibatch != tsLength and asymmetric mask: any mix up of
+        // dimensions (or of 'c' vs. 'f' order) between argmax results and mask changes the counts
+        int miniBatch = 2;
+        int nOut = 3;
+        int tsLength = 5;
+
+        for (char order : new char[] {'c', 'f'}) {
+            INDArray labels = Nd4j.zeros(new int[] {miniBatch, nOut, tsLength}, order);
+            INDArray predicted = Nd4j.zeros(new int[] {miniBatch, nOut, tsLength}, order);
+            INDArray labelsMask = Nd4j.zeros(new int[] {miniBatch, tsLength}, order).addi(1.0);
+            labelsMask.putScalar(0, 0, 0.0);
+            labelsMask.putScalar(1, 3, 0.0);
+            labelsMask.putScalar(1, 4, 0.0);
+
+            ConfusionMatrix<Integer> expected = new ConfusionMatrix<>(Arrays.asList(0, 1, 2));
+            for (int i = 0; i < miniBatch; i++) {
+                for (int j = 0; j < tsLength; j++) {
+                    int actualClass = (i + 2 * j) % nOut;
+                    int predictedClass = (i * j + 1) % nOut;
+                    labels.putScalar(new int[] {i, actualClass, j}, 1.0);
+                    predicted.putScalar(new int[] {i, predictedClass, j}, 0.8);
+                    predicted.putScalar(new int[] {i, (predictedClass + 1) % nOut, j}, 0.15);
+                    predicted.putScalar(new int[] {i, (predictedClass + 2) % nOut, j}, 0.05);
+                    if (labelsMask.getDouble(i, j) != 0.0)
+                        expected.add(actualClass, predictedClass);
+                }
+            }
+
+            Evaluation evaluation = new Evaluation();
+            evaluation.evalTimeSeries(labels, predicted, labelsMask);
+
+            assertEquals(7, evaluation.getNumRowCounter());
+            for (int actualClass = 0; actualClass < nOut; actualClass++) {
+                for (int predictedClass = 0; predictedClass < nOut; predictedClass++) {
+                    assertEquals("order " + order + ", actual " + actualClass + ", predicted " + predictedClass,
+                                    expected.getCount(actualClass, predictedClass),
+                                    evaluation.getConfusionMatrix().getCount(actualClass, predictedClass));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConfusionMatrixUnknownClass() {
+        //Classes outside of the classes list are accepted, and counted separately
+        ConfusionMatrix<String> cm = new ConfusionMatrix<>(Arrays.asList("a", "b"));
+        cm.add("a", "b");
+        cm.add("a", "c");
+        cm.add("c", "c", 2);
+
+        assertEquals(Arrays.asList("a", "b"), cm.getClasses());
+        assertEquals(1, cm.getCount("a", "b"));
+        assertEquals(1, cm.getCount("a", "c"));
+        assertEquals(2, cm.getCount("c", "c"));
+        assertEquals(0, cm.getCount("d", "a"));
+        assertEquals(2, cm.getActualTotal("a"));
+
+        ConfusionMatrix<String> copy = new ConfusionMatrix<>(cm);
+        assertEquals(cm, copy);
+
+        ConfusionMatrix<String> other = new ConfusionMatrix<>(Arrays.asList("a", "b"));
+        other.add("b", "b");
+        other.add(cm);
+        assertEquals(1, other.getCount("b", "b"));
+        assertEquals(2, other.getCount("c", "c"));
+    }
+
+    @Test
+    public void testIncrementBeforeInitialization() {
+        Evaluation evaluation = new Evaluation();
+        evaluation.incrementTruePositives(2);
+        evaluation.incrementFalseNegatives(0);
+        assertEquals(1, (int) evaluation.truePositives().get(2));
+        assertEquals(1, (int) evaluation.falseNegatives().get(0));
+
+        //Counts are kept once number of classes is known
+        INDArray labels = Nd4j.create(new double[][] {{0, 0, 1}, {1, 0, 0}});
+        INDArray predicted = Nd4j.create(new double[][] {{0.1, 0.1, 0.8}, {0.7, 0.2, 0.1}});
+        evaluation.eval(labels, predicted);
+        assertEquals(2, (int) evaluation.truePositives().get(2));
+        assertEquals(1, (int) evaluation.truePositives().get(0));
+        assertEquals(1, (int) evaluation.falseNegatives().get(0));
+    }
+
     private static void assertMapEquals(Map<Integer, Integer> first, Map<Integer, Integer> second) {
         assertEquals(first.keySet(), second.keySet());
         for (Integer i : first.keySet()) {
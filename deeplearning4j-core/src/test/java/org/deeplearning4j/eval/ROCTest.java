@@ -529,4 +529,86 @@ public class ROCTest {
             assertArrayEquals(rocCurve[1], rocManual[1], 1e-6);
         }
     }
+
+    @Test
+    public void testRocExact() {
+        Nd4j.getRandom().setSeed(12345);
+        Random r = new Random(12345);
+        int minibatch = 50;
+
+        ROC exact = new ROC(0);
+        ROC merged = new ROC(0);
+        ROC part1 = new ROC(0);
+
+        List<double[]> positives = new ArrayList<>();
+        List<double[]> negatives = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            INDArray p = Nd4j.rand(minibatch, 1);
+            INDArray l = Nd4j.zeros(minibatch, 1);
+            for (int j = 0; j < minibatch; j++) {
+                boolean positive = r.nextBoolean();
+                l.putScalar(j, positive ? 1.0 : 0.0);
+                (positive ? positives : negatives).add(new double[] {p.getDouble(j)});
+            }
+
+            exact.eval(l, p);
+            if (i < 2) {
+                part1.eval(l, p);
+            } else {
+                merged.eval(l, p);
+            }
+        }
+        merged.merge(part1);
+
+        //Exact AUC: probability that random positive is scored higher than random negative, ties count as 0.5
+        double sum = 0.0;
+        for (double[] pos : positives) {
+            for (double[] neg : negatives) {
+                if (pos[0] > neg[0])
+                    sum += 1.0;
+                else if (pos[0] == neg[0])
+                    sum += 0.5;
+            }
+        }
+        double expAUC = sum / (positives.size() * (double) negatives.size());
+
+        assertEquals(expAUC, exact.calculateAUC(), 1e-6);
+        assertEquals(expAUC, merged.calculateAUC(), 1e-6);
+        assertEquals(positives.size(), exact.getCountActualPositive());
+        assertEquals(negatives.size(), exact.getCountActualNegative());
+
+        List<ROC.ROCValue> results = exact.getResults();
+        assertEquals(1.0, results.get(0).getTruePositiveRate(), 1e-6);
+        assertEquals(1.0, results.get(0).getFalsePositiveRate(), 1e-6);
+        assertEquals(0.0, results.get(results.size() - 1).getTruePositiveRate(), 1e-6);
+        assertEquals(0.0, results.get(results.size() - 1).getFalsePositiveRate(), 1e-6);
+    }
+
+    @Test
+    public void testRocCountsMatchThresholds() {
+        INDArray labels = Nd4j.create(new double[][] {{0, 1}, {0, 1}, {1, 0}, {1, 0}, {1, 0}});
+        INDArray prediction = Nd4j.create(new double[][] {{0.199, 0.801}, {0.499, 0.501}, {0.399, 0.601},
+                        {0.799, 0.201}, {0.899, 0.101}});
+
+        ROC roc = new ROC(10);
+        roc.eval(labels, prediction);
+
+        Map<Double, ROC.CountsForThreshold> counts = roc.getCounts();
+        assertEquals(11, counts.size());
+        for (Map.Entry<Double, ROC.CountsForThreshold> e : counts.entrySet()) {
+            double t = e.getKey();
+            long expTP = 0;
+            long expFP = 0;
+            for (int i = 0; i < labels.rows(); i++) {
+                if (t < 1.0 && prediction.getDouble(i, 1) >= t) {
+                    if (labels.getDouble(i, 1) == 1.0)
+                        expTP++;
+                    else
+                        expFP++;
+                }
+            }
+            assertEquals(expTP, e.getValue().getCountTruePositive());
+            assertEquals(expFP, e.getValue().getCountFalsePositive());
+        }
+    }
 }
@@ -466,6 +466,68 @@ public class GradientCheckTests {
         }
     }
 
+    @Test
+    public void testGradientGravesLSTMFused() {
+        //Fused execution: standard and bidirectional LSTM, sigmoid and non-sigmoid gates, edge cases T=1 and minibatch 1
+        Activation[] activFns = {Activation.TANH, Activation.SOFTSIGN};
+        Activation[] gateActivFns = {Activation.SIGMOID, Activation.TANH};
+        int[] timeSeriesLength = {5, 1, 4};
+        int[] miniBatchSize = {3, 4, 1};
+
+        int nIn = 5;
+        int layerSize = 6;
+        int nOut = 3;
+
+        for (boolean bidirectional : new boolean[] {false, true}) {
+            for (Activation afn : activFns) {
+                for (Activation gateAfn : gateActivFns) {
+                    for (int i = 0; i < timeSeriesLength.length; i++) {
+                        Random r = new Random(12345L);
+                        INDArray input = Nd4j.rand(new int[] {miniBatchSize[i], nIn, timeSeriesLength[i]}).subi(0.5);
+                        INDArray labels = Nd4j.zeros(miniBatchSize[i], nOut, timeSeriesLength[i]);
+                        for (int m = 0; m < miniBatchSize[i]; m++) {
+                            for (int j = 0; j < timeSeriesLength[i]; j++) {
+                                labels.putScalar(new int[] {m, r.nextInt(nOut), j}, 1.0);
+                            }
+                        }
+
+                        Layer lstm;
+                        if (bidirectional) {
+                            lstm = new GravesBidirectionalLSTM.Builder().nIn(nIn).nOut(layerSize).activation(afn)
+                                            .gateActivationFunction(gateAfn).fusedExecution(true).build();
+                        } else {
+                            lstm = new GravesLSTM.Builder().nIn(nIn).nOut(layerSize).activation(afn)
+                                            .gateActivationFunction(gateAfn).fusedExecution(true).build();
+                        }
+
+                        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().regularization(false)
+                                        .seed(12345L).weightInit(WeightInit.DISTRIBUTION)
+                                        .dist(new NormalDistribution(0, 1)).updater(Updater.NONE).list()
+                                        .layer(0, lstm)
+                                        .layer(1, new RnnOutputLayer.Builder(LossFunction.MCXENT)
+                                                        .activation(Activation.SOFTMAX).nIn(layerSize).nOut(nOut)
+                                                        .build())
+                                        .pretrain(false).backprop(true).build();
+                        MultiLayerNetwork mln = new MultiLayerNetwork(conf);
+                        mln.init();
+
+                        String msg = "testGradientGravesLSTMFused() - bidirectional=" + bidirectional
+                                        + ", activationFn=" + afn + ", gateActivationFn=" + gateAfn
+                                        + ", timeSeriesLength=" + timeSeriesLength[i] + ", miniBatchSize="
+                                        + miniBatchSize[i];
+                        if (PRINT_RESULTS) {
+                            System.out.println(msg);
+                        }
+
+                        boolean gradOK = GradientCheckUtil.checkGradients(mln, DEFAULT_EPS, DEFAULT_MAX_REL_ERROR,
+                                        DEFAULT_MIN_ABS_ERROR, PRINT_RESULTS, RETURN_ON_FIRST_FAILURE, input, labels);
+                        assertTrue(msg, gradOK);
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     public void testGradientGravesBidirectionalLSTMFull() {
         Activation[] activFns = {Activation.TANH, Activation.SOFTSIGN};
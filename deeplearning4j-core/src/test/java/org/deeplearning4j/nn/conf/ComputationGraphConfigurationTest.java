@@ -27,6 +27,11 @@ import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
@@ -220,6 +225,44 @@ public class ComputationGraphConfigurationTest {
         assertEquals(5, sigv.getSecondVal());
     }
 
+    @Test
+    public void testConfigurationWithRuntimeJSONSubtypesConcurrent() throws Exception {
+        //Threads that fail to resolve a subtype while another thread is scanning the classpath should still succeed,
+        // whichever thread does the scan
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().graphBuilder().addInputs("in")
+                        .addVertex("test", new TestGraphVertex(3, 7), "in").setOutputs("test").build();
+        final String json = conf.toJson();
+
+        int nThreads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<ComputationGraphConfiguration> results =
+                        Collections.synchronizedList(new ArrayList<ComputationGraphConfiguration>());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        results.add(ComputationGraphConfiguration.fromJson(json));
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+
+        assertEquals(errors.toString(), 0, errors.size());
+        assertEquals(nThreads, results.size());
+        for (ComputationGraphConfiguration c : results)
+            assertEquals(conf, c);
+    }
+
     @Test
     public void testOutputOrderDoesntChangeWhenCloning() {
         ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().graphBuilder().addInputs("in")
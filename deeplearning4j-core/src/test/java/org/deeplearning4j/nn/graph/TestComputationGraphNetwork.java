@@ -10,6 +10,7 @@ import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.*;
 import org.deeplearning4j.nn.conf.distribution.UniformDistribution;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
 import org.deeplearning4j.nn.conf.graph.LayerVertex;
 import org.deeplearning4j.nn.conf.graph.MergeVertex;
 import org.deeplearning4j.nn.conf.graph.SubsetVertex;
@@ -21,6 +22,7 @@ import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToRnnPreProcessor;
 import org.deeplearning4j.nn.conf.preprocessor.RnnToFeedForwardPreProcessor;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.transferlearning.TransferLearning;
 import org.deeplearning4j.nn.weights.WeightInit;
@@ -915,4 +917,144 @@ public class TestComputationGraphNetwork {
                         new TransferLearning.GraphBuilder(modelToTune).setFeatureExtractor("denseCentre2").build();
         System.out.println(modelNow.summary());
     }
+
+    @Test
+    public void testOutputInferenceSameAsFeedForward() {
+        Nd4j.getRandom().setSeed(12345);
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .activation(Activation.TANH).learningRate(0.1).updater(Updater.SGD).graphBuilder()
+                        .addInputs("inCentre", "inRight")
+                        .addLayer("denseCentre0", new DenseLayer.Builder().nIn(10).nOut(8).build(), "inCentre")
+                        .addLayer("denseCentre1", new DenseLayer.Builder().nIn(8).nOut(8).build(), "denseCentre0")
+                        .addLayer("denseCentre2", new DenseLayer.Builder().nIn(8).nOut(8).build(), "denseCentre1")
+                        //Skip connection: denseCentre0 activations are live until "add"
+                        .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "denseCentre0",
+                                        "denseCentre2")
+                        .addLayer("outCentre",
+                                        new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(8).nOut(4).build(),
+                                        "add")
+                        .addVertex("subsetLeft", new SubsetVertex(0, 3), "denseCentre1")
+                        .addLayer("outLeft",
+                                        new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(4).nOut(6).build(),
+                                        "subsetLeft")
+                        .addLayer("denseRight0", new DenseLayer.Builder().nIn(2).nOut(3).build(), "inRight")
+                        .addVertex("mergeRight", new MergeVertex(), "add", "denseRight0", "inRight")
+                        .addLayer("outRight",
+                                        new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(13).nOut(5).build(),
+                                        "mergeRight")
+                        .setOutputs("outLeft", "outCentre", "outRight").build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+
+        INDArray inCentre = Nd4j.rand(5, 10);
+        INDArray inRight = Nd4j.rand(5, 2);
+        INDArray inCentreCopy = inCentre.dup();
+
+        Map<String, INDArray> ff = net.feedForward(new INDArray[] {inCentre, inRight}, false);
+        INDArray[] out = net.output(inCentre, inRight);
+        assertEquals(3, out.length);
+        assertEquals(ff.get("outLeft"), out[0]);
+        assertEquals(ff.get("outCentre"), out[1]);
+        assertEquals(ff.get("outRight"), out[2]);
+        assertEquals(inCentreCopy, inCentre);
+
+        //All activations should have been released
+        for (GraphVertex gv : net.getVertices()) {
+            if (gv.isInputVertex())
+                continue;
+            for (INDArray arr : gv.getInputs()) {
+                assertNull(gv.getVertexName(), arr);
+            }
+            if (gv.hasLayer()) {
+                assertNull(gv.getVertexName(), gv.getLayer().input());
+            }
+        }
+
+        //Training and inference should still work after inference
+        INDArray[] out2 = net.output(inCentre, inRight);
+        for (int i = 0; i < out.length; i++) {
+            assertEquals(out[i], out2[i]);
+        }
+        net.fit(new org.nd4j.linalg.dataset.MultiDataSet(new INDArray[] {inCentre, inRight},
+                        new INDArray[] {Nd4j.rand(5, 6), Nd4j.rand(5, 4), Nd4j.rand(5, 5)}));
+        ff = net.feedForward(new INDArray[] {inCentre, inRight}, false);
+        out = net.output(inCentre, inRight);
+        assertEquals(ff.get("outLeft"), out[0]);
+        assertEquals(ff.get("outCentre"), out[1]);
+        assertEquals(ff.get("outRight"), out[2]);
+    }
+
+    @Test
+    public void testBranchParallelismSameAsSequential() {
+        ComputationGraph[] nets = new ComputationGraph[2];
+        for (int n = 0; n < 2; n++) {
+            ComputationGraphConfiguration.GraphBuilder b = new NeuralNetConfiguration.Builder().seed(12345)
+                            .activation(Activation.TANH).learningRate(0.1).updater(Updater.SGD)
+                            .weightInit(WeightInit.XAVIER).graphBuilder().addInputs("in", "in2")
+                            .branchParallelism(n == 0 ? 1 : 4);
+            //Inception-style: 4 independent towers, merged
+            String[] towers = new String[4];
+            for (int i = 0; i < 4; i++) {
+                b.addLayer("tower" + i + "_0", new DenseLayer.Builder().nIn(10).nOut(6).build(), "in")
+                                .addLayer("tower" + i + "_1", new DenseLayer.Builder().nIn(6).nOut(5).build(),
+                                                "tower" + i + "_0");
+                towers[i] = "tower" + i + "_1";
+            }
+            b.addVertex("merge", new MergeVertex(), towers)
+                            //"in" and "tower0_0" are used by several vertices: epsilons are summed
+                            .addLayer("dense2", new DenseLayer.Builder().nIn(2).nOut(6).build(), "in2")
+                            .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "tower0_0", "dense2")
+                            .addLayer("out0", new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(20)
+                                            .nOut(3).activation(Activation.IDENTITY).build(), "merge")
+                            .addLayer("out1", new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(6)
+                                            .nOut(2).activation(Activation.IDENTITY).build(), "add")
+                            .setOutputs("out0", "out1");
+
+            ComputationGraphConfiguration conf = b.build();
+            assertEquals(n == 0 ? 1 : 4, conf.getBranchParallelism());
+            assertEquals(conf, ComputationGraphConfiguration.fromJson(conf.toJson()));
+
+            nets[n] = new ComputationGraph(conf);
+            nets[n].init();
+        }
+        assertEquals(nets[0].params(), nets[1].params());
+
+        Nd4j.getRandom().setSeed(12345);
+        INDArray[] in = new INDArray[] {Nd4j.rand(8, 10), Nd4j.rand(8, 2)};
+        INDArray[] labels = new INDArray[] {Nd4j.rand(8, 3), Nd4j.rand(8, 2)};
+
+        Map<String, INDArray> ff0 = nets[0].feedForward(in, false);
+        Map<String, INDArray> ff1 = nets[1].feedForward(in, false);
+        assertEquals(ff0, ff1);
+
+        //Inference path (activations released by liveness) must give the same outputs as feedForward
+        INDArray[] out0 = nets[0].output(false, in);
+        INDArray[] out1 = nets[1].output(false, in);
+        assertEquals(ff0.get("out0"), out1[0]);
+        assertEquals(ff0.get("out1"), out1[1]);
+        assertEquals(out0[0], out1[0]);
+        assertEquals(out0[1], out1[1]);
+
+        for (ComputationGraph net : nets) {
+            net.setInputs(in);
+            net.setLabels(labels);
+            net.computeGradientAndScore();
+        }
+        assertEquals(nets[0].score(), nets[1].score(), 0.0);
+        Map<String, INDArray> g0 = nets[0].gradient().gradientForVariable();
+        Map<String, INDArray> g1 = nets[1].gradient().gradientForVariable();
+        assertEquals(g0.keySet(), g1.keySet());
+        for (String s : g0.keySet()) {
+            assertEquals(s, g0.get(s), g1.get(s));
+        }
+        assertEquals(nets[0].gradient().gradient(), nets[1].gradient().gradient());
+
+        for (int i = 0; i < 5; i++) {
+            for (ComputationGraph net : nets) {
+                net.fit(new org.nd4j.linalg.dataset.MultiDataSet(in, labels));
+            }
+        }
+        assertEquals(nets[0].params(), nets[1].params());
+    }
 }
@@ -0,0 +1,151 @@
+package org.deeplearning4j.nn.layers.convolution;
+
+import org.deeplearning4j.gradientcheck.GradientCheckUtil;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.distribution.NormalDistribution;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.PoolingType;
+import org.deeplearning4j.nn.conf.layers.SubsamplingLayer;
+import org.deeplearning4j.nn.layers.LayerHelperLoader;
+import org.deeplearning4j.nn.layers.convolution.cpu.CpuConvolutionHelper;
+import org.deeplearning4j.nn.layers.convolution.cpu.CpuSubsamplingHelper;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.util.DataTypeUtil;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the CPU convolution and subsampling helpers: gradient checks of networks using the helpers. Forward pass
+ * errors are caught as well, as the (numerical) gradient of the helper's forward pass has to match the backprop
+ */
+public class TestCpuConvolutionHelpers {
+    private static final boolean PRINT_RESULTS = false;
+    private static final boolean RETURN_ON_FIRST_FAILURE = false;
+    private static final double DEFAULT_EPS = 1e-6;
+    private static final double DEFAULT_MAX_REL_ERROR = 1e-3;
+    private static final double DEFAULT_MIN_ABS_ERROR = 1e-8;
+
+    static {
+        //Force Nd4j initialization, then set data type to double:
+        Nd4j.zeros(1);
+        DataTypeUtil.setDTypeForContext(DataBuffer.Type.DOUBLE);
+    }
+
+    @Before
+    public void enableHelpers() {
+        System.setProperty(LayerHelperLoader.ENABLE_HELPERS_PROPERTY, "true");
+    }
+
+    @After
+    public void resetHelpers() {
+        System.clearProperty(LayerHelperLoader.ENABLE_HELPERS_PROPERTY);
+        CpuConvolutionHelper.releaseWorkspace();
+    }
+
+    @Test
+    public void testHelpersDisabledByDefault() {
+        System.clearProperty(LayerHelperLoader.ENABLE_HELPERS_PROPERTY);
+        MultiLayerNetwork net = getNet(new int[] {3, 3}, new int[] {1, 1}, new int[] {0, 0}, PoolingType.MAX,
+                        new int[] {2, 2}, new int[] {2, 2}, new int[] {0, 0}, ConvolutionMode.Truncate, 8, 8);
+        Layer[] layers = net.getLayers();
+        assertNull(((ConvolutionLayer) layers[0]).helper);
+        assertNull(getSubsamplingHelper(layers[1]));
+    }
+
+    @Test
+    public void testHelpersLoaded() {
+        MultiLayerNetwork net = getNet(new int[] {3, 3}, new int[] {1, 1}, new int[] {0, 0}, PoolingType.MAX,
+                        new int[] {2, 2}, new int[] {2, 2}, new int[] {0, 0}, ConvolutionMode.Truncate, 8, 8);
+        Layer[] layers = net.getLayers();
+        assertTrue(((ConvolutionLayer) layers[0]).helper instanceof CpuConvolutionHelper);
+        assertTrue(getSubsamplingHelper(layers[1]) instanceof CpuSubsamplingHelper);
+    }
+
+    @Test
+    public void testGradientCheck() {
+        //kernel, stride, padding: 3x3/1 -> Winograd; others -> im2col with workspace
+        int[][][] convConfigs = {{{3, 3}, {1, 1}, {0, 0}}, {{3, 3}, {1, 1}, {1, 1}}, {{2, 3}, {1, 2}, {0, 1}},
+                        {{3, 3}, {2, 2}, {1, 0}}};
+        int[][][] poolConfigs = {{{2, 2}, {2, 2}, {0, 0}}, {{3, 3}, {2, 1}, {1, 1}}};
+        //Odd and even output sizes (partial Winograd tiles)
+        int[][] inputSizes = {{8, 8}, {9, 7}};
+
+        Random r = new Random(12345);
+        for (ConvolutionMode cm : new ConvolutionMode[] {ConvolutionMode.Truncate, ConvolutionMode.Same}) {
+            for (int[][] conv : convConfigs) {
+                for (int[][] pool : poolConfigs) {
+                    for (PoolingType pt : new PoolingType[] {PoolingType.MAX, PoolingType.AVG}) {
+                        for (int[] inSize : inputSizes) {
+                            String msg = "cm=" + cm + ", conv=" + Arrays.deepToString(conv) + ", pool="
+                                            + Arrays.deepToString(pool) + ", " + pt + ", input="
+                                            + Arrays.toString(inSize);
+
+                            MultiLayerNetwork net = getNet(conv[0], conv[1], conv[2], pt, pool[0], pool[1], pool[2],
+                                            cm, inSize[0], inSize[1]);
+                            assertTrue(msg, ((ConvolutionLayer) net.getLayer(0)).helper instanceof CpuConvolutionHelper);
+                            assertTrue(msg, getSubsamplingHelper(net.getLayer(1)) instanceof CpuSubsamplingHelper);
+
+                            INDArray in = Nd4j.rand(new int[] {3, 2, inSize[0], inSize[1]}).subi(0.5);
+                            INDArray labels = Nd4j.zeros(3, 4);
+                            for (int i = 0; i < 3; i++) {
+                                labels.putScalar(i, r.nextInt(4), 1.0);
+                            }
+
+                            boolean gradOK = GradientCheckUtil.checkGradients(net, DEFAULT_EPS, DEFAULT_MAX_REL_ERROR,
+                                            DEFAULT_MIN_ABS_ERROR, PRINT_RESULTS, RETURN_ON_FIRST_FAILURE, in, labels);
+                            assertTrue(msg, gradOK);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static MultiLayerNetwork getNet(int[] kernel, int[] stride, int[] padding, PoolingType poolingType,
+                    int[] poolKernel, int[] poolStride, int[] poolPadding, ConvolutionMode cm, int inH, int inW) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).regularization(false)
+                        .learningRate(1.0).updater(Updater.SGD).weightInit(WeightInit.DISTRIBUTION)
+                        .dist(new NormalDistribution(0, 1)).convolutionMode(cm).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.ConvolutionLayer.Builder().kernelSize(kernel)
+                                        .stride(stride).padding(padding).nOut(3).activation(Activation.TANH).build())
+                        .layer(1, new SubsamplingLayer.Builder().poolingType(poolingType).kernelSize(poolKernel)
+                                        .stride(poolStride).padding(poolPadding).build())
+                        .layer(2, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nOut(4).build())
+                        .setInputType(InputType.convolutional(inH, inW, 2)).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    private static Object getSubsamplingHelper(Layer layer) {
+        try {
+            Field f = org.deeplearning4j.nn.layers.convolution.subsampling.SubsamplingLayer.class
+                            .getDeclaredField("helper");
+            f.setAccessible(true);
+            return f.get(layer);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
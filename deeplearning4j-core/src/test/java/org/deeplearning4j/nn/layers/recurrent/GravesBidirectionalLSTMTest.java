@@ -574,4 +574,66 @@ public class GravesBidirectionalLSTMTest {
             net.fit(in, labels);
         }
     }
+
+    @Test
+    public void testFusedSameAsStandard() {
+        for (String gateAfn : new String[] {"sigmoid", "hardsigmoid"}) {
+            MultiLayerNetwork standard = getFusedTestNet(gateAfn, false);
+            MultiLayerNetwork fused = getFusedTestNet(gateAfn, true);
+            assertEquals(standard.params(), fused.params());
+
+            for (boolean masking : new boolean[] {false, true}) {
+                for (int[] mt : new int[][] {{3, 6}, {1, 1}, {3, 6}}) {
+                    String msg = "gateAfn=" + gateAfn + ", masking=" + masking + ", miniBatch=" + mt[0] + ", length="
+                                    + mt[1];
+                    INDArray in = Nd4j.rand(new int[] {mt[0], 3, mt[1]});
+                    INDArray labels = Nd4j.rand(new int[] {mt[0], 2, mt[1]});
+                    INDArray mask = null;
+                    if (masking) {
+                        //Variable length: example i has length T - i
+                        mask = Nd4j.ones(mt[0], mt[1]);
+                        for (int i = 1; i < mt[0]; i++) {
+                            for (int j = mt[1] - i; j < mt[1]; j++) {
+                                mask.putScalar(i, j, 0.0);
+                            }
+                        }
+                    }
+
+                    INDArray outStandard = standard.output(in, false, mask, mask);
+                    INDArray outFused = fused.output(in, false, mask, mask);
+                    assertTrue(msg, outStandard.equalsWithEps(outFused, 1e-5));
+
+                    standard.setLayerMaskArrays(mask, mask);
+                    fused.setLayerMaskArrays(mask, mask);
+                    standard.setInput(in);
+                    standard.setLabels(labels);
+                    standard.computeGradientAndScore();
+                    fused.setInput(in);
+                    fused.setLabels(labels);
+                    fused.computeGradientAndScore();
+                    assertEquals(msg, standard.score(), fused.score(), 1e-5);
+                    assertTrue(msg, standard.gradient().gradient().equalsWithEps(fused.gradient().gradient(), 1e-4));
+                    standard.clearLayerMaskArrays();
+                    fused.clearLayerMaskArrays();
+                }
+            }
+        }
+    }
+
+    private static MultiLayerNetwork getFusedTestNet(String gateAfn, boolean fused) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .updater(Updater.SGD).learningRate(0.1).seed(12345).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.GravesBidirectionalLSTM.Builder()
+                                        .gateActivationFunction(gateAfn).activation(Activation.TANH).nIn(3).nOut(4)
+                                        .fusedExecution(fused).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.RnnOutputLayer.Builder()
+                                        .lossFunction(LossFunctions.LossFunction.MSE).nIn(4).nOut(2)
+                                        .activation(Activation.TANH).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
 }
@@ -2,6 +2,7 @@ package org.deeplearning4j.nn.layers.recurrent;
 
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.BackpropType;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.Updater;
@@ -255,4 +256,70 @@ public class GravesLSTMTest {
             net.fit(in, labels);
         }
     }
+
+    @Test
+    public void testFusedSameAsStandard() {
+        for (String gateAfn : new String[] {"sigmoid", "hardsigmoid"}) {
+            MultiLayerNetwork standard = getFusedTestNet(gateAfn, false, false);
+            MultiLayerNetwork fused = getFusedTestNet(gateAfn, true, false);
+            assertEquals(standard.params(), fused.params());
+
+            //Different minibatch sizes and lengths, and repeated calls: buffers are reallocated or reused
+            int[][] miniBatchAndLength = {{3, 6}, {3, 6}, {1, 1}, {4, 5}};
+            for (int[] mt : miniBatchAndLength) {
+                String msg = "gateAfn=" + gateAfn + ", miniBatch=" + mt[0] + ", length=" + mt[1];
+                INDArray in = Nd4j.rand(new int[] {mt[0], 3, mt[1]});
+                INDArray labels = Nd4j.rand(new int[] {mt[0], 2, mt[1]});
+
+                assertTrue(msg, standard.output(in).equalsWithEps(fused.output(in), 1e-5));
+
+                standard.setInput(in);
+                standard.setLabels(labels);
+                standard.computeGradientAndScore();
+                fused.setInput(in);
+                fused.setLabels(labels);
+                fused.computeGradientAndScore();
+                assertEquals(msg, standard.score(), fused.score(), 1e-5);
+                assertTrue(msg, standard.gradient().gradient().equalsWithEps(fused.gradient().gradient(), 1e-4));
+            }
+
+            //rnnTimeStep: single time steps, then multiple time steps, using the stored state
+            standard.rnnClearPreviousState();
+            fused.rnnClearPreviousState();
+            for (int length : new int[] {1, 1, 3}) {
+                INDArray in = Nd4j.rand(new int[] {2, 3, length});
+                assertTrue(standard.rnnTimeStep(in).equalsWithEps(fused.rnnTimeStep(in), 1e-5));
+            }
+
+            //Truncated BPTT, with backward length less than forward length
+            standard = getFusedTestNet(gateAfn, false, true);
+            fused = getFusedTestNet(gateAfn, true, true);
+            INDArray in = Nd4j.rand(new int[] {3, 3, 10});
+            INDArray labels = Nd4j.rand(new int[] {3, 2, 10});
+            standard.fit(in, labels);
+            fused.fit(in, labels);
+            assertTrue(standard.params().equalsWithEps(fused.params(), 1e-4));
+        }
+    }
+
+    private static MultiLayerNetwork getFusedTestNet(String gateAfn, boolean fused, boolean tbptt) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .updater(Updater.SGD).learningRate(0.1).seed(12345).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder()
+                                        .gateActivationFunction(gateAfn).activation(Activation.TANH).nIn(3).nOut(4)
+                                        .fusedExecution(fused).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder()
+                                        .gateActivationFunction(gateAfn).activation(Activation.SOFTSIGN).nIn(4).nOut(5)
+                                        .fusedExecution(fused).build())
+                        .layer(2, new org.deeplearning4j.nn.conf.layers.RnnOutputLayer.Builder()
+                                        .lossFunction(LossFunctions.LossFunction.MSE).nIn(5).nOut(2)
+                                        .activation(Activation.TANH).build())
+                        .backpropType(tbptt ? BackpropType.TruncatedBPTT : BackpropType.Standard)
+                        .tBPTTForwardLength(4).tBPTTBackwardLength(3).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
 }
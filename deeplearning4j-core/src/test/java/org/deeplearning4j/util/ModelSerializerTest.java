@@ -5,6 +5,7 @@ import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
@@ -19,9 +20,12 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.util.Map;
+import java.util.zip.ZipFile;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author raver119@gmail.com
@@ -153,4 +157,82 @@ public class ModelSerializerTest {
         assertEquals(cg.params(), network.params());
         assertEquals(cg.getUpdater(), network.getUpdater());
     }
+
+    @Test
+    public void testWriteMLNModelUncompressed() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .updater(Updater.ADAM).activation(Activation.TANH).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(20).build())
+                        .layer(1, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(20).nOut(3).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        // updater state is initialized after first fit
+        net.fit(new IrisDataSetIterator(150, 150));
+
+        File tempFile = File.createTempFile("tsfs", "fdfsdf");
+        tempFile.deleteOnExit();
+
+        ModelSerializer.writeModel(net, tempFile, true, true);
+
+        // data of raw entries should be page-aligned within file
+        try (ZipFile zipFile = new ZipFile(tempFile)) {
+            Map<String, RawArrayFormat.Entry> entries = RawArrayFormat.readIndex(zipFile);
+            assertEquals(2, entries.size());
+            for (RawArrayFormat.Entry entry : entries.values())
+                assertEquals(0, entry.dataOffset % 4096);
+            assertNull(zipFile.getEntry("coefficients.bin"));
+        }
+
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(tempFile);
+
+        assertEquals(network.getLayerWiseConfigurations().toJson(), net.getLayerWiseConfigurations().toJson());
+        assertEquals(net.params(), network.params());
+        assertEquals(net.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+
+        // restored params should be writable, and independent from the file
+        network.fit(new IrisDataSetIterator(150, 150));
+        assertNotEquals(net.params(), network.params());
+
+        MultiLayerNetwork noUpdater = ModelSerializer.restoreMultiLayerNetwork(tempFile, false);
+        assertEquals(net.params(), noUpdater.params());
+
+        // zip rewritten with deflated entries can't be mapped, but should still be readable
+        NormalizerMinMaxScaler scaler = new NormalizerMinMaxScaler();
+        scaler.fit(new IrisDataSetIterator(150, 150));
+        ModelSerializer.addNormalizerToModel(tempFile, scaler);
+
+        network = ModelSerializer.restoreMultiLayerNetwork(new FileInputStream(tempFile));
+        assertEquals(net.params(), network.params());
+        assertEquals(net.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+    }
+
+    @Test
+    public void testWriteCGModelUncompressed() throws Exception {
+        ComputationGraphConfiguration config = new NeuralNetConfiguration.Builder()
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).learningRate(0.1)
+                        .updater(Updater.ADAM).graphBuilder().addInputs("in")
+                        .addLayer("dense", new DenseLayer.Builder().nIn(4).nOut(2).build(), "in").addLayer("out",
+                                        new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(2).nOut(3)
+                                                        .build(),
+                                        "dense")
+                        .setOutputs("out").pretrain(false).backprop(true).build();
+
+        ComputationGraph cg = new ComputationGraph(config);
+        cg.init();
+        cg.fit(new IrisDataSetIterator(150, 150));
+
+        File tempFile = File.createTempFile("tsfs", "fdfsdf");
+        tempFile.deleteOnExit();
+
+        ModelSerializer.writeModel(cg, tempFile, true, true);
+
+        ComputationGraph network = ModelSerializer.restoreComputationGraph(tempFile);
+
+        assertEquals(network.getConfiguration().toJson(), cg.getConfiguration().toJson());
+        assertEquals(cg.params(), network.params());
+        assertEquals(cg.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+    }
 }
@@ -0,0 +1,58 @@
+package org.deeplearning4j.util.reflections;
+
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.conf.graph.GraphVertex;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
+import org.deeplearning4j.nn.conf.layers.Layer;
+import org.deeplearning4j.nn.conf.misc.TestGraphVertex;
+import org.deeplearning4j.nn.conf.preprocessor.custom.MyCustomPreprocessor;
+import org.deeplearning4j.nn.layers.custom.testclasses.CustomActivation;
+import org.deeplearning4j.nn.layers.custom.testclasses.CustomLayer;
+import org.deeplearning4j.nn.layers.custom.testclasses.CustomOutputLayer;
+import org.junit.Test;
+import org.nd4j.linalg.activations.IActivation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DL4JSubTypesIndexTest {
+
+    @Test
+    public void testLoadIndex() throws Exception {
+        List<Class<?>> baseClasses = Arrays.<Class<?>>asList(InputPreProcessor.class, IActivation.class, Layer.class,
+                        GraphVertex.class);
+        Set<Class<?>> subtypes = DL4JSubTypesIndex.load(getClass().getClassLoader(), baseClasses);
+
+        // listed in test resources index
+        assertTrue(subtypes.contains(CustomLayer.class));
+        assertTrue(subtypes.contains(CustomOutputLayer.class));
+        assertTrue(subtypes.contains(CustomActivation.class));
+        assertTrue(subtypes.contains(MyCustomPreprocessor.class));
+
+        // not listed anywhere, registered via classpath scanning only
+        assertFalse(subtypes.contains(TestGraphVertex.class));
+
+        // classes that aren't subtypes of requested base classes are skipped
+        List<Class<?>> layerClass = Collections.<Class<?>>singletonList(Layer.class);
+        Set<Class<?>> layersOnly = DL4JSubTypesIndex.load(getClass().getClassLoader(), layerClass);
+        assertTrue(layersOnly.contains(CustomLayer.class));
+        assertFalse(layersOnly.contains(CustomActivation.class));
+        assertFalse(layersOnly.contains(MyCustomPreprocessor.class));
+    }
+
+    @Test
+    public void testIsSubtype() {
+        List<Class<?>> baseClasses = Collections.<Class<?>>singletonList(Layer.class);
+        assertTrue(DL4JSubTypesIndex.isSubtype(DenseLayer.class, baseClasses));
+        assertTrue(DL4JSubTypesIndex.isSubtype(CustomLayer.class, baseClasses));
+        assertFalse(DL4JSubTypesIndex.isSubtype(FeedForwardLayer.class, baseClasses));
+        assertFalse(DL4JSubTypesIndex.isSubtype(Layer.class, baseClasses));
+        assertFalse(DL4JSubTypesIndex.isSubtype(CustomActivation.class, baseClasses));
+    }
+}
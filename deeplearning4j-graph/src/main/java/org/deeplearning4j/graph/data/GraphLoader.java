@@ -4,6 +4,7 @@ import org.deeplearning4j.graph.api.Edge;
 import org.deeplearning4j.graph.api.Vertex;
 import org.deeplearning4j.graph.data.impl.DelimitedEdgeLineProcessor;
 import org.deeplearning4j.graph.data.impl.WeightedEdgeLineProcessor;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.Graph;
 import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
 import org.deeplearning4j.graph.vertexfactory.VertexFactory;
@@ -12,13 +13,17 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 /** Utility methods for loading graphs
  *
  */
 public class GraphLoader {
 
+    private static final int CSR_LINES_PER_TASK = 65536;
+
     private GraphLoader() {}
 
     /** Simple method for loading an undirected graph, where the graph is represented by a edge list with one edge
@@ -172,4 +177,93 @@ public class GraphLoader {
 
         return graph;
     }
+
+    /** Load an immutable {@link CSRGraph} from an edge list file, one edge per line. Lines are parsed in parallel,
+     * in batches, so the EdgeLineProcessor must be thread safe (as is the case for {@link DelimitedEdgeLineProcessor}
+     * and {@link WeightedEdgeLineProcessor}). The resulting graph does not depend on the number of threads.<br>
+     * Unlike {@link #loadGraph(String, EdgeLineProcessor, VertexFactory, int, boolean)}, multiple edges between
+     * a pair of vertices are always kept, and edge values are only retained as weights (for {@link Number} edge values)
+     * unless {@code keepEdgeValues} is true.
+     * @param path Path to the file containing the edges, one per line
+     * @param lineProcessor EdgeLineProcessor used to convert lines of text into a graph (or null for comment lines etc)
+     * @param vertexFactory Used to create vertices
+     * @param numVertices number of vertices in the graph
+     * @param keepEdgeValues whether edge values should be kept, or only weights
+     * @param numThreads number of threads used for parsing and building the graph
+     * @return CSRGraph
+     */
+    public static <V, E> CSRGraph<V, E> loadCSRGraph(String path, final EdgeLineProcessor<E> lineProcessor,
+                    VertexFactory<V> vertexFactory, int numVertices, final boolean keepEdgeValues, int numThreads)
+                    throws IOException {
+        numThreads = Math.max(1, numThreads);
+        ExecutorService executorService = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        List<Future<CSRGraph.EdgeList<E>>> futures = new ArrayList<>();
+        try {
+            try (BufferedReader br = new BufferedReader(new FileReader(new File(path)))) {
+                List<String> lines = new ArrayList<>(CSR_LINES_PER_TASK);
+                String line;
+                while ((line = br.readLine()) != null) {
+                    lines.add(line);
+                    if (lines.size() == CSR_LINES_PER_TASK) {
+                        futures.add(executorService.submit(new ParseCallable<>(lines, lineProcessor, keepEdgeValues)));
+                        lines = new ArrayList<>(CSR_LINES_PER_TASK);
+                    }
+                }
+                if (!lines.isEmpty())
+                    futures.add(executorService.submit(new ParseCallable<>(lines, lineProcessor, keepEdgeValues)));
+            }
+
+            //Futures are in file order, hence so are the edges
+            List<CSRGraph.EdgeList<E>> edgeLists = new ArrayList<>(futures.size());
+            for (Future<CSRGraph.EdgeList<E>> f : futures) {
+                try {
+                    edgeLists.add(f.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException)
+                        throw (RuntimeException) e.getCause();
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while loading graph", e);
+                }
+            }
+
+            return CSRGraph.build(CSRGraph.createVertices(numVertices, vertexFactory), edgeLists, keepEdgeValues,
+                            numThreads);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static class ParseCallable<E> implements Callable<CSRGraph.EdgeList<E>> {
+        private final List<String> lines;
+        private final EdgeLineProcessor<E> lineProcessor;
+        private final boolean keepEdgeValues;
+
+        private ParseCallable(List<String> lines, EdgeLineProcessor<E> lineProcessor, boolean keepEdgeValues) {
+            this.lines = lines;
+            this.lineProcessor = lineProcessor;
+            this.keepEdgeValues = keepEdgeValues;
+        }
+
+        @Override
+        public CSRGraph.EdgeList<E> call() {
+            CSRGraph.EdgeList<E> edgeList = new CSRGraph.EdgeList<>(keepEdgeValues);
+            for (String line : lines) {
+                Edge<E> edge = lineProcessor.processLine(line);
+                if (edge != null) {
+                    edgeList.add(edge);
+                }
+            }
+            return edgeList;
+        }
+    }
 }
@@ -0,0 +1,598 @@
+package org.deeplearning4j.graph.graph;
+
+import org.deeplearning4j.graph.api.BaseGraph;
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IGraph;
+import org.deeplearning4j.graph.api.Vertex;
+import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.vertexfactory.VertexFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/** Immutable graph in compressed sparse row (CSR) format.<br>
+ * Outgoing edges of vertex {@code i} are stored in {@code targets[offsets[i]]} to {@code targets[offsets[i+1]-1]},
+ * with edge weights (if any) in the same positions of {@code weights}. As with {@link Graph}, undirected edges are
+ * stored once for each of the two vertices. This layout takes 8 bytes per (directed) edge, instead of one
+ * {@link Edge} object per edge, and doesn't require any allocation to iterate over neighbours.<br>
+ * For weighted graphs, an alias table (Walker/Vose alias method) is built for each vertex at construction time, so that
+ * {@link #getWeightedRandomConnectedVertexIndex(int, Random)} samples a neighbour in O(1) regardless of vertex degree.<br>
+ * Edges are weighted if their values extend {@link Number}; weights must be non-negative.<br>
+ * Edge values (other than weights) are only retained if {@code keepEdgeValues} is set; otherwise edges returned by
+ * {@link #getEdgesOut(int)} have null values. Multiple edges between the same two vertices are always kept.<br>
+ * Instances are created using {@link #fromGraph(IGraph, boolean)}, or from one or more {@link EdgeList}s using
+ * {@link #build(List, List, boolean, int)} (see also {@link org.deeplearning4j.graph.data.GraphLoader#loadCSRGraph}).
+ * @param <V> Type parameter for vertices (type of objects attached to each vertex)
+ * @param <E> Type parameter for edges (type of objects attached to each edge)
+ */
+public class CSRGraph<V, E> extends BaseGraph<V, E> {
+    private final List<Vertex<V>> vertices;
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] weights; //null for unweighted graphs
+    private final BitSet undirected; //Set for positions of undirected edges
+    private final Object[] values; //null unless keepEdgeValues was set
+
+    //Alias tables, for weighted graphs only. aliasIdx is relative to offsets[vertex]
+    private final float[] aliasProb;
+    private final int[] aliasIdx;
+
+    private CSRGraph(List<Vertex<V>> vertices, int[] offsets, int[] targets, float[] weights, BitSet undirected,
+                    Object[] values, float[] aliasProb, int[] aliasIdx) {
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.undirected = undirected;
+        this.values = values;
+        this.aliasProb = aliasProb;
+        this.aliasIdx = aliasIdx;
+    }
+
+    /** Create a CSRGraph from an existing graph. Vertices (and vertex values) are shared with the original graph.
+     * @param graph graph to convert
+     * @param keepEdgeValues if true: keep references to the edge values; if false, only weights are kept
+     *                       (for graphs with {@link Number} edge values)
+     */
+    public static <V, E> CSRGraph<V, E> fromGraph(IGraph<V, E> graph, boolean keepEdgeValues) {
+        int n = graph.numVertices();
+        List<Vertex<V>> vertices = new ArrayList<>(n);
+        EdgeList<E> edgeList = new EdgeList<>(keepEdgeValues);
+        for (int i = 0; i < n; i++) {
+            vertices.add(graph.getVertex(i));
+            //Undirected edges are already returned for both vertices: add them as seen from vertex i only
+            for (Edge<E> e : graph.getEdgesOut(i)) {
+                int other = (e.getFrom() == i ? e.getTo() : e.getFrom());
+                edgeList.add(i, other, e.getValue(), true, !e.isDirected());
+            }
+        }
+        return build(vertices, Collections.singletonList(edgeList), keepEdgeValues, 1);
+    }
+
+    /** Create vertices from a vertex factory, for use with {@link #build(List, List, boolean, int)}
+     */
+    public static <V> List<Vertex<V>> createVertices(int numVertices, VertexFactory<V> vertexFactory) {
+        if (numVertices <= 0)
+            throw new IllegalArgumentException("Invalid number of vertices: " + numVertices);
+        List<Vertex<V>> vertices = new ArrayList<>(numVertices);
+        for (int i = 0; i < numVertices; i++)
+            vertices.add(vertexFactory.create(i));
+        return vertices;
+    }
+
+    /** Build a CSRGraph from one or more edge lists. Edges from the lists are added in order (i.e., all edges from the
+     * first list, then all edges from the second list etc), so the resulting graph doesn't depend on the number of
+     * threads.
+     * @param vertices vertices of the graph
+     * @param edgeLists edges of the graph
+     * @param keepEdgeValues whether edge values should be retained. Requires the edge lists to have been created with
+     *                       keepEdgeValues = true
+     * @param numThreads number of threads to use
+     */
+    public static <V, E> CSRGraph<V, E> build(List<Vertex<V>> vertices, final List<EdgeList<E>> edgeLists,
+                    final boolean keepEdgeValues, int numThreads) {
+        final int n = vertices.size();
+        boolean weighted = false;
+        long totalEdges = 0;
+        for (EdgeList<E> list : edgeLists) {
+            if (keepEdgeValues && !list.keepValues)
+                throw new IllegalArgumentException("Cannot keep edge values: EdgeList was created without values");
+            for (int i = 0; i < list.size; i++) {
+                if (list.from[i] < 0 || list.from[i] >= n || list.to[i] < 0 || list.to[i] >= n)
+                    throw new IllegalArgumentException("Invalid edge: " + list.from[i] + " -> " + list.to[i]
+                                    + ", from/to indexes out of range (numVertices = " + n + ")");
+                totalEdges += (list.undirected.get(i) && !list.single.get(i) ? 2 : 1);
+            }
+            weighted |= list.weighted;
+        }
+        if (totalEdges > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many edges for CSRGraph: " + totalEdges);
+
+        //Step 1: per list degree counts. These are then converted into per-list write positions, so each list can be
+        //written into the CSR arrays independently
+        final int[][] cursors = new int[edgeLists.size()][];
+        List<Callable<Void>> tasks = new ArrayList<>(edgeLists.size());
+        for (int l = 0; l < edgeLists.size(); l++) {
+            final int listIdx = l;
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    EdgeList<E> list = edgeLists.get(listIdx);
+                    int[] counts = new int[n];
+                    for (int i = 0; i < list.size; i++) {
+                        counts[list.from[i]]++;
+                        if (list.undirected.get(i) && !list.single.get(i))
+                            counts[list.to[i]]++;
+                    }
+                    cursors[listIdx] = counts;
+                    return null;
+                }
+            });
+        }
+        invokeAll(tasks, numThreads);
+
+        final int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            int pos = offsets[v];
+            for (int[] counts : cursors) {
+                int c = counts[v];
+                counts[v] = pos;
+                pos += c;
+            }
+            offsets[v + 1] = pos;
+        }
+
+        //Step 2: fill CSR arrays
+        final int[] targets = new int[(int) totalEdges];
+        final float[] weights = (weighted ? new float[(int) totalEdges] : null);
+        final Object[] values = (keepEdgeValues ? new Object[(int) totalEdges] : null);
+        final BitSet[] undirectedParts = new BitSet[edgeLists.size()];
+        tasks.clear();
+        for (int l = 0; l < edgeLists.size(); l++) {
+            final int listIdx = l;
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    EdgeList<E> list = edgeLists.get(listIdx);
+                    int[] cursor = cursors[listIdx];
+                    BitSet undirected = new BitSet();
+                    for (int i = 0; i < list.size; i++) {
+                        int from = list.from[i];
+                        int to = list.to[i];
+                        boolean u = list.undirected.get(i);
+
+                        int pos = cursor[from]++;
+                        targets[pos] = to;
+                        if (weights != null)
+                            weights[pos] = list.weights[i];
+                        if (values != null)
+                            values[pos] = list.values[i];
+                        if (u)
+                            undirected.set(pos);
+
+                        if (u && !list.single.get(i)) {
+                            pos = cursor[to]++;
+                            targets[pos] = from;
+                            if (weights != null)
+                                weights[pos] = list.weights[i];
+                            if (values != null)
+                                values[pos] = list.values[i];
+                            undirected.set(pos);
+                        }
+                    }
+                    undirectedParts[listIdx] = undirected;
+                    return null;
+                }
+            });
+        }
+        invokeAll(tasks, numThreads);
+
+        BitSet undirected = new BitSet();
+        for (BitSet b : undirectedParts)
+            undirected.or(b);
+
+        //Step 3: alias tables, for weighted graphs
+        float[] aliasProb = null;
+        int[] aliasIdx = null;
+        if (weighted) {
+            aliasProb = new float[targets.length];
+            aliasIdx = new int[targets.length];
+            int nTasks = Math.max(1, Math.min(numThreads, n));
+            int perTask = (n + nTasks - 1) / nTasks;
+            tasks.clear();
+            for (int t = 0; t < nTasks; t++) {
+                final int first = t * perTask;
+                final int last = Math.min(n, first + perTask);
+                final float[] prob = aliasProb;
+                final int[] alias = aliasIdx;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        int[] small = new int[0];
+                        int[] large = new int[0];
+                        double[] scaled = new double[0];
+                        for (int v = first; v < last; v++) {
+                            int deg = offsets[v + 1] - offsets[v];
+                            if (deg > small.length) {
+                                small = new int[deg];
+                                large = new int[deg];
+                                scaled = new double[deg];
+                            }
+                            buildAliasTable(weights, offsets[v], deg, prob, alias, small, large, scaled);
+                        }
+                        return null;
+                    }
+                });
+            }
+            invokeAll(tasks, numThreads);
+        }
+
+        return new CSRGraph<>(new ArrayList<>(vertices), offsets, targets, weights, undirected, values, aliasProb,
+                        aliasIdx);
+    }
+
+    /**
+     * Vose's alias method: builds prob/alias for weights[start] to weights[start+deg-1]
+     */
+    private static void buildAliasTable(float[] weights, int start, int deg, float[] prob, int[] alias, int[] small,
+                    int[] large, double[] scaled) {
+        if (deg == 0)
+            return;
+        double sum = 0.0;
+        for (int i = 0; i < deg; i++) {
+            float w = weights[start + i];
+            if (w < 0 || Float.isNaN(w))
+                throw new IllegalArgumentException("Invalid edge weight: " + w + " (weights must be non-negative)");
+            sum += w;
+        }
+
+        int nSmall = 0;
+        int nLarge = 0;
+        for (int i = 0; i < deg; i++) {
+            //All zero weights: sample uniformly
+            scaled[i] = (sum > 0.0 ? weights[start + i] * deg / sum : 1.0);
+            if (scaled[i] < 1.0)
+                small[nSmall++] = i;
+            else
+                large[nLarge++] = i;
+        }
+
+        while (nSmall > 0 && nLarge > 0) {
+            int s = small[--nSmall];
+            int l = large[--nLarge];
+            prob[start + s] = (float) scaled[s];
+            alias[start + s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0)
+                small[nSmall++] = l;
+            else
+                large[nLarge++] = l;
+        }
+        //Remaining entries have probability 1 (up to numerical error)
+        while (nLarge > 0) {
+            int l = large[--nLarge];
+            prob[start + l] = 1.0f;
+            alias[start + l] = l;
+        }
+        while (nSmall > 0) {
+            int s = small[--nSmall];
+            prob[start + s] = 1.0f;
+            alias[start + s] = s;
+        }
+    }
+
+    private static void invokeAll(List<Callable<Void>> tasks, int numThreads) {
+        if (numThreads <= 1 || tasks.size() <= 1) {
+            for (Callable<Void> c : tasks) {
+                try {
+                    c.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return;
+        }
+
+        ExecutorService executorService =
+                        Executors.newFixedThreadPool(Math.min(numThreads, tasks.size()), new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread t = new Thread(r);
+                                t.setDaemon(true);
+                                return t;
+                            }
+                        });
+        try {
+            for (Future<Void> f : executorService.invokeAll(tasks)) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException)
+                        throw (RuntimeException) e.getCause();
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while building CSRGraph", e);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Override
+    public int numVertices() {
+        return vertices.size();
+    }
+
+    /** Total number of (directed) edge entries. Undirected edges are counted twice.
+     */
+    public int numEdgeEntries() {
+        return targets.length;
+    }
+
+    /** Whether this graph has edge weights (i.e., edge values extend {@link Number})
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    @Override
+    public Vertex<V> getVertex(int idx) {
+        if (idx < 0 || idx >= vertices.size())
+            throw new IllegalArgumentException("Invalid index: " + idx);
+        return vertices.get(idx);
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int[] indexes) {
+        List<Vertex<V>> out = new ArrayList<>(indexes.length);
+        for (int i : indexes)
+            out.add(getVertex(i));
+        return out;
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int from, int to) {
+        if (to < from || from < 0 || to >= vertices.size())
+            throw new IllegalArgumentException("Invalid range: from=" + from + ", to=" + to);
+        return new ArrayList<>(vertices.subList(from, to + 1));
+    }
+
+    /** Not supported: CSRGraph is immutable
+     */
+    @Override
+    public void addEdge(Edge<E> edge) {
+        throw new UnsupportedOperationException("CSRGraph is immutable: cannot add edges");
+    }
+
+    /** Not supported: CSRGraph is immutable
+     */
+    @Override
+    public void addEdge(int from, int to, E value, boolean directed) {
+        throw new UnsupportedOperationException("CSRGraph is immutable: cannot add edges");
+    }
+
+    /** Returns the outgoing edges for the given vertex. Note that edge objects are created on each call, with
+     * {@code from} always equal to {@code vertex}; use {@link #getEdgeOffsets()}, {@link #getEdgeTargets()} etc
+     * for allocation-free access.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Edge<E>> getEdgesOut(int vertex) {
+        checkVertex(vertex);
+        int start = offsets[vertex];
+        int end = offsets[vertex + 1];
+        if (start == end)
+            return Collections.emptyList();
+        List<Edge<E>> out = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            E value = (values != null ? (E) values[i] : null);
+            out.add(new Edge<>(vertex, targets[i], value, !undirected.get(i)));
+        }
+        return out;
+    }
+
+    @Override
+    public int getVertexDegree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    @Override
+    public Vertex<V> getRandomConnectedVertex(int vertex, Random rng) throws NoEdgesException {
+        return vertices.get(getRandomConnectedVertexIndex(vertex, rng));
+    }
+
+    /** As per {@link #getRandomConnectedVertex(int, Random)}, but returns the index of the vertex. Neighbours
+     * are selected uniformly at random, ignoring edge weights.
+     */
+    public int getRandomConnectedVertexIndex(int vertex, Random rng) throws NoEdgesException {
+        checkVertex(vertex);
+        int start = offsets[vertex];
+        int deg = offsets[vertex + 1] - start;
+        if (deg == 0)
+            throw new NoEdgesException("Cannot generate random connected vertex: vertex " + vertex
+                            + " has no outgoing/undirected edges");
+        return targets[start + rng.nextInt(deg)];
+    }
+
+    /** Select a neighbour of the given vertex with probability proportional to the edge weight, in O(1) time
+     * using the alias method. For unweighted graphs, neighbours are selected uniformly at random.
+     * @return index of the selected vertex
+     */
+    public int getWeightedRandomConnectedVertexIndex(int vertex, Random rng) throws NoEdgesException {
+        if (aliasProb == null)
+            return getRandomConnectedVertexIndex(vertex, rng);
+        checkVertex(vertex);
+        int start = offsets[vertex];
+        int deg = offsets[vertex + 1] - start;
+        if (deg == 0)
+            throw new NoEdgesException("Cannot generate random connected vertex: vertex " + vertex
+                            + " has no outgoing/undirected edges");
+        int i = start + rng.nextInt(deg);
+        if (rng.nextFloat() < aliasProb[i])
+            return targets[i];
+        return targets[start + aliasIdx[i]];
+    }
+
+    @Override
+    public List<Vertex<V>> getConnectedVertices(int vertex) {
+        checkVertex(vertex);
+        int start = offsets[vertex];
+        int end = offsets[vertex + 1];
+        List<Vertex<V>> list = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++)
+            list.add(vertices.get(targets[i]));
+        return list;
+    }
+
+    @Override
+    public int[] getConnectedVertexIndices(int vertex) {
+        return Arrays.copyOfRange(targets, offsets[vertex], offsets[vertex + 1]);
+    }
+
+    /** CSR offsets array, of length numVertices+1. Returned array must not be modified.
+     */
+    public int[] getEdgeOffsets() {
+        return offsets;
+    }
+
+    /** CSR targets array: outgoing edges of vertex {@code i} point to vertices {@code targets[offsets[i]]} to
+     * {@code targets[offsets[i+1]-1]}. Returned array must not be modified.
+     */
+    public int[] getEdgeTargets() {
+        return targets;
+    }
+
+    /** CSR weights array (same layout as {@link #getEdgeTargets()}), or null if graph is unweighted.
+     * Returned array must not be modified.
+     */
+    public float[] getEdgeWeights() {
+        return weights;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= vertices.size())
+            throw new IllegalArgumentException("Invalid vertex index: " + vertex);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CSRGraph {");
+        sb.append("\nVertices {");
+        for (Vertex<V> v : vertices) {
+            sb.append("\n\t").append(v);
+        }
+        sb.append("\n}");
+        sb.append("\nEdges {");
+        for (int i = 0; i < vertices.size(); i++) {
+            sb.append("\n\t");
+            if (offsets[i] == offsets[i + 1])
+                continue;
+            sb.append(i).append(":");
+            for (Edge<E> e : getEdgesOut(i)) {
+                sb.append(" ").append(e);
+            }
+        }
+        sb.append("\n}");
+        sb.append("\n}");
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CSRGraph))
+            return false;
+        CSRGraph g = (CSRGraph) o;
+        return vertices.equals(g.vertices) && Arrays.equals(offsets, g.offsets) && Arrays.equals(targets, g.targets)
+                        && Arrays.equals(weights, g.weights) && undirected.equals(g.undirected)
+                        && Arrays.equals(values, g.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 23;
+        result = 31 * result + vertices.hashCode();
+        result = 31 * result + Arrays.hashCode(offsets);
+        result = 31 * result + Arrays.hashCode(targets);
+        result = 31 * result + Arrays.hashCode(weights);
+        return result;
+    }
+
+    /** Growable list of edges in primitive arrays, used to build a {@link CSRGraph}.<br>
+     * Edge weights are taken from edge values extending {@link Number}. Not thread safe: when loading edges in
+     * parallel, use one EdgeList per thread.
+     * @param <E> type of edge values
+     */
+    public static class EdgeList<E> {
+        private final boolean keepValues;
+        private int size;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private float[] weights = new float[16];
+        private Object[] values;
+        private BitSet undirected = new BitSet();
+        private BitSet single = new BitSet(); //undirected edge that should only be stored for the 'from' vertex
+        private boolean weighted;
+
+        /**
+         * @param keepValues whether edge values should be stored (in addition to weights)
+         */
+        public EdgeList(boolean keepValues) {
+            this.keepValues = keepValues;
+            if (keepValues)
+                values = new Object[16];
+        }
+
+        public void add(Edge<E> edge) {
+            add(edge.getFrom(), edge.getTo(), edge.getValue(), !edge.isDirected());
+        }
+
+        public void add(int from, int to, E value, boolean undirected) {
+            add(from, to, value, false, undirected);
+        }
+
+        private void add(int from, int to, E value, boolean single, boolean undirected) {
+            if (size == this.from.length) {
+                int newSize = this.from.length * 2;
+                this.from = Arrays.copyOf(this.from, newSize);
+                this.to = Arrays.copyOf(this.to, newSize);
+                this.weights = Arrays.copyOf(this.weights, newSize);
+                if (values != null)
+                    values = Arrays.copyOf(values, newSize);
+            }
+            this.from[size] = from;
+            this.to[size] = to;
+            if (value instanceof Number) {
+                weights[size] = ((Number) value).floatValue();
+                weighted = true;
+            } else {
+                weights[size] = 1.0f;
+            }
+            if (values != null)
+                values[size] = value;
+            if (undirected)
+                this.undirected.set(size);
+            if (single)
+                this.single.set(size);
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
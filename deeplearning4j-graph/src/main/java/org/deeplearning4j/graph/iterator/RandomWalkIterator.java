@@ -5,6 +5,7 @@ import org.deeplearning4j.graph.api.IVertexSequence;
 import org.deeplearning4j.graph.api.NoEdgeHandling;
 import org.deeplearning4j.graph.api.Vertex;
 import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.VertexSequence;
 
 import java.util.NoSuchElementException;
@@ -12,12 +13,14 @@ import java.util.Random;
 
 /**Given a graph, iterate through random walks on that graph of a specified length.
  * Random walks are generated starting at every node in the graph exactly once, though the order
- * of the starting nodes is randomized.
+ * of the starting nodes is randomized.<br>
+ * For {@link CSRGraph}s, neighbours are sampled directly from the CSR arrays, without any per-step allocation.
  * @author Alex Black
  */
 public class RandomWalkIterator<V> implements GraphWalkIterator<V> {
 
     private final IGraph<V, ?> graph;
+    private final CSRGraph<V, ?> csrGraph;
     private final int walkLength;
     private final NoEdgeHandling mode;
     private final int firstVertex;
@@ -63,6 +66,7 @@ public class RandomWalkIterator<V> implements GraphWalkIterator<V> {
     public RandomWalkIterator(IGraph<V, ?> graph, int walkLength, long rngSeed, NoEdgeHandling mode, int firstVertex,
                     int lastVertex) {
         this.graph = graph;
+        this.csrGraph = (graph instanceof CSRGraph ? (CSRGraph<V, ?>) graph : null);
         this.walkLength = walkLength;
         this.rng = new Random(rngSeed);
         this.mode = mode;
@@ -86,13 +90,16 @@ public class RandomWalkIterator<V> implements GraphWalkIterator<V> {
         if (walkLength == 0)
             return new VertexSequence<>(graph, indices);
 
+        if (csrGraph != null)
+            return nextCSR(indices);
+
         Vertex<V> next;
         try {
             next = graph.getRandomConnectedVertex(currVertexIdx, rng);
         } catch (NoEdgesException e) {
             switch (mode) {
                 case SELF_LOOP_ON_DISCONNECTED:
-                    for (int i = 1; i < walkLength; i++)
+                    for (int i = 1; i <= walkLength; i++)
                         indices[i] = currVertexIdx;
                     return new VertexSequence<>(graph, indices);
                 case EXCEPTION_ON_DISCONNECTED:
@@ -112,6 +119,29 @@ public class RandomWalkIterator<V> implements GraphWalkIterator<V> {
         return new VertexSequence<>(graph, indices);
     }
 
+    private IVertexSequence<V> nextCSR(int[] indices) {
+        int currVertexIdx = indices[0];
+        if (csrGraph.getVertexDegree(currVertexIdx) == 0) {
+            switch (mode) {
+                case SELF_LOOP_ON_DISCONNECTED:
+                    for (int i = 1; i <= walkLength; i++)
+                        indices[i] = currVertexIdx;
+                    return new VertexSequence<>(graph, indices);
+                case EXCEPTION_ON_DISCONNECTED:
+                    throw new NoEdgesException("Cannot generate random connected vertex: vertex " + currVertexIdx
+                                    + " has no outgoing/undirected edges");
+                default:
+                    throw new RuntimeException("Unknown/not implemented NoEdgeHandling mode: " + mode);
+            }
+        }
+
+        for (int i = 1; i <= walkLength; i++) {
+            currVertexIdx = csrGraph.getRandomConnectedVertexIndex(currVertexIdx, rng);
+            indices[i] = currVertexIdx;
+        }
+        return new VertexSequence<>(graph, indices);
+    }
+
     @Override
     public boolean hasNext() {
         return position < order.length;
@@ -5,6 +5,7 @@ import org.deeplearning4j.graph.api.IGraph;
 import org.deeplearning4j.graph.api.IVertexSequence;
 import org.deeplearning4j.graph.api.NoEdgeHandling;
 import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.VertexSequence;
 
 import java.util.List;
@@ -17,12 +18,14 @@ import java.util.Random;
  * Because the edge values are used to determine the probabilities of selecting an edge, the {@code WeightedRandomWalkIterator}
  * can only be used on graphs with an edge type that extends the {@link java.lang.Number} class (i.e., Integer, Double, etc)<br>
  * Random walks are generated starting at every node in the graph exactly once, though the order of the starting nodes
- * is randomized.
+ * is randomized.<br>
+ * For {@link CSRGraph}s, edges are sampled in O(1) time using the graph's alias tables, without any per-step allocation.
  * @author Alex Black
  */
 public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
 
     private final IGraph<V, ? extends Number> graph;
+    private final CSRGraph<V, ? extends Number> csrGraph;
     private final int walkLength;
     private final NoEdgeHandling mode;
     private final int firstVertex;
@@ -69,6 +72,7 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
     public WeightedRandomWalkIterator(IGraph<V, ? extends Number> graph, int walkLength, long rngSeed,
                     NoEdgeHandling mode, int firstVertex, int lastVertex) {
         this.graph = graph;
+        this.csrGraph = (graph instanceof CSRGraph ? (CSRGraph<V, ? extends Number>) graph : null);
         this.walkLength = walkLength;
         this.rng = new Random(rngSeed);
         this.mode = mode;
@@ -93,10 +97,17 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
             return new VertexSequence<>(graph, indices);
 
         for (int i = 1; i <= walkLength; i++) {
-            List<? extends Edge<? extends Number>> edgeList = graph.getEdgesOut(currVertexIdx);
+            List<? extends Edge<? extends Number>> edgeList = null;
+            boolean noEdges;
+            if (csrGraph != null) {
+                noEdges = csrGraph.getVertexDegree(currVertexIdx) == 0;
+            } else {
+                edgeList = graph.getEdgesOut(currVertexIdx);
+                noEdges = edgeList == null || edgeList.isEmpty();
+            }
 
             //First: check if there are any outgoing edges from this vertex. If not: handle the situation
-            if (edgeList == null || edgeList.isEmpty()) {
+            if (noEdges) {
                 switch (mode) {
                     case SELF_LOOP_ON_DISCONNECTED:
                         for (int j = i; j < walkLength; j++)
@@ -112,6 +123,12 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
                 }
             }
 
+            if (csrGraph != null) {
+                currVertexIdx = csrGraph.getWeightedRandomConnectedVertexIndex(currVertexIdx, rng);
+                indices[i] = currVertexIdx;
+                continue;
+            }
+
             //To do a weighted random walk: we need to know total weight of all outgoing edges
             double totalWeight = 0.0;
             for (Edge<? extends Number> edge : edgeList) {
@@ -0,0 +1,220 @@
+package org.deeplearning4j.graph.graph;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IGraph;
+import org.deeplearning4j.graph.api.IVertexSequence;
+import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.data.GraphLoader;
+import org.deeplearning4j.graph.data.impl.DelimitedEdgeLineProcessor;
+import org.deeplearning4j.graph.data.impl.WeightedEdgeLineProcessor;
+import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.iterator.RandomWalkIterator;
+import org.deeplearning4j.graph.iterator.WeightedRandomWalkIterator;
+import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
+import org.junit.Test;
+import org.nd4j.linalg.io.ClassPathResource;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestCSRGraph {
+
+    @Test
+    public void testFromGraphSameEdges() {
+        Graph<String, String> graph = new Graph<>(10, false, new StringVertexFactory());
+        for (int i = 0; i < 10; i++) {
+            graph.addEdge(i, (i + 1) % 10, "e" + i, false);
+        }
+        graph.addEdge(0, 5, "directed", true);
+
+        CSRGraph<String, String> csr = CSRGraph.fromGraph(graph, true);
+        assertEquals(10, csr.numVertices());
+        assertEquals(21, csr.numEdgeEntries());
+        assertFalse(csr.isWeighted());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(graph.getVertex(i), csr.getVertex(i));
+            assertEquals(graph.getVertexDegree(i), csr.getVertexDegree(i));
+            assertEquals(edgeSet(graph, i), edgeSet(csr, i));
+
+            int[] expected = graph.getConnectedVertexIndices(i);
+            int[] actual = csr.getConnectedVertexIndices(i);
+            Arrays.sort(expected);
+            Arrays.sort(actual);
+            assertArrayEquals(expected, actual);
+        }
+
+        try {
+            csr.addEdge(1, 2, "x", true);
+            fail("Expected exception");
+        } catch (UnsupportedOperationException e) {
+            //OK
+        }
+    }
+
+    private static Set<String> edgeSet(IGraph<String, String> graph, int vertex) {
+        //Undirected edges may be returned as either from->to or to->from
+        Set<String> set = new HashSet<>();
+        for (Edge<String> e : graph.getEdgesOut(vertex)) {
+            int other = (e.getFrom() == vertex ? e.getTo() : e.getFrom());
+            set.add(other + "," + e.getValue() + "," + e.isDirected());
+        }
+        return set;
+    }
+
+    @Test
+    public void testLoadCSRGraphParallel() throws Exception {
+        int numVertices = 1000;
+        File f = File.createTempFile("csrgraph", ".txt");
+        f.deleteOnExit();
+        Random r = new Random(12345);
+        try (PrintWriter pw = new PrintWriter(f)) {
+            pw.println("//comment");
+            for (int i = 0; i < 200000; i++) {
+                pw.println(r.nextInt(numVertices) + "," + r.nextInt(numVertices) + "," + (1 + r.nextInt(10)));
+            }
+        }
+
+        Graph<String, Double> graph =
+                        GraphLoader.loadWeightedEdgeListFile(f.getAbsolutePath(), numVertices, ",", false, "//");
+        CSRGraph<String, Double> csr1 = GraphLoader.loadCSRGraph(f.getAbsolutePath(),
+                        new WeightedEdgeLineProcessor(",", false, "//"), new StringVertexFactory(), numVertices, false,
+                        1);
+        CSRGraph<String, Double> csr4 = GraphLoader.loadCSRGraph(f.getAbsolutePath(),
+                        new WeightedEdgeLineProcessor(",", false, "//"), new StringVertexFactory(), numVertices, false,
+                        4);
+
+        //Result should not depend on number of threads
+        assertEquals(csr1, csr4);
+        assertEquals(CSRGraph.fromGraph(graph, false), csr1);
+        assertTrue(csr1.isWeighted());
+        assertEquals(400000, csr1.numEdgeEntries());
+
+        for (int i = 0; i < numVertices; i++) {
+            assertEquals(graph.getVertexDegree(i), csr1.getVertexDegree(i));
+        }
+    }
+
+    @Test
+    public void testAliasSamplingProbabilities() throws Exception {
+        String path = new ClassPathResource("WeightedGraph.txt").getTempFileFromArchive().getAbsolutePath();
+        int numVertices = 9;
+        IGraph<String, Double> graph = GraphLoader.loadWeightedEdgeListFile(path, numVertices, ",", true, "//");
+        CSRGraph<String, Double> csr = GraphLoader.loadCSRGraph(path, new WeightedEdgeLineProcessor(",", true, "//"),
+                        new StringVertexFactory(), numVertices, true, 2);
+
+        Random r = new Random(12345);
+        int nSamples = 100000;
+        for (int i = 0; i < numVertices; i++) {
+            double totalWeight = 0.0;
+            for (Edge<Double> e : graph.getEdgesOut(i))
+                totalWeight += e.getValue();
+
+            int[] counts = new int[numVertices];
+            for (int j = 0; j < nSamples; j++)
+                counts[csr.getWeightedRandomConnectedVertexIndex(i, r)]++;
+
+            for (Edge<Double> e : graph.getEdgesOut(i)) {
+                double expected = e.getValue() / totalWeight;
+                double actual = counts[e.getTo()] / (double) nSamples;
+                assertEquals(expected, actual, 0.01);
+            }
+        }
+    }
+
+    @Test
+    public void testWeightedRandomWalkIterator() throws Exception {
+        String path = new ClassPathResource("WeightedGraph.txt").getTempFileFromArchive().getAbsolutePath();
+        int numVertices = 9;
+        CSRGraph<String, Double> csr = GraphLoader.loadCSRGraph(path, new WeightedEdgeLineProcessor(",", true, "//"),
+                        new StringVertexFactory(), numVertices, false, 1);
+
+        int walkLength = 5;
+        WeightedRandomWalkIterator<String> iterator = new WeightedRandomWalkIterator<>(csr, walkLength, 12345);
+        HashSet<Integer> starts = new HashSet<>();
+        while (iterator.hasNext()) {
+            IVertexSequence<String> walk = iterator.next();
+            assertEquals(walkLength + 1, walk.sequenceLength());
+            int last = walk.next().vertexID();
+            starts.add(last);
+            while (walk.hasNext()) {
+                int curr = walk.next().vertexID();
+                int[] connected = csr.getConnectedVertexIndices(last);
+                Arrays.sort(connected);
+                assertTrue(Arrays.binarySearch(connected, curr) >= 0);
+                last = curr;
+            }
+        }
+        assertEquals(numVertices, starts.size());
+    }
+
+    @Test
+    public void testRandomWalkIteratorDisconnected() throws Exception {
+        File f = File.createTempFile("csrgraph", ".txt");
+        f.deleteOnExit();
+        try (PrintWriter pw = new PrintWriter(f)) {
+            pw.println("0 1");
+            pw.println("1 2");
+        }
+
+        //Vertex 3 has no edges
+        CSRGraph<String, String> csr = GraphLoader.loadCSRGraph(f.getAbsolutePath(),
+                        new DelimitedEdgeLineProcessor(" ", false), new StringVertexFactory(), 4, false, 1);
+
+        RandomWalkIterator<String> iterator =
+                        new RandomWalkIterator<>(csr, 4, 12345, NoEdgeHandling.SELF_LOOP_ON_DISCONNECTED);
+        int count = 0;
+        while (iterator.hasNext()) {
+            IVertexSequence<String> walk = iterator.next();
+            assertEquals(5, walk.sequenceLength());
+            count++;
+        }
+        assertEquals(4, count);
+
+        iterator = new RandomWalkIterator<>(csr, 4, 12345, NoEdgeHandling.EXCEPTION_ON_DISCONNECTED);
+        try {
+            while (iterator.hasNext())
+                iterator.next();
+            fail("Expected exception");
+        } catch (NoEdgesException e) {
+            //OK
+        }
+    }
+
+    @Test
+    public void testRandomWalkIteratorIsolatedVertex() {
+        //Vertex 3 has no edges: self loop walks should contain only vertex 3, for the full walk length
+        Graph<String, String> graph = new Graph<>(4, false, new StringVertexFactory());
+        graph.addEdge(0, 1, "e0", false);
+        graph.addEdge(1, 2, "e1", false);
+        CSRGraph<String, String> csr = CSRGraph.fromGraph(graph, false);
+
+        int walkLength = 4;
+        for (IGraph<String, String> g : Arrays.<IGraph<String, String>>asList(graph, csr)) {
+            RandomWalkIterator<String> iterator =
+                            new RandomWalkIterator<>(g, walkLength, 12345, NoEdgeHandling.SELF_LOOP_ON_DISCONNECTED);
+            boolean seenIsolated = false;
+            while (iterator.hasNext()) {
+                IVertexSequence<String> walk = iterator.next();
+                assertEquals(walkLength + 1, walk.sequenceLength());
+                int first = walk.next().vertexID();
+                if (first != 3)
+                    continue;
+                seenIsolated = true;
+                int count = 1;
+                while (walk.hasNext()) {
+                    assertEquals(3, walk.next().vertexID());
+                    count++;
+                }
+                assertEquals(walkLength + 1, count);
+            }
+            assertTrue(seenIsolated);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.atilika.kuromoji;
 
 import com.atilika.kuromoji.dict.*;
 import com.atilika.kuromoji.trie.DoubleArrayTrie;
+import com.atilika.kuromoji.util.FileResourceResolver;
 import com.atilika.kuromoji.util.ResourceResolver;
 import com.atilika.kuromoji.viterbi.*;
 
@@ -69,7 +70,7 @@ public abstract class TokenizerBase {
         this.insertedDictionary = builder.insertedDictionary;
 
         this.viterbiBuilder = new ViterbiBuilder(builder.doubleArrayTrie, tokenInfoDictionary, unknownDictionary,
-                        userDictionary, builder.mode);
+                        userDictionary, builder.mode, builder.reuseLattices);
 
         this.viterbiSearcher = new ViterbiSearcher(builder.mode, builder.connectionCosts, unknownDictionary,
                         builder.penalties);
@@ -245,15 +246,16 @@ public abstract class TokenizerBase {
         protected int readingFeature = -1;
         protected int partOfSpeechFeature = -1;
 
+        protected boolean memoryMapDictionaries = false;
+        protected boolean reuseLattices = false;
+
         protected ResourceResolver resolver;
 
         protected TokenFactory tokenFactory;
 
         protected void loadDictionaries() {
             try {
-                doubleArrayTrie = DoubleArrayTrie.newInstance(resolver);
-                connectionCosts = ConnectionCosts.newInstance(resolver);
-                tokenInfoDictionary = TokenInfoDictionary.newInstance(resolver);
+                loadLargeDictionaries();
                 characterDefinitions = CharacterDefinitions.newInstance(resolver);
                 unknownDictionary = UnknownDictionary.newInstance(resolver, characterDefinitions, totalFeatures);
                 insertedDictionary = new InsertedDictionary(totalFeatures);
@@ -262,6 +264,28 @@ public abstract class TokenizerBase {
             }
         }
 
+        /**
+         * Loads the trie, connection costs and token info dictionary: either memory mapped or as heap copies, see
+         * {@link #memoryMapDictionaries(boolean)}
+         *
+         * @throws IOException if an error occurs when reading or mapping the dictionaries
+         */
+        protected void loadLargeDictionaries() throws IOException {
+            if (memoryMapDictionaries) {
+                if (!(resolver instanceof FileResourceResolver)) {
+                    throw new IllegalStateException("Memory mapped dictionaries require dictionary files ("
+                                    + FileResourceResolver.class.getSimpleName() + "), got resolver " + resolver);
+                }
+                doubleArrayTrie = DoubleArrayTrie.map(DoubleArrayTrie.DOUBLE_ARRAY_TRIE_FILENAME);
+                connectionCosts = ConnectionCosts.map(ConnectionCosts.CONNECTION_COSTS_FILENAME);
+                tokenInfoDictionary = TokenInfoDictionary.map(resolver);
+            } else {
+                doubleArrayTrie = DoubleArrayTrie.newInstance(resolver);
+                connectionCosts = ConnectionCosts.newInstance(resolver);
+                tokenInfoDictionary = TokenInfoDictionary.newInstance(resolver);
+            }
+        }
+
         /**
          * Creates a Tokenizer instance defined by this Builder
          *
@@ -270,6 +294,37 @@ public abstract class TokenizerBase {
          */
         public abstract <T extends TokenizerBase> T build();
 
+        /**
+         * Memory maps the large compiled dictionaries (trie, connection costs and token info dictionary) read-only,
+         * instead of copying them onto the heap. The mappings are shared by all tokenizers in the JVM, and the pages
+         * by all processes using the same dictionary files, which reduces heap usage and start up time for each
+         * tokenizer instance
+         * <p>
+         * This feature is off by default, and requires the dictionaries to be loaded from files
+         *
+         * @param memoryMap  whether to memory map the dictionaries
+         * @return this builder
+         */
+        public Builder memoryMapDictionaries(boolean memoryMap) {
+            this.memoryMapDictionaries = memoryMap;
+            return this;
+        }
+
+        /**
+         * Reuses one Viterbi lattice, including its nodes, per thread for all sentences tokenized by the tokenizer,
+         * instead of allocating a new lattice for each sentence. Tokenization remains thread safe; each thread keeps
+         * the lattice grown to its longest sentence so far
+         * <p>
+         * This feature is off by default
+         *
+         * @param reuse  whether to reuse lattices
+         * @return this builder
+         */
+        public Builder reuseLattices(boolean reuse) {
+            this.reuseLattices = reuse;
+            return this;
+        }
+
         /**
          * Sets an optional user dictionary as an input stream
          * <p>
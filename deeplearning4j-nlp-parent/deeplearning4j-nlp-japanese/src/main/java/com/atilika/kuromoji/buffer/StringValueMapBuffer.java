@@ -41,6 +41,14 @@ public class StringValueMapBuffer {
         buffer = ByteBufferIO.read(is);
     }
 
+    /**
+     * @param buffer  string value map buffer, as written by {@link #write(OutputStream)}. May be a read-only (memory
+     *                mapped) buffer
+     */
+    public StringValueMapBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
     private static int getMetaDataSize() {
         return INTEGER_BYTES;
     }
@@ -86,7 +94,16 @@ public class StringValueMapBuffer {
 
     private String getString(int address) {
         int length = buffer.getShort(address);
-        return new String(buffer.array(), address + SHORT_BYTES, length, StandardCharsets.UTF_8);
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + address + SHORT_BYTES, length,
+                            StandardCharsets.UTF_8);
+        }
+        // Read-only and mapped buffers don't expose an array; copy via a view so concurrent lookups don't interfere
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(address + SHORT_BYTES);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
     }
 
     public void write(OutputStream os) throws IOException {
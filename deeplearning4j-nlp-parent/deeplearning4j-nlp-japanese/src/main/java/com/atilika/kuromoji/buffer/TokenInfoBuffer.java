@@ -36,7 +36,14 @@ public class TokenInfoBuffer {
     private final int entrySize;
 
     public TokenInfoBuffer(InputStream is) throws IOException {
-        buffer = ByteBufferIO.read(is);
+        this(ByteBufferIO.read(is));
+    }
+
+    /**
+     * @param buffer  token info buffer, as written by the compiler. May be a read-only (memory mapped) buffer
+     */
+    public TokenInfoBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
         tokenInfoCount = getTokenInfoCount();
         posInfoCount = getPosInfoCount();
         featureCount = getFeatureCount();
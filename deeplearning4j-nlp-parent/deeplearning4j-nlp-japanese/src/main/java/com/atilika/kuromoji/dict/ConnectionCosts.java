@@ -50,6 +50,21 @@ public class ConnectionCosts {
         return read(resolver.resolve(CONNECTION_COSTS_FILENAME));
     }
 
+    /**
+     * Creates connection costs backed by a read-only memory mapping of the compiled costs file, instead of a heap copy
+     *
+     * @param fileName  compiled connection costs file
+     * @return connection costs, not null
+     * @throws IOException if the file can't be mapped
+     */
+    public static ConnectionCosts map(String fileName) throws IOException {
+        ByteBuffer file = ByteBufferIO.map(fileName);
+        int size = file.getInt(0);
+        ShortBuffer costs = ByteBufferIO.map(fileName, Integer.SIZE / Byte.SIZE).asShortBuffer();
+
+        return new ConnectionCosts(size, costs);
+    }
+
     private static ConnectionCosts read(InputStream input) throws IOException {
         DataInputStream dataInput = new DataInputStream(new BufferedInputStream(input));
 
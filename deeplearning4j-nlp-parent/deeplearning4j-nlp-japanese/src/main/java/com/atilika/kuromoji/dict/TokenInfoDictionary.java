@@ -20,6 +20,7 @@ import com.atilika.kuromoji.buffer.BufferEntry;
 import com.atilika.kuromoji.buffer.StringValueMapBuffer;
 import com.atilika.kuromoji.buffer.TokenInfoBuffer;
 import com.atilika.kuromoji.buffer.WordIdMap;
+import com.atilika.kuromoji.io.ByteBufferIO;
 import com.atilika.kuromoji.util.DictionaryEntryLineParser;
 import com.atilika.kuromoji.util.ResourceResolver;
 import com.atilika.kuromoji.util.StringUtils;
@@ -167,6 +168,23 @@ public class TokenInfoDictionary implements Dictionary {
         return dictionary;
     }
 
+    /**
+     * Creates a dictionary whose token info and feature buffers are read-only memory mappings of the compiled
+     * dictionary files, instead of heap copies. The (small) word id map is still read via the resolver
+     *
+     * @param resolver  resolver for the word id map
+     * @return token info dictionary, not null
+     * @throws IOException if the dictionary files can't be mapped or read
+     */
+    public static TokenInfoDictionary map(ResourceResolver resolver) throws IOException {
+        TokenInfoDictionary dictionary = new TokenInfoDictionary();
+        dictionary.tokenInfoBuffer = new TokenInfoBuffer(ByteBufferIO.map(TOKEN_INFO_DICTIONARY_FILENAME, 0));
+        dictionary.stringValues = new StringValueMapBuffer(ByteBufferIO.map(FEATURE_MAP_FILENAME, 0));
+        dictionary.posValues = new StringValueMapBuffer(ByteBufferIO.map(POS_MAP_FILENAME, 0));
+        dictionary.wordIdMap = new WordIdMap(resolver.resolve(TARGETMAP_FILENAME));
+        return dictionary;
+    }
+
     private void setup(ResourceResolver resolver) throws IOException {
         tokenInfoBuffer = new TokenInfoBuffer(resolver.resolve(TOKEN_INFO_DICTIONARY_FILENAME));
         stringValues = new StringValueMapBuffer(resolver.resolve(FEATURE_MAP_FILENAME));
@@ -18,12 +18,22 @@ package com.atilika.kuromoji.io;
 
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ByteBufferIO {
 
+    /**
+     * Read-only mappings of dictionary files, by canonical path. Mappings are shared by all dictionaries (and so all
+     * tokenizer instances) in this JVM; the pages themselves are shared with other processes via the OS page cache
+     */
+    private static final ConcurrentMap<String, MappedByteBuffer> MAPPED_FILES = new ConcurrentHashMap<>();
+
     public static ByteBuffer read(InputStream input) throws IOException {
         DataInputStream dataInput = new DataInputStream(new BufferedInputStream(input));
 
@@ -47,4 +57,56 @@ public class ByteBufferIO {
         channel.write(buffer);
         dataOutput.flush(); // TODO: Do we need this?
     }
+
+    /**
+     * Memory map a file read-only. The file is mapped once per JVM; each call returns a new view of the shared
+     * mapping, positioned at 0
+     *
+     * @param fileName  file to map
+     * @return read-only, big endian view of the whole file
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public static ByteBuffer map(String fileName) throws IOException {
+        String path = new File(fileName).getCanonicalPath();
+        MappedByteBuffer mapped = MAPPED_FILES.get(path);
+        if (mapped == null) {
+            RandomAccessFile file = new RandomAccessFile(path, "r");
+            try {
+                FileChannel channel = file.getChannel();
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } finally {
+                file.close(); // The mapping stays valid after the channel is closed
+            }
+            MappedByteBuffer existing = MAPPED_FILES.putIfAbsent(path, mapped);
+            if (existing != null) {
+                mapped = existing;
+            }
+        }
+        return mapped.duplicate();
+    }
+
+    /**
+     * Memory map a buffer stored with {@link #write(OutputStream, ByteBuffer)}. This is the mapped equivalent of
+     * {@link #read(InputStream)}, without copying the buffer onto the heap
+     *
+     * @param fileName  file to map
+     * @param position  position of the stored buffer (i.e., its size field) in the file
+     * @return read-only, big endian view of the stored buffer
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public static ByteBuffer map(String fileName, int position) throws IOException {
+        ByteBuffer file = map(fileName);
+        int size = file.getInt(position);
+        return slice(file, position + Integer.SIZE / Byte.SIZE, size);
+    }
+
+    /**
+     * @return view of {@code length} bytes of the buffer, starting at {@code position}
+     */
+    public static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return view.slice();
+    }
 }
@@ -19,7 +19,6 @@ package com.atilika.kuromoji.ipadic;
 import com.atilika.kuromoji.TokenizerBase;
 import com.atilika.kuromoji.dict.*;
 import com.atilika.kuromoji.ipadic.compile.DictionaryEntry;
-import com.atilika.kuromoji.trie.DoubleArrayTrie;
 import com.atilika.kuromoji.util.FileResourceResolver;
 import com.atilika.kuromoji.util.SimpleResourceResolver;
 import com.atilika.kuromoji.viterbi.TokenFactory;
@@ -208,9 +207,7 @@ public class Tokenizer extends TokenizerBase {
             resolver = new FileResourceResolver();
 
             try {
-                doubleArrayTrie = DoubleArrayTrie.newInstance(resolver);
-                connectionCosts = ConnectionCosts.newInstance(resolver);
-                tokenInfoDictionary = TokenInfoDictionary.newInstance(resolver);
+                loadLargeDictionaries();
                 characterDefinitions = CharacterDefinitions.newInstance(resolver);
 
                 if (nakaguroSplit) {
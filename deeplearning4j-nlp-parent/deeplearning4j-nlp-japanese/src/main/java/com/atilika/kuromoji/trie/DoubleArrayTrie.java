@@ -17,6 +17,7 @@
 package com.atilika.kuromoji.trie;
 
 import com.atilika.kuromoji.compile.ProgressLog;
+import com.atilika.kuromoji.io.ByteBufferIO;
 import com.atilika.kuromoji.util.ResourceResolver;
 import com.atilika.kuromoji.util.KuromojiBinFilesFetcher;
 
@@ -136,6 +137,31 @@ public class DoubleArrayTrie {
         return trie;
     }
 
+    /**
+     * Load stored data as read-only views of a memory mapping of the file, instead of heap copies
+     *
+     * @param fileName  file to map, as written by {@link #write(OutputStream)}
+     * @return double array trie, not null
+     * @throws IOException if the file can't be mapped
+     */
+    public static DoubleArrayTrie map(String fileName) throws IOException {
+        DoubleArrayTrie trie = new DoubleArrayTrie();
+        ByteBuffer file = ByteBufferIO.map(fileName);
+
+        trie.compact = file.get(0) != 0;
+        int baseCheckSize = file.getInt(1); // Read size of baseArr and checkArr
+        int tailSize = file.getInt(5); // Read size of tailArr
+        int position = 9;
+
+        trie.baseBuffer = ByteBufferIO.slice(file, position, baseCheckSize * 4).asIntBuffer();
+        position += baseCheckSize * 4;
+        trie.checkBuffer = ByteBufferIO.slice(file, position, baseCheckSize * 4).asIntBuffer();
+        position += baseCheckSize * 4;
+        trie.tailBuffer = ByteBufferIO.slice(file, position, tailSize * 2).asCharBuffer();
+
+        return trie;
+    }
+
     /**
      * Construct double array trie which is equivalent to input trie
      *
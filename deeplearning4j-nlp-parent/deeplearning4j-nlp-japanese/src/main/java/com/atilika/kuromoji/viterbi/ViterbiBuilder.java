@@ -36,6 +36,11 @@ public class ViterbiBuilder {
     private final boolean useUserDictionary;
     private boolean searchMode;
 
+    /**
+     * Per-thread lattices, when lattices are reused. Null otherwise
+     */
+    private final ThreadLocal<ViterbiLattice> lattices;
+
     /**
      * Constructor
      *
@@ -47,6 +52,23 @@ public class ViterbiBuilder {
      */
     public ViterbiBuilder(DoubleArrayTrie trie, TokenInfoDictionary dictionary, UnknownDictionary unknownDictionary,
                     UserDictionary userDictionary, Mode mode) {
+        this(trie, dictionary, unknownDictionary, userDictionary, mode, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param trie  trie with surface forms
+     * @param dictionary  token info dictionary
+     * @param unknownDictionary  unknown word dictionary
+     * @param userDictionary  user dictionary
+     * @param mode  tokenization {@link Mode mode}
+     * @param reuseLattices  if true, each thread reuses one lattice (and its nodes) for all calls to
+     *                       {@link #build(String)}. A built lattice is then only valid until the next call to
+     *                       {@link #build(String)} by the same thread
+     */
+    public ViterbiBuilder(DoubleArrayTrie trie, TokenInfoDictionary dictionary, UnknownDictionary unknownDictionary,
+                    UserDictionary userDictionary, Mode mode, boolean reuseLattices) {
         this.trie = trie;
         this.dictionary = dictionary;
         this.unknownDictionary = unknownDictionary;
@@ -58,6 +80,17 @@ public class ViterbiBuilder {
             searchMode = true;
         }
         this.characterDefinitions = unknownDictionary.getCharacterDefinition();
+
+        if (reuseLattices) {
+            lattices = new ThreadLocal<ViterbiLattice>() {
+                @Override
+                protected ViterbiLattice initialValue() {
+                    return new ViterbiLattice(0, true);
+                }
+            };
+        } else {
+            lattices = null;
+        }
     }
 
 
@@ -69,7 +102,12 @@ public class ViterbiBuilder {
      */
     public ViterbiLattice build(String text) {
         int textLength = text.length();
-        ViterbiLattice lattice = new ViterbiLattice(textLength + 2);
+        ViterbiLattice lattice;
+        if (lattices != null) {
+            lattice = lattices.get().reset(textLength + 2);
+        } else {
+            lattice = new ViterbiLattice(textLength + 2);
+        }
 
         lattice.addBos();
 
@@ -79,18 +117,17 @@ public class ViterbiBuilder {
             // If no token ends where current token starts, skip this index
             if (lattice.tokenEndsWhereCurrentTokenStarts(startIndex)) {
 
-                String suffix = text.substring(startIndex);
-                boolean found = processIndex(lattice, startIndex, suffix);
+                boolean found = processIndex(lattice, startIndex, text);
 
                 // In the case of normal mode, it doesn't process unknown word greedily.
                 if (searchMode || unknownWordEndIndex <= startIndex) {
 
-                    int[] categories = characterDefinitions.lookupCategories(suffix.charAt(0));
+                    int[] categories = characterDefinitions.lookupCategories(text.charAt(startIndex));
 
                     for (int i = 0; i < categories.length; i++) {
                         int category = categories[i];
                         unknownWordEndIndex = processUnknownWord(category, i, lattice, unknownWordEndIndex, startIndex,
-                                        suffix, found);
+                                        text, found);
                     }
                 }
             }
@@ -105,16 +142,17 @@ public class ViterbiBuilder {
         return lattice;
     }
 
-    private boolean processIndex(ViterbiLattice lattice, int startIndex, String suffix) {
+    private boolean processIndex(ViterbiLattice lattice, int startIndex, String text) {
         boolean found = false;
-        for (int endIndex = 1; endIndex < suffix.length() + 1; endIndex++) {
-            String prefix = suffix.substring(0, endIndex);
+        int suffixLength = text.length() - startIndex;
+        for (int endIndex = 1; endIndex < suffixLength + 1; endIndex++) {
+            String prefix = text.substring(startIndex, startIndex + endIndex);
             int result = trie.lookup(prefix, 0, 0);
 
             if (result > 0) { // Found match in double array trie
                 found = true; // Don't produce unknown word starting from this index
                 for (int wordId : dictionary.lookupWordIds(result)) {
-                    ViterbiNode node = new ViterbiNode(wordId, prefix, dictionary, startIndex, ViterbiNode.Type.KNOWN);
+                    ViterbiNode node = lattice.newNode(wordId, prefix, dictionary, startIndex, ViterbiNode.Type.KNOWN);
                     lattice.addNode(node, startIndex + 1, startIndex + 1 + endIndex);
                 }
             } else if (result < 0) { // If result is less than zero, continue to next position
@@ -125,7 +163,7 @@ public class ViterbiBuilder {
     }
 
     private int processUnknownWord(int category, int i, ViterbiLattice lattice, int unknownWordEndIndex, int startIndex,
-                    String suffix, boolean found) {
+                    String text, boolean found) {
         int unknownWordLength = 0;
         int[] definition = characterDefinitions.lookupDefinition(category);
 
@@ -134,8 +172,8 @@ public class ViterbiBuilder {
                 unknownWordLength = 1;
             } else {
                 unknownWordLength = 1;
-                for (int j = 1; j < suffix.length(); j++) {
-                    char c = suffix.charAt(j);
+                for (int j = startIndex + 1; j < text.length(); j++) {
+                    char c = text.charAt(j);
 
                     int[] categories = characterDefinitions.lookupCategories(c);
 
@@ -153,11 +191,11 @@ public class ViterbiBuilder {
         }
 
         if (unknownWordLength > 0) {
-            String unkWord = suffix.substring(0, unknownWordLength);
+            String unkWord = text.substring(startIndex, startIndex + unknownWordLength);
             int[] wordIds = unknownDictionary.lookupWordIds(category); // characters in input text are supposed to be the same
 
             for (int wordId : wordIds) {
-                ViterbiNode node = new ViterbiNode(wordId, unkWord, unknownDictionary, startIndex,
+                ViterbiNode node = lattice.newNode(wordId, unkWord, unknownDictionary, startIndex,
                                 ViterbiNode.Type.UNKNOWN);
                 lattice.addNode(node, startIndex + 1, startIndex + 1 + unknownWordLength);
             }
@@ -183,7 +221,7 @@ public class ViterbiBuilder {
 
             String word = text.substring(index, index + length);
 
-            ViterbiNode node = new ViterbiNode(wordId, word, userDictionary, index, ViterbiNode.Type.USER);
+            ViterbiNode node = lattice.newNode(wordId, word, userDictionary, index, ViterbiNode.Type.USER);
             int nodeStartIndex = index + 1;
             int nodeEndIndex = nodeStartIndex + length;
 
@@ -243,7 +281,7 @@ public class ViterbiBuilder {
                 if (glueBase != null) {
                     int length = index + 1 - startIndex;
                     String surface = glueBase.getSurface().substring(0, length);
-                    ViterbiNode glueNode = createGlueNode(startIndex, glueBase, surface);
+                    ViterbiNode glueNode = createGlueNode(lattice, startIndex, glueBase, surface);
                     lattice.addNode(glueNode, startIndex, startIndex + glueNode.getSurface().length());
                     return;
                 }
@@ -267,7 +305,7 @@ public class ViterbiBuilder {
                     int delta = endIndex - nodeEndIndex;
                     String glueBaseSurface = glueBase.getSurface();
                     String surface = glueBaseSurface.substring(glueBaseSurface.length() - delta);
-                    ViterbiNode glueNode = createGlueNode(nodeEndIndex, glueBase, surface);
+                    ViterbiNode glueNode = createGlueNode(lattice, nodeEndIndex, glueBase, surface);
                     lattice.addNode(glueNode, nodeEndIndex, nodeEndIndex + glueNode.getSurface().length());
                     return;
                 }
@@ -326,13 +364,14 @@ public class ViterbiBuilder {
      * The new node takes the same parameters as the node it is based on, but the word is truncated to match the
      * hole in the lattice caused by the new user entry
      *
+     * @param lattice
      * @param startIndex
      * @param glueBase
      * @param surface
      * @return new ViterbiNode to be inserted as glue into the lattice
      */
-    private ViterbiNode createGlueNode(int startIndex, ViterbiNode glueBase, String surface) {
-        return new ViterbiNode(glueBase.getWordId(), surface, glueBase.getLeftId(), glueBase.getRightId(),
+    private ViterbiNode createGlueNode(ViterbiLattice lattice, int startIndex, ViterbiNode glueBase, String surface) {
+        return lattice.newNode(glueBase.getWordId(), surface, glueBase.getLeftId(), glueBase.getRightId(),
                         glueBase.getWordCost(), startIndex, ViterbiNode.Type.INSERTED);
     }
 }
@@ -16,23 +16,102 @@
  */
 package com.atilika.kuromoji.viterbi;
 
+import com.atilika.kuromoji.dict.Dictionary;
+
+import java.util.Arrays;
+
 public class ViterbiLattice {
 
     private static final String BOS = "BOS";
     private static final String EOS = "EOS";
 
-    private final int dimension;
-    private final ViterbiNode[][] startIndexArr;
-    private final ViterbiNode[][] endIndexArr;
-    private final int[] startSizeArr;
-    private final int[] endSizeArr;
+    private static final int INITIAL_NODE_ARRAY_SIZE = 10;
+
+    private int dimension;
+    private ViterbiNode[][] startIndexArr;
+    private ViterbiNode[][] endIndexArr;
+    private int[] startSizeArr;
+    private int[] endSizeArr;
+
+    /**
+     * Reusable lattices keep the node arrays and the nodes of previous builds, see {@link #reset(int)}
+     */
+    private final boolean reusable;
+    private ViterbiNode[][] spareStartIndexArr;
+    private ViterbiNode[][] spareEndIndexArr;
+    private ViterbiNode[] nodePool;
+    private int nodePoolSize;
 
     public ViterbiLattice(int dimension) {
+        this(dimension, false);
+    }
+
+    /**
+     * @param dimension  lattice dimension: text length + 2
+     * @param reusable  if true, this lattice can be {@link #reset(int) reset} and reused for another text, without
+     *                  allocating new nodes or node arrays once it has grown large enough
+     */
+    public ViterbiLattice(int dimension, boolean reusable) {
+        this.reusable = reusable;
+        this.nodePool = new ViterbiNode[0];
+        allocate(dimension);
         this.dimension = dimension;
-        startIndexArr = new ViterbiNode[dimension][];
-        endIndexArr = new ViterbiNode[dimension][];
-        startSizeArr = new int[dimension];
-        endSizeArr = new int[dimension];
+    }
+
+    private void allocate(int capacity) {
+        startIndexArr = new ViterbiNode[capacity][];
+        endIndexArr = new ViterbiNode[capacity][];
+        startSizeArr = new int[capacity];
+        endSizeArr = new int[capacity];
+        if (reusable) {
+            spareStartIndexArr = new ViterbiNode[capacity][];
+            spareEndIndexArr = new ViterbiNode[capacity][];
+        }
+    }
+
+    /**
+     * Clear this lattice, so it can be built again for a text with the given dimension. Node arrays and nodes are
+     * kept for reuse; all nodes returned by {@link #newNode} since the last reset are invalidated.
+     * <p>
+     * Unused positions are null, as in a newly created lattice. The arrays may be longer than the dimension; positions
+     * past the dimension are always null
+     *
+     * @param dimension  lattice dimension: text length + 2
+     * @return this lattice
+     */
+    public ViterbiLattice reset(int dimension) {
+        if (!reusable) {
+            throw new IllegalStateException("Lattice is not reusable");
+        }
+
+        for (int i = 0; i < startIndexArr.length; i++) {
+            spareStartIndexArr[i] = release(startIndexArr[i], startSizeArr[i], spareStartIndexArr[i]);
+            spareEndIndexArr[i] = release(endIndexArr[i], endSizeArr[i], spareEndIndexArr[i]);
+            startIndexArr[i] = null;
+            endIndexArr[i] = null;
+            startSizeArr[i] = 0;
+            endSizeArr[i] = 0;
+        }
+
+        if (startIndexArr.length < dimension) {
+            ViterbiNode[][] spareStarts = spareStartIndexArr;
+            ViterbiNode[][] spareEnds = spareEndIndexArr;
+            allocate(Math.max(dimension, 2 * startIndexArr.length));
+            System.arraycopy(spareStarts, 0, spareStartIndexArr, 0, spareStarts.length);
+            System.arraycopy(spareEnds, 0, spareEndIndexArr, 0, spareEnds.length);
+        }
+
+        this.dimension = dimension;
+        this.nodePoolSize = 0;
+        return this;
+    }
+
+    private static ViterbiNode[] release(ViterbiNode[] nodes, int size, ViterbiNode[] spare) {
+        if (nodes == null) {
+            return spare;
+        }
+        Arrays.fill(nodes, 0, size, null);
+        return nodes;
     }
 
     public ViterbiNode[][] getStartIndexArr() {
@@ -51,33 +130,67 @@ public class ViterbiLattice {
         return endSizeArr;
     }
 
+    /**
+     * Create a node for this lattice. Reusable lattices return a pooled node, valid until the next {@link #reset(int)}
+     */
+    public ViterbiNode newNode(int wordId, String surface, int leftId, int rightId, int wordCost, int startIndex,
+                    ViterbiNode.Type type) {
+        if (!reusable) {
+            return new ViterbiNode(wordId, surface, leftId, rightId, wordCost, startIndex, type);
+        }
+
+        if (nodePoolSize == nodePool.length) {
+            nodePool = Arrays.copyOf(nodePool, Math.max(64, 2 * nodePool.length));
+        }
+        ViterbiNode node = nodePool[nodePoolSize];
+        if (node == null) {
+            node = new ViterbiNode(wordId, surface, leftId, rightId, wordCost, startIndex, type);
+            nodePool[nodePoolSize] = node;
+        } else {
+            node.set(wordId, surface, leftId, rightId, wordCost, startIndex, type);
+        }
+        nodePoolSize++;
+        return node;
+    }
+
+    public ViterbiNode newNode(int wordId, String word, Dictionary dictionary, int startIndex, ViterbiNode.Type type) {
+        return newNode(wordId, word, dictionary.getLeftId(wordId), dictionary.getRightId(wordId),
+                        dictionary.getWordCost(wordId), startIndex, type);
+    }
+
     public void addBos() {
-        ViterbiNode bosNode = new ViterbiNode(-1, BOS, 0, 0, 0, -1, ViterbiNode.Type.KNOWN);
+        ViterbiNode bosNode = newNode(-1, BOS, 0, 0, 0, -1, ViterbiNode.Type.KNOWN);
         addNode(bosNode, 0, 1);
     }
 
     public void addEos() {
-        ViterbiNode eosNode = new ViterbiNode(-1, EOS, 0, 0, 0, dimension - 1, ViterbiNode.Type.KNOWN);
+        ViterbiNode eosNode = newNode(-1, EOS, 0, 0, 0, dimension - 1, ViterbiNode.Type.KNOWN);
         addNode(eosNode, dimension - 1, 0);
     }
 
     void addNode(ViterbiNode node, int start, int end) {
-        addNodeToArray(node, start, getStartIndexArr(), getStartSizeArr());
-        addNodeToArray(node, end, getEndIndexArr(), getEndSizeArr());
+        addNodeToArray(node, start, getStartIndexArr(), getStartSizeArr(), spareStartIndexArr);
+        addNodeToArray(node, end, getEndIndexArr(), getEndSizeArr(), spareEndIndexArr);
     }
 
-    private void addNodeToArray(final ViterbiNode node, final int index, ViterbiNode[][] arr, int[] sizes) {
+    private void addNodeToArray(final ViterbiNode node, final int index, ViterbiNode[][] arr, int[] sizes,
+                    ViterbiNode[][] spare) {
         int count = sizes[index];
 
-        expandIfNeeded(index, arr, count);
+        expandIfNeeded(index, arr, count, spare);
 
         arr[index][count] = node;
         sizes[index] = count + 1;
     }
 
-    private void expandIfNeeded(final int index, ViterbiNode[][] arr, final int count) {
+    private void expandIfNeeded(final int index, ViterbiNode[][] arr, final int count, ViterbiNode[][] spare) {
         if (count == 0) {
-            arr[index] = new ViterbiNode[10];
+            if (spare != null && spare[index] != null) {
+                arr[index] = spare[index];
+                spare[index] = null;
+            } else {
+                arr[index] = new ViterbiNode[INITIAL_NODE_ARRAY_SIZE];
+            }
         }
 
         if (arr[index].length <= count) {
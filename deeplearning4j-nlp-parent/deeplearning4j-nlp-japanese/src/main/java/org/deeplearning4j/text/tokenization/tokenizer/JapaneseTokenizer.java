@@ -45,7 +45,15 @@ public class JapaneseTokenizer implements org.deeplearning4j.text.tokenization.t
     private TokenPreProcess preProcess;
 
     public JapaneseTokenizer(String toTokenize) {
-        Tokenizer tokenizer = new Tokenizer();
+        this(toTokenize, new Tokenizer());
+    }
+
+    /**
+     * @param toTokenize  text to tokenize
+     * @param tokenizer   Kuromoji tokenizer to use. Kuromoji tokenizers are thread safe, and should be shared where
+     *                    possible: creating one loads all dictionaries
+     */
+    public JapaneseTokenizer(String toTokenize, Tokenizer tokenizer) {
         Iterator<Token> iter = tokenizer.tokenize(toTokenize).iterator();
 
         tokens = new ArrayList<String>();
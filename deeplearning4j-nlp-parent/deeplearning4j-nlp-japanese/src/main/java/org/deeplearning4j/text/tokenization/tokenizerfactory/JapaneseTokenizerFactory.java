@@ -6,18 +6,45 @@ import org.deeplearning4j.text.tokenization.tokenizer.JapaneseTokenizer;
 
 import java.io.InputStream;
 
+/**
+ * Tokenizer factory for Japanese text, using the Kuromoji tokenizer.<br>
+ * All tokenizers created by one factory share one (thread safe) Kuromoji tokenizer, so the dictionaries are loaded
+ * once per factory instead of once per sentence. By default, the Kuromoji tokenizer reuses its Viterbi lattices;
+ * pass a tokenizer built with
+ * {@link com.atilika.kuromoji.TokenizerBase.Builder#memoryMapDictionaries(boolean)} to also share the dictionaries
+ * between factories and processes.
+ */
 public class JapaneseTokenizerFactory implements TokenizerFactory {
     private TokenPreProcess preProcess;
     private boolean useBaseForm;
+    private volatile com.atilika.kuromoji.ipadic.Tokenizer kuromoji;
 
     public JapaneseTokenizerFactory() {}
 
+    /**
+     * @param kuromoji  Kuromoji tokenizer to use for all tokenizers created by this factory
+     */
+    public JapaneseTokenizerFactory(com.atilika.kuromoji.ipadic.Tokenizer kuromoji) {
+        this.kuromoji = kuromoji;
+    }
+
+    private com.atilika.kuromoji.ipadic.Tokenizer getKuromoji() {
+        if (kuromoji == null) {
+            synchronized (this) {
+                if (kuromoji == null) {
+                    kuromoji = new com.atilika.kuromoji.ipadic.Tokenizer.Builder().reuseLattices(true).build();
+                }
+            }
+        }
+        return kuromoji;
+    }
+
     @Override
     public Tokenizer create(String toTokenize) {
         if (toTokenize.isEmpty()) {
             throw new IllegalArgumentException("Unable to proceed; no sentence to tokenize");
         }
-        JapaneseTokenizer t = new JapaneseTokenizer(toTokenize);
+        JapaneseTokenizer t = new JapaneseTokenizer(toTokenize, getKuromoji());
         return t;
     }
 
@@ -16,8 +16,12 @@
  */
 package com.atilika.kuromoji.buffer;
 
+import com.atilika.kuromoji.io.ByteBufferIO;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.TreeMap;
 
 import static org.junit.Assert.assertEquals;
@@ -38,4 +42,25 @@ public class StringValueMapBufferTest {
         assertEquals("hello", values.get(1));
         assertEquals("日本", values.get(2));
     }
+
+    @Test
+    public void testMemoryMappedMap() throws Exception {
+        TreeMap<Integer, String> input = new TreeMap<>();
+
+        input.put(1, "hello");
+        input.put(2, "日本");
+        input.put(0, "Bye");
+
+        File file = File.createTempFile("kuromoji-stringvaluemap-", ".bin");
+        file.deleteOnExit();
+        OutputStream output = new FileOutputStream(file);
+        new StringValueMapBuffer(input).write(output);
+        output.close();
+
+        StringValueMapBuffer values = new StringValueMapBuffer(ByteBufferIO.map(file.getPath(), 0));
+
+        assertEquals("Bye", values.get(0));
+        assertEquals("hello", values.get(1));
+        assertEquals("日本", values.get(2));
+    }
 }
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertEquals;
 public class ConnectionCostsCompilerTest {
 
     private static ConnectionCosts connectionCosts;
+    private static ConnectionCosts mappedConnectionCosts;
 
     @BeforeClass
     public static void setUp() throws IOException {
@@ -52,6 +53,7 @@ public class ConnectionCostsCompilerTest {
         dataInput.close();
 
         connectionCosts = new ConnectionCosts(size, costsBuffer);
+        mappedConnectionCosts = ConnectionCosts.map(costsFile.getPath());
     }
 
     @Test
@@ -60,7 +62,9 @@ public class ConnectionCostsCompilerTest {
 
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
-                assertEquals(cost++, connectionCosts.get(i, j));
+                assertEquals(cost, connectionCosts.get(i, j));
+                assertEquals(cost, mappedConnectionCosts.get(i, j));
+                cost++;
             }
         }
     }
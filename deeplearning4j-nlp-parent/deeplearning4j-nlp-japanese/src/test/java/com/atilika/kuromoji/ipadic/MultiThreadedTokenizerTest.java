@@ -36,4 +36,11 @@ public class MultiThreadedTokenizerTest {
                         new Tokenizer.Builder().userDictionary(getClass().getResourceAsStream("/userdict.txt"))
                                         .build());
     }
+
+    @Test
+    public void testMultiThreadedReusedLatticesUserDictionary() throws IOException, InterruptedException {
+        assertMultiThreadedTokenizedStreamEquals(5, 250, "/jawikisentences-ipadic-features.txt", "/jawikisentences.txt",
+                        new Tokenizer.Builder().memoryMapDictionaries(true).reuseLattices(true)
+                                        .userDictionary(getClass().getResourceAsStream("/userdict.txt")).build());
+    }
 }
@@ -222,6 +222,13 @@ public class TokenizerTest {
                         getClass().getResourceAsStream("/bocchan.txt"), tokenizer);
     }
 
+    @Test
+    public void testMemoryMappedReusedLatticesBocchan() throws IOException {
+        Tokenizer mappedTokenizer = new Tokenizer.Builder().memoryMapDictionaries(true).reuseLattices(true).build();
+        assertTokenizedStreamEquals(getClass().getResourceAsStream("/bocchan-ipadic-features.txt"),
+                        getClass().getResourceAsStream("/bocchan.txt"), mappedTokenizer);
+    }
+
     @Test
     public void testPunctuation() {
         CommonCornerCasesTest.testPunctuation(new Tokenizer());
@@ -47,8 +47,11 @@ public class DoubleArrayTrieTest {
         doubleArrayTrie.write(output);
         output.close();
 
-        doubleArrayTrie = DoubleArrayTrie.read(new FileInputStream(costsFile));
+        assertLookups(DoubleArrayTrie.read(new FileInputStream(costsFile)));
+        assertLookups(DoubleArrayTrie.map(costsFile.getPath()));
+    }
 
+    private void assertLookups(DoubleArrayTrie doubleArrayTrie) {
         assertEquals(0, doubleArrayTrie.lookup("a"));
         assertTrue(doubleArrayTrie.lookup("abc") > 0);
         assertTrue(doubleArrayTrie.lookup("あいう") > 0);
@@ -9,18 +9,29 @@ import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.models.word2vec.wordstore.VocabConstructor;
 import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
 import org.deeplearning4j.text.documentiterator.LabelAwareIterator;
+import org.deeplearning4j.text.documentiterator.LabelledDocument;
 import org.deeplearning4j.text.documentiterator.LabelsSource;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author raver119@gmail.com
  */
 public abstract class BaseTextVectorizer implements TextVectorizer {
+    // number of documents tokenized by one worker at once, in batched sparse transform
+    protected static final int SPARSE_CHUNK_SIZE = 256;
+
     @Setter
     protected transient TokenizerFactory tokenizerFactory;
     protected transient LabelAwareIterator iterator;
@@ -68,4 +79,188 @@ public abstract class BaseTextVectorizer implements TextVectorizer {
     public long numWordsEncountered() {
         return vocabCache.totalWordOccurrences();
     }
+
+    /**
+     * This method returns weight of the vocabulary word within a document
+     *
+     * @param element vocabulary word
+     * @param count number of occurrences of the word in the document
+     * @param documentLength total number of tokens in the document
+     */
+    protected abstract double weightFor(VocabWord element, int count, int documentLength);
+
+    /**
+     * This method vectorizes the text treating it as one document, without dense allocation
+     *
+     * @param text text to transform
+     * @return single-row {@link SparseTextMatrix}
+     */
+    public SparseTextMatrix transformSparse(String text) {
+        return transformSparse(tokenizerFactory.create(text).getTokens());
+    }
+
+    /**
+     * This method vectorizes the tokens of one document, without dense allocation. Tokens absent in vocabulary are
+     * skipped.
+     *
+     * @param tokens tokens to transform
+     * @return single-row {@link SparseTextMatrix}
+     */
+    public SparseTextMatrix transformSparse(List<String> tokens) {
+        SparseRow row = sparseRow(tokens);
+        return SparseTextMatrix.ofRow(vocabCache.numWords(), row.indexes, row.values, null);
+    }
+
+    /**
+     * This method vectorizes all documents provided by iterator into one {@link SparseTextMatrix}, one row per
+     * document, in the iterator order. First label of each document is stored as row label.
+     *
+     * Documents are tokenized and vectorized in parallel, unless parallel tokenization was disabled for this vectorizer.
+     *
+     * @param documents documents to transform
+     * @return {@link SparseTextMatrix} with one row per document
+     */
+    public SparseTextMatrix transformSparse(LabelAwareIterator documents) {
+        int workers = isParallel ? Runtime.getRuntime().availableProcessors() : 1;
+        ExecutorService service = workers > 1 ? Executors.newFixedThreadPool(workers) : null;
+
+        List<SparseRow> rows = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        try {
+            List<Future<List<SparseRow>>> futures = new ArrayList<>();
+            while (documents.hasNextDocument()) {
+                // documents are read sequentially in chunks, and only tokenized & vectorized in parallel
+                final List<String> chunk = new ArrayList<>(SPARSE_CHUNK_SIZE);
+                while (chunk.size() < SPARSE_CHUNK_SIZE && documents.hasNextDocument()) {
+                    LabelledDocument document = documents.nextDocument();
+                    chunk.add(document.getContent());
+                    labels.add(document.getLabels() == null || document.getLabels().isEmpty() ? null
+                                    : document.getLabels().get(0));
+                }
+
+                Callable<List<SparseRow>> task = new Callable<List<SparseRow>>() {
+                    @Override
+                    public List<SparseRow> call() throws Exception {
+                        List<SparseRow> result = new ArrayList<>(chunk.size());
+                        for (String content : chunk) {
+                            result.add(sparseRow(tokenizerFactory.create(content).getTokens()));
+                        }
+                        return result;
+                    }
+                };
+
+                if (service == null) {
+                    rows.addAll(task.call());
+                } else {
+                    futures.add(service.submit(task));
+                    // we don't want to keep whole corpus as strings in memory
+                    if (futures.size() >= workers * 4)
+                        collect(futures.remove(0), rows);
+                }
+            }
+
+            for (Future<List<SparseRow>> future : futures)
+                collect(future, rows);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (service != null)
+                service.shutdown();
+        }
+
+        long nnz = 0;
+        for (SparseRow row : rows)
+            nnz += row.indexes.length;
+
+        if (nnz > Integer.MAX_VALUE)
+            throw new IllegalStateException("Too many non-zero elements for single matrix: [" + nnz + "]");
+
+        int[] rowPointers = new int[rows.size() + 1];
+        int[] columnIndexes = new int[(int) nnz];
+        double[] values = new double[(int) nnz];
+        int position = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            SparseRow row = rows.get(i);
+            System.arraycopy(row.indexes, 0, columnIndexes, position, row.indexes.length);
+            System.arraycopy(row.values, 0, values, position, row.values.length);
+            position += row.indexes.length;
+            rowPointers[i + 1] = position;
+        }
+
+        boolean hasLabels = false;
+        for (String label : labels) {
+            if (label != null) {
+                hasLabels = true;
+                break;
+            }
+        }
+
+        return new SparseTextMatrix(vocabCache.numWords(), rowPointers, columnIndexes, values,
+                        hasLabels ? labels.toArray(new String[labels.size()]) : null);
+    }
+
+    private static void collect(Future<List<SparseRow>> future, List<SparseRow> rows) throws Exception {
+        rows.addAll(future.get());
+    }
+
+    /**
+     * This method builds dense row vector out of the tokens of one document
+     */
+    protected INDArray denseRow(List<String> tokens) {
+        SparseRow row = sparseRow(tokens);
+        INDArray ret = Nd4j.create(1, vocabCache.numWords());
+        for (int i = 0; i < row.indexes.length; i++)
+            ret.putScalar(row.indexes[i], row.values[i]);
+        return ret;
+    }
+
+    /**
+     * Counts vocabulary words of one document: each token is looked up in vocabulary once, and indexes are counted by
+     * sorting, so no per-word objects are created.
+     */
+    protected SparseRow sparseRow(List<String> tokens) {
+        int[] indexes = new int[tokens.size()];
+        int n = 0;
+        for (String token : tokens) {
+            VocabWord word = vocabCache.tokenFor(token);
+            if (word != null && word.getIndex() >= 0)
+                indexes[n++] = word.getIndex();
+        }
+        Arrays.sort(indexes, 0, n);
+
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || indexes[i] != indexes[i - 1])
+                unique++;
+        }
+
+        int[] columns = new int[unique];
+        double[] values = new double[unique];
+        int u = 0;
+        for (int i = 0; i < n;) {
+            int index = indexes[i];
+            int count = 0;
+            while (i < n && indexes[i] == index) {
+                count++;
+                i++;
+            }
+            columns[u] = index;
+            values[u] = weightFor(vocabCache.elementAtIndex(index), count, tokens.size());
+            u++;
+        }
+
+        return new SparseRow(columns, values);
+    }
+
+    protected static class SparseRow {
+        protected final int[] indexes;
+        protected final double[] values;
+
+        protected SparseRow(int[] indexes, double[] values) {
+            this.indexes = indexes;
+            this.values = values;
+        }
+    }
 }
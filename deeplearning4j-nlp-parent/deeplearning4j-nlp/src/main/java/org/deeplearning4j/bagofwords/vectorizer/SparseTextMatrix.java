@@ -0,0 +1,152 @@
+package org.deeplearning4j.bagofwords.vectorizer;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Sparse output of {@link BaseTextVectorizer}, in CSR (compressed sparse row) format: one row per document, one column
+ * per vocabulary word.
+ *
+ * Column indexes of row i are stored in columnIndexes[rowPointers[i]..rowPointers[i+1]), sorted in ascending order,
+ * and their weights (word counts or tf-idf scores) in values at the same positions. Optionally, one label is stored
+ * per row.
+ *
+ * Use {@link #toDense(int, int)} to materialize a few rows at a time, i.e. one minibatch.
+ */
+public class SparseTextMatrix implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int numColumns;
+    private final int[] rowPointers;
+    private final int[] columnIndexes;
+    private final double[] values;
+    private final String[] labels;
+
+    /**
+     * @param numColumns number of columns, i.e. vocabulary size
+     * @param rowPointers offsets of rows within columnIndexes and values, of length numRows + 1
+     * @param columnIndexes column indexes, sorted within each row
+     * @param values weights, aligned with columnIndexes
+     * @param labels optional labels, one per row. May be null
+     */
+    public SparseTextMatrix(int numColumns, @NonNull int[] rowPointers, @NonNull int[] columnIndexes,
+                    @NonNull double[] values, String[] labels) {
+        if (rowPointers.length < 1 || rowPointers[0] != 0)
+            throw new IllegalArgumentException("rowPointers should start with 0");
+
+        int nnz = rowPointers[rowPointers.length - 1];
+        if (columnIndexes.length < nnz || values.length < nnz)
+            throw new IllegalArgumentException("columnIndexes and values should have at least " + nnz + " elements");
+
+        if (labels != null && labels.length != rowPointers.length - 1)
+            throw new IllegalArgumentException("Number of labels [" + labels.length + "] doesn't match number of rows ["
+                            + (rowPointers.length - 1) + "]");
+
+        this.numColumns = numColumns;
+        this.rowPointers = rowPointers;
+        this.columnIndexes = columnIndexes;
+        this.values = values;
+        this.labels = labels;
+    }
+
+    /**
+     * Builds single-row matrix out of one document vector
+     */
+    public static SparseTextMatrix ofRow(int numColumns, @NonNull int[] columnIndexes, @NonNull double[] values,
+                    String label) {
+        return new SparseTextMatrix(numColumns, new int[] {0, columnIndexes.length}, columnIndexes, values,
+                        label == null ? null : new String[] {label});
+    }
+
+    public int numRows() {
+        return rowPointers.length - 1;
+    }
+
+    public int numColumns() {
+        return numColumns;
+    }
+
+    /**
+     * @return number of stored (non-zero) elements
+     */
+    public int numNonZero() {
+        return rowPointers[rowPointers.length - 1];
+    }
+
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    public int[] getColumnIndexes() {
+        return columnIndexes;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return labels, one per row, or null if there are no labels
+     */
+    public String[] getLabels() {
+        return labels;
+    }
+
+    public String getLabel(int row) {
+        return labels == null ? null : labels[row];
+    }
+
+    /**
+     * @return sorted column indexes of specified row
+     */
+    public int[] getRowIndexes(int row) {
+        return Arrays.copyOfRange(columnIndexes, rowPointers[row], rowPointers[row + 1]);
+    }
+
+    /**
+     * @return weights of specified row, aligned with {@link #getRowIndexes(int)}
+     */
+    public double[] getRowValues(int row) {
+        return Arrays.copyOfRange(values, rowPointers[row], rowPointers[row + 1]);
+    }
+
+    /**
+     * @return weight at specified position, or 0.0 if it's not stored
+     */
+    public double get(int row, int column) {
+        int idx = Arrays.binarySearch(columnIndexes, rowPointers[row], rowPointers[row + 1], column);
+        return idx < 0 ? 0.0 : values[idx];
+    }
+
+    /**
+     * This method returns dense representation of rows [fromRow, toRow), as INDArray of shape
+     * [toRow - fromRow, numColumns]
+     *
+     * @param fromRow first row, inclusive
+     * @param toRow last row, exclusive
+     */
+    public INDArray toDense(int fromRow, int toRow) {
+        if (fromRow < 0 || toRow > numRows() || fromRow > toRow)
+            throw new IndexOutOfBoundsException("Rows [" + fromRow + ", " + toRow + ") are out of range [0, "
+                            + numRows() + ")");
+
+        INDArray dense = Nd4j.create(toRow - fromRow, numColumns);
+        for (int row = fromRow; row < toRow; row++) {
+            for (int i = rowPointers[row]; i < rowPointers[row + 1]; i++) {
+                dense.putScalar(row - fromRow, columnIndexes[i], values[i]);
+            }
+        }
+        return dense;
+    }
+
+    /**
+     * This method returns dense representation of specified row, as INDArray of shape [1, numColumns]
+     */
+    public INDArray toDense(int row) {
+        return toDense(row, row + 1);
+    }
+}
@@ -0,0 +1,156 @@
+package org.deeplearning4j.iterator;
+
+import lombok.NonNull;
+import org.deeplearning4j.bagofwords.vectorizer.SparseTextMatrix;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DataSetIterator over the rows of a {@link SparseTextMatrix}, i.e. bag-of-words or tf-idf vectors produced by
+ * {@link org.deeplearning4j.bagofwords.vectorizer.BaseTextVectorizer#transformSparse}.<br>
+ * Only one minibatch is densified at a time, so whole corpus never needs [numDocuments, vocabSize] dense storage.
+ * Intended to be used with a DenseLayer as the first layer of a network.<br>
+ * <p>
+ * Specifically:<br>
+ * - Features have shape [minibatchSize, vocabSize]<br>
+ * - Labels are one-hot, with shape [minibatchSize, numLabels], built from row labels of the matrix. If the matrix has
+ *   no labels, DataSets have no labels either.<br>
+ */
+public class SparseTextDataSetIterator implements DataSetIterator {
+    private final SparseTextMatrix matrix;
+    private final List<String> labels;
+    private final Map<String, Integer> labelClassMap = new HashMap<>();
+    private final int minibatchSize;
+    private DataSetPreProcessor dataSetPreProcessor;
+
+    private int cursor = 0;
+
+    /**
+     * @param matrix rows to iterate over
+     * @param labels all possible labels, defines label to class index assignment. Ignored if matrix has no labels
+     * @param minibatchSize number of rows per DataSet
+     */
+    public SparseTextDataSetIterator(@NonNull SparseTextMatrix matrix, @NonNull List<String> labels,
+                    int minibatchSize) {
+        if (minibatchSize < 1)
+            throw new IllegalArgumentException("Minibatch size should be positive");
+
+        this.matrix = matrix;
+        this.labels = new ArrayList<>(labels);
+        this.minibatchSize = minibatchSize;
+        for (int i = 0; i < labels.size(); i++) {
+            labelClassMap.put(labels.get(i), i);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < matrix.numRows();
+    }
+
+    @Override
+    public DataSet next() {
+        return next(minibatchSize);
+    }
+
+    @Override
+    public DataSet next(int num) {
+        int from = cursor;
+        int to = Math.min(cursor + num, matrix.numRows());
+
+        INDArray features = matrix.toDense(from, to);
+        INDArray labelsMatrix = null;
+        if (matrix.getLabels() != null) {
+            labelsMatrix = Nd4j.create(to - from, labels.size());
+            for (int i = from; i < to; i++) {
+                String label = matrix.getLabel(i);
+                Integer idx = labelClassMap.get(label);
+                if (idx == null)
+                    throw new IllegalStateException("Got label \"" + label + "\" that is not present in list of labels");
+
+                labelsMatrix.putScalar(i - from, idx, 1.0);
+            }
+        }
+
+        DataSet ds = new DataSet(features, labelsMatrix);
+        if (dataSetPreProcessor != null) {
+            dataSetPreProcessor.preProcess(ds);
+        }
+
+        cursor = to;
+        return ds;
+    }
+
+    @Override
+    public int totalExamples() {
+        return matrix.numRows();
+    }
+
+    @Override
+    public int inputColumns() {
+        return matrix.numColumns();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return labels.size();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        cursor = 0;
+    }
+
+    @Override
+    public int batch() {
+        return minibatchSize;
+    }
+
+    @Override
+    public int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int numExamples() {
+        return totalExamples();
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.dataSetPreProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return dataSetPreProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return new ArrayList<>(labels);
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported");
+    }
+}
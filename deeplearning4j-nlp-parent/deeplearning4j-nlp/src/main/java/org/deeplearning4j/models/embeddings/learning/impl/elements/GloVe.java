@@ -255,12 +255,14 @@ public class GloVe<T extends SequenceElement> implements ElementsLearningAlgorit
             //            log.info("Total size: [" + coList.size() + "], thread start: [" + startPosition + "], thread stop: [" + stopPosition + "]");
             while (coList.hasNext()) {
 
-                // now we fetch pairs into batch
+                // now we fetch pairs into batch. Iterator is shared by all threads, so batch is fetched atomically
                 List<Pair<Pair<T, T>, Double>> pairs = new ArrayList<>();
-                int cnt = 0;
-                while (coList.hasNext() && cnt < batchSize) {
-                    pairs.add(coList.next());
-                    cnt++;
+                synchronized (coList) {
+                    int cnt = 0;
+                    while (coList.hasNext() && cnt < batchSize) {
+                        pairs.add(coList.next());
+                        cnt++;
+                    }
                 }
 
                 if (shuffle)
@@ -21,6 +21,7 @@ package org.deeplearning4j.models.embeddings.loader;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.CBOW;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.SkipGram;
+import org.deeplearning4j.models.word2vec.MappedWord2Vec;
 import org.deeplearning4j.models.word2vec.StaticWord2Vec;
 import org.deeplearning4j.text.tokenization.tokenizer.TokenPreProcess;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
@@ -2537,8 +2538,10 @@ public class WordVectorSerializer {
      * 1) Binary model, either compressed or not. Like well-known Google Model
      * 2) Popular CSV word2vec text format
      * 3) DL4j compressed format
+     * 4) Mapped binary format, written with writeMappedModel()
      *
      * In return you get StaticWord2Vec model, which might be used as lookup table only in multi-gpu environment.
+     * For mapped binary format MappedWord2Vec is returned instead, without copying vectors into memory.
      *
      * @param file File should point to previously saved w2v model
      * @return
@@ -2549,6 +2552,9 @@ public class WordVectorSerializer {
             throw new RuntimeException(
                             new FileNotFoundException("File [" + file.getAbsolutePath() + "] was not found"));
 
+        if (MappedWord2Vec.isMappedModel(file))
+            return loadMappedModel(file);
+
         int originalFreq = Nd4j.getMemoryManager().getOccasionalGcFrequency();
         boolean originalPeriodic = Nd4j.getMemoryManager().isPeriodicGcActive();
 
@@ -2665,6 +2671,36 @@ public class WordVectorSerializer {
         return word2Vec;
     }
 
+    /**
+     * This method saves WordVectors into versioned binary format: header, vocabulary string table with offsets index,
+     * and contiguous row-major float32 matrix. Such file can be memory-mapped with loadMappedModel(),
+     * so vectors are read straight from page cache, and shared between JVMs on the same host.
+     *
+     * @param vectors WordVectors to be saved
+     * @param file destination file
+     */
+    public static void writeMappedModel(@NonNull WordVectors vectors, @NonNull File file) {
+        try {
+            MappedWord2Vec.write(vectors, file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * This method memory-maps model previously saved with writeMappedModel().
+     * Startup time doesn't depend on vocabulary size, since nothing besides header is read upfront.
+     *
+     * @param file File should point to previously saved mapped model
+     * @return
+     */
+    public static MappedWord2Vec loadMappedModel(@NonNull File file) {
+        try {
+            return MappedWord2Vec.load(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     protected interface Reader extends AutoCloseable {
         boolean hasNext();
@@ -0,0 +1,679 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical Navigable Small World graph for approximate nearest neighbours search over unit-length vectors,
+ * using cosine distance (1 - dot product).
+ *
+ * Vectors are kept in single flat float[] slab. Level 0 links are kept in single flat int[] array as well, with
+ * [count, id0, id1, ...] block of maxM0 + 1 ints per node; upper levels exist for small fraction of nodes only.
+ *
+ * Index is built in parallel: every node is inserted concurrently, with striped locks guarding link lists.
+ * Search is thread-safe.
+ */
+public class HnswIndex {
+    private static final Logger log = LoggerFactory.getLogger(HnswIndex.class);
+
+    protected static final int MAGIC = 0x484E5357;
+    protected static final int VERSION = 1;
+    protected static final int MAX_LEVEL = 16;
+    protected static final int LOCK_STRIPES = 4096;
+
+    protected final int size;
+    protected final int dims;
+    protected final int m;
+    protected final int maxM0;
+    protected final int efConstruction;
+    protected volatile int efSearch;
+
+    protected final float[] data;
+    protected final int[] levels;
+    protected final int[] level0;
+    protected final int[][] upper;
+
+    protected volatile int entryPoint = -1;
+    protected volatile int maxLevel = -1;
+
+    private final Object entryLock = new Object();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final ThreadLocal<SearchContext> contexts = new ThreadLocal<SearchContext>() {
+        @Override
+        protected SearchContext initialValue() {
+            return new SearchContext(size, maxM0);
+        }
+    };
+
+    protected HnswIndex(float[] data, int size, int dims, int m, int efConstruction, int efSearch, int[] levels) {
+        this.data = data;
+        this.size = size;
+        this.dims = dims;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levels = levels;
+
+        this.level0 = new int[size * (maxM0 + 1)];
+        this.upper = new int[size][];
+        for (int i = 0; i < size; i++)
+            if (levels[i] > 0)
+                upper[i] = new int[levels[i] * (m + 1)];
+
+        for (int i = 0; i < LOCK_STRIPES; i++)
+            locks[i] = new Object();
+    }
+
+    /**
+     * This method builds index over given vectors.
+     *
+     * PLEASE NOTE: vectors are expected to be unit-length already, and array is used as is, without copying.
+     *
+     * @param data vectors, row-major, dims floats per vector
+     * @param dims vector length
+     * @param m max number of links per node on upper levels. Level 0 uses 2 * m
+     * @param efConstruction size of dynamic candidates list used while building. Higher values give better graph
+     * @param efSearch default size of dynamic candidates list used for search. Higher values give better recall
+     * @param workers number of threads used for building
+     * @param seed random seed used for levels generation
+     * @return
+     */
+    public static HnswIndex build(@NonNull float[] data, int dims, int m, int efConstruction, int efSearch,
+                    int workers, long seed) {
+        if (dims < 1 || data.length % dims != 0)
+            throw new IllegalArgumentException("Data length [" + data.length + "] isn't multiple of dims [" + dims + "]");
+
+        if (m < 2)
+            throw new IllegalArgumentException("M should be >= 2");
+
+        final int size = data.length / dims;
+
+        // levels are generated upfront, so index structure doesn't depend on insertion order
+        Random rng = new Random(seed);
+        double mL = 1.0 / Math.log(m);
+        int[] levels = new int[size];
+        for (int i = 0; i < size; i++)
+            levels[i] = Math.min(MAX_LEVEL, (int) (-Math.log(1.0 - rng.nextDouble()) * mL));
+
+        final HnswIndex index = new HnswIndex(data, size, dims, m, efConstruction, efSearch, levels);
+        if (size == 0)
+            return index;
+
+        index.entryPoint = 0;
+        index.maxLevel = levels[0];
+
+        final AtomicInteger position = new AtomicInteger(1);
+        ExecutorService service = Executors.newFixedThreadPool(Math.max(1, workers));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < Math.max(1, workers); w++) {
+                futures.add(service.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        int node;
+                        while ((node = position.getAndIncrement()) < size) {
+                            index.insert(node);
+
+                            if (node % 100000 == 0)
+                                log.info("HNSW: {} nodes inserted so far...", node);
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures)
+                future.get();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            service.shutdown();
+        }
+
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dims() {
+        return dims;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    /**
+     * This method sets default size of candidates list used for search, which is the main knob for recall vs latency
+     *
+     * @param efSearch
+     */
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1)
+            throw new IllegalArgumentException("efSearch should be positive value");
+
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * Returns ids of k approximate nearest neighbours of given unit-length query, nearest first
+     */
+    public int[] search(@NonNull float[] query, int k) {
+        return search(query, k, efSearch, null);
+    }
+
+    /**
+     * Returns ids of k approximate nearest neighbours of given unit-length query, nearest first
+     *
+     * @param query unit-length query vector
+     * @param k number of neighbours
+     * @param ef size of candidates list, values below k are treated as k
+     * @param distances optional output array, will be filled with cosine distances
+     * @return
+     */
+    public int[] search(@NonNull float[] query, int k, int ef, float[] distances) {
+        if (query.length != dims)
+            throw new IllegalArgumentException("Query length [" + query.length + "] doesn't match dims [" + dims + "]");
+
+        if (size == 0 || k < 1)
+            return new int[0];
+
+        SearchContext context = contexts.get();
+
+        int ep;
+        int top;
+        synchronized (entryLock) {
+            ep = entryPoint;
+            top = maxLevel;
+        }
+
+        for (int l = top; l > 0; l--)
+            ep = greedy(query, 0, ep, l, context);
+
+        searchLayer(query, 0, ep, Math.max(ef, k), 0, context);
+
+        NodeHeap results = context.results;
+        while (results.size > k)
+            results.pop();
+
+        int[] ids = new int[results.size];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            if (distances != null && i < distances.length)
+                distances[i] = results.peekDistance();
+            ids[i] = results.pop();
+        }
+
+        return ids;
+    }
+
+    /**
+     * Returns ids of k exact nearest neighbours of given unit-length query, nearest first. Brute force, used for
+     * recall estimation.
+     */
+    public int[] searchExact(@NonNull float[] query, int k) {
+        NodeHeap results = new NodeHeap(k + 1, true);
+        for (int i = 0; i < size; i++) {
+            float d = distance(query, 0, i);
+            if (results.size < k || d < results.peekDistance()) {
+                results.push(i, d);
+                if (results.size > k)
+                    results.pop();
+            }
+        }
+
+        int[] ids = new int[results.size];
+        for (int i = ids.length - 1; i >= 0; i--)
+            ids[i] = results.pop();
+
+        return ids;
+    }
+
+    /**
+     * This method returns copy of stored vector for given node
+     */
+    public float[] vector(int node) {
+        float[] result = new float[dims];
+        System.arraycopy(data, node * dims, result, 0, dims);
+        return result;
+    }
+
+    /**
+     * This method estimates recall@k of approximate search against exact scan, using stored vectors as queries
+     *
+     * @param numQueries number of randomly sampled queries
+     * @param k number of neighbours
+     * @param ef size of candidates list used for approximate search
+     * @param seed random seed used for sampling queries
+     * @return fraction of exact top-k neighbours found by approximate search, in range [0, 1]
+     */
+    public double estimateRecall(int numQueries, int k, int ef, long seed) {
+        if (size == 0)
+            return 1.0;
+
+        Random rng = new Random(seed);
+        long found = 0;
+        long total = 0;
+        for (int q = 0; q < numQueries; q++) {
+            float[] query = vector(rng.nextInt(size));
+            int[] exact = searchExact(query, k);
+            int[] approx = search(query, k, ef, null);
+
+            for (int e : exact) {
+                for (int a : approx) {
+                    if (a == e) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            total += exact.length;
+        }
+
+        return total == 0 ? 1.0 : (double) found / total;
+    }
+
+    protected void insert(int node) {
+        SearchContext context = contexts.get();
+        int level = levels[node];
+        int offset = node * dims;
+
+        int ep;
+        int top;
+        synchronized (entryLock) {
+            ep = entryPoint;
+            top = maxLevel;
+        }
+
+        for (int l = top; l > level; l--)
+            ep = greedy(data, offset, ep, l, context);
+
+        for (int l = Math.min(level, top); l >= 0; l--) {
+            searchLayer(data, offset, ep, efConstruction, l, context);
+
+            // results heap is max-heap, so we pop worst candidates until only maxM left
+            NodeHeap results = context.results;
+            int limit = maxLinks(l);
+            int[] selected = new int[results.size];
+            int count = 0;
+            int closest = ep;
+            while (results.size > 0) {
+                int candidate = results.pop();
+                if (candidate == node)
+                    continue;
+
+                selected[count++] = candidate;
+                closest = candidate;
+            }
+
+            // selected is in descending distance order now, we keep last (closest) ones
+            int start = Math.max(0, count - limit);
+            synchronized (lock(node)) {
+                int[] links = links(node, l);
+                int base = linksOffset(node, l);
+                links[base] = count - start;
+                for (int i = start; i < count; i++)
+                    links[base + 1 + i - start] = selected[i];
+            }
+
+            for (int i = start; i < count; i++)
+                connect(selected[i], node, l);
+
+            ep = closest;
+        }
+
+        if (level > top) {
+            synchronized (entryLock) {
+                if (level > maxLevel) {
+                    maxLevel = level;
+                    entryPoint = node;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds link from -> to on given level, and shrinks link list to closest maxM nodes if it overflows
+     */
+    protected void connect(int from, int to, int level) {
+        int limit = maxLinks(level);
+        synchronized (lock(from)) {
+            int[] links = links(from, level);
+            int base = linksOffset(from, level);
+            int count = links[base];
+
+            for (int i = 0; i < count; i++)
+                if (links[base + 1 + i] == to)
+                    return;
+
+            if (count < limit) {
+                links[base + 1 + count] = to;
+                links[base] = count + 1;
+                return;
+            }
+
+            // overflow: we replace the most distant link, if new one is closer
+            int fromOffset = from * dims;
+            int worst = -1;
+            float worstDistance = distance(data, fromOffset, to);
+            for (int i = 0; i < count; i++) {
+                float d = distance(data, fromOffset, links[base + 1 + i]);
+                if (d > worstDistance) {
+                    worstDistance = d;
+                    worst = i;
+                }
+            }
+
+            if (worst >= 0)
+                links[base + 1 + worst] = to;
+        }
+    }
+
+    protected int greedy(float[] query, int queryOffset, int ep, int level, SearchContext context) {
+        int current = ep;
+        float currentDistance = distance(query, queryOffset, current);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int count = copyLinks(current, level, context.buffer);
+            for (int i = 0; i < count; i++) {
+                int candidate = context.buffer[i];
+                float d = distance(query, queryOffset, candidate);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = candidate;
+                    changed = true;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Standard HNSW layer search. Results are left in context.results max-heap, holding up to ef closest nodes
+     */
+    protected void searchLayer(float[] query, int queryOffset, int ep, int ef, int level, SearchContext context) {
+        NodeHeap candidates = context.candidates;
+        NodeHeap results = context.results;
+        candidates.clear();
+        results.clear();
+        context.nextGeneration();
+
+        float d = distance(query, queryOffset, ep);
+        context.visit(ep);
+        candidates.push(ep, d);
+        results.push(ep, d);
+
+        while (candidates.size > 0) {
+            float candidateDistance = candidates.peekDistance();
+            if (results.size >= ef && candidateDistance > results.peekDistance())
+                break;
+
+            int candidate = candidates.pop();
+            int count = copyLinks(candidate, level, context.buffer);
+            for (int i = 0; i < count; i++) {
+                int neighbour = context.buffer[i];
+                if (context.isVisited(neighbour))
+                    continue;
+
+                context.visit(neighbour);
+                float nd = distance(query, queryOffset, neighbour);
+                if (results.size < ef || nd < results.peekDistance()) {
+                    candidates.push(neighbour, nd);
+                    results.push(neighbour, nd);
+                    if (results.size > ef)
+                        results.pop();
+                }
+            }
+        }
+    }
+
+    protected int copyLinks(int node, int level, int[] buffer) {
+        if (level > levels[node])
+            return 0;
+
+        synchronized (lock(node)) {
+            int[] links = links(node, level);
+            int base = linksOffset(node, level);
+            int count = links[base];
+            System.arraycopy(links, base + 1, buffer, 0, count);
+            return count;
+        }
+    }
+
+    protected int maxLinks(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    protected int[] links(int node, int level) {
+        return level == 0 ? level0 : upper[node];
+    }
+
+    protected int linksOffset(int node, int level) {
+        return level == 0 ? node * (maxM0 + 1) : (level - 1) * (m + 1);
+    }
+
+    protected Object lock(int node) {
+        return locks[node & (LOCK_STRIPES - 1)];
+    }
+
+    protected float distance(float[] query, int queryOffset, int node) {
+        int offset = node * dims;
+        float dot = 0.0f;
+        for (int e = 0; e < dims; e++)
+            dot += query[queryOffset + e] * data[offset + e];
+
+        return 1.0f - dot;
+    }
+
+    /**
+     * This method writes index into given stream. Vectors are written as well, so index can be used standalone.
+     */
+    public void write(@NonNull OutputStream stream) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(stream));
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(size);
+        dos.writeInt(dims);
+        dos.writeInt(m);
+        dos.writeInt(efConstruction);
+        dos.writeInt(efSearch);
+        dos.writeInt(entryPoint);
+        dos.writeInt(maxLevel);
+
+        for (float f : data)
+            dos.writeFloat(f);
+
+        for (int l : levels)
+            dos.writeInt(l);
+
+        for (int v : level0)
+            dos.writeInt(v);
+
+        for (int i = 0; i < size; i++) {
+            if (upper[i] != null)
+                for (int v : upper[i])
+                    dos.writeInt(v);
+        }
+
+        dos.flush();
+    }
+
+    /**
+     * This method restores index previously saved with {@link #write(OutputStream)}
+     */
+    public static HnswIndex read(@NonNull InputStream stream) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
+        if (dis.readInt() != MAGIC)
+            throw new IOException("Stream doesn't contain HNSW index");
+
+        int version = dis.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported HNSW index version: " + version);
+
+        int size = dis.readInt();
+        int dims = dis.readInt();
+        int m = dis.readInt();
+        int efConstruction = dis.readInt();
+        int efSearch = dis.readInt();
+        int entryPoint = dis.readInt();
+        int maxLevel = dis.readInt();
+
+        float[] data = new float[size * dims];
+        for (int i = 0; i < data.length; i++)
+            data[i] = dis.readFloat();
+
+        int[] levels = new int[size];
+        for (int i = 0; i < size; i++)
+            levels[i] = dis.readInt();
+
+        HnswIndex index = new HnswIndex(data, size, dims, m, efConstruction, efSearch, levels);
+        for (int i = 0; i < index.level0.length; i++)
+            index.level0[i] = dis.readInt();
+
+        for (int i = 0; i < size; i++) {
+            int[] links = index.upper[i];
+            if (links != null)
+                for (int e = 0; e < links.length; e++)
+                    links[e] = dis.readInt();
+        }
+
+        index.entryPoint = entryPoint;
+        index.maxLevel = maxLevel;
+        return index;
+    }
+
+
+    /**
+     * Per-thread search state: heaps, links buffer and visited markers
+     */
+    protected static class SearchContext {
+        protected final NodeHeap candidates = new NodeHeap(64, false);
+        protected final NodeHeap results = new NodeHeap(64, true);
+        protected final int[] buffer;
+        protected final int[] visited;
+        protected int generation = 0;
+
+        protected SearchContext(int size, int maxLinks) {
+            this.buffer = new int[maxLinks];
+            this.visited = new int[size];
+        }
+
+        protected void nextGeneration() {
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                generation = 1;
+            }
+        }
+
+        protected boolean isVisited(int node) {
+            return visited[node] == generation;
+        }
+
+        protected void visit(int node) {
+            visited[node] = generation;
+        }
+    }
+
+
+    /**
+     * Binary heap of (node, distance) pairs on primitive arrays. Max-heap keeps the most distant node on top.
+     */
+    protected static class NodeHeap {
+        protected int[] ids;
+        protected float[] distances;
+        protected int size;
+        protected final boolean max;
+
+        protected NodeHeap(int capacity, boolean max) {
+            this.ids = new int[Math.max(capacity, 1)];
+            this.distances = new float[Math.max(capacity, 1)];
+            this.max = max;
+        }
+
+        protected void clear() {
+            size = 0;
+        }
+
+        protected float peekDistance() {
+            return distances[0];
+        }
+
+        protected void push(int id, float distance) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+
+            int pos = size++;
+            ids[pos] = id;
+            distances[pos] = distance;
+
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!before(pos, parent))
+                    break;
+
+                swap(pos, parent);
+                pos = parent;
+            }
+        }
+
+        protected int pop() {
+            int result = ids[0];
+            size--;
+            if (size > 0) {
+                ids[0] = ids[size];
+                distances[0] = distances[size];
+
+                int pos = 0;
+                while (true) {
+                    int left = 2 * pos + 1;
+                    if (left >= size)
+                        break;
+
+                    int best = left;
+                    if (left + 1 < size && before(left + 1, left))
+                        best = left + 1;
+
+                    if (!before(best, pos))
+                        break;
+
+                    swap(pos, best);
+                    pos = best;
+                }
+            }
+
+            return result;
+        }
+
+        private boolean before(int a, int b) {
+            return max ? distances[a] > distances[b] : distances[a] < distances[b];
+        }
+
+        private void swap(int a, int b) {
+            int i = ids[a];
+            ids[a] = ids[b];
+            ids[b] = i;
+
+            float d = distances[a];
+            distances[a] = distances[b];
+            distances[b] = d;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import lombok.NonNull;
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This is HNSW-based implementation for wordsNearest method, suited for multiple consequent calls over large vocabularies.
+ * Instead of full scan over syn0, approximate nearest neighbours are looked up in navigable small world graph,
+ * built in parallel upon first call, or restored from file saved with {@link #saveIndex(File)}.
+ *
+ * Recall is controlled by efSearch: higher values give results closer to exact scan, at cost of latency.
+ * Use {@link #estimateRecall(int, int)} to check recall@k against exact scan for current settings.
+ *
+ * PLEASE NOTE: Index holds its own normalized copy of vectors, so it will take memory comparable to syn0 size.
+ */
+public class HnswModelUtils<T extends SequenceElement> extends BasicModelUtils<T> {
+    private static final Logger log = LoggerFactory.getLogger(HnswModelUtils.class);
+
+    protected int m = 16;
+    protected int efConstruction = 200;
+    protected int efSearch = 100;
+    protected int workers = Runtime.getRuntime().availableProcessors();
+    protected long seed = 119;
+
+    protected volatile HnswIndex index;
+
+    public HnswModelUtils() {
+
+    }
+
+    /**
+     * @param m max number of links per node, 12-48 is reasonable range. Higher values give better recall for high-dimensional data
+     * @param efConstruction size of candidates list used while building index
+     * @param efSearch size of candidates list used for search
+     */
+    public HnswModelUtils(int m, int efConstruction, int efSearch) {
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    @Override
+    public void init(@NonNull WeightLookupTable<T> lookupTable) {
+        super.init(lookupTable);
+        index = null;
+    }
+
+    /**
+     * This method sets number of threads used for index building
+     *
+     * @param workers
+     */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * This method sets size of candidates list used for search. Can be changed any time, without index rebuild.
+     *
+     * @param efSearch
+     */
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+        if (index != null)
+            index.setEfSearch(efSearch);
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    protected HnswIndex checkIndex() {
+        if (index == null) {
+            synchronized (this) {
+                if (index == null) {
+                    int numWords = vocabCache.numWords();
+                    int dims = lookupTable.layerSize();
+                    float[] data = new float[numWords * dims];
+
+                    for (int i = 0; i < numWords; i++) {
+                        String word = vocabCache.wordAtIndex(i);
+                        INDArray vector = word == null ? null : lookupTable.vector(word);
+                        if (vector != null)
+                            System.arraycopy(normalize(vector), 0, data, i * dims, dims);
+                    }
+
+                    long time1 = System.currentTimeMillis();
+                    index = HnswIndex.build(data, dims, m, efConstruction, efSearch, workers, seed);
+                    long time2 = System.currentTimeMillis();
+
+                    log.info("HNSW index for {} elements built in {} ms", numWords, time2 - time1);
+                }
+            }
+        }
+        return index;
+    }
+
+    protected static float[] normalize(INDArray vector) {
+        float[] result = vector.dup('c').data().asFloat();
+        double norm = 0.0;
+        for (float v : result)
+            norm += v * v;
+
+        norm = Math.sqrt(norm);
+        if (norm > 0.0)
+            for (int e = 0; e < result.length; e++)
+                result[e] /= norm;
+
+        return result;
+    }
+
+    /**
+     * Words nearest to given vector, according to cosine similarity
+     *
+     * @param words vector to look neighbours for
+     * @param top number of words to return
+     * @return
+     */
+    @Override
+    public Collection<String> wordsNearest(INDArray words, int top) {
+        HnswIndex index = checkIndex();
+
+        // a few extra results to compensate for filtered elements
+        int[] ids = index.search(normalize(words), top + 2, efSearch, null);
+
+        List<String> result = new ArrayList<>();
+        for (int id : ids) {
+            String word = vocabCache.wordAtIndex(id);
+            if (word != null && !word.equals("UNK") && !word.equals("STOP"))
+                result.add(word);
+
+            if (result.size() >= top)
+                break;
+        }
+
+        return result;
+    }
+
+    /**
+     * This method estimates recall@k of index against exact scan, for current efSearch value.
+     * Randomly sampled vocabulary elements are used as queries.
+     *
+     * @param numQueries number of queries to sample
+     * @param k number of neighbours
+     * @return recall in range [0, 1]
+     */
+    public double estimateRecall(int numQueries, int k) {
+        double recall = checkIndex().estimateRecall(numQueries, k, efSearch, seed);
+        log.info("HNSW recall@{}: {} (efSearch: {}, queries: {})", k, recall, efSearch, numQueries);
+        return recall;
+    }
+
+    /**
+     * This method saves index into file, so it can be restored next to the model without rebuilding
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void saveIndex(@NonNull File file) throws IOException {
+        try (OutputStream stream = new FileOutputStream(file)) {
+            checkIndex().write(stream);
+        }
+    }
+
+    /**
+     * This method restores index previously saved with {@link #saveIndex(File)}.
+     * Should be called after init(), i.e. after model was loaded.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void loadIndex(@NonNull File file) throws IOException {
+        HnswIndex restored;
+        try (InputStream stream = new FileInputStream(file)) {
+            restored = HnswIndex.read(stream);
+        }
+
+        if (vocabCache != null && restored.size() != vocabCache.numWords())
+            throw new IllegalStateException("Index size [" + restored.size() + "] doesn't match vocabulary size ["
+                            + vocabCache.numWords() + "]");
+
+        if (lookupTable != null && restored.dims() != lookupTable.layerSize())
+            throw new IllegalStateException("Index dimensionality [" + restored.dims() + "] doesn't match layer size ["
+                            + lookupTable.layerSize() + "]");
+
+        restored.setEfSearch(efSearch);
+        this.index = restored;
+    }
+}
@@ -0,0 +1,419 @@
+package org.deeplearning4j.models.glove.count;
+
+import lombok.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Primitive replacement for {@link CountMap}, used to count cooccurrences for GloVe.
+ *
+ * Pairs of element indexes are packed into a single long key, and weights are stored as doubles, in striped
+ * open-addressing hash tables: there are no objects per pair, and memory footprint is known exactly.
+ * Each stripe is guarded by its own lock, so multiple threads can count concurrently.
+ * Storage can be either on-heap, or off-heap (direct buffers).
+ *
+ * Once the table gets too big, its content can be spilled to disk as a sorted run, see {@link #spill(File)}.
+ * Sorted runs are merged with {@link SortedRunMerger}.
+ */
+public class PairCountTable {
+    private static final long EMPTY = -1L;
+    private static final int ENTRY_BYTES = 16;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int stripeShift;
+    private final boolean offHeap;
+
+    /**
+     * @param stripes number of independently locked stripes. Rounded up to power of 2
+     * @param initialCapacity initial number of slots per stripe. Rounded up to power of 2
+     * @param offHeap if TRUE, direct buffers will be used for storage
+     */
+    public PairCountTable(int stripes, int initialCapacity, boolean offHeap) {
+        int numStripes = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1;
+
+        this.offHeap = offHeap;
+        this.stripes = new Stripe[numStripes];
+        this.stripeMask = numStripes - 1;
+        // stripe is selected by the highest bits of hash, slot within stripe by the lowest ones
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(numStripes);
+        for (int i = 0; i < numStripes; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    /**
+     * Packs pair of non-negative element indexes into single long key. Keys order is (element1, element2) order.
+     */
+    public static long pack(int element1, int element2) {
+        return ((long) element1 << 32) | (element2 & 0xFFFFFFFFL);
+    }
+
+    public static int element1(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int element2(long key) {
+        return (int) key;
+    }
+
+    private static int hash(long key) {
+        // murmur3 finalizer
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * This method adds weight to the count of specified pair
+     *
+     * @param element1 index of first element, >= 0
+     * @param element2 index of second element, >= 0
+     * @param weight
+     */
+    public void increment(int element1, int element2, double weight) {
+        long key = pack(element1, element2);
+        int hash = hash(key);
+        Stripe stripe = stripes[(hash >>> stripeShift) & stripeMask];
+        synchronized (stripe) {
+            stripe.increment(key, hash, weight);
+        }
+    }
+
+    /**
+     * This method returns current count for specified pair, or 0 if there's no such pair in table
+     */
+    public double getCount(int element1, int element2) {
+        long key = pack(element1, element2);
+        int hash = hash(key);
+        Stripe stripe = stripes[(hash >>> stripeShift) & stripeMask];
+        synchronized (stripe) {
+            return stripe.get(key, hash);
+        }
+    }
+
+    /**
+     * @return number of distinct pairs in table
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return number of bytes allocated for table storage
+     */
+    public long getMemoryFootprint() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += (long) stripe.capacity * ENTRY_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * This method writes all pairs to the file, sorted by (element1, element2), in {@link BinaryCoOccurrenceWriter}
+     * format, and clears the table. Allocated storage is kept for reuse.
+     *
+     * PLEASE NOTE: Caller is responsible for making sure there are no concurrent increments during spill.
+     *
+     * @param file target file
+     * @return number of pairs written
+     */
+    public long spill(@NonNull File file) throws IOException {
+        // first we sort each stripe in place, and then merge stripes while writing
+        int[] positions = new int[stripes.length];
+        int[] sizes = new int[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            synchronized (stripes[i]) {
+                sizes[i] = stripes[i].compactAndSort();
+            }
+        }
+
+        long written = 0;
+        try (DataOutputStream dos = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(file), 4 * 1024 * 1024))) {
+            // binary heap of stripe indexes, ordered by their current key
+            int[] heap = new int[stripes.length];
+            int heapSize = 0;
+            for (int i = 0; i < stripes.length; i++) {
+                if (sizes[i] > 0) {
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(heap, heapSize, i, positions);
+            }
+
+            while (heapSize > 0) {
+                int s = heap[0];
+                Stripe stripe = stripes[s];
+                long key = stripe.keys.get(positions[s]);
+                dos.writeInt(element1(key));
+                dos.writeInt(element2(key));
+                dos.writeDouble(stripe.values.get(positions[s]));
+                written++;
+
+                if (++positions[s] == sizes[s]) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, 0, positions);
+            }
+        }
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+
+        return written;
+    }
+
+    private void siftDown(int[] heap, int heapSize, int i, int[] positions) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < heapSize && currentKey(heap[right], positions) < currentKey(heap[left], positions)) {
+                smallest = right;
+            }
+            if (currentKey(heap[i], positions) <= currentKey(heap[smallest], positions)) {
+                return;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = tmp;
+            i = smallest;
+        }
+    }
+
+    private long currentKey(int stripe, int[] positions) {
+        return stripes[stripe].keys.get(positions[stripe]);
+    }
+
+    /**
+     * Single open-addressing table with linear probing
+     */
+    private class Stripe {
+        private LongBuffer keys;
+        private DoubleBuffer values;
+        private int capacity;
+        private int size;
+
+        private Stripe(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            this.capacity = capacity;
+            if (offHeap) {
+                keys = ByteBuffer.allocateDirect(capacity * 8).asLongBuffer();
+                values = ByteBuffer.allocateDirect(capacity * 8).asDoubleBuffer();
+            } else {
+                keys = LongBuffer.allocate(capacity);
+                values = DoubleBuffer.allocate(capacity);
+            }
+            clear();
+        }
+
+        private void clear() {
+            for (int i = 0; i < capacity; i++) {
+                keys.put(i, EMPTY);
+                values.put(i, 0.0);
+            }
+            size = 0;
+        }
+
+        private void increment(long key, int hash, double weight) {
+            int mask = capacity - 1;
+            int i = hash & mask;
+            while (true) {
+                long k = keys.get(i);
+                if (k == key) {
+                    values.put(i, values.get(i) + weight);
+                    return;
+                }
+                if (k == EMPTY) {
+                    keys.put(i, key);
+                    values.put(i, weight);
+                    if (++size > capacity * LOAD_FACTOR) {
+                        grow();
+                    }
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        private double get(long key, int hash) {
+            int mask = capacity - 1;
+            int i = hash & mask;
+            while (true) {
+                long k = keys.get(i);
+                if (k == key) {
+                    return values.get(i);
+                }
+                if (k == EMPTY) {
+                    return 0.0;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            LongBuffer oldKeys = keys;
+            DoubleBuffer oldValues = values;
+            int oldCapacity = capacity;
+
+            allocate(capacity * 2);
+            for (int i = 0; i < oldCapacity; i++) {
+                long key = oldKeys.get(i);
+                if (key != EMPTY) {
+                    insertNew(key, oldValues.get(i));
+                }
+            }
+        }
+
+        private void insertNew(long key, double value) {
+            int mask = capacity - 1;
+            int i = hash(key) & mask;
+            while (keys.get(i) != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys.put(i, key);
+            values.put(i, value);
+            size++;
+        }
+
+        /**
+         * Moves all entries to the beginning of the buffers, and sorts them by key.
+         * PLEASE NOTE: hash table is unusable after this call, until clear() is called
+         *
+         * @return number of entries
+         */
+        private int compactAndSort() {
+            int n = 0;
+            for (int i = 0; i < capacity; i++) {
+                long key = keys.get(i);
+                if (key != EMPTY) {
+                    keys.put(n, key);
+                    values.put(n, values.get(i));
+                    n++;
+                }
+            }
+            sort(0, n - 1);
+            return n;
+        }
+
+        /**
+         * Quicksort on keys, with values moved along
+         */
+        private void sort(int lo, int hi) {
+            while (lo < hi) {
+                if (hi - lo < 16) {
+                    insertionSort(lo, hi);
+                    return;
+                }
+                long pivot = medianOfThree(lo, lo + (hi - lo) / 2, hi);
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (keys.get(i) < pivot)
+                        i++;
+                    while (keys.get(j) > pivot)
+                        j--;
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                // recurse into smaller part, loop over larger one
+                if (j - lo < hi - i) {
+                    sort(lo, j);
+                    lo = i;
+                } else {
+                    sort(i, hi);
+                    hi = j;
+                }
+            }
+        }
+
+        private long medianOfThree(int a, int b, int c) {
+            long ka = keys.get(a);
+            long kb = keys.get(b);
+            long kc = keys.get(c);
+            if (ka < kb) {
+                return kb < kc ? kb : (ka < kc ? kc : ka);
+            } else {
+                return ka < kc ? ka : (kb < kc ? kc : kb);
+            }
+        }
+
+        private void insertionSort(int lo, int hi) {
+            for (int i = lo + 1; i <= hi; i++) {
+                long key = keys.get(i);
+                double value = values.get(i);
+                int j = i - 1;
+                while (j >= lo && keys.get(j) > key) {
+                    keys.put(j + 1, keys.get(j));
+                    values.put(j + 1, values.get(j));
+                    j--;
+                }
+                keys.put(j + 1, key);
+                values.put(j + 1, value);
+            }
+        }
+
+        private void swap(int i, int j) {
+            long key = keys.get(i);
+            keys.put(i, keys.get(j));
+            keys.put(j, key);
+
+            double value = values.get(i);
+            values.put(i, values.get(j));
+            values.put(j, value);
+        }
+    }
+
+    /**
+     * @return sorted copy of all keys in table, for testing purposes
+     */
+    long[] keys() {
+        long[] out = new long[(int) size()];
+        int n = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (int i = 0; i < stripe.capacity; i++) {
+                    if (stripe.keys.get(i) != EMPTY) {
+                        out[n++] = stripe.keys.get(i);
+                    }
+                }
+            }
+        }
+        Arrays.sort(out);
+        return out;
+    }
+}
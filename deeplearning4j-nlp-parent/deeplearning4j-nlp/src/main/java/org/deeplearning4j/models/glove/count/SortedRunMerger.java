@@ -0,0 +1,156 @@
+package org.deeplearning4j.models.glove.count;
+
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of sorted cooccurrence runs, as written by {@link PairCountTable#spill(File)}.
+ *
+ * Each run is a file in {@link BinaryCoOccurrenceWriter} format (int element1, int element2, double weight), sorted by
+ * (element1, element2), without duplicate pairs. The result has the same format: weights of pairs present in
+ * multiple runs are summed up.
+ */
+public class SortedRunMerger {
+    private static final Logger log = LoggerFactory.getLogger(SortedRunMerger.class);
+
+    // max number of runs opened at once. More runs than that will be merged in multiple passes
+    public static final int DEFAULT_MERGE_FACTOR = 64;
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private SortedRunMerger() {}
+
+    /**
+     * This method merges all runs into target file, and deletes the runs afterwards
+     *
+     * @param runs sorted runs
+     * @param target target file
+     * @param mergeFactor max number of runs opened at once
+     * @return number of pairs in target file
+     */
+    public static long merge(@NonNull List<File> runs, @NonNull File target, int mergeFactor) throws IOException {
+        if (mergeFactor < 2)
+            throw new IllegalArgumentException("Merge factor should be at least 2");
+
+        List<File> current = new ArrayList<>(runs);
+        while (current.size() > mergeFactor) {
+            // intermediate pass: merge groups of runs into bigger runs
+            List<File> next = new ArrayList<>();
+            for (int i = 0; i < current.size(); i += mergeFactor) {
+                List<File> group = current.subList(i, Math.min(i + mergeFactor, current.size()));
+                if (group.size() == 1) {
+                    next.add(group.get(0));
+                    continue;
+                }
+                File merged = File.createTempFile("aco_merge", "tmp");
+                merged.deleteOnExit();
+                mergePass(group, merged);
+                next.add(merged);
+            }
+            log.debug("Intermediate merge pass: [" + current.size() + "] runs -> [" + next.size() + "] runs");
+            current = next;
+        }
+
+        return mergePass(current, target);
+    }
+
+    private static long mergePass(List<File> runs, File target) throws IOException {
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(Math.max(runs.size(), 1));
+        long written = 0;
+        try (DataOutputStream dos = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE))) {
+            for (File run : runs) {
+                RunCursor cursor = new RunCursor(run);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                } else {
+                    cursor.close();
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                long key = cursor.key;
+                double weight = cursor.weight;
+                advanceOrClose(queue, cursor);
+
+                // same pair can be present in other runs, so we sum it up
+                while (!queue.isEmpty() && queue.peek().key == key) {
+                    RunCursor other = queue.poll();
+                    weight += other.weight;
+                    advanceOrClose(queue, other);
+                }
+
+                dos.writeInt(PairCountTable.element1(key));
+                dos.writeInt(PairCountTable.element2(key));
+                dos.writeDouble(weight);
+                written++;
+            }
+        } finally {
+            for (RunCursor cursor : queue) {
+                cursor.close();
+            }
+        }
+
+        for (File run : runs) {
+            if (!run.delete()) {
+                log.warn("Can't delete temporary file [" + run.getAbsolutePath() + "]");
+            }
+        }
+
+        return written;
+    }
+
+    private static void advanceOrClose(PriorityQueue<RunCursor> queue, RunCursor cursor) throws IOException {
+        if (cursor.advance()) {
+            queue.add(cursor);
+        } else {
+            cursor.close();
+        }
+    }
+
+    private static class RunCursor implements Comparable<RunCursor> {
+        private final DataInputStream stream;
+        private long key;
+        private double weight;
+
+        private RunCursor(File file) throws IOException {
+            stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+
+        private boolean advance() throws IOException {
+            try {
+                int element1 = stream.readInt();
+                int element2 = stream.readInt();
+                weight = stream.readDouble();
+                key = PairCountTable.pack(element1, element2);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        private void close() throws IOException {
+            stream.close();
+        }
+
+        @Override
+        public int compareTo(RunCursor o) {
+            return Long.compare(key, o.key);
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package org.deeplearning4j.models.word2vec;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.reader.ModelUtils;
+import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is read-only WordVectors implementation, backed by memory-mapped file in binary format written with
+ * {@link #write(WordVectors, File)}. Vectors aren't loaded into heap: each lookup reads single row straight from page cache,
+ * so startup time doesn't depend on vocabulary size, and multiple JVMs on the same host share one copy of the model.
+ *
+ * File layout, all values are little-endian:
+ * <pre>
+ *   header     64 bytes: magic, version, numWords, layerSize, hashCapacity, reserved, offsets/hash/strings/matrix positions
+ *   offsets    (numWords + 1) longs, start of each word within string table
+ *   hash       hashCapacity ints, open-addressing table of (index + 1), 0 for empty slot
+ *   strings    UTF-8 bytes of all words, in index order
+ *   matrix     numWords x layerSize float32, row-major, aligned to 64 bytes
+ * </pre>
+ *
+ * PLEASE NOTE: Just like StaticWord2Vec, this implementation DOES NOT provide methods like wordsNearest or wordsNearestSum.
+ */
+@Slf4j
+public class MappedWord2Vec implements WordVectors {
+    public static final int MAGIC = 0x4D573444; // "D4WM" when read as little-endian bytes
+    public static final int VERSION = 1;
+    protected static final int HEADER_SIZE = 64;
+    protected static final int ALIGNMENT = 64;
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final int numWords;
+    private final int layerSize;
+    private final int hashCapacity;
+    private final int offsetsPos;
+    private final int hashPos;
+    private final int stringsPos;
+
+    // everything before matrix: header, offsets, hash table and strings
+    private final ByteBuffer meta;
+
+    // matrix is split into chunks, since single MappedByteBuffer can't exceed 2GB
+    private final FloatBuffer[] chunks;
+    private final int rowsPerChunk;
+
+    private volatile VocabCache<VocabWord> vocabCache;
+    private String unk = null;
+
+    protected MappedWord2Vec(@NonNull File file) throws IOException {
+        this.file = file;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_SIZE, channel.size()))
+                            .order(ByteOrder.LITTLE_ENDIAN);
+
+            if (header.capacity() < HEADER_SIZE || header.getInt(0) != MAGIC)
+                throw new IOException("File [" + file.getAbsolutePath() + "] isn't mapped WordVectors model");
+
+            int version = header.getInt(4);
+            if (version != VERSION)
+                throw new IOException("Unsupported mapped model version: [" + version + "]");
+
+            numWords = header.getInt(8);
+            layerSize = header.getInt(12);
+            hashCapacity = header.getInt(16);
+
+            long matrixPos = header.getLong(48);
+            if (matrixPos > Integer.MAX_VALUE)
+                throw new IOException("Vocabulary section exceeds 2GB");
+
+            offsetsPos = (int) header.getLong(24);
+            hashPos = (int) header.getLong(32);
+            stringsPos = (int) header.getLong(40);
+
+            long rowBytes = layerSize * 4L;
+            if (matrixPos + rowBytes * numWords > channel.size())
+                throw new IOException("File [" + file.getAbsolutePath() + "] is truncated");
+
+            meta = channel.map(FileChannel.MapMode.READ_ONLY, 0, matrixPos).order(ByteOrder.LITTLE_ENDIAN);
+
+            rowsPerChunk = (int) Math.max(1, Integer.MAX_VALUE / Math.max(1, rowBytes));
+            int numChunks = (numWords + rowsPerChunk - 1) / rowsPerChunk;
+            chunks = new FloatBuffer[numChunks];
+            for (int c = 0; c < numChunks; c++) {
+                long rows = Math.min(rowsPerChunk, numWords - (long) c * rowsPerChunk);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                                matrixPos + (long) c * rowsPerChunk * rowBytes, rows * rowBytes);
+                chunks[c] = buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+        }
+
+        log.debug("Mapped model [{}]: {} words, layer size {}", file.getName(), numWords, layerSize);
+    }
+
+    /**
+     * This method maps previously saved model
+     *
+     * @param file file written with {@link #write(WordVectors, File)}
+     * @return
+     * @throws IOException
+     */
+    public static MappedWord2Vec load(@NonNull File file) throws IOException {
+        return new MappedWord2Vec(file);
+    }
+
+    /**
+     * This method checks, if given file starts with mapped model header
+     *
+     * @param file
+     * @return
+     */
+    public static boolean isMappedModel(@NonNull File file) {
+        if (!file.exists() || file.isDirectory() || file.length() < HEADER_SIZE)
+            return false;
+
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            return Integer.reverseBytes(dis.readInt()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * This method writes given WordVectors into mapped binary format.
+     * Words are written in vocabulary index order, so indexes are preserved.
+     *
+     * @param vectors source model
+     * @param file destination file
+     * @throws IOException
+     */
+    public static void write(@NonNull WordVectors vectors, @NonNull File file) throws IOException {
+        VocabCache<?> vocab = vectors.vocab();
+        int numWords = vocab.numWords();
+
+        byte[][] words = new byte[numWords][];
+        long stringsLength = 0;
+        for (int i = 0; i < numWords; i++) {
+            String word = vocab.wordAtIndex(i);
+            if (word == null)
+                throw new IllegalStateException("Vocabulary has no word at index [" + i + "]");
+
+            words[i] = word.getBytes(UTF8);
+            stringsLength += words[i].length;
+        }
+
+        int layerSize = numWords > 0 ? vectors.getWordVectorMatrix(vocab.wordAtIndex(0)).length() : 0;
+
+        int hashCapacity = 2;
+        while (hashCapacity < numWords * 2L)
+            hashCapacity <<= 1;
+
+        int[] table = new int[hashCapacity];
+        for (int i = 0; i < numWords; i++) {
+            int slot = hash(words[i], 0, words[i].length) & (hashCapacity - 1);
+            while (table[slot] != 0)
+                slot = (slot + 1) & (hashCapacity - 1);
+
+            table[slot] = i + 1;
+        }
+
+        long offsetsPos = HEADER_SIZE;
+        long hashPos = offsetsPos + 8L * (numWords + 1);
+        long stringsPos = hashPos + 4L * hashCapacity;
+        long matrixPos = align(stringsPos + stringsLength);
+
+        try (FileOutputStream fos = new FileOutputStream(file); FileChannel channel = fos.getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(numWords).putInt(layerSize).putInt(hashCapacity).putInt(0);
+            buffer.putLong(offsetsPos).putLong(hashPos).putLong(stringsPos).putLong(matrixPos);
+            while (buffer.position() < HEADER_SIZE)
+                buffer.put((byte) 0);
+
+            long offset = 0;
+            for (int i = 0; i <= numWords; i++) {
+                ensure(channel, buffer, 8);
+                buffer.putLong(offset);
+                if (i < numWords)
+                    offset += words[i].length;
+            }
+
+            for (int slot : table) {
+                ensure(channel, buffer, 4);
+                buffer.putInt(slot);
+            }
+
+            for (byte[] word : words) {
+                int written = 0;
+                while (written < word.length) {
+                    ensure(channel, buffer, 1);
+                    int length = Math.min(buffer.remaining(), word.length - written);
+                    buffer.put(word, written, length);
+                    written += length;
+                }
+            }
+
+            for (long p = stringsPos + stringsLength; p < matrixPos; p++) {
+                ensure(channel, buffer, 1);
+                buffer.put((byte) 0);
+            }
+
+            for (int i = 0; i < numWords; i++) {
+                INDArray vector = vectors.getWordVectorMatrix(vocab.wordAtIndex(i));
+                if (vector.length() != layerSize)
+                    throw new IllegalStateException("Vector for word [" + vocab.wordAtIndex(i) + "] has length ["
+                                    + vector.length() + "], expected [" + layerSize + "]");
+
+                for (int e = 0; e < layerSize; e++) {
+                    ensure(channel, buffer, 4);
+                    buffer.putFloat(vector.getFloat(e));
+                }
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    private static void ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * FNV-1a hash over UTF-8 bytes of the word
+     */
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; i++) {
+            h ^= bytes[i] & 0xFF;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int numWords() {
+        return numWords;
+    }
+
+    public int layerSize() {
+        return layerSize;
+    }
+
+    @Override
+    public String getUNK() {
+        return unk;
+    }
+
+    @Override
+    public void setUNK(String newUNK) {
+        this.unk = newUNK;
+    }
+
+    /**
+     * This method returns word for given index, decoded from string table
+     *
+     * @param index
+     * @return
+     */
+    public String wordAtIndex(int index) {
+        if (index < 0 || index >= numWords)
+            return null;
+
+        long start = meta.getLong(offsetsPos + index * 8);
+        long end = meta.getLong(offsetsPos + (index + 1) * 8);
+        byte[] bytes = new byte[(int) (end - start)];
+
+        ByteBuffer view = meta.duplicate();
+        view.position((int) (stringsPos + start));
+        view.get(bytes);
+
+        return new String(bytes, UTF8);
+    }
+
+    @Override
+    public int indexOf(String word) {
+        if (word == null || numWords == 0)
+            return -1;
+
+        byte[] bytes = word.getBytes(UTF8);
+        int mask = hashCapacity - 1;
+        int slot = hash(bytes, 0, bytes.length) & mask;
+
+        while (true) {
+            int value = meta.getInt(hashPos + slot * 4);
+            if (value == 0)
+                return -1;
+
+            if (matches(value - 1, bytes))
+                return value - 1;
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean matches(int index, byte[] bytes) {
+        long start = meta.getLong(offsetsPos + index * 8);
+        long end = meta.getLong(offsetsPos + (index + 1) * 8);
+        if (end - start != bytes.length)
+            return false;
+
+        int position = (int) (stringsPos + start);
+        for (int i = 0; i < bytes.length; i++)
+            if (meta.get(position + i) != bytes[i])
+                return false;
+
+        return true;
+    }
+
+    /**
+     * This method copies vector with given index into target array
+     *
+     * @param index word index
+     * @param target array of at least layerSize length
+     */
+    public void readVector(int index, @NonNull float[] target) {
+        if (index < 0 || index >= numWords)
+            throw new IndexOutOfBoundsException("Index [" + index + "] is out of vocabulary bounds");
+
+        FloatBuffer view = chunks[index / rowsPerChunk].duplicate();
+        view.position((index % rowsPerChunk) * layerSize);
+        view.get(target, 0, layerSize);
+    }
+
+    private int resolve(String word) {
+        int idx = indexOf(word);
+        if (idx < 0 && getUNK() != null)
+            idx = indexOf(getUNK());
+
+        return idx;
+    }
+
+    /**
+     * Returns true if the model has this word in the vocab
+     *
+     * @param word the word to test for
+     * @return true if the model has the word in the vocab
+     */
+    @Override
+    public boolean hasWord(String word) {
+        return indexOf(word) >= 0;
+    }
+
+    @Override
+    public Collection<String> wordsNearest(INDArray words, int top) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public Collection<String> wordsNearestSum(INDArray words, int top) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public Collection<String> wordsNearestSum(String word, int n) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public Collection<String> wordsNearestSum(Collection<String> positive, Collection<String> negative, int top) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public Map<String, Double> accuracy(List<String> questions) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public List<String> similarWordsInVocabTo(String word, double accuracy) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public Collection<String> wordsNearest(Collection<String> positive, Collection<String> negative, int top) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    @Override
+    public Collection<String> wordsNearest(String word, int n) {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    /**
+     * Get the word vector for a given word
+     *
+     * @param word the word to get the vector for
+     * @return the vector, or null if word is absent and no UNK defined
+     */
+    @Override
+    public double[] getWordVector(String word) {
+        int idx = resolve(word);
+        if (idx < 0)
+            return null;
+
+        float[] vector = new float[layerSize];
+        readVector(idx, vector);
+
+        double[] result = new double[layerSize];
+        for (int e = 0; e < layerSize; e++)
+            result[e] = vector[e];
+
+        return result;
+    }
+
+    /**
+     * Returns the word vector divided by the norm2 of the array
+     *
+     * @param word the word to get the matrix for
+     * @return the looked up matrix
+     */
+    @Override
+    public INDArray getWordVectorMatrixNormalized(String word) {
+        int idx = resolve(word);
+        if (idx < 0)
+            return null;
+
+        float[] vector = new float[layerSize];
+        readVector(idx, vector);
+
+        double norm = Math.sqrt(dot(vector, vector));
+        if (norm > 0.0)
+            for (int e = 0; e < layerSize; e++)
+                vector[e] /= norm;
+
+        return Nd4j.create(vector);
+    }
+
+    /**
+     * Get the word vector for a given word
+     *
+     * @param word the word to get the matrix for
+     * @return the ndarray for this word
+     */
+    @Override
+    public INDArray getWordVectorMatrix(String word) {
+        int idx = resolve(word);
+        if (idx < 0)
+            return null;
+
+        float[] vector = new float[layerSize];
+        readVector(idx, vector);
+
+        return Nd4j.create(vector);
+    }
+
+    /**
+     * This method returns 2D array, where each row represents corresponding word/label
+     *
+     * @param labels
+     * @return
+     */
+    @Override
+    public INDArray getWordVectors(Collection<String> labels) {
+        List<Integer> indexes = new ArrayList<>();
+        for (String label : labels) {
+            int idx = resolve(label);
+            if (idx >= 0)
+                indexes.add(idx);
+        }
+
+        float[] vector = new float[layerSize];
+        float[] data = new float[indexes.size() * layerSize];
+        for (int i = 0; i < indexes.size(); i++) {
+            readVector(indexes.get(i), vector);
+            System.arraycopy(vector, 0, data, i * layerSize, layerSize);
+        }
+
+        return Nd4j.create(data, new int[] {indexes.size(), layerSize});
+    }
+
+    /**
+     * This method returns mean vector, built from words/labels passed in
+     *
+     * @param labels
+     * @return
+     */
+    @Override
+    public INDArray getWordVectorsMean(Collection<String> labels) {
+        return getWordVectors(labels).mean(0);
+    }
+
+    /**
+     * Returns the similarity of 2 words
+     *
+     * @param label1  the first word
+     * @param label2 the second word
+     * @return a normalized similarity (cosine similarity)
+     */
+    @Override
+    public double similarity(String label1, String label2) {
+        int idx1 = label1 == null ? -1 : resolve(label1);
+        int idx2 = label2 == null ? -1 : resolve(label2);
+
+        if (idx1 < 0 || idx2 < 0) {
+            log.debug(label1 + ": " + (idx1 < 0 ? "null" : "exists") + ";" + label2 + " vec2:"
+                            + (idx2 < 0 ? "null" : "exists"));
+            return Double.NaN;
+        }
+
+        if (label1.equals(label2))
+            return 1.0;
+
+        float[] vec1 = new float[layerSize];
+        float[] vec2 = new float[layerSize];
+        readVector(idx1, vec1);
+        readVector(idx2, vec2);
+
+        double norm = Math.sqrt(dot(vec1, vec1)) * Math.sqrt(dot(vec2, vec2));
+        return norm == 0.0 ? 0.0 : dot(vec1, vec2) / norm;
+    }
+
+    private static double dot(float[] x, float[] y) {
+        double result = 0.0;
+        for (int e = 0; e < x.length; e++)
+            result += x[e] * y[e];
+
+        return result;
+    }
+
+    /**
+     * Vocab for the vectors.
+     * PLEASE NOTE: VocabCache is built on first call, and it takes time & memory proportional to vocabulary size.
+     * Use indexOf()/hasWord()/wordAtIndex() for lookups instead, those are served from mapped file directly.
+     *
+     * @return
+     */
+    @Override
+    public VocabCache vocab() {
+        if (vocabCache == null) {
+            synchronized (this) {
+                if (vocabCache == null) {
+                    VocabCache<VocabWord> cache = new AbstractCache.Builder<VocabWord>().build();
+                    for (int i = 0; i < numWords; i++) {
+                        String word = wordAtIndex(i);
+                        VocabWord element = new VocabWord(1.0, word);
+                        element.setIndex(i);
+
+                        cache.addToken(element);
+                        cache.addWordToIndex(i, word);
+                    }
+                    vocabCache = cache;
+                }
+            }
+        }
+        return vocabCache;
+    }
+
+    /**
+     * Lookup table for the vectors
+     * PLEASE NOTE: This method is not available in this implementation.
+     *
+     * @return
+     */
+    @Override
+    public WeightLookupTable lookupTable() {
+        throw new UnsupportedOperationException("Method isn't implemented. Please use usual Word2Vec implementation");
+    }
+
+    /**
+     * Specifies ModelUtils to be used to access model
+     * PLEASE NOTE: This method has no effect in this implementation.
+     *
+     * @param utils
+     */
+    @Override
+    public void setModelUtils(ModelUtils utils) {
+        // no-op
+    }
+}
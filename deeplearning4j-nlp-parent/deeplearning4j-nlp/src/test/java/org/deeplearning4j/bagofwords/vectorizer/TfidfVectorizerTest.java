@@ -20,7 +20,10 @@ package org.deeplearning4j.bagofwords.vectorizer;
 
 import org.datavec.api.util.ClassPathResource;
 import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.iterator.SparseTextDataSetIterator;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.text.documentiterator.LabelledDocument;
+import org.deeplearning4j.text.documentiterator.SimpleLabelAwareIterator;
 import org.deeplearning4j.text.sentenceiterator.labelaware.LabelAwareFileSentenceIterator;
 import org.deeplearning4j.text.sentenceiterator.labelaware.LabelAwareSentenceIterator;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
@@ -35,8 +38,11 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeNotNull;
 
 /**
@@ -118,5 +124,59 @@ public class TfidfVectorizerTest {
         assertEquals(vector, dataSet.getFeatureMatrix());
     }
 
+    @Test
+    public void testSparseTransform() throws Exception {
+        File rootDir = new ClassPathResource("tripledir").getFile();
+        LabelAwareSentenceIterator iter = new LabelAwareFileSentenceIterator(rootDir);
+        TokenizerFactory tokenizerFactory = new DefaultTokenizerFactory();
+
+        TfidfVectorizer vectorizer = new TfidfVectorizer.Builder().setMinWordFrequency(1)
+                        .setStopWords(new ArrayList<String>()).setTokenizerFactory(tokenizerFactory).setIterator(iter)
+                        .allowParallelTokenization(true).build();
+
+        vectorizer.fit();
+        VocabCache<VocabWord> vocabCache = vectorizer.getVocabCache();
+
+        SparseTextMatrix single = vectorizer.transformSparse("This is 3 file. This is unknown");
+        assertEquals(1, single.numRows());
+        assertEquals(vocabCache.numWords(), single.numColumns());
+        assertEquals(4, single.numNonZero());
+        assertEquals(vectorizer.transform("This is 3 file. This is unknown"), single.toDense(0));
+
+        int[] indexes = single.getRowIndexes(0);
+        for (int i = 1; i < indexes.length; i++)
+            assertTrue(indexes[i] > indexes[i - 1]);
+
+        // more documents than single chunk, to check rows order
+        String[] texts = new String[] {"This is 1 file.", "This is 2 file.", "This is 3 file.", "file. file. 3"};
+        List<LabelledDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            LabelledDocument document = new LabelledDocument();
+            document.setContent(texts[i % texts.length]);
+            document.addLabel("label" + (i % 2));
+            documents.add(document);
+        }
 
+        SparseTextMatrix matrix = vectorizer.transformSparse(new SimpleLabelAwareIterator(documents));
+        assertEquals(1000, matrix.numRows());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(vectorizer.transform(texts[i % texts.length]), matrix.toDense(i));
+            assertEquals("label" + (i % 2), matrix.getLabel(i));
+        }
+
+        SparseTextDataSetIterator dsIter =
+                        new SparseTextDataSetIterator(matrix, Arrays.asList("label0", "label1"), 64);
+        int examples = 0;
+        while (dsIter.hasNext()) {
+            DataSet ds = dsIter.next();
+            assertArrayEquals(new int[] {Math.min(64, 1000 - examples), vocabCache.numWords()},
+                            ds.getFeatureMatrix().shape());
+            for (int i = 0; i < ds.numExamples(); i++) {
+                assertEquals(matrix.toDense(examples + i), ds.getFeatureMatrix().getRow(i));
+                assertEquals(1.0, ds.getLabels().getDouble(i, (examples + i) % 2), 0.0);
+            }
+            examples += ds.numExamples();
+        }
+        assertEquals(1000, examples);
+    }
 }
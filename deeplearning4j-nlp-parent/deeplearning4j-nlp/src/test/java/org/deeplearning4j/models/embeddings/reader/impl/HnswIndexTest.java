@@ -0,0 +1,66 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HnswIndexTest {
+
+    private static float[] randomUnitVectors(int size, int dims, long seed) {
+        Random rng = new Random(seed);
+        float[] data = new float[size * dims];
+        for (int i = 0; i < size; i++) {
+            double norm = 0.0;
+            for (int e = 0; e < dims; e++) {
+                float v = (float) rng.nextGaussian();
+                data[i * dims + e] = v;
+                norm += v * v;
+            }
+
+            norm = Math.sqrt(norm);
+            for (int e = 0; e < dims; e++)
+                data[i * dims + e] /= norm;
+        }
+        return data;
+    }
+
+    @Test
+    public void testRecall() throws Exception {
+        HnswIndex index = HnswIndex.build(randomUnitVectors(3000, 16, 12345), 16, 16, 200, 100, 4, 119);
+        assertEquals(3000, index.size());
+
+        double recall = index.estimateRecall(100, 10, 100, 12345);
+        assertTrue("Recall was " + recall, recall > 0.9);
+
+        // exact search on stored vector must return itself first
+        int[] exact = index.searchExact(index.vector(42), 5);
+        assertEquals(42, exact[0]);
+
+        int[] approx = index.search(index.vector(42), 5);
+        assertEquals(5, approx.length);
+        assertEquals(42, approx[0]);
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        HnswIndex index = HnswIndex.build(randomUnitVectors(500, 8, 119), 8, 8, 50, 50, 2, 119);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        index.write(baos);
+
+        HnswIndex restored = HnswIndex.read(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.dims(), restored.dims());
+
+        for (int i = 0; i < 20; i++) {
+            float[] query = index.vector(i * 7);
+            assertArrayEquals(index.search(query, 10), restored.search(query, 10));
+        }
+    }
+}
@@ -73,6 +73,10 @@ public class AbstractCoOccurrencesTest {
             Pair<Pair<VocabWord, VocabWord>, Double> pair = iterator.next();
             list.add(pair.getFirst());
             cnt++;
+
+            // weights streamed from target file should match lookups in it
+            assertEquals(pair.getSecond(), coOccurrences.getCoOccurrenceCount(pair.getFirst().getFirst(),
+                            pair.getFirst().getSecond()), 1e-10);
         }
 
 
@@ -0,0 +1,138 @@
+package org.deeplearning4j.models.glove.count;
+
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PairCountTableTest {
+
+    @Test
+    public void testIncrementAndGet() throws Exception {
+        for (boolean offHeap : new boolean[] {false, true}) {
+            PairCountTable table = new PairCountTable(4, 8, offHeap);
+            Map<Long, Double> expected = new HashMap<>();
+
+            Random random = new Random(12345);
+            for (int i = 0; i < 10000; i++) {
+                int e1 = random.nextInt(200);
+                int e2 = random.nextInt(200);
+                double w = random.nextDouble();
+                table.increment(e1, e2, w);
+                increment(expected, PairCountTable.pack(e1, e2), w);
+            }
+
+            assertEquals(expected.size(), table.size());
+            for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+                int e1 = PairCountTable.element1(entry.getKey());
+                int e2 = PairCountTable.element2(entry.getKey());
+                assertEquals(entry.getValue(), table.getCount(e1, e2), 1e-10);
+            }
+            assertEquals(0.0, table.getCount(1000, 1000), 0.0);
+        }
+    }
+
+    @Test
+    public void testSpillAndMerge() throws Exception {
+        for (boolean offHeap : new boolean[] {false, true}) {
+            final PairCountTable table = new PairCountTable(8, 16, offHeap);
+            Map<Long, Double> expected = new HashMap<>();
+            List<File> runs = new ArrayList<>();
+
+            Random random = new Random(12345);
+            for (int r = 0; r < 10; r++) {
+                for (int i = 0; i < 5000; i++) {
+                    int e1 = random.nextInt(300);
+                    int e2 = random.nextInt(300);
+                    double w = random.nextDouble();
+                    table.increment(e1, e2, w);
+                    increment(expected, PairCountTable.pack(e1, e2), w);
+                }
+
+                File run = File.createTempFile("aco_test", "tmp");
+                run.deleteOnExit();
+                long written = table.spill(run);
+                assertEquals(run.length() / 16, written);
+                assertEquals(0, table.size());
+                assertSorted(run);
+                runs.add(run);
+            }
+
+            File target = File.createTempFile("aco_test", "tmp");
+            target.deleteOnExit();
+
+            // merge factor smaller than number of runs, so intermediate passes are tested as well
+            long pairs = SortedRunMerger.merge(runs, target, 3);
+            assertEquals(expected.size(), pairs);
+            assertSorted(target);
+
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(target)))) {
+                for (int i = 0; i < pairs; i++) {
+                    long key = PairCountTable.pack(dis.readInt(), dis.readInt());
+                    assertEquals(expected.get(key), dis.readDouble(), 1e-8);
+                }
+            }
+
+            for (File run : runs) {
+                assertTrue(!run.exists());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws Exception {
+        final PairCountTable table = new PairCountTable(16, 16, false);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100; i++) {
+                        for (int j = 0; j < 100; j++) {
+                            table.increment(i, j, 1.0);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(10000, table.size());
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                assertEquals(4.0, table.getCount(i, j), 0.0);
+            }
+        }
+    }
+
+    private static void increment(Map<Long, Double> map, long key, double weight) {
+        Double current = map.get(key);
+        map.put(key, current == null ? weight : current + weight);
+    }
+
+    private static void assertSorted(File file) throws Exception {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            long records = file.length() / 16;
+            long previous = Long.MIN_VALUE;
+            for (int i = 0; i < records; i++) {
+                long key = PairCountTable.pack(dis.readInt(), dis.readInt());
+                dis.readDouble();
+                assertTrue(key > previous);
+                previous = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.deeplearning4j.models.word2vec;
+
+import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
+import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MappedWord2VecTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        String[] words = {"day", "night", "caf\u00e9", "sun", "moon", "star"};
+        for (int i = 0; i < words.length; i++) {
+            builder.append(words[i]);
+            for (int e = 0; e < 5; e++)
+                builder.append(" ").append((i + 1) * 0.5f + e * 0.25f);
+            builder.append("\n");
+        }
+
+        WordVectors original = WordVectorSerializer.loadTxtVectors(
+                        new ByteArrayInputStream(builder.toString().getBytes("UTF-8")), false);
+
+        File file = File.createTempFile("mapped", "w2v");
+        file.deleteOnExit();
+
+        WordVectorSerializer.writeMappedModel(original, file);
+        assertTrue(MappedWord2Vec.isMappedModel(file));
+
+        WordVectors restored = WordVectorSerializer.loadStaticModel(file);
+        assertTrue(restored instanceof MappedWord2Vec);
+
+        for (String word : words) {
+            assertTrue(restored.hasWord(word));
+            assertEquals(original.indexOf(word), restored.indexOf(word));
+            assertEquals(original.getWordVectorMatrix(word), restored.getWordVectorMatrix(word));
+            assertEquals(word, ((MappedWord2Vec) restored).wordAtIndex(restored.indexOf(word)));
+        }
+
+        assertFalse(restored.hasWord("dusk"));
+        assertNull(restored.getWordVectorMatrix("dusk"));
+
+        assertEquals(original.similarity("day", "night"), restored.similarity("day", "night"), 1e-5);
+        assertEquals(words.length, restored.vocab().numWords());
+        assertEquals(2, restored.getWordVectors(Arrays.asList("sun", "dusk", "moon")).rows());
+    }
+}
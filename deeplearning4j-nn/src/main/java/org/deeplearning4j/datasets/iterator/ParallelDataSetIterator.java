@@ -0,0 +1,192 @@
+package org.deeplearning4j.datasets.iterator;
+
+import lombok.NonNull;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ParallelDataSetIterator is multi-threaded alternative to AsyncDataSetIterator: DataSets are prefetched
+ * by several worker threads, instead of single one.
+ *
+ * Two modes are available:
+ * <ul>
+ *     <li>Single base iterator: calls to base iterator are serialized, but preprocessing set via
+ *     {@link #setPreProcessor(DataSetPreProcessor)} on this iterator runs on worker threads in parallel.</li>
+ *     <li>Multiple base iterators (i.e. one iterator per data shard/file split): fetching runs in parallel as well,
+ *     each base iterator is used by single worker at any time.</li>
+ * </ul>
+ *
+ * If ordered == true, output is deterministic: DataSets come in the order of base iterator, and multiple base iterators
+ * are interleaved round-robin. Otherwise DataSets are returned as soon as they are ready.
+ *
+ * Worker threads have the same device affinity as the thread that created this iterator.
+ * Note that next(int) is not supported.
+ */
+public class ParallelDataSetIterator implements DataSetIterator {
+    private final List<DataSetIterator> iterators;
+    private final ParallelPrefetcher<DataSet> prefetcher;
+    private volatile DataSetPreProcessor preProcessor;
+
+    /**
+     * @param iterator base iterator
+     * @param queueSize max number of prefetched DataSets
+     * @param workers number of worker threads
+     */
+    public ParallelDataSetIterator(@NonNull DataSetIterator iterator, int queueSize, int workers) {
+        this(Collections.singletonList(iterator), queueSize, workers, true);
+    }
+
+    /**
+     * @param iterators base iterators, one per shard
+     * @param queueSize max number of prefetched DataSets, in total
+     * @param workers number of worker threads
+     * @param ordered if true, output order is deterministic
+     */
+    public ParallelDataSetIterator(@NonNull List<DataSetIterator> iterators, int queueSize, int workers,
+                    boolean ordered) {
+        if (iterators.isEmpty())
+            throw new IllegalArgumentException("At least one base iterator is required");
+
+        this.iterators = new ArrayList<>(iterators);
+        for (DataSetIterator iterator : this.iterators)
+            if (iterator.resetSupported())
+                iterator.reset();
+
+        prefetcher = new ParallelPrefetcher<DataSet>(this.iterators.size(), workers, Math.max(2, queueSize), ordered,
+                        "ParallelDataSetIterator") {
+            @Override
+            protected boolean sourceHasNext(int source) {
+                return ParallelDataSetIterator.this.iterators.get(source).hasNext();
+            }
+
+            @Override
+            protected DataSet sourceNext(int source) {
+                return ParallelDataSetIterator.this.iterators.get(source).next();
+            }
+
+            @Override
+            protected void sourceReset(int source) {
+                ParallelDataSetIterator.this.iterators.get(source).reset();
+            }
+
+            @Override
+            protected DataSet process(DataSet element) {
+                DataSetPreProcessor preProcessor = ParallelDataSetIterator.this.preProcessor;
+                if (preProcessor != null)
+                    preProcessor.preProcess(element);
+                return element;
+            }
+        };
+        prefetcher.start();
+    }
+
+    @Override
+    public DataSet next(int num) {
+        throw new UnsupportedOperationException("Next(int) not supported for ParallelDataSetIterator");
+    }
+
+    @Override
+    public int totalExamples() {
+        return iterators.get(0).totalExamples();
+    }
+
+    @Override
+    public int inputColumns() {
+        return iterators.get(0).inputColumns();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return iterators.get(0).totalOutcomes();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        for (DataSetIterator iterator : iterators)
+            if (!iterator.resetSupported())
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return false;
+    }
+
+    /**
+     * Resets all base iterators. Unlike AsyncDataSetIterator, this method doesn't wait for background threads:
+     * DataSets fetched before reset are discarded.
+     */
+    @Override
+    public void reset() {
+        if (!resetSupported())
+            throw new UnsupportedOperationException(
+                            "Cannot reset Parallel iterator wrapping iterator that does not support reset");
+        prefetcher.reset();
+    }
+
+    @Override
+    public int batch() {
+        return iterators.get(0).batch();
+    }
+
+    @Override
+    public int cursor() {
+        return iterators.get(0).cursor();
+    }
+
+    @Override
+    public int numExamples() {
+        int numExamples = 0;
+        for (DataSetIterator iterator : iterators)
+            numExamples += iterator.numExamples();
+        return numExamples;
+    }
+
+    /**
+     * PLEASE NOTE: unlike AsyncDataSetIterator, preprocessor is applied by this iterator on worker threads,
+     * and isn't passed to base iterators. So it has to be thread-safe.
+     *
+     * @param preProcessor
+     */
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return iterators.get(0).getLabels();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return prefetcher.hasNext();
+    }
+
+    @Override
+    public DataSet next() {
+        return prefetcher.next();
+    }
+
+    /**
+     * Shut down worker threads.
+     * Behaviour of next(), hasNext() etc methods after shutdown is undefined
+     */
+    public void shutdown() {
+        prefetcher.shutdown();
+    }
+
+    @Override
+    public void remove() {}
+}
@@ -0,0 +1,134 @@
+package org.deeplearning4j.datasets.iterator;
+
+import lombok.NonNull;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Multi-threaded prefetching iterator wrapper for MultiDataSetIterator implementations.
+ * See {@link ParallelDataSetIterator} for details.
+ */
+public class ParallelMultiDataSetIterator implements MultiDataSetIterator {
+    private final List<MultiDataSetIterator> iterators;
+    private final ParallelPrefetcher<MultiDataSet> prefetcher;
+    private volatile MultiDataSetPreProcessor preProcessor;
+
+    /**
+     * @param iterator base iterator
+     * @param queueSize max number of prefetched MultiDataSets
+     * @param workers number of worker threads
+     */
+    public ParallelMultiDataSetIterator(@NonNull MultiDataSetIterator iterator, int queueSize, int workers) {
+        this(Collections.singletonList(iterator), queueSize, workers, true);
+    }
+
+    /**
+     * @param iterators base iterators, one per shard
+     * @param queueSize max number of prefetched MultiDataSets, in total
+     * @param workers number of worker threads
+     * @param ordered if true, output order is deterministic
+     */
+    public ParallelMultiDataSetIterator(@NonNull List<MultiDataSetIterator> iterators, int queueSize, int workers,
+                    boolean ordered) {
+        if (iterators.isEmpty())
+            throw new IllegalArgumentException("At least one base iterator is required");
+
+        this.iterators = new ArrayList<>(iterators);
+        for (MultiDataSetIterator iterator : this.iterators)
+            if (iterator.resetSupported())
+                iterator.reset();
+
+        prefetcher = new ParallelPrefetcher<MultiDataSet>(this.iterators.size(), workers, Math.max(2, queueSize),
+                        ordered, "ParallelMultiDataSetIterator") {
+            @Override
+            protected boolean sourceHasNext(int source) {
+                return ParallelMultiDataSetIterator.this.iterators.get(source).hasNext();
+            }
+
+            @Override
+            protected MultiDataSet sourceNext(int source) {
+                return ParallelMultiDataSetIterator.this.iterators.get(source).next();
+            }
+
+            @Override
+            protected void sourceReset(int source) {
+                ParallelMultiDataSetIterator.this.iterators.get(source).reset();
+            }
+
+            @Override
+            protected MultiDataSet process(MultiDataSet element) {
+                MultiDataSetPreProcessor preProcessor = ParallelMultiDataSetIterator.this.preProcessor;
+                if (preProcessor != null)
+                    preProcessor.preProcess(element);
+                return element;
+            }
+        };
+        prefetcher.start();
+    }
+
+    @Override
+    public MultiDataSet next(int num) {
+        throw new UnsupportedOperationException("Next(int) not supported for ParallelMultiDataSetIterator");
+    }
+
+    /**
+     * PLEASE NOTE: preprocessor is applied by this iterator on worker threads, and isn't passed to base iterators.
+     * So it has to be thread-safe.
+     *
+     * @param preProcessor
+     */
+    @Override
+    public void setPreProcessor(MultiDataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        for (MultiDataSetIterator iterator : iterators)
+            if (!iterator.resetSupported())
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return false;
+    }
+
+    /**
+     * Resets all base iterators, without waiting for background threads
+     */
+    @Override
+    public void reset() {
+        if (!resetSupported())
+            throw new UnsupportedOperationException(
+                            "Cannot reset Parallel iterator wrapping iterator that does not support reset");
+        prefetcher.reset();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return prefetcher.hasNext();
+    }
+
+    @Override
+    public MultiDataSet next() {
+        return prefetcher.next();
+    }
+
+    /**
+     * Shut down worker threads.
+     * Behaviour of next(), hasNext() etc methods after shutdown is undefined
+     */
+    public void shutdown() {
+        prefetcher.shutdown();
+    }
+
+    @Override
+    public void remove() {}
+}
@@ -0,0 +1,430 @@
+package org.deeplearning4j.datasets.iterator;
+
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-worker prefetch engine, shared by ParallelDataSetIterator and ParallelMultiDataSetIterator.
+ *
+ * Data comes from one or more sources (i.e. shards of the dataset). Each source is not required to be thread-safe:
+ * calls to hasNext()/next() on the same source are always serialized, and every fetched element gets per-source
+ * sequence number. Post-processing (preprocessors etc) runs in parallel on worker threads, and elements are put
+ * back into order using those sequence numbers. With multiple sources, fetching itself runs in parallel as well.
+ *
+ * In ordered mode, output is deterministic: elements of each source come in their original order, and sources are
+ * interleaved round-robin. In unordered mode, elements are returned as soon as they are ready.
+ *
+ * reset() doesn't wait for workers: elements in flight are tagged with generation number and discarded on delivery.
+ * Workers exit once their sources are exhausted (or base iterator failed), and are restarted on reset(),
+ * so abandoned instances don't keep threads alive.
+ */
+abstract class ParallelPrefetcher<T> {
+    private static final Logger log = LoggerFactory.getLogger(ParallelPrefetcher.class);
+
+    private final Source[] sources;
+    private final Worker[] workers;
+    private final Integer deviceId;
+    private final String name;
+    private final boolean ordered;
+    private final int capacityPerSource;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private int generation = 0;
+    private int current = 0;
+    private RuntimeException exception;
+    private volatile boolean shutdown = false;
+
+    private class Source {
+        private final int index;
+        private final ReentrantLock fetchLock = new ReentrantLock();
+        private final TreeMap<Long, T> buffer = new TreeMap<>();
+        private long nextSeq = 0;
+        private long consumed = 0;
+        private boolean exhausted = false;
+
+        private Source(int index) {
+            this.index = index;
+        }
+
+        private boolean hasCapacity() {
+            return !exhausted && nextSeq - consumed < capacityPerSource;
+        }
+
+        private boolean drained() {
+            return exhausted && consumed == nextSeq;
+        }
+    }
+
+    /**
+     * @param numSources number of independent sources
+     * @param numWorkers number of worker threads
+     * @param queueSize max number of prefetched elements, in total
+     * @param ordered if true, output order is deterministic
+     * @param name prefix for worker thread names
+     */
+    protected ParallelPrefetcher(int numSources, int numWorkers, int queueSize, boolean ordered, String name) {
+        if (numSources < 1)
+            throw new IllegalArgumentException("At least 1 source is required");
+        if (numWorkers < 1)
+            throw new IllegalArgumentException("Number of workers must be > 0");
+        if (queueSize < 1)
+            throw new IllegalArgumentException("Queue size must be > 0");
+
+        this.ordered = ordered;
+        this.capacityPerSource = Math.max(1, (queueSize + numSources - 1) / numSources);
+
+        sources = new ParallelPrefetcher.Source[numSources];
+        for (int i = 0; i < numSources; i++)
+            sources[i] = new Source(i);
+
+        // background threads should have the same thread->device affinity, as master thread
+        this.deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        this.name = name;
+
+        workers = new ParallelPrefetcher.Worker[numWorkers];
+        for (int w = 0; w < numWorkers; w++) {
+            List<Source> owned = new ArrayList<>();
+            if (numSources >= numWorkers) {
+                for (int s = w; s < numSources; s += numWorkers)
+                    owned.add(sources[s]);
+            } else {
+                owned.add(sources[w % numSources]);
+            }
+
+            workers[w] = new Worker(w, owned);
+        }
+    }
+
+    protected void start() {
+        lock.lock();
+        try {
+            for (Worker worker : workers)
+                worker.launch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts new threads for workers that have exited. Should be called with lock held.
+     */
+    private void restartWorkers() {
+        for (int w = 0; w < workers.length; w++) {
+            if (!workers[w].running) {
+                workers[w] = new Worker(w, workers[w].owned);
+                workers[w].launch();
+            }
+        }
+    }
+
+    protected abstract boolean sourceHasNext(int source);
+
+    protected abstract T sourceNext(int source);
+
+    protected abstract void sourceReset(int source);
+
+    /**
+     * Post-processing of fetched element, executed on worker thread outside of source lock
+     */
+    protected abstract T process(T element);
+
+    public boolean hasNext() {
+        lock.lock();
+        try {
+            while (true) {
+                if (exception != null)
+                    throw exception;
+
+                if (ordered) {
+                    Source source = currentSource();
+                    if (source == null)
+                        return false;
+                    if (source.buffer.containsKey(source.consumed))
+                        return true;
+                } else {
+                    boolean drained = true;
+                    for (Source source : sources) {
+                        if (!source.buffer.isEmpty())
+                            return true;
+                        drained &= source.drained();
+                    }
+                    if (drained)
+                        return false;
+                }
+
+                if (shutdown)
+                    throw new IllegalStateException("Iterator was shut down");
+
+                changed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T next() {
+        lock.lock();
+        try {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            T element;
+            if (ordered) {
+                Source source = currentSource();
+                element = source.buffer.remove(source.consumed);
+                source.consumed++;
+                current = (source.index + 1) % sources.length;
+            } else {
+                element = null;
+                for (int i = 0; i < sources.length && element == null; i++) {
+                    Source source = sources[(current + i) % sources.length];
+                    Map.Entry<Long, T> entry = source.buffer.pollFirstEntry();
+                    if (entry != null) {
+                        element = entry.getValue();
+                        source.consumed++;
+                        current = (source.index + 1) % sources.length;
+                    }
+                }
+            }
+
+            changed.signalAll();
+            return element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns source expected to provide next element in ordered mode, or null if all sources are drained
+     */
+    private Source currentSource() {
+        for (int i = 0; i < sources.length; i++) {
+            Source source = sources[(current + i) % sources.length];
+            if (!source.drained()) {
+                current = source.index;
+                return source;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resets all sources. Elements currently processed by workers are discarded once they are delivered,
+     * so there's no need to wait for workers here.
+     */
+    public void reset() {
+        // holding all fetch locks guarantees that no source is in the middle of next() call
+        for (Source source : sources)
+            source.fetchLock.lock();
+        try {
+            lock.lock();
+            try {
+                generation++;
+                current = 0;
+                exception = null;
+                for (Source source : sources) {
+                    sourceReset(source.index);
+                    source.buffer.clear();
+                    source.nextSeq = 0;
+                    source.consumed = 0;
+                    source.exhausted = false;
+                }
+                if (!shutdown)
+                    restartWorkers();
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            for (Source source : sources)
+                source.fetchLock.unlock();
+        }
+    }
+
+    /**
+     * Stops worker threads. Behaviour of hasNext()/next() after shutdown is undefined.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Worker worker : workers)
+            worker.interrupt();
+
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns number of elements ready to be consumed
+     */
+    public int available() {
+        lock.lock();
+        try {
+            int size = 0;
+            for (Source source : sources)
+                size += source.buffer.size();
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(RuntimeException e, int gen) {
+        lock.lock();
+        try {
+            if (gen == generation && exception == null)
+                exception = e;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private class Worker extends Thread {
+        private final List<Source> owned;
+        private int position = 0;
+
+        // guarded by lock: false once worker decided to exit
+        private boolean running = false;
+
+        private Worker(int index, List<Source> owned) {
+            this.owned = owned;
+            setName(name + " thread " + index);
+            setDaemon(true);
+            Nd4j.getAffinityManager().attachThreadToDevice(this, deviceId);
+        }
+
+        private void launch() {
+            running = true;
+            start();
+        }
+
+        /**
+         * Picks next owned source that can accept more elements, waiting if there's none.
+         * Returns null if worker should exit.
+         */
+        private Source pick() throws InterruptedException {
+            lock.lock();
+            try {
+                while (!shutdown && exception == null) {
+                    boolean exhausted = true;
+                    for (int i = 0; i < owned.size(); i++) {
+                        Source source = owned.get((position + i) % owned.size());
+                        if (source.hasCapacity()) {
+                            position = (position + i + 1) % owned.size();
+                            return source;
+                        }
+                        exhausted &= source.exhausted;
+                    }
+
+                    if (exhausted)
+                        break;
+
+                    changed.await();
+                }
+                running = false;
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!shutdown) {
+                    Source source = pick();
+                    if (source == null)
+                        return;
+
+                    int gen;
+                    long seq;
+                    T element;
+                    source.fetchLock.lock();
+                    try {
+                        lock.lock();
+                        try {
+                            // other worker could fill this source while we were waiting for fetch lock
+                            if (!source.hasCapacity())
+                                continue;
+                            gen = generation;
+                        } finally {
+                            lock.unlock();
+                        }
+
+                        try {
+                            if (!sourceHasNext(source.index)) {
+                                element = null;
+                            } else {
+                                element = sourceNext(source.index);
+                            }
+                        } catch (RuntimeException e) {
+                            fail(e, gen);
+                            continue;
+                        }
+
+                        lock.lock();
+                        try {
+                            if (element == null) {
+                                source.exhausted = true;
+                                changed.signalAll();
+                                continue;
+                            }
+                            seq = source.nextSeq++;
+                        } finally {
+                            lock.unlock();
+                        }
+                    } finally {
+                        source.fetchLock.unlock();
+                    }
+
+                    try {
+                        element = process(element);
+
+                        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+                    } catch (RuntimeException e) {
+                        fail(e, gen);
+                        continue;
+                    }
+
+                    lock.lock();
+                    try {
+                        // elements fetched before reset() are discarded
+                        if (gen == generation) {
+                            source.buffer.put(seq, element);
+                            changed.signalAll();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } catch (InterruptedException e) {
+                if (!shutdown)
+                    log.warn("Prefetch thread was interrupted unexpectedly", e);
+            } finally {
+                lock.lock();
+                try {
+                    running = false;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
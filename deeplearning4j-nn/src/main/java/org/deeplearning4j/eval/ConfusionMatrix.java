@@ -18,25 +18,31 @@
 
 package org.deeplearning4j.eval;
 
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multiset;
-
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Confusion matrix over a list of classes. Counts are kept in a dense int[actual][predicted] array, with
+ * rows and columns in the order of {@link #getClasses()}. Classes that aren't in the list are accepted as well:
+ * matrix grows to accommodate them, but they aren't added to {@link #getClasses()}.
+ */
 public class ConfusionMatrix<T extends Comparable<? super T>> implements Serializable {
-    private Map<T, Multiset<T>> matrix;
     private List<T> classes;
+    // classes seen in add() calls, but not present in classes list, in order of appearance
+    private List<T> extraClasses;
+    private int[][] matrix;
+    private transient Map<T, Integer> classIndexes;
 
     /**
      * Creates an empty confusion Matrix
      */
     public ConfusionMatrix(List<T> classes) {
-        this.matrix = new HashMap<>();
         this.classes = classes;
+        this.matrix = new int[classes.size()][classes.size()];
     }
 
     public ConfusionMatrix() {}
@@ -60,24 +66,28 @@ public class ConfusionMatrix<T extends Comparable<? super T>> implements Seriali
      * Increments the entry specified by actual and predicted by count.
      */
     public void add(T actual, T predicted, int count) {
-        if (matrix.containsKey(actual)) {
-            matrix.get(actual).add(predicted, count);
-        } else {
-            Multiset<T> counts = HashMultiset.create();
-            counts.add(predicted, count);
-            matrix.put(actual, counts);
-        }
+        matrix[indexOf(actual)][indexOf(predicted)] += count;
     }
 
     /**
      * Adds the entries from another confusion matrix to this one.
      */
     public void add(ConfusionMatrix<T> other) {
-        for (T actual : other.matrix.keySet()) {
-            Multiset<T> counts = other.matrix.get(actual);
-            for (T predicted : counts.elementSet()) {
-                int count = counts.count(predicted);
-                this.add(actual, predicted, count);
+        if (classes.equals(other.classes) && other.extraClasses == null && matrix.length == other.matrix.length) {
+            for (int i = 0; i < matrix.length; i++) {
+                int[] row = matrix[i];
+                int[] otherRow = other.matrix[i];
+                for (int j = 0; j < row.length; j++)
+                    row[j] += otherRow[j];
+            }
+            return;
+        }
+
+        for (int i = 0; i < other.matrix.length; i++) {
+            for (int j = 0; j < other.matrix.length; j++) {
+                int count = other.matrix[i][j];
+                if (count != 0)
+                    this.add(other.classAt(i), other.classAt(j), count);
             }
         }
     }
@@ -94,20 +104,24 @@ public class ConfusionMatrix<T extends Comparable<? super T>> implements Seriali
      * class.
      */
     public int getCount(T actual, T predicted) {
-        if (!matrix.containsKey(actual)) {
+        Integer actualIdx = classIndexes().get(actual);
+        Integer predictedIdx = classIndexes().get(predicted);
+        if (actualIdx == null || predictedIdx == null)
             return 0;
-        } else {
-            return matrix.get(actual).count(predicted);
-        }
+        return matrix[actualIdx][predictedIdx];
     }
 
     /**
      * Computes the total number of times the class was predicted by the classifier.
      */
     public int getPredictedTotal(T predicted) {
+        Integer predictedIdx = classIndexes().get(predicted);
+        if (predictedIdx == null)
+            return 0;
+        // only actual classes from the classes list are taken into account here
         int total = 0;
-        for (T actual : classes) {
-            total += getCount(actual, predicted);
+        for (int i = 0; i < classes.size(); i++) {
+            total += matrix[i][predictedIdx];
         }
         return total;
     }
@@ -116,20 +130,79 @@ public class ConfusionMatrix<T extends Comparable<? super T>> implements Seriali
      * Computes the total number of times the class actually appeared in the data.
      */
     public int getActualTotal(T actual) {
-        if (!matrix.containsKey(actual)) {
+        Integer actualIdx = classIndexes().get(actual);
+        if (actualIdx == null)
             return 0;
-        } else {
-            int total = 0;
-            for (T elem : matrix.get(actual).elementSet()) {
-                total += matrix.get(actual).count(elem);
+        int total = 0;
+        for (int count : matrix[actualIdx]) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Counts as dense [actual][predicted] array, indexed as {@link #getClasses()}, followed by classes that aren't in
+     * that list, if any were added. Returned array is not a copy, and it's replaced if matrix grows
+     */
+    int[][] getMatrix() {
+        return matrix;
+    }
+
+    private T classAt(int idx) {
+        return idx < classes.size() ? classes.get(idx) : extraClasses.get(idx - classes.size());
+    }
+
+    private int indexOf(T clazz) {
+        Integer idx = classIndexes().get(clazz);
+        if (idx == null) {
+            // unknown class: grow the matrix by one row and one column
+            if (extraClasses == null)
+                extraClasses = new ArrayList<>();
+            extraClasses.add(clazz);
+            idx = matrix.length;
+            classIndexes.put(clazz, idx);
+
+            int[][] grown = new int[idx + 1][idx + 1];
+            for (int i = 0; i < matrix.length; i++)
+                System.arraycopy(matrix[i], 0, grown[i], 0, matrix[i].length);
+            matrix = grown;
+        }
+        return idx;
+    }
+
+    private Map<T, Integer> classIndexes() {
+        if (classIndexes == null) {
+            Map<T, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < classes.size(); i++)
+                indexes.put(classes.get(i), i);
+            if (extraClasses != null) {
+                for (int i = 0; i < extraClasses.size(); i++)
+                    indexes.put(extraClasses.get(i), classes.size() + i);
             }
-            return total;
+            classIndexes = indexes;
         }
+        return classIndexes;
     }
 
     @Override
     public String toString() {
-        return matrix.toString();
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < classes.size(); i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(classes.get(i)).append("=[");
+            boolean first = true;
+            for (int j = 0; j < classes.size(); j++) {
+                if (matrix[i][j] == 0)
+                    continue;
+                if (!first)
+                    builder.append(", ");
+                builder.append(classes.get(j)).append(" x ").append(matrix[i][j]);
+                first = false;
+            }
+            builder.append("]");
+        }
+        return builder.append("}").toString();
     }
 
     /**
@@ -243,14 +316,16 @@ public class ConfusionMatrix<T extends Comparable<? super T>> implements Seriali
         if (!(o instanceof ConfusionMatrix))
             return false;
         ConfusionMatrix<?> c = (ConfusionMatrix<?>) o;
-        return matrix.equals(c.matrix) && classes.equals(c.classes);
+        return Arrays.deepEquals(matrix, c.matrix) && classes.equals(c.classes)
+                        && (extraClasses == null ? c.extraClasses == null : extraClasses.equals(c.extraClasses));
     }
 
     @Override
     public int hashCode() {
         int result = 17;
-        result = 31 * result + (matrix == null ? 0 : matrix.hashCode());
+        result = 31 * result + Arrays.deepHashCode(matrix);
         result = 31 * result + (classes == null ? 0 : classes.hashCode());
+        result = 31 * result + (extraClasses == null ? 0 : extraClasses.hashCode());
         return result;
     }
 
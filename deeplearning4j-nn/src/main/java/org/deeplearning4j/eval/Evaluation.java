@@ -21,7 +21,6 @@ package org.deeplearning4j.eval;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.deeplearning4j.berkeley.Counter;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.eval.meta.Prediction;
 import org.deeplearning4j.nn.api.Layer;
@@ -40,6 +39,11 @@ import java.util.*;
  * Evaluation metrics:
  * precision, recall, f1
  *
+ * Counts are kept in primitive arrays: a dense confusion matrix, plus per-class true/false positive/negative counts
+ * derived from it for each batch. Each batch is converted to class indexes with a single argmax op, so there's no
+ * per-example INDArray access or boxing. Instances aren't thread safe: use one instance per thread, and
+ * {@link #merge(Evaluation)} them afterwards.
+ *
  * @author Adam Gibson
  */
 @Slf4j
@@ -48,10 +52,11 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
     protected final int topN;
     protected int topNCorrectCount = 0;
     protected int topNTotalCount = 0; //Could use topNCountCorrect / (double)getNumRowCounter() - except for eval(int,int), hence separate counters
-    protected Counter<Integer> truePositives = new Counter<>();
-    protected Counter<Integer> falsePositives = new Counter<>();
-    protected Counter<Integer> trueNegatives = new Counter<>();
-    protected Counter<Integer> falseNegatives = new Counter<>();
+    //Per class counts, indexed by class. Null until the number of classes is known
+    protected long[] truePositives;
+    protected long[] falsePositives;
+    protected long[] trueNegatives;
+    protected long[] falseNegatives;
     protected ConfusionMatrix<Integer> confusion;
     protected int numRowCounter = 0;
     @Getter
@@ -146,6 +151,30 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         }
 
         confusion = new ConfusionMatrix<>(classes);
+        //Counters may already hold counts added via incrementXXX methods
+        truePositives = ensureLength(truePositives, nClasses);
+        falsePositives = ensureLength(falsePositives, nClasses);
+        trueNegatives = ensureLength(trueNegatives, nClasses);
+        falseNegatives = ensureLength(falseNegatives, nClasses);
+    }
+
+    private static long[] ensureLength(long[] counts, int length) {
+        if (counts == null)
+            return new long[length];
+        return counts.length < length ? Arrays.copyOf(counts, length) : counts;
+    }
+
+    private void initializeIfRequired(int nColumns) {
+        // If confusion is null, then Evaluation was instantiated without providing the classes -> infer # classes from
+        if (confusion == null) {
+            int nClasses = nColumns;
+            if (nClasses == 1)
+                nClasses = 2; //Binary (single output variable) case
+            labelsList = new ArrayList<>(nClasses);
+            for (int i = 0; i < nClasses; i++)
+                labelsList.add(String.valueOf(i));
+            createConfusion(nClasses);
+        }
     }
 
 
@@ -208,104 +237,37 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         // Add the number of rows to numRowCounter
         numRowCounter += realOutcomes.shape()[0];
 
-        // If confusion is null, then Evaluation was instantiated without providing the classes -> infer # classes from
-        if (confusion == null) {
-            int nClasses = realOutcomes.columns();
-            if (nClasses == 1)
-                nClasses = 2; //Binary (single output variable) case
-            labelsList = new ArrayList<>(nClasses);
-            for (int i = 0; i < nClasses; i++)
-                labelsList.add(String.valueOf(i));
-            createConfusion(nClasses);
-        }
+        initializeIfRequired(realOutcomes.columns());
 
         // Length of real labels must be same as length of predicted labels
         if (realOutcomes.length() != guesses.length())
             throw new IllegalArgumentException("Unable to evaluate. Outcome matrices not same length");
 
-        // For each row get the most probable label (column) from prediction and assign as guessMax
-        // For each row get the column of the true label and assign as currMax
-
+        // Class indexes for all rows at once: threshold for binary (single column) case, argmax otherwise
         int nCols = realOutcomes.columns();
         int nRows = realOutcomes.rows();
 
+        int[] actual;
+        int[] predicted;
         if (nCols == 1) {
-            INDArray binaryGuesses = guesses.gt(0.5);
-            int tp = binaryGuesses.mul(realOutcomes).sumNumber().intValue();
-            int fp = binaryGuesses.mul(-1.0).addi(1.0).muli(realOutcomes).sumNumber().intValue();
-            int fn = binaryGuesses.mul(realOutcomes.mul(-1.0).addi(1.0)).sumNumber().intValue();
-            int tn = nRows - tp - fp - fn;
-
-            confusion.add(1, 1, tp);
-            confusion.add(1, 0, fn);
-            confusion.add(0, 1, fp);
-            confusion.add(0, 0, tn);
-
-            truePositives.incrementCount(1, tp);
-            falsePositives.incrementCount(1, fp);
-            falseNegatives.incrementCount(1, fp);
-            trueNegatives.incrementCount(1, tp);
-
-            truePositives.incrementCount(0, tn);
-            falsePositives.incrementCount(0, fn);
-            falseNegatives.incrementCount(0, fn);
-            trueNegatives.incrementCount(0, tn);
-
-            if (recordMetaData != null) {
-                for (int i = 0; i < binaryGuesses.size(0); i++) {
-                    if (i >= recordMetaData.size())
-                        break;
-                    int actual = realOutcomes.getDouble(0) == 0.0 ? 0 : 1;
-                    int predicted = binaryGuesses.getDouble(0) == 0.0 ? 0 : 1;
-                    addToMetaConfusionMatrix(actual, predicted, recordMetaData.get(i));
-                }
-            }
-
+            actual = toIntArray(realOutcomes.gt(0.5));
+            predicted = toIntArray(guesses.gt(0.5));
         } else {
-            INDArray guessIndex = Nd4j.argMax(guesses, 1);
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-
-            int nExamples = guessIndex.length();
-            for (int i = 0; i < nExamples; i++) {
-                int actual = (int) realOutcomeIndex.getDouble(i);
-                int predicted = (int) guessIndex.getDouble(i);
-                confusion.add(actual, predicted);
-
-                if (recordMetaData != null && recordMetaData.size() > i) {
-                    Object m = recordMetaData.get(i);
-                    addToMetaConfusionMatrix(actual, predicted, m);
-                }
-            }
-
-            for (int col = 0; col < nCols; col++) {
-                INDArray colBinaryGuesses = guessIndex.eps(col);
-                INDArray colRealOutcomes = realOutcomes.getColumn(col);
-
-                int colTp = colBinaryGuesses.mul(colRealOutcomes).sumNumber().intValue();
-                int colFp = colBinaryGuesses.mul(colRealOutcomes.mul(-1.0).addi(1.0)).sumNumber().intValue();
-                int colFn = colBinaryGuesses.mul(-1.0).addi(1.0).muli(colRealOutcomes).sumNumber().intValue();
-                int colTn = nRows - colTp - colFp - colFn;
-
-                truePositives.incrementCount(col, colTp);
-                falsePositives.incrementCount(col, colFp);
-                falseNegatives.incrementCount(col, colFn);
-                trueNegatives.incrementCount(col, colTn);
-            }
+            actual = toIntArray(Nd4j.argMax(realOutcomes, 1));
+            predicted = toIntArray(Nd4j.argMax(guesses, 1));
         }
+        evalIndexes(actual, predicted, null, recordMetaData);
 
         if (nCols > 1 && topN > 1) {
-            //Calculate top N accuracy
-            //TODO: this could be more efficient
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-            int nExamples = realOutcomeIndex.length();
-            for (int i = 0; i < nExamples; i++) {
-                int labelIdx = (int) realOutcomeIndex.getDouble(i);
-                double prob = guesses.getDouble(i, labelIdx);
-                INDArray row = guesses.getRow(i);
-                int countGreaterThan = (int) Nd4j.getExecutioner()
-                                .exec(new MatchCondition(row, Conditions.greaterThan(prob)), Integer.MAX_VALUE)
-                                .getDouble(0);
-                if (countGreaterThan < topN) {
+            //Calculate top N accuracy: an example is correct if fewer than N probabilities are greater than the
+            // probability of the true class
+            INDArray trueClassProbs = Nd4j.create(nRows, 1);
+            for (int i = 0; i < nRows; i++) {
+                trueClassProbs.putScalar(i, 0, guesses.getDouble(i, actual[i]));
+            }
+            int[] countGreaterThan = toIntArray(guesses.subColumnVector(trueClassProbs).gt(0.0).sum(1));
+            for (int i = 0; i < nRows; i++) {
+                if (countGreaterThan[i] < topN) {
                     //For example, for top 3 accuracy: can have at most 2 other probabilities larger
                     topNCorrectCount++;
                 }
@@ -314,6 +276,98 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         }
     }
 
+    /**
+     * Evaluate a time series, with optional per time step mask. Labels and predictions have shape
+     * [minibatch, nClasses, timeSeriesLength], and mask (if present) has shape [minibatch, timeSeriesLength].<br>
+     * Class indexes are found with argmax along dimension 1 of the 3d arrays, and masked time steps are skipped while
+     * counting, so labels and predictions are never permuted or reshaped into 2d copies.
+     */
+    @Override
+    public void evalTimeSeries(INDArray labels, INDArray predictions, INDArray labelsMask) {
+        if (labels.rank() != 3 || labels.size(1) == 1 || topN > 1) {
+            //Binary and top N cases: use the 2d implementation
+            super.evalTimeSeries(labels, predictions, labelsMask);
+            return;
+        }
+        if (!Arrays.equals(labels.shape(), predictions.shape()))
+            throw new IllegalArgumentException("Labels and predictions must have same shape: got "
+                            + Arrays.toString(labels.shape()) + " vs " + Arrays.toString(predictions.shape()));
+
+        initializeIfRequired(labels.size(1));
+
+        int[] actual = toIntArray(Nd4j.argMax(labels, 1));
+        int[] predicted = toIntArray(Nd4j.argMax(predictions, 1));
+        double[] mask = null;
+        if (labelsMask != null) {
+            if (labelsMask.length() != actual.length)
+                throw new IllegalArgumentException("Labels mask must have shape [minibatch, timeSeriesLength] = ["
+                                + labels.size(0) + "," + labels.size(2) + "], got "
+                                + Arrays.toString(labelsMask.shape()));
+            mask = toContiguous(labelsMask).data().asDouble();
+        }
+
+        numRowCounter += evalIndexes(actual, predicted, mask, null);
+    }
+
+    /**
+     * Adds examples to the confusion matrix and per-class counts
+     *
+     * @param actual actual class index of each example
+     * @param predicted predicted class index of each example
+     * @param mask optional; examples with mask value 0 are skipped
+     * @return number of examples that were counted
+     */
+    private int evalIndexes(int[] actual, int[] predicted, double[] mask,
+                    List<? extends Serializable> recordMetaData) {
+        int nClasses = truePositives.length;
+        int[][] matrix = confusion.getMatrix();
+        int[] actualCounts = new int[nClasses];
+        int[] predictedCounts = new int[nClasses];
+        int[] correctCounts = new int[nClasses];
+
+        int count = 0;
+        for (int i = 0; i < actual.length; i++) {
+            if (mask != null && mask[i] == 0.0)
+                continue;
+
+            int a = actual[i];
+            int p = predicted[i];
+            matrix[a][p]++;
+            actualCounts[a]++;
+            predictedCounts[p]++;
+            if (a == p)
+                correctCounts[a]++;
+            count++;
+
+            if (recordMetaData != null && recordMetaData.size() > i) {
+                addToMetaConfusionMatrix(a, p, recordMetaData.get(i));
+            }
+        }
+
+        //Per class counts follow from row and column totals of this batch
+        for (int c = 0; c < nClasses; c++) {
+            int tp = correctCounts[c];
+            int fp = predictedCounts[c] - tp;
+            int fn = actualCounts[c] - tp;
+            truePositives[c] += tp;
+            falsePositives[c] += fp;
+            falseNegatives[c] += fn;
+            trueNegatives[c] += count - tp - fp - fn;
+        }
+        return count;
+    }
+
+    private static int[] toIntArray(INDArray indexes) {
+        return toContiguous(indexes).data().asInt();
+    }
+
+    //Returns array itself if its buffer holds exactly its elements in 'c' order, or a 'c' order copy otherwise
+    private static INDArray toContiguous(INDArray arr) {
+        if (arr.isView() || arr.ordering() != 'c' || arr.data().length() != arr.length())
+            return arr.dup('c');
+        return arr;
+    }
+
     /**
      * Evaluate a single prediction (one prediction at a time)
      *
@@ -340,9 +394,9 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
 
             // And add 1 for each negative class that is accurately predicted (True Negative)
             //(For a particular label)
-            for (Integer clazz : confusion.getClasses()) {
+            for (int clazz = 0; clazz < trueNegatives.length; clazz++) {
                 if (clazz != predictedIdx)
-                    trueNegatives.incrementCount(clazz, 1.0);
+                    trueNegatives[clazz]++;
             }
         } else {
             // Otherwise the real label is predicted as negative (False Negative)
@@ -350,10 +404,9 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
             // Otherwise the prediction is predicted as falsely positive (False Positive)
             incrementFalsePositives(predictedIdx);
             // Otherwise true negatives
-            for (Integer clazz : confusion.getClasses()) {
+            for (int clazz = 0; clazz < trueNegatives.length; clazz++) {
                 if (clazz != predictedIdx && clazz != actualIdx)
-                    trueNegatives.incrementCount(clazz, 1.0);
-
+                    trueNegatives[clazz]++;
             }
         }
     }
@@ -386,13 +439,13 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
             }
 
             //Output possible warnings regarding precision/recall calculation
-            if (!suppressWarnings && truePositives.getCount(clazz) == 0) {
-                if (falsePositives.getCount(clazz) == 0) {
+            if (!suppressWarnings && count(truePositives, clazz) == 0) {
+                if (count(falsePositives, clazz) == 0) {
                     warnings.append(String.format(
                                     "Warning: class %s was never predicted by the model. This class was excluded from the average precision%n",
                                     actual));
                 }
-                if (falseNegatives.getCount(clazz) == 0) {
+                if (count(falseNegatives, clazz) == 0) {
                     warnings.append(String.format(
                                     "Warning: class %s has never appeared as a true label. This class was excluded from the average recall%n",
                                     actual));
@@ -450,8 +503,8 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return the precision for the label
      */
     public double precision(Integer classLabel, double edgeCase) {
-        double tpCount = truePositives.getCount(classLabel);
-        double fpCount = falsePositives.getCount(classLabel);
+        double tpCount = count(truePositives, classLabel);
+        double fpCount = count(falsePositives, classLabel);
 
         //Edge case
         if (tpCount == 0 && fpCount == 0) {
@@ -498,8 +551,8 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return Recall rate as a double
      */
     public double recall(Integer classLabel, double edgeCase) {
-        double tpCount = truePositives.getCount(classLabel);
-        double fnCount = falseNegatives.getCount(classLabel);
+        double tpCount = count(truePositives, classLabel);
+        double fnCount = count(falseNegatives, classLabel);
 
         //Edge case
         if (tpCount == 0 && fnCount == 0) {
@@ -547,8 +600,8 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return fpr as a double
      */
     public double falsePositiveRate(Integer classLabel, double edgeCase) {
-        double fpCount = falsePositives.getCount(classLabel);
-        double tnCount = trueNegatives.getCount(classLabel);
+        double fpCount = count(falsePositives, classLabel);
+        double tnCount = count(trueNegatives, classLabel);
 
         //Edge case
         if (fpCount == 0 && tnCount == 0) {
@@ -596,8 +649,8 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return fnr as a double
      */
     public double falseNegativeRate(Integer classLabel, double edgeCase) {
-        double fnCount = falseNegatives.getCount(classLabel);
-        double tpCount = truePositives.getCount(classLabel);
+        double fnCount = count(falseNegatives, classLabel);
+        double tpCount = count(truePositives, classLabel);
 
         //Edge case
         if (fnCount == 0 && tpCount == 0) {
@@ -674,13 +727,16 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      */
     public double accuracy() {
         //Accuracy: sum the counts on the diagonal of the confusion matrix, divide by total
-        int nClasses = confusion.getClasses().size();
+        return countCorrect() / (double) getNumRowCounter();
+    }
+
+    private int countCorrect() {
+        int[][] matrix = confusion.getMatrix();
         int countCorrect = 0;
-        for (int i = 0; i < nClasses; i++) {
-            countCorrect += confusion.getCount(i, i);
+        for (int i = 0; i < matrix.length; i++) {
+            countCorrect += matrix[i][i];
         }
-
-        return countCorrect / (double) getNumRowCounter();
+        return countCorrect;
     }
 
     /**
@@ -704,7 +760,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return the total true positives so far
      */
     public Map<Integer, Integer> truePositives() {
-        return convertToMap(truePositives, confusion.getClasses().size());
+        return convertToMap(truePositives, numClasses());
     }
 
     /**
@@ -713,7 +769,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return the total true negatives so far
      */
     public Map<Integer, Integer> trueNegatives() {
-        return convertToMap(trueNegatives, confusion.getClasses().size());
+        return convertToMap(trueNegatives, numClasses());
     }
 
     /**
@@ -722,7 +778,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return the count of the false positives
      */
     public Map<Integer, Integer> falsePositives() {
-        return convertToMap(falsePositives, confusion.getClasses().size());
+        return convertToMap(falsePositives, numClasses());
     }
 
     /**
@@ -731,7 +787,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return the total false negatives so far
      */
     public Map<Integer, Integer> falseNegatives() {
-        return convertToMap(falseNegatives, confusion.getClasses().size());
+        return convertToMap(falseNegatives, numClasses());
     }
 
     /**
@@ -751,14 +807,30 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         return addMapsByKey(truePositives(), falseNegatives());
     }
 
-    private Map<Integer, Integer> convertToMap(Counter<Integer> counter, int maxCount) {
+    //Number of classes known so far: counters may be longer than the confusion matrix class list, or exist without it
+    private int numClasses() {
+        int n = confusion == null ? 0 : confusion.getClasses().size();
+        for (long[] counts : new long[][] {truePositives, falsePositives, trueNegatives, falseNegatives}) {
+            if (counts != null)
+                n = Math.max(n, counts.length);
+        }
+        return n;
+    }
+
+    private Map<Integer, Integer> convertToMap(long[] counts, int maxCount) {
         Map<Integer, Integer> map = new HashMap<>();
         for (int i = 0; i < maxCount; i++) {
-            map.put(i, (int) counter.getCount(i));
+            map.put(i, (int) count(counts, i));
         }
         return map;
     }
 
+    private static long count(long[] counts, int classLabel) {
+        if (counts == null || classLabel < 0 || classLabel >= counts.length)
+            return 0;
+        return counts[classLabel];
+    }
+
     private Map<Integer, Integer> addMapsByKey(Map<Integer, Integer> first, Map<Integer, Integer> second) {
         Map<Integer, Integer> out = new HashMap<>();
         Set<Integer> keys = new HashSet<>(first.keySet());
@@ -779,21 +851,25 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
     }
 
 
-    // Incrementing counters
+    // Incrementing counters: counters grow as required, so they can be used before number of classes is known
     public void incrementTruePositives(Integer classLabel) {
-        truePositives.incrementCount(classLabel, 1.0);
+        truePositives = ensureLength(truePositives, classLabel + 1);
+        truePositives[classLabel]++;
     }
 
     public void incrementTrueNegatives(Integer classLabel) {
-        trueNegatives.incrementCount(classLabel, 1.0);
+        trueNegatives = ensureLength(trueNegatives, classLabel + 1);
+        trueNegatives[classLabel]++;
     }
 
     public void incrementFalseNegatives(Integer classLabel) {
-        falseNegatives.incrementCount(classLabel, 1.0);
+        falseNegatives = ensureLength(falseNegatives, classLabel + 1);
+        falseNegatives[classLabel]++;
     }
 
     public void incrementFalsePositives(Integer classLabel) {
-        falsePositives.incrementCount(classLabel, 1.0);
+        falsePositives = ensureLength(falsePositives, classLabel + 1);
+        falsePositives[classLabel]++;
     }
 
 
@@ -832,12 +908,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      */
     public int getTopNCorrectCount() {
         if (topN <= 1) {
-            int nClasses = confusion.getClasses().size();
-            int countCorrect = 0;
-            for (int i = 0; i < nClasses; i++) {
-                countCorrect += confusion.getCount(i, i);
-            }
-            return countCorrect;
+            return countCorrect();
         }
         return topNCorrectCount;
     }
@@ -879,18 +950,16 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         if (other == null)
             return;
 
-        truePositives.incrementAll(other.truePositives);
-        falsePositives.incrementAll(other.falsePositives);
-        trueNegatives.incrementAll(other.trueNegatives);
-        falseNegatives.incrementAll(other.falseNegatives);
-
-        if (confusion == null) {
-            if (other.confusion != null)
+        if (other.confusion != null) {
+            if (confusion == null)
                 confusion = new ConfusionMatrix<>(other.confusion);
-        } else {
-            if (other.confusion != null)
+            else
                 confusion.add(other.confusion);
         }
+        truePositives = addAll(truePositives, other.truePositives);
+        falsePositives = addAll(falsePositives, other.falsePositives);
+        trueNegatives = addAll(trueNegatives, other.trueNegatives);
+        falseNegatives = addAll(falseNegatives, other.falseNegatives);
         numRowCounter += other.numRowCounter;
         if (labelsList.isEmpty())
             labelsList.addAll(other.labelsList);
@@ -903,6 +972,15 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         this.topNTotalCount += other.topNTotalCount;
     }
 
+    private static long[] addAll(long[] counts, long[] other) {
+        if (other == null)
+            return counts;
+        counts = ensureLength(counts, other.length);
+        for (int i = 0; i < other.length; i++)
+            counts[i] += other[i];
+        return counts;
+    }
+
     /**
      * Get a String representation of the confusion matrix
      */
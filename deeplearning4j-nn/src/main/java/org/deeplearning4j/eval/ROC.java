@@ -1,18 +1,10 @@
 package org.deeplearning4j.eval;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
-import org.deeplearning4j.berkeley.Pair;
-import org.deeplearning4j.util.TimeSeriesUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.api.ops.Op;
-import org.nd4j.linalg.api.ops.impl.transforms.IsMax;
-import org.nd4j.linalg.api.ops.impl.transforms.comparison.CompareAndSet;
-import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.NDArrayIndex;
-import org.nd4j.linalg.indexing.conditions.Condition;
-import org.nd4j.linalg.indexing.conditions.Conditions;
 
 import java.io.Serializable;
 import java.util.*;
@@ -25,6 +17,10 @@ import java.util.*;
  * 1.0 / thresholdSteps, as this allows easy implementation for batched and distributed evaluation scenarios (where the
  * full data set is not available in memory on any one machine at once).
  * <p>
+ * Each prediction is binned once into a histogram over the threshold steps, so evaluation cost is independent of the
+ * number of threshold steps, and merging costs O(thresholdSteps). Alternatively, with thresholdSteps == 0 all scores
+ * are kept (in primitive arrays), and the ROC curve and AUC are exact, using every distinct score as a threshold.
+ * <p>
  * The data is assumed to be binary classification - nColumns == 1 (single binary output variable) or nColumns == 2
  * (probability distribution over 2 classes, with column 1 being values for 'positive' examples)
  *
@@ -32,27 +28,51 @@ import java.util.*;
  */
 @Getter
 public class ROC extends BaseEvaluation<ROC> {
+    private static final int EXACT_INITIAL_SIZE = 1024;
 
     private final int thresholdSteps;
 
     private long countActualPositive;
     private long countActualNegative;
 
-    private final Map<Double, CountsForThreshold> counts = new LinkedHashMap<>();
+    //Histogram mode: element c counts examples predicted positive for the first c thresholds only
+    @Getter(AccessLevel.NONE)
+    private long[] positiveHistogram;
+    @Getter(AccessLevel.NONE)
+    private long[] negativeHistogram;
+
+    //Exact mode: all observed scores, split by actual class
+    @Getter(AccessLevel.NONE)
+    private double[] positiveScores;
+    @Getter(AccessLevel.NONE)
+    private double[] negativeScores;
 
     /**
-     * @param thresholdSteps Number of threshold steps to use for the ROC calculation
+     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. Use 0 for exact ROC calculation,
+     *                       keeping all scores in memory
      */
     public ROC(int thresholdSteps) {
+        if (thresholdSteps < 0)
+            throw new IllegalArgumentException("Invalid number of threshold steps: " + thresholdSteps);
+
         this.thresholdSteps = thresholdSteps;
 
-        double step = 1.0 / thresholdSteps;
-        for (int i = 0; i <= thresholdSteps; i++) {
-            double currThreshold = i * step;
-            counts.put(currThreshold, new CountsForThreshold(currThreshold));
+        if (isExact()) {
+            positiveScores = new double[0];
+            negativeScores = new double[0];
+        } else {
+            positiveHistogram = new long[thresholdSteps + 1];
+            negativeHistogram = new long[thresholdSteps + 1];
         }
     }
 
+    /**
+     * @return True if all scores are kept, and ROC curve/AUC are exact (i.e., thresholdSteps == 0)
+     */
+    public boolean isExact() {
+        return thresholdSteps == 0;
+    }
+
 
     /**
      * Evaluate (collect statistics for) the given minibatch of data.
@@ -65,6 +85,7 @@ public class ROC extends BaseEvaluation<ROC> {
         if (labels.rank() == 3 && predictions.rank() == 3) {
             //Assume time series input -> reshape to 2d
             evalTimeSeries(labels, predictions);
+            return;
         }
         if (labels.rank() > 2 || predictions.rank() > 2 || labels.size(1) != predictions.size(1)
                         || labels.size(1) > 2) {
@@ -73,58 +94,177 @@ public class ROC extends BaseEvaluation<ROC> {
                             + Arrays.toString(predictions.shape()) + "; require rank 2 array with size(1) == 1 or 2");
         }
 
-        double step = 1.0 / thresholdSteps;
-        boolean singleOutput = labels.size(1) == 1;
-
-        INDArray positivePredictedClassColumn;
-        INDArray positiveActualClassColumn;
-        INDArray negativeActualClassColumn;
+        int nColumns = labels.size(1);
+        double[] l = toDoubleArray(labels);
+        double[] p = toDoubleArray(predictions);
 
-        if (singleOutput) {
+        if (nColumns == 1) {
             //Single binary variable case
-            positiveActualClassColumn = labels;
-            negativeActualClassColumn = labels.rsub(1.0); //1.0 - label
-            positivePredictedClassColumn = predictions;
+            eval(l, p, 1, 0, -1);
         } else {
             //Standard case - 2 output variables (probability distribution)
-            positiveActualClassColumn = labels.getColumn(1);
-            negativeActualClassColumn = labels.getColumn(0);
-            positivePredictedClassColumn = predictions.getColumn(1);
+            eval(l, p, 2, 1, 0);
         }
+    }
 
-        //Increment global counts - actual positive/negative observed
-        countActualPositive += positiveActualClassColumn.sumNumber().intValue();
-        countActualNegative += negativeActualClassColumn.sumNumber().intValue();
+    /**
+     * Copies array content into double[], in 'c' order, with a single bulk transfer
+     */
+    protected static double[] toDoubleArray(INDArray array) {
+        return array.dup('c').data().asDouble();
+    }
 
-        //Here: calculate true positive rate (TPR) vs. false positive rate (FPR) at different threshold
+    /**
+     * Collect statistics for one column of row-major [nRows, nColumns] labels and predictions
+     *
+     * @param labels          Labels, row-major
+     * @param predictions     Predictions, row-major
+     * @param nColumns        Number of columns
+     * @param positiveColumn  Column holding positive class labels and predictions
+     * @param negativeColumn  Column holding negative class labels, or -1 if every example not labelled as positive
+     *                        is negative
+     */
+    protected void eval(double[] labels, double[] predictions, int nColumns, int positiveColumn, int negativeColumn) {
+        int nRows = labels.length / nColumns;
+        for (int r = 0; r < nRows; r++) {
+            int offset = r * nColumns;
+            double score = predictions[offset + positiveColumn];
+            double positive = labels[offset + positiveColumn];
+            double negative = negativeColumn < 0 ? 1.0 - positive : labels[offset + negativeColumn];
+
+            if (positive > 0.5) {
+                countActualPositive++;
+                addScore(score, true);
+            }
 
-        for (int i = 0; i <= thresholdSteps; i++) {
-            double currThreshold = i * step;
+            if (negative > 0.5) {
+                countActualNegative++;
+                addScore(score, false);
+            }
+        }
+    }
 
-            //Work out true/false positives - do this by replacing probabilities (predictions) with 1 or 0 based on threshold
-            Condition condGeq = Conditions.greaterThanOrEqual(currThreshold);
-            Condition condLeq = Conditions.lessThanOrEqual(currThreshold);
+    private void addScore(double score, boolean positive) {
+        if (isExact()) {
+            if (positive) {
+                positiveScores = append(positiveScores, (int) countActualPositive - 1, score);
+            } else {
+                negativeScores = append(negativeScores, (int) countActualNegative - 1, score);
+            }
+        } else {
+            int bin = bin(score);
+            if (positive) {
+                positiveHistogram[bin]++;
+            } else {
+                negativeHistogram[bin]++;
+            }
+        }
+    }
 
-            Op op = new CompareAndSet(positivePredictedClassColumn.dup(), 1.0, condGeq);
-            INDArray predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
-            op = new CompareAndSet(predictedClass1, 0.0, condLeq);
-            predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
+    private static double[] append(double[] array, int position, double value) {
+        if (position >= array.length) {
+            array = Arrays.copyOf(array, Math.max(EXACT_INITIAL_SIZE, 2 * array.length));
+        }
+        array[position] = value;
+        return array;
+    }
 
+    /**
+     * Returns the number of thresholds (out of i * step, for i in 0..thresholdSteps-1) that are less than or equal to
+     * the given score - i.e., the example is predicted positive for thresholds 0..bin-1 and negative for all others.
+     * Prediction is never positive at the last threshold (1.0).
+     */
+    private int bin(double score) {
+        if (!(score >= 0.0))
+            return 0;
+
+        double step = 1.0 / thresholdSteps;
+        int b = (int) Math.min(thresholdSteps - 1, Math.floor(score * thresholdSteps));
 
-            //True positives: occur when positive predicted class and actual positive actual class...
-            //False positive occurs when positive predicted class, but negative actual class
-            INDArray isTruePositive = predictedClass1.mul(positiveActualClassColumn); //If predicted == 1 and actual == 1 at this threshold: 1x1 = 1. 0 otherwise
-            INDArray isFalsePositive = predictedClass1.mul(negativeActualClassColumn); //If predicted == 1 and actual == 0 at this threshold: 1x1 = 1. 0 otherwise
+        //Exactly the same threshold values (i * step) are used when reporting, so fix any rounding issues here
+        while (b + 1 < thresholdSteps && (b + 1) * step <= score)
+            b++;
+        while (b >= 0 && b * step > score)
+            b--;
 
-            //Counts for this batch:
-            int truePositiveCount = isTruePositive.sumNumber().intValue();
-            int falsePositiveCount = isFalsePositive.sumNumber().intValue();
+        return b + 1;
+    }
+
+    /**
+     * Thresholds, along with true positive and false positive counts at each threshold, in ascending threshold order
+     */
+    private Curve getCurve() {
+        if (isExact()) {
+            double[] pos = Arrays.copyOf(positiveScores, (int) countActualPositive);
+            double[] neg = Arrays.copyOf(negativeScores, (int) countActualNegative);
+            Arrays.sort(pos);
+            Arrays.sort(neg);
+
+            //Thresholds: every distinct score, plus one threshold above all scores
+            double[] thresholds = new double[pos.length + neg.length + 1];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < pos.length || j < neg.length) {
+                double next = (j >= neg.length || (i < pos.length && pos[i] <= neg[j])) ? pos[i] : neg[j];
+                if (n == 0 || thresholds[n - 1] != next)
+                    thresholds[n++] = next;
+
+                while (i < pos.length && pos[i] == next)
+                    i++;
+                while (j < neg.length && neg[j] == next)
+                    j++;
+            }
+            double max = n == 0 ? 0.0 : thresholds[n - 1];
+            thresholds[n++] = max < 1.0 ? 1.0 : Math.nextUp(max);
+
+            Curve curve = new Curve(Arrays.copyOf(thresholds, n));
+            i = 0;
+            j = 0;
+            for (int t = 0; t < n; t++) {
+                while (i < pos.length && pos[i] < curve.thresholds[t])
+                    i++;
+                while (j < neg.length && neg[j] < curve.thresholds[t])
+                    j++;
+
+                curve.truePositives[t] = pos.length - i;
+                curve.falsePositives[t] = neg.length - j;
+            }
+            return curve;
+        }
+
+        double step = 1.0 / thresholdSteps;
+        double[] thresholds = new double[thresholdSteps + 1];
+        for (int i = 0; i <= thresholdSteps; i++)
+            thresholds[i] = i * step;
+
+        Curve curve = new Curve(thresholds);
+        long tp = 0;
+        long fp = 0;
+        for (int i = thresholdSteps; i >= 0; i--) {
+            curve.truePositives[i] = tp;
+            curve.falsePositives[i] = fp;
+
+            //Examples in bin i are predicted positive for thresholds below i
+            tp += positiveHistogram[i];
+            fp += negativeHistogram[i];
+        }
+        return curve;
+    }
 
-            //Increment counts for this thold
-            CountsForThreshold thresholdCounts = counts.get(currThreshold);
-            thresholdCounts.incrementTruePositive(truePositiveCount);
-            thresholdCounts.incrementFalsePositive(falsePositiveCount);
+    /**
+     * Get the true positive/false positive counts for each threshold
+     *
+     * @return Counts, keyed by threshold, in ascending threshold order
+     */
+    public Map<Double, CountsForThreshold> getCounts() {
+        Curve curve = getCurve();
+        Map<Double, CountsForThreshold> out = new LinkedHashMap<>();
+        for (int i = 0; i < curve.thresholds.length; i++) {
+            out.put(curve.thresholds[i], new CountsForThreshold(curve.thresholds[i], curve.truePositives[i],
+                            curve.falsePositives[i]));
         }
+        return out;
     }
 
     /**
@@ -133,15 +273,14 @@ public class ROC extends BaseEvaluation<ROC> {
      * @return ROC curve, as a list of points
      */
     public List<ROCValue> getResults() {
-        List<ROCValue> out = new ArrayList<>(counts.size());
+        Curve curve = getCurve();
+        List<ROCValue> out = new ArrayList<>(curve.thresholds.length);
 
-        for (Map.Entry<Double, CountsForThreshold> entry : counts.entrySet()) {
-            double t = entry.getKey();
-            CountsForThreshold c = entry.getValue();
-            double tpr = c.getCountTruePositive() / ((double) countActualPositive);
-            double fpr = c.getCountFalsePositive() / ((double) countActualNegative);
+        for (int i = 0; i < curve.thresholds.length; i++) {
+            double tpr = curve.truePositives[i] / ((double) countActualPositive);
+            double fpr = curve.falsePositives[i] / ((double) countActualNegative);
 
-            out.add(new ROCValue(t, tpr, fpr));
+            out.add(new ROCValue(curve.thresholds[i], tpr, fpr));
         }
 
         return out;
@@ -151,13 +290,12 @@ public class ROC extends BaseEvaluation<ROC> {
         //Precision: (true positive count) / (true positive count + false positive count) == true positive rate
         //Recall: (true positive count) / (true positive count + false negative count) = (TP count) / (total dataset positives)
 
-        List<PrecisionRecallPoint> out = new ArrayList<>(counts.size());
+        Curve curve = getCurve();
+        List<PrecisionRecallPoint> out = new ArrayList<>(curve.thresholds.length);
 
-        for (Map.Entry<Double, CountsForThreshold> entry : counts.entrySet()) {
-            double t = entry.getKey();
-            CountsForThreshold c = entry.getValue();
-            long tpCount = c.getCountTruePositive();
-            long fpCount = c.getCountFalsePositive();
+        for (int i = 0; i < curve.thresholds.length; i++) {
+            long tpCount = curve.truePositives[i];
+            long fpCount = curve.falsePositives[i];
             //For edge cases: http://stats.stackexchange.com/questions/1773/what-are-correct-values-for-precision-and-recall-in-edge-cases
             //precision == 1 when FP = 0 -> no incorrect positive predictions
             //recall == 1 when no dataset positives are present (got all 0 of 0 positives)
@@ -177,7 +315,7 @@ public class ROC extends BaseEvaluation<ROC> {
             }
 
 
-            out.add(new PrecisionRecallPoint(c.getThreshold(), precision, recall));
+            out.add(new PrecisionRecallPoint(curve.thresholds[i], precision, recall));
         }
 
         return out;
@@ -187,45 +325,38 @@ public class ROC extends BaseEvaluation<ROC> {
      * Get the ROC curve, as a set of (falsePositive, truePositive) points
      * <p>
      * Returns a 2d array of {falsePositive, truePositive values}.<br>
-     * Size is [2][thresholdSteps], with out[0][.] being false positives, and out[1][.] being true positives
+     * Size is [2][thresholdSteps+1] (or [2][numDistinctScores+1] in exact mode), with out[0][.] being false positives,
+     * and out[1][.] being true positives
      *
      * @return ROC curve as double[][]
      */
     public double[][] getResultsAsArray() {
-        double[][] out = new double[2][thresholdSteps + 1];
-        int i = 0;
-        for (Map.Entry<Double, CountsForThreshold> entry : counts.entrySet()) {
-            CountsForThreshold c = entry.getValue();
-            double tpr = c.getCountTruePositive() / ((double) countActualPositive);
-            double fpr = c.getCountFalsePositive() / ((double) countActualNegative);
-
-            out[0][i] = fpr;
-            out[1][i] = tpr;
-            i++;
+        Curve curve = getCurve();
+        double[][] out = new double[2][curve.thresholds.length];
+        for (int i = 0; i < curve.thresholds.length; i++) {
+            out[0][i] = curve.falsePositives[i] / ((double) countActualNegative);
+            out[1][i] = curve.truePositives[i] / ((double) countActualPositive);
         }
         return out;
     }
 
     /**
      * Calculate the AUC - Area Under Curve<br>
-     * Utilizes trapezoidal integration internally
+     * Utilizes trapezoidal integration internally. In exact mode, this equals the exact AUC (ties counted as 0.5)
      *
      * @return AUC
      */
     public double calculateAUC() {
         //Calculate AUC using trapezoidal rule
-        List<ROCValue> list = getResults();
+        double[][] points = getResultsAsArray();
 
         //Given the points
         double auc = 0.0;
-        for (int i = 0; i < list.size() - 1; i++) {
-            ROCValue left = list.get(i);
-            ROCValue right = list.get(i + 1);
-
+        for (int i = 0; i < points[0].length - 1; i++) {
             //y axis: TPR
             //x axis: FPR
-            double deltaX = Math.abs(right.getFalsePositiveRate() - left.getFalsePositiveRate()); //Iterating in threshold order, so FPR decreases as threshold increases
-            double avg = (left.getTruePositiveRate() + right.getTruePositiveRate()) / 2.0;
+            double deltaX = Math.abs(points[0][i + 1] - points[0][i]); //Iterating in threshold order, so FPR decreases as threshold increases
+            double avg = (points[1][i] + points[1][i + 1]) / 2.0;
 
             auc += deltaX * avg;
         }
@@ -245,17 +376,38 @@ public class ROC extends BaseEvaluation<ROC> {
                             "Cannot merge ROC instances with different numbers of threshold steps ("
                                             + this.thresholdSteps + " vs. " + other.thresholdSteps + ")");
         }
+
+        if (isExact()) {
+            int nPos = (int) other.countActualPositive;
+            int nNeg = (int) other.countActualNegative;
+            positiveScores = Arrays.copyOf(positiveScores, (int) countActualPositive + nPos);
+            negativeScores = Arrays.copyOf(negativeScores, (int) countActualNegative + nNeg);
+            System.arraycopy(other.positiveScores, 0, positiveScores, (int) countActualPositive, nPos);
+            System.arraycopy(other.negativeScores, 0, negativeScores, (int) countActualNegative, nNeg);
+        } else {
+            for (int i = 0; i <= thresholdSteps; i++) {
+                positiveHistogram[i] += other.positiveHistogram[i];
+                negativeHistogram[i] += other.negativeHistogram[i];
+            }
+        }
+
         this.countActualPositive += other.countActualPositive;
         this.countActualNegative += other.countActualNegative;
-        for (Double d : this.counts.keySet()) {
-            CountsForThreshold cft = this.counts.get(d);
-            CountsForThreshold otherCft = other.counts.get(d);
-            cft.countTruePositive += otherCft.countTruePositive;
-            cft.countFalsePositive += otherCft.countFalsePositive;
-        }
     }
 
 
+    private static class Curve {
+        private final double[] thresholds;
+        private final long[] truePositives;
+        private final long[] falsePositives;
+
+        private Curve(double[] thresholds) {
+            this.thresholds = thresholds;
+            this.truePositives = new long[thresholds.length];
+            this.falsePositives = new long[thresholds.length];
+        }
+    }
+
     @AllArgsConstructor
     @Data
     public static class ROCValue {
@@ -1,18 +1,8 @@
 package org.deeplearning4j.eval;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.Getter;
-import org.deeplearning4j.berkeley.Pair;
-import org.deeplearning4j.util.TimeSeriesUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.api.ops.Op;
-import org.nd4j.linalg.api.ops.impl.transforms.comparison.CompareAndSet;
-import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.conditions.Condition;
-import org.nd4j.linalg.indexing.conditions.Conditions;
 
-import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -25,23 +15,26 @@ import java.util.*;
  * ROC curve (or optimal cut points for diagnostic purposes). This implementation currently uses fixed steps of size
  * 1.0 / thresholdSteps, as this allows easy implementation for batched and distributed evaluation scenarios (where the
  * full data set is not available in memory on any one machine at once).
+ * <p>
+ * Internally, one {@link ROC} instance is used per class; see {@link ROC} for details, including exact mode
+ * (thresholdSteps == 0).
  *
  * @author Alex Black
  */
-@Getter
 public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
 
+    @Getter
     private final int thresholdSteps;
 
-    private long[] countActualPositive;
-    private long[] countActualNegative;
-
-    private final Map<Integer, Map<Double, ROC.CountsForThreshold>> counts = new LinkedHashMap<>();
+    private ROC[] underlying;
 
     /**
-     * @param thresholdSteps Number of threshold steps to use for the ROC calculation
+     * @param thresholdSteps Number of threshold steps to use for the ROC calculation. Use 0 for exact ROC calculation
      */
     public ROCMultiClass(int thresholdSteps) {
+        if (thresholdSteps < 0)
+            throw new IllegalArgumentException("Invalid number of threshold steps: " + thresholdSteps);
+
         this.thresholdSteps = thresholdSteps;
     }
 
@@ -57,6 +50,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
         if (labels.rank() == 3 && predictions.rank() == 3) {
             //Assume time series input -> reshape to 2d
             evalTimeSeries(labels, predictions);
+            return;
         }
         if (labels.rank() > 2 || predictions.rank() > 2 || labels.size(1) != predictions.size(1)) {
             throw new IllegalArgumentException("Invalid input data shape: labels shape = "
@@ -64,74 +58,77 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
                             + Arrays.toString(predictions.shape()) + "; require rank 2 array with size(1) == 1 or 2");
         }
 
-        double step = 1.0 / thresholdSteps;
-
-        if (countActualPositive == null) {
+        if (underlying == null) {
             //This must be the first time eval has been called...
             int size = labels.size(1);
-            countActualPositive = new long[size];
-            countActualNegative = new long[size];
-
+            underlying = new ROC[size];
             for (int i = 0; i < size; i++) {
-                Map<Double, ROC.CountsForThreshold> map = new LinkedHashMap<Double, ROC.CountsForThreshold>();
-                counts.put(i, map);
-
-                for (int j = 0; j <= thresholdSteps; j++) {
-                    double currThreshold = j * step;
-                    map.put(currThreshold, new ROC.CountsForThreshold(currThreshold));
-                }
+                underlying[i] = new ROC(thresholdSteps);
             }
         }
 
-        if (countActualPositive.length != labels.size(1)) {
+        if (underlying.length != labels.size(1)) {
             throw new IllegalArgumentException(
                             "Cannot evaluate data: number of label classes does not match previous call. " + "Got "
                                             + labels.size(1) + " labels (from array shape "
                                             + Arrays.toString(labels.shape()) + ")"
-                                            + " vs. expected number of label classes = " + countActualPositive.length);
+                                            + " vs. expected number of label classes = " + underlying.length);
         }
 
-        for (int i = 0; i < countActualPositive.length; i++) {
-            //Iterate over each class
-            INDArray positiveActualColumn = labels.getColumn(i);
-            INDArray positivePredictedColumn = predictions.getColumn(i);
-
-            //Increment global counts - actual positive/negative observed
-            long currBatchPositiveActualCount = positiveActualColumn.sumNumber().intValue();
-            countActualPositive[i] += currBatchPositiveActualCount;
-            countActualNegative[i] += positiveActualColumn.length() - currBatchPositiveActualCount;
-
-            //Here: calculate true positive rate (TPR) vs. false positive rate (FPR) at different threshold
-
-            for (int j = 0; j <= thresholdSteps; j++) {
-                double currThreshold = j * step;
-
-                //Work out true/false positives - do this by replacing probabilities (predictions) with 1 or 0 based on threshold
-                Condition condGeq = Conditions.greaterThanOrEqual(currThreshold);
-                Condition condLeq = Conditions.lessThanOrEqual(currThreshold);
+        //Single bulk copy of the whole minibatch, then each class is binned from primitive arrays
+        double[] l = ROC.toDoubleArray(labels);
+        double[] p = ROC.toDoubleArray(predictions);
+        for (int i = 0; i < underlying.length; i++) {
+            underlying[i].eval(l, p, underlying.length, i, -1);
+        }
+    }
 
-                Op op = new CompareAndSet(positivePredictedColumn.dup(), 1.0, condGeq);
-                INDArray predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
-                op = new CompareAndSet(predictedClass1, 0.0, condLeq);
-                predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
+    /**
+     * @return Number of actual positive examples, for each class
+     */
+    public long[] getCountActualPositive() {
+        if (underlying == null)
+            return null;
 
+        long[] out = new long[underlying.length];
+        for (int i = 0; i < out.length; i++)
+            out[i] = underlying[i].getCountActualPositive();
+        return out;
+    }
 
-                //True positives: occur when positive predicted class and actual positive actual class...
-                //False positive occurs when positive predicted class, but negative actual class
-                INDArray isTruePositive = predictedClass1.mul(positiveActualColumn); //If predicted == 1 and actual == 1 at this threshold: 1x1 = 1. 0 otherwise
-                INDArray negativeActualColumn = positiveActualColumn.rsub(1.0);
-                INDArray isFalsePositive = predictedClass1.mul(negativeActualColumn); //If predicted == 1 and actual == 0 at this threshold: 1x1 = 1. 0 otherwise
+    /**
+     * @return Number of actual negative examples, for each class
+     */
+    public long[] getCountActualNegative() {
+        if (underlying == null)
+            return null;
 
-                //Counts for this batch:
-                int truePositiveCount = isTruePositive.sumNumber().intValue();
-                int falsePositiveCount = isFalsePositive.sumNumber().intValue();
+        long[] out = new long[underlying.length];
+        for (int i = 0; i < out.length; i++)
+            out[i] = underlying[i].getCountActualNegative();
+        return out;
+    }
 
-                //Increment counts for this threshold
-                ROC.CountsForThreshold thresholdCounts = counts.get(i).get(currThreshold);
-                thresholdCounts.incrementTruePositive(truePositiveCount);
-                thresholdCounts.incrementFalsePositive(falsePositiveCount);
-            }
+    /**
+     * @return True positive/false positive counts for each threshold, for each class
+     */
+    public Map<Integer, Map<Double, ROC.CountsForThreshold>> getCounts() {
+        Map<Integer, Map<Double, ROC.CountsForThreshold>> out = new LinkedHashMap<>();
+        if (underlying != null) {
+            for (int i = 0; i < underlying.length; i++)
+                out.put(i, underlying[i].getCounts());
         }
+        return out;
+    }
+
+    /**
+     * Get the (one-vs-all) ROC instance for the specified class
+     *
+     * @param classIdx Index of the class
+     */
+    public ROC getROC(int classIdx) {
+        assertHasBeenFit(classIdx);
+        return underlying[classIdx];
     }
 
     /**
@@ -143,19 +140,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
      */
     public List<ROC.ROCValue> getResults(int classIdx) {
         assertHasBeenFit(classIdx);
-
-        List<ROC.ROCValue> out = new ArrayList<>(counts.size());
-
-        for (Map.Entry<Double, ROC.CountsForThreshold> entry : counts.get(classIdx).entrySet()) {
-            double t = entry.getKey();
-            ROC.CountsForThreshold c = entry.getValue();
-            double tpr = c.getCountTruePositive() / ((double) countActualPositive[classIdx]);
-            double fpr = c.getCountFalsePositive() / ((double) countActualNegative[classIdx]);
-
-            out.add(new ROC.ROCValue(t, tpr, fpr));
-        }
-
-        return out;
+        return underlying[classIdx].getResults();
     }
 
     /**
@@ -168,19 +153,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
      */
     public double[][] getResultsAsArray(int classIdx) {
         assertHasBeenFit(classIdx);
-
-        double[][] out = new double[2][thresholdSteps + 1];
-        int i = 0;
-        for (Map.Entry<Double, ROC.CountsForThreshold> entry : counts.get(classIdx).entrySet()) {
-            ROC.CountsForThreshold c = entry.getValue();
-            double tpr = c.getCountTruePositive() / ((double) countActualPositive[classIdx]);
-            double fpr = c.getCountFalsePositive() / ((double) countActualNegative[classIdx]);
-
-            out[0][i] = fpr;
-            out[1][i] = tpr;
-            i++;
-        }
-        return out;
+        return underlying[classIdx].getResultsAsArray();
     }
 
     /**
@@ -191,24 +164,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
      */
     public double calculateAUC(int classIdx) {
         assertHasBeenFit(classIdx);
-
-        //Calculate AUC using trapezoidal rule
-        List<ROC.ROCValue> list = getResults(classIdx);
-
-        //Given the points
-        double auc = 0.0;
-        for (int i = 0; i < list.size() - 1; i++) {
-            ROC.ROCValue left = list.get(i);
-            ROC.ROCValue right = list.get(i + 1);
-
-            //y axis: TPR
-            //x axis: FPR
-            double deltaX = Math.abs(right.getFalsePositiveRate() - left.getFalsePositiveRate()); //Iterating in threshold order, so FPR decreases as threshold increases
-            double avg = (left.getTruePositiveRate() + right.getTruePositiveRate()) / 2.0;
-
-            auc += deltaX * avg;
-        }
-        return auc;
+        return underlying[classIdx].calculateAUC();
     }
 
     /**
@@ -218,47 +174,16 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
         assertHasBeenFit(0);
 
         double sum = 0.0;
-        for (int i = 0; i < countActualPositive.length; i++) {
+        for (int i = 0; i < underlying.length; i++) {
             sum += calculateAUC(i);
         }
 
-        return sum / countActualPositive.length;
+        return sum / underlying.length;
     }
 
     public List<ROC.PrecisionRecallPoint> getPrecisionRecallCurve(int classIndex) {
-        //Precision: (true positive count) / (true positive count + false positive count) == true positive rate
-        //Recall: (true positive count) / (true positive count + false negative count) = (TP count) / (total dataset positives)
-
-        List<ROC.PrecisionRecallPoint> out = new ArrayList<>(counts.get(classIndex).size());
-
-        for (Map.Entry<Double, ROC.CountsForThreshold> entry : counts.get(classIndex).entrySet()) {
-            double t = entry.getKey();
-            ROC.CountsForThreshold c = entry.getValue();
-            long tpCount = c.getCountTruePositive();
-            long fpCount = c.getCountFalsePositive();
-            //For edge cases: http://stats.stackexchange.com/questions/1773/what-are-correct-values-for-precision-and-recall-in-edge-cases
-            //precision == 1 when FP = 0 -> no incorrect positive predictions
-            //recall == 1 when no dataset positives are present (got all 0 of 0 positives)
-            double precision;
-            if (tpCount == 0 && fpCount == 0) {
-                //At this threshold: no predicted positive cases
-                precision = 1.0;
-            } else {
-                precision = tpCount / (double) (tpCount + fpCount);
-            }
-
-            double recall;
-            if (countActualPositive[classIndex] == 0) {
-                recall = 1.0;
-            } else {
-                recall = tpCount / ((double) countActualPositive[classIndex]);
-            }
-
-
-            out.add(new ROC.PrecisionRecallPoint(c.getThreshold(), precision, recall));
-        }
-
-        return out;
+        assertHasBeenFit(classIndex);
+        return underlying[classIndex].getPrecisionRecallCurve();
     }
 
     /**
@@ -269,49 +194,33 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
      */
     @Override
     public void merge(ROCMultiClass other) {
-        if (other.countActualPositive == null) {
+        if (other.underlying == null) {
             //Other has no data
             return;
-        } else if (countActualPositive == null) {
+        } else if (underlying == null) {
             //This instance has no data
-            this.countActualPositive = Arrays.copyOf(other.countActualPositive, other.countActualPositive.length);
-            this.countActualNegative = Arrays.copyOf(other.countActualNegative, other.countActualNegative.length);
-            for (Map.Entry<Integer, Map<Double, ROC.CountsForThreshold>> e : other.counts.entrySet()) {
-                Map<Double, ROC.CountsForThreshold> m = e.getValue();
-                Map<Double, ROC.CountsForThreshold> mClone = new LinkedHashMap<>();
-                for (Map.Entry<Double, ROC.CountsForThreshold> e2 : m.entrySet()) {
-                    mClone.put(e2.getKey(), e2.getValue().clone());
-                }
-                this.counts.put(e.getKey(), mClone);
-            }
-        } else {
-            for (int i = 0; i < countActualPositive.length; i++) {
-                this.countActualPositive[i] += other.countActualPositive[i];
-                this.countActualNegative[i] += other.countActualNegative[i];
+            this.underlying = new ROC[other.underlying.length];
+            for (int i = 0; i < underlying.length; i++) {
+                underlying[i] = new ROC(thresholdSteps);
             }
+        } else if (underlying.length != other.underlying.length) {
+            throw new UnsupportedOperationException("Cannot merge ROCMultiClass instances with different number of "
+                            + "classes (" + underlying.length + " vs. " + other.underlying.length + ")");
+        }
 
-            for (Integer i : counts.keySet()) {
-                Map<Double, ROC.CountsForThreshold> thisMap = counts.get(i);
-                Map<Double, ROC.CountsForThreshold> otherMap = other.counts.get(i);
-
-                for (Double d : thisMap.keySet()) {
-                    ROC.CountsForThreshold thisC = thisMap.get(d);
-                    ROC.CountsForThreshold otherC = otherMap.get(d);
-                    thisC.incrementTruePositive(otherC.getCountTruePositive());
-                    thisC.incrementFalsePositive(otherC.getCountFalsePositive());
-                }
-            }
+        for (int i = 0; i < underlying.length; i++) {
+            underlying[i].merge(other.underlying[i]);
         }
     }
 
 
     private void assertHasBeenFit(int classIdx) {
-        if (countActualPositive == null) {
+        if (underlying == null) {
             throw new IllegalStateException("Cannot get results: no data has been collected");
         }
-        if (classIdx < 0 || classIdx >= countActualPositive.length) {
+        if (classIdx < 0 || classIdx >= underlying.length) {
             throw new IllegalArgumentException("Invalid class index (" + classIdx
-                            + "): must be in range 0 to numClasses = " + countActualPositive.length);
+                            + "): must be in range 0 to numClasses = " + underlying.length);
         }
     }
 }
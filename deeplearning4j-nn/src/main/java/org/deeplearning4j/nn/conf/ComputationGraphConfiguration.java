@@ -74,6 +74,10 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
     protected BackpropType backpropType = BackpropType.Standard;
     protected int tbpttFwdLength = 20;
     protected int tbpttBackLength = 20;
+    /**
+     * Maximum number of vertices executed concurrently during forward and backward pass. 1: sequential execution
+     */
+    protected int branchParallelism = 1;
 
     protected NeuralNetConfiguration defaultConfiguration;
 
@@ -102,9 +106,8 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
      * @return {@link ComputationGraphConfiguration}
      */
     public static ComputationGraphConfiguration fromYaml(String json) {
-        ObjectMapper mapper = NeuralNetConfiguration.mapperYaml();
         try {
-            return mapper.readValue(json, ComputationGraphConfiguration.class);
+            return NeuralNetConfiguration.readValue(json, ComputationGraphConfiguration.class, true);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -134,7 +137,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         ObjectMapper mapper = NeuralNetConfiguration.mapper();
         ComputationGraphConfiguration conf;
         try {
-            conf = mapper.readValue(json, ComputationGraphConfiguration.class);
+            conf = NeuralNetConfiguration.readValue(json, ComputationGraphConfiguration.class, false);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -219,6 +222,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         conf.backpropType = backpropType;
         conf.tbpttFwdLength = tbpttFwdLength;
         conf.tbpttBackLength = tbpttBackLength;
+        conf.branchParallelism = branchParallelism;
         conf.defaultConfiguration = defaultConfiguration.clone();
 
         return conf;
@@ -426,6 +430,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         protected BackpropType backpropType = BackpropType.Standard;
         protected int tbpttFwdLength = 20;
         protected int tbpttBackLength = 20;
+        protected int branchParallelism = 1;
 
         protected Map<String, InputPreProcessor> inputPreProcessors = new LinkedHashMap<>();
 
@@ -451,6 +456,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             this.backpropType = clonedConf.getBackpropType();
             this.tbpttFwdLength = clonedConf.getTbpttFwdLength();
             this.tbpttBackLength = clonedConf.getTbpttBackLength();
+            this.branchParallelism = clonedConf.getBranchParallelism();
             this.globalConfiguration = globalConfiguration;
             //this.getGlobalConfiguration().setSeed(clonedConf.getDefaultConfiguration().getSeed());
         }
@@ -530,6 +536,23 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Maximum number of graph vertices to execute concurrently during forward and backward pass.<br>
+         * With a value greater than 1, vertices whose inputs are available are executed in parallel on a fork-join
+         * pool, instead of one at a time in topological order. This is useful for networks with independent branches
+         * (multi-tower or Inception-style networks) where individual operations are too small to use all cores.
+         * Results are the same as for sequential execution: epsilons are accumulated in the same order.
+         * Note that random numbers (for dropout, for example) are drawn in a non-deterministic order.
+         *
+         * @param branchParallelism Maximum number of vertices to execute concurrently. Default: 1 (sequential)
+         */
+        public GraphBuilder branchParallelism(int branchParallelism) {
+            if (branchParallelism < 1)
+                throw new IllegalArgumentException("Branch parallelism must be >= 1, got " + branchParallelism);
+            this.branchParallelism = branchParallelism;
+            return this;
+        }
+
         /**
          * Add a layer, with no {@link InputPreProcessor}, with the specified name and specified inputs.
          *
@@ -680,6 +703,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             conf.backpropType = backpropType;
             conf.tbpttBackLength = tbpttBackLength;
             conf.tbpttFwdLength = tbpttFwdLength;
+            conf.branchParallelism = branchParallelism;
 
             conf.networkInputs = networkInputs;
             conf.networkOutputs = networkOutputs;
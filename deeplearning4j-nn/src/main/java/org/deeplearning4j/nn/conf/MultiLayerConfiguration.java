@@ -91,9 +91,8 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
      * @return {@link MultiLayerConfiguration}
      */
     public static MultiLayerConfiguration fromYaml(String json) {
-        ObjectMapper mapper = NeuralNetConfiguration.mapperYaml();
         try {
-            return mapper.readValue(json, MultiLayerConfiguration.class);
+            return NeuralNetConfiguration.readValue(json, MultiLayerConfiguration.class, true);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -123,7 +122,7 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
         MultiLayerConfiguration conf;
         ObjectMapper mapper = NeuralNetConfiguration.mapper();
         try {
-            conf = mapper.readValue(json, MultiLayerConfiguration.class);
+            conf = NeuralNetConfiguration.readValue(json, MultiLayerConfiguration.class, false);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -32,6 +32,7 @@ import org.deeplearning4j.nn.conf.layers.LayerValidation;
 import org.deeplearning4j.nn.conf.layers.SubsamplingLayer;
 import org.deeplearning4j.nn.conf.layers.variational.ReconstructionDistribution;
 import org.deeplearning4j.nn.conf.stepfunctions.StepFunction;
+import org.deeplearning4j.util.reflections.DL4JSubTypesIndex;
 import org.deeplearning4j.util.reflections.DL4JSubTypesScanner;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.nd4j.linalg.activations.Activation;
@@ -41,11 +42,13 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.*;
 import org.nd4j.linalg.lossfunctions.ILossFunction;
 import org.nd4j.shade.jackson.databind.DeserializationFeature;
+import org.nd4j.shade.jackson.databind.JsonMappingException;
 import org.nd4j.shade.jackson.databind.MapperFeature;
 import org.nd4j.shade.jackson.databind.ObjectMapper;
 import org.nd4j.shade.jackson.databind.SerializationFeature;
 import org.nd4j.shade.jackson.databind.introspect.AnnotatedClass;
 import org.nd4j.shade.jackson.databind.jsontype.NamedType;
+import org.nd4j.shade.jackson.databind.jsontype.impl.TypeDeserializerBase;
 import org.nd4j.shade.jackson.dataformat.yaml.YAMLFactory;
 import org.reflections.ReflectionUtils;
 import org.reflections.Reflections;
@@ -76,9 +79,11 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
 
     /**
      * System property for custom layers, preprocessors, graph vertices etc. Enabled by default.
-     * Run JVM with "-Dorg.deeplearning4j.config.custom.enabled=false" to disable classpath scanning for
-     * Overriding the default (i.e., disabling) this is only useful if (a) no custom layers/preprocessors etc will be
-     * used, and (b) minimizing startup/initialization time for new JVMs is very important.
+     * Subtypes listed in subtype indexes ({@link DL4JSubTypesIndex}) are registered on mapper initialization; the
+     * classpath is scanned only if a configuration refers to a type that isn't listed in any index.
+     * Run JVM with "-Dorg.deeplearning4j.config.custom.enabled=false" to disable both index lookup and classpath
+     * scanning for custom functionality. Overriding the default (i.e., disabling) this is only useful if no custom
+     * layers/preprocessors etc will be used.
      * Results are cached, so there is no cost to custom layers after the first network has been constructed.
      */
     public static final String CUSTOM_FUNCTIONALITY = "org.deeplearning4j.config.custom.enabled";
@@ -120,9 +125,13 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
     protected int iterationCount = 0;
 
 
-    private static ObjectMapper mapper = initMapper();
-    private static final ObjectMapper mapperYaml = initMapperYaml();
-    private static Set<Class<?>> subtypesClassCache = null;
+    //Declared before mappers, as these are set during mapper initialization
+    private static Set<Class<?>> subtypesClassCache;
+    private static final List<NamedType> additionalSubtypes = new ArrayList<>();
+    private static volatile boolean classpathScanned;
+    //Mappers are never modified after they are published: new subtypes are registered on new mapper instances
+    private static volatile ObjectMapper mapper = initMapper();
+    private static volatile ObjectMapper mapperYaml = initMapperYaml();
 
 
     /**
@@ -298,9 +307,8 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
      * @return
      */
     public static NeuralNetConfiguration fromYaml(String json) {
-        ObjectMapper mapper = mapperYaml();
         try {
-            NeuralNetConfiguration ret = mapper.readValue(json, NeuralNetConfiguration.class);
+            NeuralNetConfiguration ret = readValue(json, NeuralNetConfiguration.class, true);
             return ret;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -329,15 +337,51 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
      * @return
      */
     public static NeuralNetConfiguration fromJson(String json) {
-        ObjectMapper mapper = mapper();
         try {
-            NeuralNetConfiguration ret = mapper.readValue(json, NeuralNetConfiguration.class);
+            NeuralNetConfiguration ret = readValue(json, NeuralNetConfiguration.class, false);
             return ret;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Deserializes JSON or YAML content with configuration mapper. If content refers to a subtype that isn't
+     * registered (i.e. custom layer that isn't listed in any subtype index), the classpath is scanned for subtypes
+     * via {@link #scanForSubtypes()}, and deserialization is retried once
+     */
+    static <T> T readValue(String content, Class<T> type, boolean yaml) throws IOException {
+        try {
+            return (yaml ? mapperYaml() : mapper()).readValue(content, type);
+        } catch (JsonMappingException e) {
+            if (!isUnknownSubtype(e))
+                throw e;
+            //Scan may also have been done (or still be in progress) by another thread, after this thread got the
+            // mapper: scanForSubtypes() returns only once the scan is complete, so retry with the current mapper
+            scanForSubtypes();
+            if (!classpathScanned)
+                throw e;
+            return (yaml ? mapperYaml() : mapper()).readValue(content, type);
+        }
+    }
+
+    /**
+     * Unknown type ids are reported as InvalidTypeIdException by newer Jackson versions, and as a plain
+     * JsonMappingException thrown while looking up the deserializer for a type id by older ones
+     */
+    private static boolean isUnknownSubtype(JsonMappingException e) {
+        for (Class<?> c = e.getClass(); c != JsonMappingException.class; c = c.getSuperclass()) {
+            if (c.getSimpleName().equals("InvalidTypeIdException"))
+                return true;
+        }
+        for (StackTraceElement element : e.getStackTrace()) {
+            if (element.getClassName().equals(TypeDeserializerBase.class.getName())
+                            && element.getMethodName().equals("_findDeserializer"))
+                return true;
+        }
+        return false;
+    }
+
     /**
      * Object mapper for serialization of configurations
      * @return
@@ -364,10 +408,11 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
      * This can be used to add additional subtypes at runtime (i.e., for JSON mapping with
      * types defined outside of the main DL4J codebase)
      */
-    public static ObjectMapper reinitMapperWithSubtypes(Collection<NamedType> additionalTypes) {
-        mapper.registerSubtypes(additionalTypes.toArray(new NamedType[additionalTypes.size()]));
-        //Recreate the mapper (via copy), as mapper won't use registered subtypes after first use
-        mapper = mapper.copy();
+    public static synchronized ObjectMapper reinitMapperWithSubtypes(Collection<NamedType> additionalTypes) {
+        additionalSubtypes.addAll(additionalTypes);
+        //Create new mappers, as mapper won't use registered subtypes after first use (and may be in use by other threads)
+        mapperYaml = initMapperYaml();
+        mapper = initMapper();
         return mapper;
     }
 
@@ -386,66 +431,129 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
         registerSubtypes(ret);
     }
 
-    private static synchronized void registerSubtypes(ObjectMapper mapper) {
-        //Register concrete subtypes for JSON serialization
+    private static List<Class<?>> subtypeBaseClasses() {
+        return Arrays.<Class<?>>asList(InputPreProcessor.class, ILossFunction.class, IActivation.class, Layer.class,
+                        GraphVertex.class, ReconstructionDistribution.class);
+    }
 
-        List<Class<?>> classes = Arrays.<Class<?>>asList(InputPreProcessor.class, ILossFunction.class,
-                        IActivation.class, Layer.class, GraphVertex.class, ReconstructionDistribution.class);
-        List<String> classNames = new ArrayList<>(6);
-        for (Class<?> c : classes)
-            classNames.add(c.getName());
+    private static boolean customFunctionalityEnabled() {
+        String prop = System.getProperty(CUSTOM_FUNCTIONALITY);
+        return prop == null || Boolean.parseBoolean(prop);
+    }
 
-        // First: scan the classpath and find all instances of the 'baseClasses' classes
-        if (subtypesClassCache == null) {
+    private static ClassLoader subtypesClassLoader() {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        return cl != null ? cl : NeuralNetConfiguration.class.getClassLoader();
+    }
 
-            //Check system property:
-            String prop = System.getProperty(CUSTOM_FUNCTIONALITY);
-            if (prop != null && !Boolean.parseBoolean(prop)) {
+    private static synchronized void registerSubtypes(ObjectMapper mapper) {
+        //Register concrete subtypes for JSON serialization
 
+        // First: load subtypes listed in build-time indexes (see DL4JSubTypesIndex) of all jars on the classpath.
+        // Classpath is scanned only if some type can't be resolved during deserialization - see scanForSubtypes()
+        if (subtypesClassCache == null) {
+            if (!customFunctionalityEnabled()) {
                 subtypesClassCache = Collections.emptySet();
             } else {
+                subtypesClassCache = new HashSet<>();
+                try {
+                    subtypesClassCache.addAll(DL4JSubTypesIndex.load(subtypesClassLoader(), subtypeBaseClasses()));
+                } catch (IOException e) {
+                    log.warn("Error reading subtype index, classpath will be scanned instead", e);
+                    subtypesClassCache.addAll(scanClasspath());
+                    classpathScanned = true;
+                }
+            }
+        }
 
-                List<Class<?>> interfaces = Arrays.<Class<?>>asList(InputPreProcessor.class, ILossFunction.class,
-                                IActivation.class, ReconstructionDistribution.class);
-                List<Class<?>> classesList = Arrays.<Class<?>>asList(Layer.class, GraphVertex.class);
+        registerSubtypes(mapper, subtypesClassCache);
+        if (!additionalSubtypes.isEmpty())
+            mapper.registerSubtypes(additionalSubtypes.toArray(new NamedType[additionalSubtypes.size()]));
+    }
 
-                Collection<URL> urls = ClasspathHelper.forClassLoader();
-                List<URL> scanUrls = new ArrayList<>();
-                for (URL u : urls) {
-                    String path = u.getPath();
-                    if (!path.matches(".*/jre/lib/.*jar")) { //Skip JRE/JDK JARs
-                        scanUrls.add(u);
-                    }
-                }
+    /**
+     * This method scans the classpath for subtypes that are not listed in any subtype index (i.e. custom layers
+     * from jars without {@link DL4JSubTypesIndex#INDEX_RESOURCE}), and registers them with both JSON and YAML mappers.
+     * Scanning is done at most once per JVM, and is skipped if custom functionality is disabled via
+     * {@link #CUSTOM_FUNCTIONALITY}
+     *
+     * @return true if any new subtypes were registered
+     */
+    public static synchronized boolean scanForSubtypes() {
+        if (classpathScanned || !customFunctionalityEnabled())
+            return false;
+
+        long time = System.currentTimeMillis();
+        Set<Class<?>> scanned = scanClasspath();
+        classpathScanned = true;
+
+        if (subtypesClassCache == null)
+            subtypesClassCache = new HashSet<>();
+        Set<Class<?>> newSubtypes = new HashSet<>(scanned);
+        newSubtypes.removeAll(subtypesClassCache);
+        subtypesClassCache.addAll(newSubtypes);
+        log.info("Scanned classpath for JSON subtypes in {} ms: {} subtypes not listed in subtype index",
+                        System.currentTimeMillis() - time, newSubtypes.size());
+        if (newSubtypes.isEmpty())
+            return false;
+
+        //Create new mappers instead of registering with the current ones: mapper won't use registered subtypes
+        // after first use, and the current mappers may be in use by other threads (copies would share their
+        // subtype resolver). Readers pick up the new mappers via the volatile fields
+        mapperYaml = initMapperYaml();
+        mapper = initMapper();
+        return true;
+    }
 
-                Reflections reflections = new Reflections(new ConfigurationBuilder().filterInputsBy(new FilterBuilder()
-                                .exclude("^(?!.*\\.class$).*$") //Consider only .class files (to avoid debug messages etc. on .dlls, etc
-                                //Exclude the following: the assumption here is that no custom functionality will ever be present
-                                // under these package name prefixes. These are all common dependencies for DL4J
-                                .exclude("^org.nd4j.*").exclude("^org.datavec.*").exclude("^org.bytedeco.*") //JavaCPP
-                                .exclude("^com.fasterxml.*")//Jackson
-                                .exclude("^org.apache.*") //Apache commons, Spark, log4j etc
-                                .exclude("^org.projectlombok.*").exclude("^com.twelvemonkeys.*").exclude("^org.joda.*")
-                                .exclude("^org.slf4j.*").exclude("^com.google.*").exclude("^org.reflections.*")
-                                .exclude("^ch.qos.*") //Logback
-                ).addUrls(scanUrls).setScanners(new DL4JSubTypesScanner(interfaces, classesList)));
-                org.reflections.Store store = reflections.getStore();
-
-                Iterable<String> subtypesByName = store.getAll(DL4JSubTypesScanner.class.getSimpleName(), classNames);
-
-                Set<? extends Class<?>> subtypeClasses = Sets.newHashSet(ReflectionUtils.forNames(subtypesByName));
-                subtypesClassCache = new HashSet<>();
-                for (Class<?> c : subtypeClasses) {
-                    if (Modifier.isAbstract(c.getModifiers()) || Modifier.isInterface(c.getModifiers())) {
-                        //log.info("Skipping abstract/interface: {}",c);
-                        continue;
-                    }
-                    subtypesClassCache.add(c);
-                }
+    private static Set<Class<?>> scanClasspath() {
+        List<String> classNames = new ArrayList<>(6);
+        for (Class<?> c : subtypeBaseClasses())
+            classNames.add(c.getName());
+
+        List<Class<?>> interfaces = Arrays.<Class<?>>asList(InputPreProcessor.class, ILossFunction.class,
+                        IActivation.class, ReconstructionDistribution.class);
+        List<Class<?>> classesList = Arrays.<Class<?>>asList(Layer.class, GraphVertex.class);
+
+        Collection<URL> urls = ClasspathHelper.forClassLoader();
+        List<URL> scanUrls = new ArrayList<>();
+        for (URL u : urls) {
+            String path = u.getPath();
+            if (!path.matches(".*/jre/lib/.*jar")) { //Skip JRE/JDK JARs
+                scanUrls.add(u);
+            }
+        }
+
+        Reflections reflections = new Reflections(new ConfigurationBuilder().filterInputsBy(new FilterBuilder()
+                        .exclude("^(?!.*\\.class$).*$") //Consider only .class files (to avoid debug messages etc. on .dlls, etc
+                        //Exclude the following: the assumption here is that no custom functionality will ever be present
+                        // under these package name prefixes. These are all common dependencies for DL4J
+                        .exclude("^org.nd4j.*").exclude("^org.datavec.*").exclude("^org.bytedeco.*") //JavaCPP
+                        .exclude("^com.fasterxml.*")//Jackson
+                        .exclude("^org.apache.*") //Apache commons, Spark, log4j etc
+                        .exclude("^org.projectlombok.*").exclude("^com.twelvemonkeys.*").exclude("^org.joda.*")
+                        .exclude("^org.slf4j.*").exclude("^com.google.*").exclude("^org.reflections.*")
+                        .exclude("^ch.qos.*") //Logback
+        ).addUrls(scanUrls).setScanners(new DL4JSubTypesScanner(interfaces, classesList)));
+        org.reflections.Store store = reflections.getStore();
+
+        Iterable<String> subtypesByName = store.getAll(DL4JSubTypesScanner.class.getSimpleName(), classNames);
+
+        Set<? extends Class<?>> subtypeClasses = Sets.newHashSet(ReflectionUtils.forNames(subtypesByName));
+        Set<Class<?>> result = new HashSet<>();
+        for (Class<?> c : subtypeClasses) {
+            if (Modifier.isAbstract(c.getModifiers()) || Modifier.isInterface(c.getModifiers())) {
+                //log.info("Skipping abstract/interface: {}",c);
+                continue;
             }
+            result.add(c);
         }
+        return result;
+    }
+
+    private static void registerSubtypes(ObjectMapper mapper, Collection<Class<?>> subtypes) {
+        List<Class<?>> classes = subtypeBaseClasses();
 
-        //Second: get all currently registered subtypes for this mapper
+        //First: get all currently registered subtypes for this mapper
         Set<Class<?>> registeredSubtypes = new HashSet<>();
         for (Class<?> c : classes) {
             AnnotatedClass ac = AnnotatedClass.construct(c, mapper.getSerializationConfig().getAnnotationIntrospector(),
@@ -458,9 +566,9 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
             }
         }
 
-        //Third: register all _concrete_ subtypes that are not already registered
+        //Second: register all _concrete_ subtypes that are not already registered
         List<NamedType> toRegister = new ArrayList<>();
-        for (Class<?> c : subtypesClassCache) {
+        for (Class<?> c : subtypes) {
             //Check if it's concrete or abstract...
             if (Modifier.isAbstract(c.getModifiers()) || Modifier.isInterface(c.getModifiers())) {
                 //log.info("Skipping abstract/interface: {}",c);
@@ -45,11 +45,13 @@ public class GravesLSTM extends BaseRecurrentLayer {
 
     private double forgetGateBiasInit;
     private IActivation gateActivationFn = new ActivationSigmoid();
+    private boolean fusedExecution = false;
 
     private GravesLSTM(Builder builder) {
         super(builder);
         this.forgetGateBiasInit = builder.forgetGateBiasInit;
         this.gateActivationFn = builder.gateActivationFn;
+        this.fusedExecution = builder.fusedExecution;
     }
 
     @Override
@@ -122,6 +124,7 @@ public class GravesLSTM extends BaseRecurrentLayer {
 
         private double forgetGateBiasInit = 1.0;
         private IActivation gateActivationFn = new ActivationSigmoid();
+        private boolean fusedExecution = false;
 
         /** Set forget gate bias initalizations. Values in range 1-5 can potentially
          * help with learning or longer-term dependencies.
@@ -162,6 +165,21 @@ public class GravesLSTM extends BaseRecurrentLayer {
             return this;
         }
 
+        /**
+         * If true: use the fused implementation of the forward and backward pass (see
+         * {@link org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelpers}). The input projection for all time steps
+         * is done in one matrix multiplication, and the gate activations and other intermediate arrays are held in
+         * buffers that are allocated once and reused for later iterations and minibatches of the same size.
+         * This is usually faster, at the cost of keeping the buffers in memory between iterations.<br>
+         * Results are the same as for the default implementation, up to floating point precision. Default: false
+         *
+         * @param fusedExecution Whether to use the fused implementation
+         */
+        public Builder fusedExecution(boolean fusedExecution) {
+            this.fusedExecution = fusedExecution;
+            return this;
+        }
+
         @SuppressWarnings("unchecked")
         public GravesLSTM build() {
             return new GravesLSTM(this);
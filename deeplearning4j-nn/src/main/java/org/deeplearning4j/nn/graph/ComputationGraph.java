@@ -39,6 +39,7 @@ import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.util.ComputationGraphUtil;
+import org.deeplearning4j.nn.graph.util.ConcurrentVertexScheduler;
 import org.deeplearning4j.nn.graph.vertex.GraphVertex;
 import org.deeplearning4j.nn.graph.vertex.VertexIndices;
 import org.deeplearning4j.nn.graph.vertex.impl.InputVertex;
@@ -69,6 +70,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * A ComputationGraph network is a neural network with arbitrary (directed acyclic graph) connection structure.
@@ -103,6 +105,21 @@ public class ComputationGraph implements Serializable, Model {
      * (and hence also backward pass, which is the opposite to this) is conducted in the network.
      */
     protected int[] topologicalOrder;
+    /**
+     * For each vertex index: position in the topological order of the last vertex that uses its activations as input,
+     * or -1 if its activations are not used by any vertex. Used to release activations early during inference.
+     */
+    protected transient int[] lastUsePosition;
+    /**
+     * For each vertex index: the index of the network output it provides, or -1 if it isn't a network output
+     */
+    protected transient int[] networkOutputIndex;
+    /**
+     * Schedulers for concurrent execution of vertices, when {@link ComputationGraphConfiguration#getBranchParallelism()}
+     * is greater than 1. Nodes are positions in the topological order.
+     */
+    protected transient ConcurrentVertexScheduler forwardScheduler;
+    protected transient ConcurrentVertexScheduler backwardScheduler;
     /**
      * A list of layers. Each of these layers is present in a GraphVertex, but are here for easy reference.
      * This array also defines the order in which the getLayer(int) method returns layers.
@@ -712,58 +729,64 @@ public class ComputationGraph implements Serializable, Model {
         } else
             dataSetIterator = iterator;
 
-        if (trainingListeners.size() > 0) {
-            for (TrainingListener tl : trainingListeners) {
-                tl.onEpochStart(this);
+        try {
+            if (trainingListeners.size() > 0) {
+                for (TrainingListener tl : trainingListeners) {
+                    tl.onEpochStart(this);
+                }
             }
-        }
 
-        if (configuration.isPretrain()) {
-            pretrain(dataSetIterator);
-        }
+            if (configuration.isPretrain()) {
+                pretrain(dataSetIterator);
+            }
 
-        if (configuration.isBackprop()) {
-            update(TaskUtils.buildTask(dataSetIterator));
-            while (dataSetIterator.hasNext()) {
-                DataSet next = dataSetIterator.next();
-                if (next.getFeatures() == null || next.getLabels() == null)
-                    break;
+            if (configuration.isBackprop()) {
+                update(TaskUtils.buildTask(dataSetIterator));
+                while (dataSetIterator.hasNext()) {
+                    DataSet next = dataSetIterator.next();
+                    if (next.getFeatures() == null || next.getLabels() == null)
+                        break;
 
-                boolean hasMaskArrays = next.hasMaskArrays();
-                if (hasMaskArrays) {
-                    INDArray[] fMask = (next.getFeaturesMaskArray() != null
-                                    ? new INDArray[] {next.getFeaturesMaskArray()} : null);
-                    INDArray[] lMask = (next.getLabelsMaskArray() != null ? new INDArray[] {next.getLabelsMaskArray()}
-                                    : null);
-                    setLayerMaskArrays(fMask, lMask);
-                }
+                    boolean hasMaskArrays = next.hasMaskArrays();
+                    if (hasMaskArrays) {
+                        INDArray[] fMask = (next.getFeaturesMaskArray() != null
+                                        ? new INDArray[] {next.getFeaturesMaskArray()} : null);
+                        INDArray[] lMask = (next.getLabelsMaskArray() != null
+                                        ? new INDArray[] {next.getLabelsMaskArray()} : null);
+                        setLayerMaskArrays(fMask, lMask);
+                    }
 
-                if (configuration.getBackpropType() == BackpropType.TruncatedBPTT) {
-                    doTruncatedBPTT(new INDArray[] {next.getFeatures()}, new INDArray[] {next.getLabels()},
-                                    (hasMaskArrays ? new INDArray[] {next.getFeaturesMaskArray()} : null),
-                                    (hasMaskArrays ? new INDArray[] {next.getLabelsMaskArray()} : null));
-                } else {
-                    setInput(0, next.getFeatures());
-                    setLabel(0, next.getLabels());
-                    if (solver == null) {
-                        solver = new Solver.Builder().configure(defaultConfiguration) //TODO; don't like this
-                                        .listeners(listeners).model(this).build();
+                    if (configuration.getBackpropType() == BackpropType.TruncatedBPTT) {
+                        doTruncatedBPTT(new INDArray[] {next.getFeatures()}, new INDArray[] {next.getLabels()},
+                                        (hasMaskArrays ? new INDArray[] {next.getFeaturesMaskArray()} : null),
+                                        (hasMaskArrays ? new INDArray[] {next.getLabelsMaskArray()} : null));
+                    } else {
+                        setInput(0, next.getFeatures());
+                        setLabel(0, next.getLabels());
+                        if (solver == null) {
+                            solver = new Solver.Builder().configure(defaultConfiguration) //TODO; don't like this
+                                            .listeners(listeners).model(this).build();
+                        }
+                        solver.optimize();
                     }
-                    solver.optimize();
-                }
 
-                if (hasMaskArrays) {
-                    clearLayerMaskArrays();
-                }
+                    if (hasMaskArrays) {
+                        clearLayerMaskArrays();
+                    }
 
-                Nd4j.getMemoryManager().invokeGcOccasionally();
+                    Nd4j.getMemoryManager().invokeGcOccasionally();
+                }
             }
-        }
 
-        if (trainingListeners.size() > 0) {
-            for (TrainingListener tl : trainingListeners) {
-                tl.onEpochEnd(this);
+            if (trainingListeners.size() > 0) {
+                for (TrainingListener tl : trainingListeners) {
+                    tl.onEpochEnd(this);
+                }
             }
+        } finally {
+            // background prefetch threads have to be stopped, even if training was interrupted by exception
+            if (dataSetIterator != iterator)
+                ((AsyncDataSetIterator) dataSetIterator).shutdown();
         }
     }
 
@@ -790,40 +813,46 @@ public class ComputationGraph implements Serializable, Model {
         } else
             multiDataSetIterator = multi;
 
-        if (configuration.isPretrain()) {
-            pretrain(multiDataSetIterator);
-        }
+        try {
+            if (configuration.isPretrain()) {
+                pretrain(multiDataSetIterator);
+            }
 
-        if (configuration.isBackprop()) {
-            while (multiDataSetIterator.hasNext()) {
-                MultiDataSet next = multiDataSetIterator.next();
-                if (next.getFeatures() == null || next.getLabels() == null)
-                    break;
+            if (configuration.isBackprop()) {
+                while (multiDataSetIterator.hasNext()) {
+                    MultiDataSet next = multiDataSetIterator.next();
+                    if (next.getFeatures() == null || next.getLabels() == null)
+                        break;
 
-                if (configuration.getBackpropType() == BackpropType.TruncatedBPTT) {
-                    doTruncatedBPTT(next.getFeatures(), next.getLabels(), next.getFeaturesMaskArrays(),
-                                    next.getLabelsMaskArrays());
-                } else {
-                    boolean hasMaskArrays = next.hasMaskArrays();
-                    if (hasMaskArrays) {
-                        setLayerMaskArrays(next.getFeaturesMaskArrays(), next.getLabelsMaskArrays());
-                    }
+                    if (configuration.getBackpropType() == BackpropType.TruncatedBPTT) {
+                        doTruncatedBPTT(next.getFeatures(), next.getLabels(), next.getFeaturesMaskArrays(),
+                                        next.getLabelsMaskArrays());
+                    } else {
+                        boolean hasMaskArrays = next.hasMaskArrays();
+                        if (hasMaskArrays) {
+                            setLayerMaskArrays(next.getFeaturesMaskArrays(), next.getLabelsMaskArrays());
+                        }
 
-                    setInputs(next.getFeatures());
-                    setLabels(next.getLabels());
-                    if (solver == null) {
-                        solver = new Solver.Builder().configure(defaultConfiguration).listeners(listeners).model(this)
-                                        .build();
-                    }
-                    solver.optimize();
+                        setInputs(next.getFeatures());
+                        setLabels(next.getLabels());
+                        if (solver == null) {
+                            solver = new Solver.Builder().configure(defaultConfiguration).listeners(listeners)
+                                            .model(this).build();
+                        }
+                        solver.optimize();
 
-                    if (hasMaskArrays) {
-                        clearLayerMaskArrays();
+                        if (hasMaskArrays) {
+                            clearLayerMaskArrays();
+                        }
                     }
-                }
 
-                Nd4j.getMemoryManager().invokeGcOccasionally();
+                    Nd4j.getMemoryManager().invokeGcOccasionally();
+                }
             }
+        } finally {
+            // background prefetch threads have to be stopped, even if training was interrupted by exception
+            if (multiDataSetIterator != multi)
+                ((AsyncMultiDataSetIterator) multiDataSetIterator).shutdown();
         }
     }
 
@@ -1087,52 +1116,122 @@ public class ComputationGraph implements Serializable, Model {
     }
 
     private Map<String, INDArray> feedForward(boolean train, boolean excludeOutputLayers) {
+        if (configuration.getBranchParallelism() > 1) {
+            return feedForwardConcurrent(train, excludeOutputLayers);
+        }
+
         Map<String, INDArray> layerActivations = new HashMap<>();
 
         //Do forward pass according to the topological ordering of the network
         for (int i = 0; i < topologicalOrder.length; i++) {
             GraphVertex current = vertices[topologicalOrder[i]];
-            if (current.isInputVertex()) {
-                VertexIndices[] inputsTo = current.getOutputVertices();
-                INDArray input = inputs[current.getVertexIndex()];
+            INDArray out = forwardVertex(current, train, excludeOutputLayers);
+            if (out != null) {
+                layerActivations.put(current.getVertexName(), out);
+            }
+        }
 
-                layerActivations.put(current.getVertexName(), input);
+        return layerActivations;
+    }
 
-                for (VertexIndices v : inputsTo) {
-                    int vIdx = v.getVertexIndex();
-                    int vIdxInputNum = v.getVertexEdgeNumber();
-                    //This input: the 'vIdxInputNum'th input to vertex 'vIdx'
-                    vertices[vIdx].setInput(vIdxInputNum, input.dup());
-                }
+    /**
+     * Forward pass with independent vertices executed concurrently, up to
+     * {@link ComputationGraphConfiguration#getBranchParallelism()} at a time. Same result as the sequential forward pass
+     */
+    private Map<String, INDArray> feedForwardConcurrent(final boolean train, final boolean excludeOutputLayers) {
+        if (forwardScheduler == null)
+            initSchedulers();
 
-            } else {
-                //Do forward pass:
-                if (excludeOutputLayers && current.isOutputVertex() && current.hasLayer()
-                                && current.getLayer() instanceof IOutputLayer) {
-                    //When doing backprop (i.e., excludeOutputLayers = false), we don't need to do full forward pass through output layers too
-                    // we only need to ensure the input to the output layers is set properly
-                    continue;
-                }
-                INDArray out = current.doForward(train);
+        final INDArray[] activations = new INDArray[topologicalOrder.length];
+        forwardScheduler.execute(configuration.getBranchParallelism(), new ConcurrentVertexScheduler.NodeTask() {
+            @Override
+            public void execute(int node) {
+                activations[node] = forwardVertex(vertices[topologicalOrder[node]], train, excludeOutputLayers);
+            }
+        });
 
-                if (current.hasLayer()) {
-                    layerActivations.put(current.getVertexName(), out);
-                }
+        Map<String, INDArray> layerActivations = new HashMap<>();
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            if (activations[i] != null) {
+                layerActivations.put(vertices[topologicalOrder[i]].getVertexName(), activations[i]);
+            }
+        }
+        return layerActivations;
+    }
 
-                //Now, set the inputs for the next vertices:
-                VertexIndices[] outputsTo = current.getOutputVertices();
-                if (outputsTo != null) {
-                    for (VertexIndices v : outputsTo) {
-                        int vIdx = v.getVertexIndex();
-                        int inputNum = v.getVertexEdgeNumber();
-                        //This (jth) connection from the output: is the 'inputNum'th input to vertex 'vIdx'
-                        vertices[vIdx].setInput(inputNum, out);
-                    }
-                }
+    /**
+     * Forward pass for a single vertex: all inputs of the vertex must be set. Sets the inputs of the vertices that
+     * this vertex outputs to.
+     *
+     * @return The activations to return from feedForward (network inputs and layer activations), or null otherwise
+     */
+    private INDArray forwardVertex(GraphVertex current, boolean train, boolean excludeOutputLayers) {
+        if (current.isInputVertex()) {
+            VertexIndices[] inputsTo = current.getOutputVertices();
+            INDArray input = inputs[current.getVertexIndex()];
+
+            for (VertexIndices v : inputsTo) {
+                int vIdx = v.getVertexIndex();
+                int vIdxInputNum = v.getVertexEdgeNumber();
+                //This input: the 'vIdxInputNum'th input to vertex 'vIdx'
+                vertices[vIdx].setInput(vIdxInputNum, input.dup());
             }
+
+            return input;
         }
 
-        return layerActivations;
+        //Do forward pass:
+        if (excludeOutputLayers && current.isOutputVertex() && current.hasLayer()
+                        && current.getLayer() instanceof IOutputLayer) {
+            //When doing backprop (i.e., excludeOutputLayers = false), we don't need to do full forward pass through output layers too
+            // we only need to ensure the input to the output layers is set properly
+            return null;
+        }
+        INDArray out = current.doForward(train);
+
+        //Now, set the inputs for the next vertices:
+        VertexIndices[] outputsTo = current.getOutputVertices();
+        if (outputsTo != null) {
+            for (VertexIndices v : outputsTo) {
+                int vIdx = v.getVertexIndex();
+                int inputNum = v.getVertexEdgeNumber();
+                //This (jth) connection from the output: is the 'inputNum'th input to vertex 'vIdx'
+                vertices[vIdx].setInput(inputNum, out);
+            }
+        }
+
+        return current.hasLayer() ? out : null;
+    }
+
+    /**
+     * Build the forward and backward pass dependency graphs from the input and output vertices of each vertex
+     */
+    protected void initSchedulers() {
+        int[] position = new int[vertices.length];
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            position[topologicalOrder[i]] = i;
+        }
+
+        int[][] forwardDependencies = new int[topologicalOrder.length][];
+        int[][] backwardDependencies = new int[topologicalOrder.length][];
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            GraphVertex gv = vertices[topologicalOrder[i]];
+            forwardDependencies[i] = positions(gv.getInputVertices(), position);
+            backwardDependencies[i] = positions(gv.getOutputVertices(), position);
+        }
+
+        backwardScheduler = new ConcurrentVertexScheduler(backwardDependencies);
+        forwardScheduler = new ConcurrentVertexScheduler(forwardDependencies);
+    }
+
+    private static int[] positions(VertexIndices[] indices, int[] position) {
+        if (indices == null)
+            return new int[0];
+        int[] out = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            out[i] = position[indices[i].getVertexIndex()];
+        }
+        return out;
     }
 
     /**
@@ -1168,6 +1267,9 @@ public class ComputationGraph implements Serializable, Model {
      */
     public INDArray[] output(boolean train, INDArray... input) {
         setInputs(input);
+        if (!train) {
+            return configuration.getBranchParallelism() > 1 ? outputInferenceConcurrent() : outputInference();
+        }
         Map<String, INDArray> activations = feedForward(train);
         INDArray[] outputs = new INDArray[numOutputArrays];
         int i = 0;
@@ -1177,6 +1279,146 @@ public class ComputationGraph implements Serializable, Model {
         return outputs;
     }
 
+    /**
+     * Forward pass at test time using the stored inputs, returning the network outputs only.<br>
+     * Unlike {@link #feedForward(boolean)}, activations of all layers are not collected: the inputs of each vertex are
+     * set just before it is executed, and each activation is released once the last vertex using it has been executed
+     * (see {@link #lastUsePosition}). Peak memory is therefore determined by the activations that are live at the same
+     * time, rather than by the sum of the activations of all vertices.<br>
+     * Vertex and layer inputs are cleared after use: a backward pass can't follow this method.
+     */
+    protected INDArray[] outputInference() {
+        if (lastUsePosition == null)
+            initLiveness();
+
+        INDArray[] activations = new INDArray[vertices.length];
+        INDArray[] outputs = new INDArray[numOutputArrays];
+
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            GraphVertex current = vertices[topologicalOrder[i]];
+            int vertexIdx = current.getVertexIndex();
+
+            INDArray out = forwardVertexInference(current, activations);
+            if (!current.isInputVertex()) {
+                //Release any activations not required by later vertices
+                for (VertexIndices v : current.getInputVertices()) {
+                    if (lastUsePosition[v.getVertexIndex()] == i)
+                        activations[v.getVertexIndex()] = null;
+                }
+            }
+
+            if (networkOutputIndex[vertexIdx] >= 0)
+                outputs[networkOutputIndex[vertexIdx]] = out;
+            if (lastUsePosition[vertexIdx] > i)
+                activations[vertexIdx] = out;
+        }
+
+        return outputs;
+    }
+
+    /**
+     * As per {@link #outputInference()}, but with independent vertices executed concurrently, up to
+     * {@link ComputationGraphConfiguration#getBranchParallelism()} at a time. As the order of execution isn't fixed,
+     * activations are released once all of their consumers have been executed (rather than at a fixed position)
+     */
+    protected INDArray[] outputInferenceConcurrent() {
+        if (lastUsePosition == null)
+            initLiveness();
+        if (forwardScheduler == null)
+            initSchedulers();
+
+        final INDArray[] activations = new INDArray[vertices.length];
+        final INDArray[] outputs = new INDArray[numOutputArrays];
+        final AtomicIntegerArray remainingUses = new AtomicIntegerArray(vertices.length);
+        for (GraphVertex gv : vertices) {
+            if (gv.getInputVertices() != null) {
+                for (VertexIndices v : gv.getInputVertices())
+                    remainingUses.incrementAndGet(v.getVertexIndex());
+            }
+        }
+
+        //Activations are published to consumers by the scheduler: a vertex is only executed after its inputs
+        forwardScheduler.execute(configuration.getBranchParallelism(), new ConcurrentVertexScheduler.NodeTask() {
+            @Override
+            public void execute(int node) {
+                GraphVertex current = vertices[topologicalOrder[node]];
+                int vertexIdx = current.getVertexIndex();
+
+                INDArray out = forwardVertexInference(current, activations);
+                if (!current.isInputVertex()) {
+                    for (VertexIndices v : current.getInputVertices()) {
+                        if (remainingUses.decrementAndGet(v.getVertexIndex()) == 0)
+                            activations[v.getVertexIndex()] = null;
+                    }
+                }
+
+                if (networkOutputIndex[vertexIdx] >= 0)
+                    outputs[networkOutputIndex[vertexIdx]] = out;
+                if (remainingUses.get(vertexIdx) > 0)
+                    activations[vertexIdx] = out;
+            }
+        });
+
+        return outputs;
+    }
+
+    /**
+     * Forward pass at test time for a single vertex, for {@link #outputInference()}: sets the inputs of the vertex from
+     * the given activations, and clears them (on the vertex and its layer) again after the forward pass
+     *
+     * @return Activations of the vertex (network input, for input vertices)
+     */
+    private INDArray forwardVertexInference(GraphVertex current, INDArray[] activations) {
+        if (current.isInputVertex()) {
+            return inputs[current.getVertexIndex()];
+        }
+
+        VertexIndices[] inputsFrom = current.getInputVertices();
+        for (int j = 0; j < inputsFrom.length; j++) {
+            int inputIdx = inputsFrom[j].getVertexIndex();
+            INDArray in = activations[inputIdx];
+            if (vertices[inputIdx].isInputVertex()) {
+                //As per feedForward: network input arrays are not passed directly to vertices
+                in = in.dup();
+            }
+            current.setInput(j, in);
+        }
+
+        INDArray out = current.doForward(false);
+
+        //Drop the references held by this vertex
+        current.clear();
+        if (current.hasLayer())
+            current.getLayer().setInput(null);
+        return out;
+    }
+
+    /**
+     * Calculate {@link #lastUsePosition} and {@link #networkOutputIndex} from the topological order
+     */
+    protected void initLiveness() {
+        int[] lastUse = new int[vertices.length];
+        Arrays.fill(lastUse, -1);
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            VertexIndices[] inputsFrom = vertices[topologicalOrder[i]].getInputVertices();
+            if (inputsFrom == null)
+                continue;
+            for (VertexIndices v : inputsFrom) {
+                lastUse[v.getVertexIndex()] = Math.max(lastUse[v.getVertexIndex()], i);
+            }
+        }
+
+        int[] outputIndex = new int[vertices.length];
+        Arrays.fill(outputIndex, -1);
+        List<String> networkOutputs = configuration.getNetworkOutputs();
+        for (int i = 0; i < networkOutputs.size(); i++) {
+            outputIndex[verticesMap.get(networkOutputs.get(i)).getVertexIndex()] = i;
+        }
+
+        networkOutputIndex = outputIndex;
+        lastUsePosition = lastUse;
+    }
+
     /**
      * A convenience method that returns a single INDArray, instead of an INDArray[].
      * Useful for ComputationGraphs that have only a single output.
@@ -1225,6 +1467,11 @@ public class ComputationGraph implements Serializable, Model {
         if (flattenedGradients == null)
             initGradientsView();
 
+        if (configuration.getBranchParallelism() > 1) {
+            calcBackpropGradientsConcurrent(truncatedBPTT, externalEpsilons);
+            return;
+        }
+
         LinkedList<Triple<String, INDArray, Character>> gradients = new LinkedList<>();
 
         //Do backprop according to the reverse of the topological ordering of the network
@@ -1301,6 +1548,127 @@ public class ComputationGraph implements Serializable, Model {
         this.gradient = gradient;
     }
 
+    /**
+     * Backprop with independent vertices executed concurrently, up to
+     * {@link ComputationGraphConfiguration#getBranchParallelism()} at a time.<br>
+     * Each vertex is executed once all vertices it outputs to have been executed. Epsilons for a vertex are summed at
+     * that point, in the same order as in sequential backprop (reverse topological order of the vertices providing
+     * them), so that results are identical to {@link #calcBackpropGradients(boolean, INDArray...)}.
+     */
+    private void calcBackpropGradientsConcurrent(final boolean truncatedBPTT, final INDArray... externalEpsilons) {
+        if (backwardScheduler == null)
+            initSchedulers();
+
+        //Sequential backprop stops at the last frozen layer (in topological order): nothing before it is executed
+        int frozenPosition = -1;
+        for (int i = topologicalOrder.length - 1; i >= 0; i--) {
+            GraphVertex gv = vertices[topologicalOrder[i]];
+            if (gv.hasLayer() && gv.getLayer() instanceof FrozenLayer) {
+                frozenPosition = i;
+                break;
+            }
+        }
+        final int firstPosition = frozenPosition + 1;
+
+        //Epsilons for each vertex (by vertex index), as provided by the vertices it outputs to. Each element:
+        // (position of the vertex providing the epsilon, input number for that vertex, epsilon)
+        final List<List<Triple<Integer, Integer, INDArray>>> epsilonsFor = new ArrayList<>(vertices.length);
+        for (int i = 0; i < vertices.length; i++) {
+            epsilonsFor.add(new ArrayList<Triple<Integer, Integer, INDArray>>());
+        }
+        final List<List<Triple<String, INDArray, Character>>> gradientsFor = new ArrayList<>(topologicalOrder.length);
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            gradientsFor.add(null);
+        }
+
+        backwardScheduler.execute(configuration.getBranchParallelism(), new ConcurrentVertexScheduler.NodeTask() {
+            @Override
+            public void execute(int node) {
+                GraphVertex current = vertices[topologicalOrder[node]];
+
+                //All vertices this vertex outputs to are done: sum the epsilons, in sequential backprop order
+                List<Triple<Integer, Integer, INDArray>> epsList = epsilonsFor.get(current.getVertexIndex());
+                if (!epsList.isEmpty()) {
+                    Collections.sort(epsList, new Comparator<Triple<Integer, Integer, INDArray>>() {
+                        @Override
+                        public int compare(Triple<Integer, Integer, INDArray> o1,
+                                        Triple<Integer, Integer, INDArray> o2) {
+                            int c = Integer.compare(o2.getFirst(), o1.getFirst());
+                            if (c != 0)
+                                return c;
+                            return Integer.compare(o1.getSecond(), o2.getSecond());
+                        }
+                    });
+                    INDArray eps = epsList.get(0).getThird();
+                    for (int i = 1; i < epsList.size(); i++) {
+                        eps = eps.add(epsList.get(i).getThird());
+                    }
+                    current.setEpsilon(eps);
+                }
+
+                if (current.isInputVertex() || node < firstPosition)
+                    return;
+
+                if (current.isOutputVertex()) {
+                    int thisOutputNumber = configuration.getNetworkOutputs().indexOf(current.getVertexName());
+                    if (current.getLayer() instanceof IOutputLayer) {
+                        IOutputLayer outputLayer = (IOutputLayer) current.getLayer();
+
+                        INDArray currLabels = labels[thisOutputNumber];
+                        outputLayer.setLabels(currLabels);
+                    } else {
+                        current.setEpsilon(externalEpsilons[thisOutputNumber]);
+                    }
+                }
+
+                Pair<Gradient, INDArray[]> pair = current.doBackward(truncatedBPTT);
+                INDArray[] epsilons = pair.getSecond();
+
+                //Pass epsilons to the vertices that provide inputs to this vertex
+                VertexIndices[] inputVertices = current.getInputVertices();
+                if (inputVertices != null) {
+                    for (int j = 0; j < inputVertices.length; j++) {
+                        List<Triple<Integer, Integer, INDArray>> list =
+                                        epsilonsFor.get(inputVertices[j].getVertexIndex());
+                        synchronized (list) {
+                            list.add(new Triple<>(node, j, epsilons[j]));
+                        }
+                    }
+                }
+
+                if (pair.getFirst() != null) {
+                    Gradient g = pair.getFirst();
+                    Map<String, INDArray> map = g.gradientForVariable();
+                    LinkedList<Triple<String, INDArray, Character>> tempList = new LinkedList<>();
+                    for (Map.Entry<String, INDArray> entry : map.entrySet()) {
+                        String origName = entry.getKey();
+                        String newName = current.getVertexName() + "_" + origName;
+                        tempList.addFirst(new Triple<>(newName, entry.getValue(),
+                                        g.flatteningOrderForVariable(origName)));
+                    }
+                    gradientsFor.set(node, tempList);
+                }
+            }
+        });
+
+        //Same order as sequential backprop
+        LinkedList<Triple<String, INDArray, Character>> gradients = new LinkedList<>();
+        for (int i = topologicalOrder.length - 1; i >= 0; i--) {
+            List<Triple<String, INDArray, Character>> tempList = gradientsFor.get(i);
+            if (tempList == null)
+                continue;
+            for (Triple<String, INDArray, Character> t : tempList)
+                gradients.addFirst(t);
+        }
+
+        Gradient gradient = new DefaultGradient(flattenedGradients);
+        for (Triple<String, INDArray, Character> t : gradients) {
+            gradient.setGradientFor(t.getFirst(), t.getSecond(), t.getThird());
+        }
+
+        this.gradient = gradient;
+    }
+
     @Override
     public ComputationGraph clone() {
         ComputationGraph cg = new ComputationGraph(configuration.clone());
@@ -0,0 +1,213 @@
+package org.deeplearning4j.nn.graph.util;
+
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Executes the nodes of a directed acyclic graph concurrently on a ForkJoinPool: each node is executed once all of
+ * the nodes it depends on have been executed. Used by {@link org.deeplearning4j.nn.graph.ComputationGraph} to execute
+ * independent branches of the network in parallel, during both forward and backward pass.<br>
+ * Nodes are numbered 0 to n-1. The scheduler is immutable and may be used for any number of executions; pools are
+ * shared between all schedulers with the same parallelism.<br>
+ * Pool threads are attached to the device of the thread that calls {@link #execute(int, NodeTask)} before executing
+ * any node, and (for a GridExecutioner) queued ops are flushed after each node, before its successors are started.
+ */
+public class ConcurrentVertexScheduler {
+
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Work for a single node. Called at most once per node and execution, from any thread.
+     */
+    public interface NodeTask {
+        void execute(int node);
+    }
+
+    private final int[][] successors;
+    private final int[] numDependencies;
+    private final int[] roots;
+
+    /**
+     * @param dependencies For each node: the nodes that must be executed before it. Duplicates are allowed
+     */
+    public ConcurrentVertexScheduler(int[][] dependencies) {
+        int n = dependencies.length;
+        numDependencies = new int[n];
+        List<Set<Integer>> succ = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            succ.add(new LinkedHashSet<Integer>());
+        }
+
+        List<Integer> rootList = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (dependencies[i] != null) {
+                for (int d : dependencies[i]) {
+                    if (d < 0 || d >= n || d == i)
+                        throw new IllegalArgumentException("Invalid dependency for node " + i + ": " + d);
+                    if (succ.get(d).add(i))
+                        numDependencies[i]++;
+                }
+            }
+            if (numDependencies[i] == 0)
+                rootList.add(i);
+        }
+
+        successors = new int[n][];
+        for (int i = 0; i < n; i++) {
+            successors[i] = new int[succ.get(i).size()];
+            int j = 0;
+            for (Integer s : succ.get(i))
+                successors[i][j++] = s;
+        }
+        roots = new int[rootList.size()];
+        for (int i = 0; i < roots.length; i++)
+            roots[i] = rootList.get(i);
+    }
+
+    /**
+     * @return Number of nodes in the graph
+     */
+    public int numNodes() {
+        return successors.length;
+    }
+
+    /**
+     * Execute all nodes, blocking until all have been executed. The first exception thrown by a node task is rethrown
+     * here; once a node has failed, no further nodes are started.
+     *
+     * @param parallelism Maximum number of nodes to execute concurrently
+     * @param task        Work to do for each node
+     */
+    public void execute(int parallelism, NodeTask task) {
+        if (successors.length == 0)
+            return;
+        Execution execution = new Execution(task, numDependencies,
+                        Nd4j.getAffinityManager().getDeviceForCurrentThread());
+        ForkJoinPool pool = getPool(parallelism);
+        execution.active.set(roots.length);
+        for (int r : roots)
+            pool.execute(new NodeAction(r, execution));
+
+        execution.await();
+        Throwable t = execution.exception;
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        if (t != null)
+            throw new RuntimeException(t);
+    }
+
+    private static ForkJoinPool getPool(int parallelism) {
+        ForkJoinPool pool = POOLS.get(parallelism);
+        if (pool == null) {
+            ForkJoinPool newPool = new ForkJoinPool(parallelism);
+            pool = POOLS.putIfAbsent(parallelism, newPool);
+            if (pool == null) {
+                pool = newPool;
+            } else {
+                newPool.shutdown();
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * State of a single call of execute()
+     */
+    private static class Execution {
+        private final NodeTask task;
+        private final AtomicIntegerArray remaining;
+        private final Integer deviceId;
+        //Number of node actions that have been created but not finished. Zero: execution is complete (or failed)
+        private final AtomicInteger active = new AtomicInteger();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable exception;
+
+        private Execution(NodeTask task, int[] numDependencies, Integer deviceId) {
+            this.task = task;
+            this.deviceId = deviceId;
+            this.remaining = new AtomicIntegerArray(numDependencies);
+        }
+
+        private synchronized void fail(Throwable t) {
+            if (exception == null)
+                exception = t;
+        }
+
+        private void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    //Can't return while nodes may still be running
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private class NodeAction extends RecursiveAction {
+        private final int node;
+        private final Execution execution;
+
+        private NodeAction(int node, Execution execution) {
+            this.node = node;
+            this.execution = execution;
+        }
+
+        @Override
+        protected void compute() {
+            //Chains of nodes are executed in a loop on this thread; other successors that become ready are forked.
+            //Forked actions are never joined (which could nest arbitrarily deep on this thread's stack): completion is
+            //tracked by the count of active actions instead
+            try {
+                //Pool threads are shared between executions (and networks), possibly on different devices
+                Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), execution.deviceId);
+
+                int current = node;
+                while (current >= 0 && execution.exception == null) {
+                    execution.task.execute(current);
+
+                    //Successors may run on other threads: ops queued for this node must be complete before they start
+                    if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                        ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+                    int next = -1;
+                    for (int s : successors[current]) {
+                        if (execution.remaining.decrementAndGet(s) == 0) {
+                            if (next < 0) {
+                                next = s;
+                            } else {
+                                execution.active.incrementAndGet();
+                                new NodeAction(s, execution).fork();
+                            }
+                        }
+                    }
+                    current = next;
+                }
+            } catch (Throwable t) {
+                execution.fail(t);
+            } finally {
+                if (execution.active.decrementAndGet() == 0)
+                    execution.done.countDown();
+            }
+        }
+    }
+}
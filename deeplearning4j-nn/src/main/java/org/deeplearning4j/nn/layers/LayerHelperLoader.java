@@ -0,0 +1,61 @@
+package org.deeplearning4j.nn.layers;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Loads the helper (alternative implementation) for a layer, such as a
+ * {@link org.deeplearning4j.nn.layers.convolution.ConvolutionHelper}.<br>
+ * The CuDNN helper is used if it is on the classpath (and can be instantiated). Otherwise, if enabled by setting the
+ * system property {@link #ENABLE_HELPERS_PROPERTY} to "true", the first helper registered for the helper interface via
+ * {@link ServiceLoader} (i.e., in a META-INF/services/&lt;interface name&gt; file) that can be instantiated is used.
+ * A helper may throw an exception in its constructor, if it can't be used in the current environment (for example, on
+ * the wrong ND4J backend).<br>
+ * Helpers registered via ServiceLoader are disabled by default: they are not (yet) known to be faster than the layers'
+ * built-in implementations in general.
+ */
+@Slf4j
+public class LayerHelperLoader {
+
+    public static final String ENABLE_HELPERS_PROPERTY = "org.deeplearning4j.nn.layers.enablehelpers";
+
+    private LayerHelperLoader() {}
+
+    /**
+     * @param helperType     Helper interface
+     * @param cudnnClassName Fully qualified class name of the CuDNN helper for this interface
+     * @return A new instance of the helper, or null if no helper is available (or enabled)
+     */
+    public static <T> T loadHelper(Class<T> helperType, String cudnnClassName) {
+        try {
+            T helper = Class.forName(cudnnClassName).asSubclass(helperType).newInstance();
+            log.debug("{} successfully loaded", cudnnClassName);
+            return helper;
+        } catch (Throwable t) {
+            if (!(t instanceof ClassNotFoundException)) {
+                log.warn("Could not load " + cudnnClassName, t);
+            }
+        }
+
+        if (!Boolean.getBoolean(ENABLE_HELPERS_PROPERTY)) {
+            return null;
+        }
+
+        Iterator<T> iter = ServiceLoader.load(helperType).iterator();
+        while (true) {
+            try {
+                if (!iter.hasNext())
+                    return null;
+                T helper = iter.next();
+                log.debug("{} successfully loaded", helper.getClass().getName());
+                return helper;
+            } catch (ServiceConfigurationError e) {
+                //Provider could not be loaded or instantiated (for example: unsupported backend). Try the next one
+                log.debug("Could not load {} helper", helperType.getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
+import org.deeplearning4j.nn.layers.LayerHelperLoader;
 import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
 import org.deeplearning4j.util.ConvolutionUtils;
 import org.deeplearning4j.util.Dropout;
@@ -67,15 +68,8 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
     }
 
     void initializeHelper() {
-        try {
-            helper = Class.forName("org.deeplearning4j.nn.layers.convolution.CudnnConvolutionHelper")
-                    .asSubclass(ConvolutionHelper.class).newInstance();
-            log.debug("CudnnConvolutionHelper successfully loaded");
-        } catch (Throwable t) {
-            if (!(t instanceof ClassNotFoundException)) {
-                log.warn("Could not load CudnnConvolutionHelper", t);
-            }
-        }
+        helper = LayerHelperLoader.loadHelper(ConvolutionHelper.class,
+                "org.deeplearning4j.nn.layers.convolution.CudnnConvolutionHelper");
     }
 
     @Override
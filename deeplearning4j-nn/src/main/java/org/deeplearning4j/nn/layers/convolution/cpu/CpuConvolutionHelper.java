@@ -0,0 +1,136 @@
+package org.deeplearning4j.nn.layers.convolution.cpu;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer.AlgoMode;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.layers.convolution.ConvolutionHelper;
+import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.convolution.Convolution;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * CPU helper for the convolution layer. Loaded via {@link java.util.ServiceLoader} when CuDNN is not available and
+ * helpers are enabled; see {@link org.deeplearning4j.nn.layers.LayerHelperLoader}.<br>
+ * Forward pass: 3x3 kernels with stride 1 use Winograd convolution (see {@link WinogradConvolution}); other
+ * configurations use im2col + gemm, as in the layer itself, but with the im2col array held in a per-thread workspace
+ * instead of being allocated on every call. Backprop uses im2col + gemm with the workspace.<br>
+ * Results are the same as for the built-in implementation, up to floating point precision.
+ */
+public class CpuConvolutionHelper implements ConvolutionHelper {
+
+    public CpuConvolutionHelper() {
+        CpuHelperUtils.assertCpuBackend("CpuConvolutionHelper");
+    }
+
+    /**
+     * Release the im2col workspace held for the current thread. The workspace is otherwise kept (and reused) until the
+     * thread terminates.
+     */
+    public static void releaseWorkspace() {
+        CpuHelperUtils.releaseWorkspace();
+    }
+
+    /**
+     * @return True if the forward pass for the given configuration uses Winograd convolution
+     */
+    public static boolean useWinograd(int[] kernel, int[] strides) {
+        return kernel[0] == 3 && kernel[1] == 3 && strides[0] == 1 && strides[1] == 1;
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(INDArray input, INDArray weights, INDArray delta, int[] kernel,
+                    int[] strides, int[] pad, INDArray biasGradView, INDArray weightGradView, IActivation afn,
+                    AlgoMode mode, ConvolutionMode convolutionMode) {
+        int miniBatch = input.size(0);
+        int inH = input.size(2);
+        int inW = input.size(3);
+
+        int outDepth = weights.size(0);
+        int inDepth = weights.size(1);
+        int kH = weights.size(2);
+        int kW = weights.size(3);
+
+        int outH = delta.size(2);
+        int outW = delta.size(3);
+
+        INDArray weightGradView2df = Shape
+                        .newShapeNoCopy(weightGradView, new int[] {outDepth, inDepth * kH * kW}, false).transpose();
+
+        //Same approach as ConvolutionLayer.backpropGradient - see comments there
+        delta = delta.permute(1, 0, 2, 3);
+        INDArray delta2d = delta.reshape('c', new int[] {outDepth, miniBatch * outH * outW});
+
+        INDArray col = CpuHelperUtils.getWorkspace(new int[] {miniBatch, outH, outW, inDepth, kH, kW});
+        INDArray col2 = col.permute(0, 3, 4, 5, 1, 2);
+        Convolution.im2col(input, kH, kW, strides[0], strides[1], pad[0], pad[1],
+                        convolutionMode == ConvolutionMode.Same, col2);
+        INDArray im2col2d = col.reshape('c', miniBatch * outH * outW, inDepth * kH * kW);
+
+        Nd4j.gemm(im2col2d, delta2d, weightGradView2df, true, true, 1.0, 0.0);
+
+        INDArray wPermuted = weights.permute(3, 2, 1, 0);
+        INDArray w2d = wPermuted.reshape('f', inDepth * kH * kW, outDepth);
+
+        INDArray epsNext2d = w2d.mmul(delta2d);
+        INDArray eps6d = Shape.newShapeNoCopy(epsNext2d, new int[] {kW, kH, inDepth, outW, outH, miniBatch}, true);
+        eps6d = eps6d.permute(5, 2, 1, 0, 4, 3);
+        INDArray epsNextOrig = Nd4j.create(new int[] {inDepth, miniBatch, inH, inW}, 'c');
+        INDArray epsNext = epsNextOrig.permute(1, 0, 2, 3);
+        Convolution.col2im(eps6d, epsNext, strides[0], strides[1], pad[0], pad[1], inH, inW);
+
+        Gradient retGradient = new DefaultGradient();
+        biasGradView.assign(delta2d.sum(1));
+        retGradient.setGradientFor(ConvolutionParamInitializer.BIAS_KEY, biasGradView);
+        retGradient.setGradientFor(ConvolutionParamInitializer.WEIGHT_KEY, weightGradView, 'c');
+
+        return new Pair<>(retGradient, epsNext);
+    }
+
+    @Override
+    public INDArray preOutput(INDArray input, INDArray weights, INDArray bias, int[] kernel, int[] strides, int[] pad,
+                    AlgoMode mode, ConvolutionMode convolutionMode) {
+        int miniBatch = input.size(0);
+        int inH = input.size(2);
+        int inW = input.size(3);
+
+        int outDepth = weights.size(0);
+        int inDepth = weights.size(1);
+        int kH = weights.size(2);
+        int kW = weights.size(3);
+
+        int[] outSize = CpuHelperUtils.outputSize(inH, inW, kernel, strides, pad, convolutionMode);
+        int outH = outSize[0];
+        int outW = outSize[1];
+
+        if (useWinograd(kernel, strides)) {
+            return WinogradConvolution.convolve(input, weights, bias, pad, outH, outW);
+        }
+
+        //Same approach as ConvolutionLayer.preOutput - see comments there
+        INDArray col = CpuHelperUtils.getWorkspace(new int[] {miniBatch, outH, outW, inDepth, kH, kW});
+        INDArray col2 = col.permute(0, 3, 4, 5, 1, 2);
+        Convolution.im2col(input, kH, kW, strides[0], strides[1], pad[0], pad[1],
+                        convolutionMode == ConvolutionMode.Same, col2);
+
+        INDArray reshapedCol = Shape.newShapeNoCopy(col, new int[] {miniBatch * outH * outW, inDepth * kH * kW}, false);
+        INDArray permutedW = weights.permute(3, 2, 1, 0);
+        INDArray reshapedW = permutedW.reshape('f', kW * kH * inDepth, outDepth);
+
+        //Result is a new array: the workspace is no longer referenced after this
+        INDArray z = reshapedCol.mmul(reshapedW);
+        z.addiRowVector(bias);
+        z = Shape.newShapeNoCopy(z, new int[] {outW, outH, miniBatch, outDepth}, true);
+        return z.permute(2, 3, 1, 0);
+    }
+
+    @Override
+    public INDArray activate(INDArray z, IActivation afn) {
+        //No CPU-specific implementation: use the layer's own
+        return null;
+    }
+}
@@ -0,0 +1,84 @@
+package org.deeplearning4j.nn.layers.convolution.cpu;
+
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.util.ArrayUtil;
+
+/**
+ * Utilities shared by the CPU convolution and subsampling helpers.
+ */
+class CpuHelperUtils {
+
+    //One workspace per thread (im2col array, Winograd transforms, padded pooling input), sized for the most recent
+    // request (reused as long as it is at most MAX_WORKSPACE_SLACK times larger than required). Note that the workspace
+    // is only valid until the next call of getWorkspace on the same thread
+    private static final ThreadLocal<INDArray> WORKSPACE = new ThreadLocal<>();
+    private static final int MAX_WORKSPACE_SLACK = 2;
+
+    private CpuHelperUtils() {}
+
+    /**
+     * Throws an exception if the current ND4J backend is not the native CPU backend: the CPU helpers are built from
+     * many small ops on views, which is not appropriate for device (GPU) memory. CuDNN helpers are used there instead
+     */
+    static void assertCpuBackend(String helperName) {
+        String backend = Nd4j.getBackend().getClass().getSimpleName();
+        if (!"CpuBackend".equals(backend)) {
+            throw new UnsupportedOperationException(
+                            helperName + " can only be used with the native CPU backend; backend is " + backend);
+        }
+    }
+
+    /**
+     * Output size [outH, outW] for the given input size and (top/left) padding. For ConvolutionMode.Same, bottom/right
+     * padding is implicit.
+     */
+    static int[] outputSize(int inH, int inW, int[] kernel, int[] strides, int[] pad, ConvolutionMode convolutionMode) {
+        if (convolutionMode == ConvolutionMode.Same) {
+            return new int[] {(int) Math.ceil(inH / (double) strides[0]), (int) Math.ceil(inW / (double) strides[1])};
+        }
+        return new int[] {(inH - kernel[0] + 2 * pad[0]) / strides[0] + 1,
+                        (inW - kernel[1] + 2 * pad[1]) / strides[1] + 1};
+    }
+
+    /**
+     * View of the buffer of a contiguous array, starting at the given offset (relative to the array), with the specified
+     * shape, as a contiguous c or f order array
+     */
+    static INDArray view(INDArray base, int offset, int[] shape, char order) {
+        int[] stride = (order == 'c' ? ArrayUtil.calcStrides(shape) : ArrayUtil.calcStridesFortran(shape));
+        return Nd4j.create(base.data(), shape, stride, base.offset() + offset, order);
+    }
+
+    /**
+     * View of the buffer of a contiguous array, starting at the given offset (relative to the array), with the specified
+     * shape and strides
+     */
+    static INDArray view(INDArray base, int offset, int[] shape, int[] stride) {
+        return Nd4j.create(base.data(), shape, stride, base.offset() + offset, 'c');
+    }
+
+    /**
+     * Get an uninitialized c order array with the specified shape, backed by this thread's workspace. The array must
+     * not be used after the next call to this method on the same thread, and must not be returned from the helper.
+     */
+    static INDArray getWorkspace(int[] shape) {
+        int length = ArrayUtil.prod(shape);
+        INDArray ws = WORKSPACE.get();
+        if (ws == null || ws.length() < length || ws.length() > MAX_WORKSPACE_SLACK * (long) length
+                        || ws.data().dataType() != Nd4j.dataType()) {
+            ws = Nd4j.createUninitialized(new int[] {1, length}, 'c');
+            WORKSPACE.set(ws);
+        }
+        return ws.get(NDArrayIndex.point(0), NDArrayIndex.interval(0, length)).reshape('c', shape);
+    }
+
+    /**
+     * Release the workspace of the current thread, if any
+     */
+    static void releaseWorkspace() {
+        WORKSPACE.remove();
+    }
+}
@@ -0,0 +1,151 @@
+package org.deeplearning4j.nn.layers.convolution.cpu;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.layers.PoolingType;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.layers.convolution.subsampling.SubsamplingHelper;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+/**
+ * CPU helper for the subsampling layer. Loaded via {@link java.util.ServiceLoader} when CuDNN is not available and
+ * helpers are enabled; see {@link org.deeplearning4j.nn.layers.LayerHelperLoader}.<br>
+ * Max and average pooling are done without materializing the im2col array (which is kH*kW times the size of the
+ * output): the (zero padded) input is copied once to the per-thread workspace, and for each of the kH*kW positions in
+ * the pooling window, the strided view of the input values at that position of all windows is combined with the
+ * output. Backprop adds the epsilon to the same strided views of the output epsilon.<br>
+ * Semantics are the same as for the built-in implementation: padding is zero-valued and included in both max and
+ * average pooling, average pooling divides by kH*kW, and for max pooling the gradient goes to the first maximum in the
+ * pooling window only.<br>
+ * PNorm pooling is not supported by this helper (the layer's own implementation is used instead).
+ */
+public class CpuSubsamplingHelper implements SubsamplingHelper {
+
+    public CpuSubsamplingHelper() {
+        CpuHelperUtils.assertCpuBackend("CpuSubsamplingHelper");
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(INDArray input, INDArray epsilon, int[] kernel, int[] strides,
+                    int[] pad, PoolingType poolingType, ConvolutionMode convolutionMode) {
+        if (poolingType != PoolingType.MAX && poolingType != PoolingType.AVG)
+            return null;
+
+        int miniBatch = input.size(0);
+        int depth = input.size(1);
+        int inH = input.size(2);
+        int inW = input.size(3);
+        int outH = epsilon.size(2);
+        int outW = epsilon.size(3);
+        int kH = kernel[0];
+        int kW = kernel[1];
+
+        //Output epsilon for the padded input: large enough for all windows, and for the whole input
+        int padH = Math.max((outH - 1) * strides[0] + kH, pad[0] + inH);
+        int padW = Math.max((outW - 1) * strides[1] + kW, pad[1] + inW);
+        INDArray epsPadded = Nd4j.zeros(miniBatch, depth, padH, padW);
+
+        if (poolingType == PoolingType.AVG) {
+            INDArray e = epsilon.mul(1.0 / (kH * kW));
+            for (int r = 0; r < kH; r++) {
+                for (int c = 0; c < kW; c++) {
+                    windowView(epsPadded, r, c, strides, outH, outW).addi(e);
+                }
+            }
+        } else {
+            //Gradient goes to the first maximum in the window only. Padding (value 0) can be the maximum, in which case
+            // there is no gradient to the input (it goes to the padding, which is dropped)
+            INDArray in = paddedInput(input, pad, padH, padW);
+            INDArray max = maxPool(in, kH, kW, strides, outH, outW);
+            INDArray remaining = Nd4j.ones(miniBatch, depth, outH, outW);
+            for (int r = 0; r < kH; r++) {
+                for (int c = 0; c < kW; c++) {
+                    INDArray isMax = windowView(in, r, c, strides, outH, outW).eq(max).muli(remaining);
+                    remaining.subi(isMax);
+                    windowView(epsPadded, r, c, strides, outH, outW).addi(isMax.muli(epsilon));
+                }
+            }
+        }
+
+        INDArray outEpsilon = epsPadded.get(NDArrayIndex.all(), NDArrayIndex.all(),
+                        NDArrayIndex.interval(pad[0], pad[0] + inH), NDArrayIndex.interval(pad[1], pad[1] + inW));
+        return new Pair<Gradient, INDArray>(new DefaultGradient(), outEpsilon);
+    }
+
+    @Override
+    public INDArray activate(INDArray input, boolean training, int[] kernel, int[] strides, int[] pad,
+                    PoolingType poolingType, ConvolutionMode convolutionMode) {
+        if (poolingType != PoolingType.MAX && poolingType != PoolingType.AVG)
+            return null;
+
+        int inH = input.size(2);
+        int inW = input.size(3);
+        int[] outSize = CpuHelperUtils.outputSize(inH, inW, kernel, strides, pad, convolutionMode);
+        int outH = outSize[0];
+        int outW = outSize[1];
+        int kH = kernel[0];
+        int kW = kernel[1];
+
+        int padH = Math.max((outH - 1) * strides[0] + kH, pad[0] + inH);
+        int padW = Math.max((outW - 1) * strides[1] + kW, pad[1] + inW);
+        INDArray in = paddedInput(input, pad, padH, padW);
+
+        if (poolingType == PoolingType.MAX)
+            return maxPool(in, kH, kW, strides, outH, outW);
+
+        INDArray out = windowView(in, 0, 0, strides, outH, outW).dup('c');
+        for (int r = 0; r < kH; r++) {
+            for (int c = 0; c < kW; c++) {
+                if (r > 0 || c > 0)
+                    out.addi(windowView(in, r, c, strides, outH, outW));
+            }
+        }
+        return out.muli(1.0 / (kH * kW));
+    }
+
+    /**
+     * Copy of the input, zero padded to [miniBatch, depth, padH, padW] with the input at (pad[0], pad[1]). Held in the
+     * per-thread workspace
+     */
+    private static INDArray paddedInput(INDArray input, int[] pad, int padH, int padW) {
+        int miniBatch = input.size(0);
+        int depth = input.size(1);
+        INDArray in = CpuHelperUtils.getWorkspace(new int[] {miniBatch, depth, padH, padW});
+        in.assign(0.0);
+        CpuHelperUtils.view(in, pad[0] * padW + pad[1], input.shape(),
+                        new int[] {depth * padH * padW, padH * padW, padW, 1}).assign(input);
+        return in;
+    }
+
+    /**
+     * Max pooling of the padded input: maximum over the views of all positions in the pooling window
+     */
+    private static INDArray maxPool(INDArray in, int kH, int kW, int[] strides, int outH, int outW) {
+        INDArray out = windowView(in, 0, 0, strides, outH, outW).dup('c');
+        for (int r = 0; r < kH; r++) {
+            for (int c = 0; c < kW; c++) {
+                if (r == 0 && c == 0)
+                    continue;
+                //max(out, x) = out + max(x - out, 0)
+                INDArray diff = windowView(in, r, c, strides, outH, outW).sub(out);
+                out.addi(Transforms.max(diff, 0.0, false));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * View of the values at position (r, c) of all pooling windows of a contiguous, c order [miniBatch, depth, h, w]
+     * array: shape [miniBatch, depth, outH, outW]
+     */
+    private static INDArray windowView(INDArray arr, int r, int c, int[] strides, int outH, int outW) {
+        int h = arr.size(2);
+        int w = arr.size(3);
+        return CpuHelperUtils.view(arr, r * w + c, new int[] {arr.size(0), arr.size(1), outH, outW},
+                        new int[] {arr.size(1) * h * w, h * w, strides[0] * w, strides[1]});
+    }
+}
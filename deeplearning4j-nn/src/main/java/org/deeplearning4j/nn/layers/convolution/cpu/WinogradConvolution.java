@@ -0,0 +1,147 @@
+package org.deeplearning4j.nn.layers.convolution.cpu;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.convolution.Convolution;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+/**
+ * Winograd minimal filtering convolution F(2x2, 3x3), for 3x3 kernels with stride 1.<br>
+ * The output is computed in 2x2 tiles, each from a 4x4 input tile: Y = A^T [ (G g G^T) .* (B^T d B) ] A, where g is the
+ * 3x3 kernel and d the 4x4 input tile. Summed over input channels, the element-wise product for each of the 16
+ * transformed elements becomes a matrix multiplication: M_e = U_e * V_e, with U_e of shape [outDepth, inDepth] and
+ * V_e of shape [inDepth, numTiles]. This needs 16 multiplications per output tile and input channel, instead of 36
+ * for direct (or im2col) convolution, and the transformed input is 4x the size of the input instead of 9x for im2col.
+ * <br>
+ * The transforms are linear, so each of them is done as a single gemm with a constant matrix (the Kronecker product of
+ * the 1d transform with itself), on all tiles at once. All intermediate arrays are views of the per-thread workspace
+ * (see {@link CpuHelperUtils#getWorkspace(int[])}), laid out as 16 contiguous blocks, one per transformed element, so
+ * that each M_e is a single gemm on views as well.
+ * <br>
+ * Reference: Lavin and Gray, Fast Algorithms for Convolutional Neural Networks, 2015. https://arxiv.org/abs/1509.09308
+ */
+class WinogradConvolution {
+
+    /** Number of elements in a transformed tile */
+    static final int NUM_ELEMENTS = 16;
+
+    /** Element of the transformed tile (row 1, column 1) that contributes to all 4 outputs with weight 1 */
+    private static final int BIAS_ELEMENT = 5;
+
+    private static final double[][] G = {{1, 0, 0}, {0.5, 0.5, 0.5}, {0.5, -0.5, 0.5}, {0, 0, 1}};
+    private static final double[][] B_T = {{1, 0, -1, 0}, {0, 1, 1, 0}, {0, -1, 1, 0}, {0, 1, 0, -1}};
+    private static final double[][] A_T = {{1, 1, 1, 0}, {0, 1, -1, -1}};
+
+    //Transforms of flattened (c order) tiles: U = KG * g, V = KB * d, Y = KA * M
+    private static final double[][] KG = kron(G, G);
+    private static final double[][] KB = kron(B_T, B_T);
+    private static final double[][] KA = kron(A_T, A_T);
+
+    private WinogradConvolution() {}
+
+    /**
+     * Convolution of the input with 3x3 kernels, stride 1
+     *
+     * @param input   Input with shape [miniBatch, inDepth, inH, inW]
+     * @param weights Weights with shape [outDepth, inDepth, 3, 3]
+     * @param bias    Bias, length outDepth
+     * @param pad     Top and left padding. Bottom and right padding are implied by the output size
+     * @return New array with shape [miniBatch, outDepth, outH, outW]
+     */
+    static INDArray convolve(INDArray input, INDArray weights, INDArray bias, int[] pad, int outH, int outW) {
+        int miniBatch = input.size(0);
+        int inDepth = input.size(1);
+        int inH = input.size(2);
+        int inW = input.size(3);
+        int outDepth = weights.size(0);
+
+        int tilesH = (outH + 1) / 2;
+        int tilesW = (outW + 1) / 2;
+        int numTiles = miniBatch * tilesH * tilesW;
+        //Input, zero padded so that it contains all (4x4) input tiles
+        int padH = 2 * tilesH + 2;
+        int padW = 2 * tilesW + 2;
+
+        int kc = outDepth * inDepth;
+        int cp = inDepth * numTiles;
+        int kp = outDepth * numTiles;
+        int uOffset = 0;
+        int padOffset = uOffset + NUM_ELEMENTS * kc;
+        int dOffset = padOffset + miniBatch * inDepth * padH * padW;
+        int vOffset = dOffset + NUM_ELEMENTS * cp;
+        int mOffset = vOffset + NUM_ELEMENTS * cp;
+        int yOffset = mOffset + NUM_ELEMENTS * kp;
+        INDArray ws = CpuHelperUtils.getWorkspace(new int[] {1, yOffset + 4 * kp});
+
+        //U = G g G^T. Block e of U is U_e: [outDepth, inDepth], c order
+        INDArray u = CpuHelperUtils.view(ws, uOffset, new int[] {kc, NUM_ELEMENTS}, 'f');
+        INDArray g = weights.reshape('c', kc, 9);
+        Nd4j.gemm(g, Nd4j.create(KG), u, false, true, 1.0, 0.0);
+
+        //Input tiles: tile (th, tw) starts at padded input row 2*th and column 2*tw. Tiles are stored as
+        // [4, 4, miniBatch, tilesH, tilesW, inDepth] (c order), so that block e holds d_e as [inDepth, numTiles], f order
+        INDArray padded = CpuHelperUtils.view(ws, padOffset, new int[] {miniBatch, inDepth, padH, padW}, 'c');
+        padded.assign(0.0);
+        int copyH = Math.min(inH, padH - pad[0]);
+        int copyW = Math.min(inW, padW - pad[1]);
+        INDArray in = input;
+        if (copyH < inH || copyW < inW)
+            in = input.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(0, copyH),
+                            NDArrayIndex.interval(0, copyW));
+        CpuHelperUtils.view(padded, pad[0] * padW + pad[1], new int[] {miniBatch, inDepth, copyH, copyW},
+                        new int[] {inDepth * padH * padW, padH * padW, padW, 1}).assign(in);
+        INDArray d = CpuHelperUtils.view(ws, dOffset, new int[] {4, 4, miniBatch, tilesH, tilesW, inDepth}, 'c');
+        Convolution.im2col(padded, 4, 4, 2, 2, 0, 0, false, d.permute(2, 5, 0, 1, 3, 4));
+
+        //V = B^T d B. Block e of V is V_e: [inDepth, numTiles], f order
+        INDArray dFlat = CpuHelperUtils.view(ws, dOffset, new int[] {cp, NUM_ELEMENTS}, 'f');
+        INDArray v = CpuHelperUtils.view(ws, vOffset, new int[] {cp, NUM_ELEMENTS}, 'f');
+        Nd4j.gemm(dFlat, Nd4j.create(KB), v, false, true, 1.0, 0.0);
+
+        //M_e = U_e V_e: [outDepth, numTiles], f order. Bias is added via M_5, which contributes to all outputs of a tile
+        for (int e = 0; e < NUM_ELEMENTS; e++) {
+            INDArray ue = CpuHelperUtils.view(ws, uOffset + e * kc, new int[] {outDepth, inDepth}, 'c');
+            INDArray ve = CpuHelperUtils.view(ws, vOffset + e * cp, new int[] {inDepth, numTiles}, 'f');
+            INDArray me = CpuHelperUtils.view(ws, mOffset + e * kp, new int[] {outDepth, numTiles}, 'f');
+            double beta = 0.0;
+            if (e == BIAS_ELEMENT) {
+                me.assign(0.0).addiColumnVector(bias.reshape(outDepth, 1));
+                beta = 1.0;
+            }
+            Nd4j.gemm(ue, ve, me, false, false, 1.0, beta);
+        }
+
+        //Y = A^T M A, stored as [2, 2, miniBatch, tilesH, tilesW, outDepth] (c order)
+        INDArray m = CpuHelperUtils.view(ws, mOffset, new int[] {kp, NUM_ELEMENTS}, 'f');
+        INDArray y = CpuHelperUtils.view(ws, yOffset, new int[] {kp, 4}, 'f');
+        Nd4j.gemm(m, Nd4j.create(KA), y, false, true, 1.0, 0.0);
+
+        //Output tiles to [miniBatch, outDepth, outH, outW]. Last row/column of tiles may be outside of the output
+        INDArray y6d = CpuHelperUtils.view(ws, yOffset, new int[] {2, 2, miniBatch, tilesH, tilesW, outDepth}, 'c');
+        INDArray out = Nd4j.create(new int[] {miniBatch, outDepth, tilesH, 2, tilesW, 2}, 'c');
+        out.assign(y6d.permute(2, 5, 3, 0, 4, 1));
+        out = out.reshape('c', miniBatch, outDepth, 2 * tilesH, 2 * tilesW);
+        if (outH == 2 * tilesH && outW == 2 * tilesW)
+            return out;
+        return CpuHelperUtils.view(out, 0, new int[] {miniBatch, outDepth, outH, outW},
+                        new int[] {outDepth * 4 * tilesH * tilesW, 4 * tilesH * tilesW, 2 * tilesW, 1});
+    }
+
+    /**
+     * Kronecker product: entry (i * rows(b) + j, k * cols(b) + l) is a[i][k] * b[j][l]. Applied to a flattened
+     * (c order) tile x, kron(a, b) gives the flattened a x b^T
+     */
+    private static double[][] kron(double[][] a, double[][] b) {
+        double[][] ret = new double[a.length * b.length][a[0].length * b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                for (int k = 0; k < a[0].length; k++) {
+                    for (int l = 0; l < b[0].length; l++) {
+                        ret[i * b.length + j][k * b[0].length + l] = a[i][k] * b[j][l];
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+}
@@ -28,6 +28,7 @@ import org.deeplearning4j.nn.conf.layers.PoolingType;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
+import org.deeplearning4j.nn.layers.LayerHelperLoader;
 import org.deeplearning4j.util.ConvolutionUtils;
 import org.deeplearning4j.util.Dropout;
 import org.nd4j.linalg.api.buffer.DataBuffer;
@@ -72,15 +73,8 @@ public class SubsamplingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
     }
 
     void initializeHelper() {
-        try {
-            helper = Class.forName("org.deeplearning4j.nn.layers.convolution.subsampling.CudnnSubsamplingHelper")
-                            .asSubclass(SubsamplingHelper.class).newInstance();
-            log.debug("CudnnSubsamplingHelper successfully loaded");
-        } catch (Throwable t) {
-            if (!(t instanceof ClassNotFoundException)) {
-                log.warn("Could not load CudnnSubsamplingHelper", t);
-            }
-        }
+        helper = LayerHelperLoader.loadHelper(SubsamplingHelper.class,
+                        "org.deeplearning4j.nn.layers.convolution.subsampling.CudnnSubsamplingHelper");
     }
 
     @Override
@@ -0,0 +1,550 @@
+package org.deeplearning4j.nn.layers.recurrent;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.exception.DL4JInvalidInputException;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.util.Dropout;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationSigmoid;
+import org.nd4j.linalg.api.blas.Level1;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastMulOp;
+import org.nd4j.linalg.api.ops.impl.transforms.TimesOneMinus;
+import org.nd4j.linalg.api.ops.impl.transforms.arithmetic.MulOp;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+import static org.nd4j.linalg.indexing.NDArrayIndex.point;
+
+/**
+ * Fused implementation of the LSTM forward and backward pass, used by {@link GravesLSTM} and
+ * {@link GravesBidirectionalLSTM} when fused execution is enabled in the layer configuration. The math is the same as
+ * {@link LSTMHelpers}; the differences are in how the work is organized:
+ * <ul>
+ *     <li>The input projection (input weights and biases) is done for all time steps as one GEMM, instead of one mmul
+ *     per time step</li>
+ *     <li>Gate activations, memory cell states, deltas etc. for all time steps are stored in {@link Buffers} held by
+ *     the layer, allocated once and reused for subsequent iterations and minibatches of the same shape</li>
+ *     <li>Gates are updated in place; element-wise products write directly into the preallocated buffers, instead of
+ *     dup()/assign of temporary arrays</li>
+ *     <li>In backprop, only the recurrent part of the deltas is calculated per time step. The input weight, recurrent
+ *     weight, bias and peephole gradients and the epsilons for the layer below are calculated afterwards, for all time
+ *     steps at once (one GEMM or reduction each)</li>
+ * </ul>
+ * Arrays returned from these methods (activations, epsilons, last state) are never backed by the buffers.
+ */
+public class FusedLSTMHelpers {
+
+    private FusedLSTMHelpers() {}
+
+    /**
+     * Buffers for the fused LSTM implementation: one instance per layer. Buffers are (re)allocated when the minibatch
+     * size, time series length, layer sizes or data type change, and are reused otherwise.<br>
+     * Not thread safe: a layer can only execute one forward or backward pass at a time.
+     */
+    public static class Buffers {
+        private int miniBatch = -1;
+        private int timeSeriesLength = -1;
+        private int nIn = -1;
+        private int layerSize = -1;
+        private DataBuffer.Type dataType;
+
+        //State of the forward pass held in the buffers: used to validate calls of backpropGradientHelper
+        private boolean hasFwdPassForBackprop;
+        private boolean fwdPassForwards;
+
+        //Input, time major: row = time * miniBatch + example. Also reused for the epsilons (same shape) in backprop
+        private INDArray x2d; //[T*m, nIn], c order
+        private INDArray x3d; //View: [T, m, nIn]
+        private INDArray z2d; //Input projection: [T*m, 4*layerSize], c order
+        private INDArray z3d; //View: [T, m, 4*layerSize]
+        //Per time step: [m, 4*layerSize] f order, contiguous. Gate pre-outputs, activations after forward pass
+        private INDArray ifog; //[m, 4*layerSize, T], f order
+        private INDArray iz; //Network input pre-output: [m, layerSize, T], f order
+        private INDArray fz; //Gate pre-outputs for non-sigmoid gate activation function
+        private INDArray oz;
+        private INDArray gz;
+        private INDArray memCell; //Memory cell state: [m, layerSize, T], f order
+        private INDArray memCellActivations; //Memory cell activations (for backprop)
+        private INDArray out; //Layer output (for backprop)
+        private INDArray tmp; //[m, layerSize], f order
+        private INDArray tmp2;
+
+        //Backprop only
+        private INDArray delta; //[m, 4*layerSize, T], f order
+        private INDArray delta2d; //[T*m, 4*layerSize], c order
+        private INDArray delta3d;
+        private INDArray hPrev2d; //Previous output (in processing order), [T*m, layerSize], c order
+        private INDArray hPrev3d;
+        private INDArray product; //[m, layerSize, T], f order
+        private INDArray nablaCellA; //[m, layerSize], f order
+        private INDArray nablaCellB;
+        private INDArray nablaOut;
+
+        private void init(int miniBatch, int timeSeriesLength, int nIn, int layerSize) {
+            if (miniBatch == this.miniBatch && timeSeriesLength == this.timeSeriesLength && nIn == this.nIn
+                            && layerSize == this.layerSize && Nd4j.dataType() == dataType) {
+                return;
+            }
+            clear();
+            this.miniBatch = miniBatch;
+            this.timeSeriesLength = timeSeriesLength;
+            this.nIn = nIn;
+            this.layerSize = layerSize;
+            this.dataType = Nd4j.dataType();
+        }
+
+        /**
+         * Release all buffers
+         */
+        public void clear() {
+            miniBatch = -1;
+            timeSeriesLength = -1;
+            nIn = -1;
+            layerSize = -1;
+            dataType = null;
+            hasFwdPassForBackprop = false;
+            x2d = x3d = z2d = z3d = ifog = iz = fz = oz = gz = memCell = memCellActivations = out = tmp = tmp2 = null;
+            delta = delta2d = delta3d = hPrev2d = hPrev3d = product = nablaCellA = nablaCellB = nablaOut = null;
+        }
+
+        private int tm() {
+            return timeSeriesLength * miniBatch;
+        }
+
+        private void allocateForward(boolean forBackprop, boolean sigmoidGates) {
+            int m = miniBatch;
+            int n = layerSize;
+            int t = timeSeriesLength;
+            if (x2d == null) {
+                x2d = Nd4j.createUninitialized(new int[] {tm(), nIn}, 'c');
+                x3d = x2d.reshape('c', t, m, nIn);
+                z2d = Nd4j.createUninitialized(new int[] {tm(), 4 * n}, 'c');
+                z3d = z2d.reshape('c', t, m, 4 * n);
+                ifog = Nd4j.createUninitialized(new int[] {m, 4 * n, t}, 'f');
+                memCell = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+                tmp = Nd4j.createUninitialized(new int[] {m, n}, 'f');
+                tmp2 = Nd4j.createUninitialized(new int[] {m, n}, 'f');
+            }
+            if (forBackprop && iz == null) {
+                iz = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+                memCellActivations = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+                out = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+            }
+            if (forBackprop && !sigmoidGates && fz == null) {
+                fz = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+                oz = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+                gz = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+            }
+        }
+
+        private void allocateBackward() {
+            if (delta == null) {
+                int m = miniBatch;
+                int n = layerSize;
+                int t = timeSeriesLength;
+                delta = Nd4j.createUninitialized(new int[] {m, 4 * n, t}, 'f');
+                delta2d = Nd4j.createUninitialized(new int[] {tm(), 4 * n}, 'c');
+                delta3d = delta2d.reshape('c', t, m, 4 * n);
+                hPrev2d = Nd4j.createUninitialized(new int[] {tm(), n}, 'c');
+                hPrev3d = hPrev2d.reshape('c', t, m, n);
+                product = Nd4j.createUninitialized(new int[] {m, n, t}, 'f');
+                nablaCellA = Nd4j.createUninitialized(new int[] {m, n}, 'f');
+                nablaCellB = Nd4j.createUninitialized(new int[] {m, n}, 'f');
+                nablaOut = Nd4j.createUninitialized(new int[] {m, n}, 'f');
+            }
+        }
+    }
+
+    /**
+     * Forward pass. Same arguments and return value as
+     * {@link LSTMHelpers#activateHelper(Layer, NeuralNetConfiguration, IActivation, INDArray, INDArray, INDArray, INDArray, boolean, INDArray, INDArray, boolean, boolean, String, INDArray)},
+     * except that when forBackprop is true, the per time step arrays of the returned FwdPassReturn are not set: the
+     * forward pass state is instead held in the buffers, for use in
+     * {@link #backpropGradientHelper(Buffers, NeuralNetConfiguration, IActivation, INDArray, INDArray, INDArray, boolean, int, boolean, String, String, String, Map, INDArray)}
+     */
+    public static FwdPassReturn activateHelper(final Buffers buffers, final Layer layer,
+                    final NeuralNetConfiguration conf, final IActivation gateActivationFn, final INDArray input,
+                    final INDArray recurrentWeights, final INDArray originalInputWeights, final INDArray biases,
+                    final boolean training, final INDArray originalPrevOutputActivations,
+                    final INDArray originalPrevMemCellState, boolean forBackprop, boolean forwards,
+                    final String inputWeightKey, INDArray maskArray) {
+        if (input == null || input.length() == 0)
+            throw new IllegalArgumentException("Invalid input: not set or 0 length");
+
+        INDArray inputWeights = originalInputWeights;
+        INDArray prevOutputActivations = originalPrevOutputActivations;
+        INDArray prevMemCellState = originalPrevMemCellState;
+
+        boolean is2dInput = input.rank() < 3; //Edge case of T=1, may have shape [m,nIn], equiv. to [m,nIn,1]
+        int timeSeriesLength = (is2dInput ? 1 : input.size(2));
+        int hiddenLayerSize = recurrentWeights.size(0);
+        int miniBatchSize = input.size(0);
+
+        //Input validation: same as LSTMHelpers
+        if (input.size(1) != inputWeights.size(0)) {
+            throw new DL4JInvalidInputException("Received input with size(1) = " + input.size(1)
+                            + " (input array shape = " + Arrays.toString(input.shape())
+                            + "); input.size(1) must match layer nIn size (nIn = " + inputWeights.size(0) + ")");
+        }
+        if (prevOutputActivations != null && prevOutputActivations.size(0) != input.size(0)) {
+            throw new DL4JInvalidInputException("Previous activations (stored state) number of examples = "
+                            + prevOutputActivations.size(0) + " but input array number of examples = " + input.size(0)
+                            + ". Possible cause: using rnnTimeStep() without calling"
+                            + " rnnClearPreviousState() between different sequences?");
+        }
+
+        //Apply dropconnect to input (not recurrent) weights only:
+        if (conf.isUseDropConnect() && training && conf.getLayer().getDropOut() > 0) {
+            inputWeights = Dropout.applyDropConnect(layer, inputWeightKey);
+        }
+
+        boolean sigmoidGates = gateActivationFn instanceof ActivationSigmoid;
+        IActivation afn = conf.getLayer().getActivationFn();
+
+        buffers.init(miniBatchSize, timeSeriesLength, input.size(1), hiddenLayerSize);
+        buffers.allocateForward(forBackprop, sigmoidGates);
+        buffers.hasFwdPassForBackprop = false;
+
+        //Input projection for all time steps: z2d = x2d * W + b, as z2d^T = W^T * x2d^T (z2d is c order)
+        if (is2dInput) {
+            buffers.x2d.assign(input);
+        } else {
+            buffers.x3d.assign(input.permute(2, 0, 1));
+        }
+        Nd4j.gemm(inputWeights, buffers.x2d, buffers.z2d.transpose(), true, true, 1.0, 0.0);
+        buffers.z2d.addiRowVector(biases);
+        //To [m,4*hiddenLayerSize,T] f order: gates for each time step are contiguous, as required for the gemm below
+        buffers.ifog.assign(buffers.z3d.permute(1, 2, 0));
+
+        INDArray recurrentWeightsIFOG = recurrentWeights.get(all(), interval(0, 4 * hiddenLayerSize)).dup('f');
+        INDArray wFFTranspose = recurrentWeights.get(all(), interval(4 * hiddenLayerSize, 4 * hiddenLayerSize + 1))
+                        .transpose().dup();
+        INDArray wOOTranspose = recurrentWeights
+                        .get(all(), interval(4 * hiddenLayerSize + 1, 4 * hiddenLayerSize + 2)).transpose().dup();
+        INDArray wGGTranspose = recurrentWeights
+                        .get(all(), interval(4 * hiddenLayerSize + 2, 4 * hiddenLayerSize + 3)).transpose().dup();
+
+        //Output: a new array, unless this is for backprop (in which case the output is only needed for the gradients)
+        INDArray outputActivations = (forBackprop ? buffers.out
+                        : Nd4j.create(new int[] {miniBatchSize, hiddenLayerSize, timeSeriesLength}, 'f'));
+        INDArray tmp = buffers.tmp;
+
+        for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
+            int time = (forwards ? iTimeIndex : timeSeriesLength - iTimeIndex - 1);
+
+            INDArray ifogActivations = buffers.ifog.tensorAlongDimension(time, 1, 0); //[m,4*hiddenLayerSize]
+            if (prevOutputActivations != null) {
+                Nd4j.gemm(prevOutputActivations, recurrentWeightsIFOG, ifogActivations, false, false, 1.0, 1.0);
+            }
+
+            INDArray inputActivations = ifogActivations.get(all(), interval(0, hiddenLayerSize));
+            if (forBackprop)
+                buffers.iz.tensorAlongDimension(time, 1, 0).assign(inputActivations);
+            afn.getActivation(inputActivations, training);
+
+            INDArray forgetGateActivations = ifogActivations.get(all(), interval(hiddenLayerSize, 2 * hiddenLayerSize));
+            if (prevMemCellState != null) {
+                Nd4j.getExecutioner().exec(new BroadcastMulOp(prevMemCellState, wFFTranspose, tmp, 1));
+                forgetGateActivations.addi(tmp);
+            }
+            if (forBackprop && !sigmoidGates)
+                buffers.fz.tensorAlongDimension(time, 1, 0).assign(forgetGateActivations);
+            gateActivationFn.getActivation(forgetGateActivations, training);
+
+            INDArray inputModGateActivations =
+                            ifogActivations.get(all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
+            if (prevMemCellState != null) {
+                Nd4j.getExecutioner().exec(new BroadcastMulOp(prevMemCellState, wGGTranspose, tmp, 1));
+                inputModGateActivations.addi(tmp);
+            }
+            if (forBackprop && !sigmoidGates)
+                buffers.gz.tensorAlongDimension(time, 1, 0).assign(inputModGateActivations);
+            gateActivationFn.getActivation(inputModGateActivations, training);
+
+            //Memory cell state: c = f .* c_prev + g .* i. Without previous state, c_prev is all zeros
+            INDArray currentMemoryCellState = buffers.memCell.tensorAlongDimension(time, 1, 0);
+            Nd4j.getExecutioner().exec(new MulOp(inputModGateActivations, inputActivations, currentMemoryCellState));
+            if (prevMemCellState != null) {
+                Nd4j.getExecutioner().exec(new MulOp(forgetGateActivations, prevMemCellState, tmp));
+                currentMemoryCellState.addi(tmp);
+            }
+
+            INDArray outputGateActivations =
+                            ifogActivations.get(all(), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize));
+            Nd4j.getExecutioner().exec(new BroadcastMulOp(currentMemoryCellState, wOOTranspose, tmp, 1));
+            outputGateActivations.addi(tmp);
+            if (forBackprop && !sigmoidGates)
+                buffers.oz.tensorAlongDimension(time, 1, 0).assign(outputGateActivations);
+            gateActivationFn.getActivation(outputGateActivations, training);
+
+            //LSTM unit outputs:
+            INDArray currMemoryCellActivation =
+                            (forBackprop ? buffers.memCellActivations.tensorAlongDimension(time, 1, 0) : buffers.tmp2);
+            currMemoryCellActivation.assign(currentMemoryCellState);
+            afn.getActivation(currMemoryCellActivation, training);
+            INDArray currHiddenUnitActivations = outputActivations.tensorAlongDimension(time, 1, 0);
+            Nd4j.getExecutioner().exec(new MulOp(currMemoryCellActivation, outputGateActivations,
+                            currHiddenUnitActivations));
+
+            if (maskArray != null) {
+                //Bidirectional RNN with mask: zero out activations and memory cell state (see LSTMHelpers)
+                INDArray timeStepMaskColumn = maskArray.getColumn(time);
+                currHiddenUnitActivations.muliColumnVector(timeStepMaskColumn);
+                currentMemoryCellState.muliColumnVector(timeStepMaskColumn);
+            }
+
+            prevOutputActivations = currHiddenUnitActivations;
+            prevMemCellState = currentMemoryCellState;
+        }
+
+        buffers.hasFwdPassForBackprop = forBackprop;
+        buffers.fwdPassForwards = forwards;
+
+        FwdPassReturn toReturn = new FwdPassReturn();
+        if (!forBackprop)
+            toReturn.fwdPassOutput = outputActivations;
+        toReturn.lastAct = prevOutputActivations.dup('f');
+        toReturn.lastMemCell = prevMemCellState.dup('f');
+        return toReturn;
+    }
+
+    /**
+     * Backward pass, using the forward pass state held in the buffers. Must be called after
+     * {@link #activateHelper(Buffers, Layer, NeuralNetConfiguration, IActivation, INDArray, INDArray, INDArray, INDArray, boolean, INDArray, INDArray, boolean, boolean, String, INDArray)}
+     * with forBackprop = true, for the same direction. Arguments and return value are otherwise the same as
+     * {@link LSTMHelpers#backpropGradientHelper(NeuralNetConfiguration, IActivation, INDArray, INDArray, INDArray, INDArray, boolean, int, FwdPassReturn, boolean, String, String, String, Map, INDArray)}
+     */
+    public static Pair<Gradient, INDArray> backpropGradientHelper(final Buffers buffers,
+                    final NeuralNetConfiguration conf, final IActivation gateActivationFn,
+                    final INDArray recurrentWeights, final INDArray inputWeights, final INDArray epsilon,
+                    final boolean truncatedBPTT, final int tbpttBackwardLength, final boolean forwards,
+                    final String inputWeightKey, final String recurrentWeightKey, final String biasWeightKey,
+                    final Map<String, INDArray> gradientViews, INDArray maskArray) {
+
+        int hiddenLayerSize = recurrentWeights.size(0);
+        int prevLayerSize = inputWeights.size(0);
+        int miniBatchSize = epsilon.size(0);
+        boolean is2dInput = epsilon.rank() < 3;
+        int timeSeriesLength = (is2dInput ? 1 : epsilon.size(2));
+
+        if (!buffers.hasFwdPassForBackprop || buffers.fwdPassForwards != forwards
+                        || buffers.miniBatch != miniBatchSize || buffers.timeSeriesLength != timeSeriesLength) {
+            throw new IllegalStateException("Cannot do backprop: no matching forward pass (forBackprop = true) for "
+                            + "minibatch size " + miniBatchSize + ", time series length " + timeSeriesLength);
+        }
+        buffers.hasFwdPassForBackprop = false;
+        buffers.allocateBackward();
+
+        boolean sigmoidGates = gateActivationFn instanceof ActivationSigmoid;
+        IActivation afn = conf.getLayer().getActivationFn();
+
+        INDArray wFFTranspose = recurrentWeights.get(all(), interval(4 * hiddenLayerSize, 4 * hiddenLayerSize + 1))
+                        .transpose().dup();
+        INDArray wOOTranspose = recurrentWeights
+                        .get(all(), interval(4 * hiddenLayerSize + 1, 4 * hiddenLayerSize + 2)).transpose().dup();
+        INDArray wGGTranspose = recurrentWeights
+                        .get(all(), interval(4 * hiddenLayerSize + 2, 4 * hiddenLayerSize + 3)).transpose().dup();
+        INDArray wIFOG = recurrentWeights.get(all(), interval(0, 4 * hiddenLayerSize));
+
+        int endIdx = 0;
+        if (truncatedBPTT) {
+            endIdx = Math.max(0, timeSeriesLength - tbpttBackwardLength);
+        }
+
+        INDArray delta = buffers.delta;
+        if (endIdx > 0) {
+            //Time steps outside of the truncated BPTT backward length: no deltas
+            if (forwards) {
+                delta.get(all(), all(), interval(0, endIdx)).assign(0);
+            } else {
+                delta.get(all(), all(), interval(timeSeriesLength - endIdx, timeSeriesLength)).assign(0);
+            }
+        }
+
+        INDArray tmp = buffers.tmp;
+        INDArray nablaOut = buffers.nablaOut;
+        INDArray nablaCellState = buffers.nablaCellA;
+        INDArray nablaCellStateNext = buffers.nablaCellB;
+
+        //Per time step: deltas only. Gradients are calculated for all time steps at once, after this loop
+        for (int iTimeIndex = timeSeriesLength - 1; iTimeIndex >= endIdx; iTimeIndex--) {
+            int time = iTimeIndex;
+            int inext = 1;
+            if (!forwards) {
+                time = timeSeriesLength - iTimeIndex - 1;
+                inext = -1;
+            }
+            boolean lastTimeStep = (iTimeIndex == timeSeriesLength - 1);
+
+            INDArray deltaifog = delta.tensorAlongDimension(time, 1, 0);
+            INDArray deltai = deltaifog.get(all(), interval(0, hiddenLayerSize));
+            INDArray deltaf = deltaifog.get(all(), interval(hiddenLayerSize, 2 * hiddenLayerSize));
+            INDArray deltao = deltaifog.get(all(), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize));
+            INDArray deltag = deltaifog.get(all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
+            INDArray deltaifogNext = (lastTimeStep ? null : delta.tensorAlongDimension(time + inext, 1, 0));
+
+            //Components of nablaCellState that rely on the next time step deltas
+            if (lastTimeStep) {
+                nablaCellState.assign(0);
+            } else {
+                INDArray deltafNext = deltaifogNext.get(all(), interval(hiddenLayerSize, 2 * hiddenLayerSize));
+                INDArray deltagNext = deltaifogNext.get(all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
+                Nd4j.getExecutioner().exec(new BroadcastMulOp(deltafNext, wFFTranspose, nablaCellState, 1));
+                Nd4j.getExecutioner().exec(new BroadcastMulOp(deltagNext, wGGTranspose, tmp, 1));
+                nablaCellState.addi(tmp);
+            }
+
+            INDArray ifogActivations = buffers.ifog.tensorAlongDimension(time, 1, 0);
+            INDArray ai = ifogActivations.get(all(), interval(0, hiddenLayerSize));
+            INDArray af = ifogActivations.get(all(), interval(hiddenLayerSize, 2 * hiddenLayerSize));
+            INDArray ao = ifogActivations.get(all(), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize));
+            INDArray ag = ifogActivations.get(all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
+            INDArray currMemCellState = buffers.memCell.tensorAlongDimension(time, 1, 0);
+            INDArray prevMemCellState =
+                            (iTimeIndex == 0 ? null : buffers.memCell.tensorAlongDimension(time - inext, 1, 0));
+
+            //LSTM unit output errors (dL/d(a_out))
+            nablaOut.assign(is2dInput ? epsilon : epsilon.tensorAlongDimension(time, 1, 0));
+            if (!lastTimeStep) {
+                Nd4j.gemm(deltaifogNext, wIFOG, nablaOut, false, true, 1.0, 1.0);
+            }
+
+            //Output gate deltas:
+            INDArray sigmahOfS = buffers.memCellActivations.tensorAlongDimension(time, 1, 0);
+            Nd4j.getExecutioner().exec(new MulOp(nablaOut, sigmahOfS, deltao));
+            if (sigmoidGates) {
+                Nd4j.getExecutioner().exec(new TimesOneMinus(ao, tmp)); //Equivalent to sigmoid deriv on zo
+                deltao.muli(tmp);
+            } else {
+                deltao.assign(gateActivationFn.backprop(buffers.oz.tensorAlongDimension(time, 1, 0), deltao)
+                                .getFirst());
+            }
+
+            //Memory cell error. Memory cell state is copied, as it is needed again for the peephole gradients
+            buffers.tmp2.assign(currMemCellState);
+            nablaCellState.addi(afn.backprop(buffers.tmp2, ao.muli(nablaOut)).getFirst());
+            Nd4j.getExecutioner().exec(new BroadcastMulOp(deltao, wOOTranspose, tmp, 1));
+            nablaCellState.addi(tmp);
+            if (!lastTimeStep) {
+                INDArray nextForgetGateAs = buffers.ifog.tensorAlongDimension(time + inext, 1, 0).get(all(),
+                                interval(hiddenLayerSize, 2 * hiddenLayerSize));
+                nablaCellState.addi(nextForgetGateAs.muli(nablaCellStateNext));
+            }
+
+            //Forget gate delta. No previous memory cell state at the first time step -> no forget gate delta
+            if (prevMemCellState == null) {
+                deltaf.assign(0);
+            } else if (sigmoidGates) {
+                Nd4j.getExecutioner().exec(new TimesOneMinus(af, deltaf));
+                deltaf.muli(nablaCellState);
+                deltaf.muli(prevMemCellState);
+            } else {
+                Nd4j.getExecutioner().exec(new MulOp(nablaCellState, prevMemCellState, tmp));
+                deltaf.assign(gateActivationFn.backprop(buffers.fz.tensorAlongDimension(time, 1, 0), tmp)
+                                .getFirst());
+            }
+
+            //Input modulation gate delta:
+            if (sigmoidGates) {
+                Nd4j.getExecutioner().exec(new TimesOneMinus(ag, deltag));
+                deltag.muli(ai);
+                deltag.muli(nablaCellState);
+            } else {
+                Nd4j.getExecutioner().exec(new MulOp(ai, nablaCellState, tmp));
+                deltag.assign(gateActivationFn.backprop(buffers.gz.tensorAlongDimension(time, 1, 0), tmp)
+                                .getFirst());
+            }
+
+            //Network input delta:
+            Nd4j.getExecutioner().exec(new MulOp(ag, nablaCellState, tmp));
+            deltai.assign(afn.backprop(buffers.iz.tensorAlongDimension(time, 1, 0), tmp).getFirst());
+
+            if (maskArray != null) {
+                //Bidirectional RNN with mask: zero out deltas for masked time steps. As the deltas for all time steps
+                // are used for the gradients and epsilons below, this also zeros the epsilons for these steps
+                deltaifog.muliColumnVector(maskArray.getColumn(time));
+            }
+
+            INDArray temp = nablaCellStateNext;
+            nablaCellStateNext = nablaCellState;
+            nablaCellState = temp;
+        }
+
+        //Gradients, for all time steps at once. Note the gradient views are in f order, as per the param initializer
+        INDArray iwGradientsOut = gradientViews.get(inputWeightKey);
+        INDArray rwGradientsOut = gradientViews.get(recurrentWeightKey); //Order: {I,F,O,G,FF,OO,GG}
+        INDArray bGradientsOut = gradientViews.get(biasWeightKey);
+
+        //Deltas, time major: row = time * miniBatch + example, same as the input rows in buffers.x2d
+        buffers.delta3d.assign(delta.permute(2, 0, 1));
+        INDArray delta2d = buffers.delta2d;
+
+        Nd4j.gemm(buffers.x2d, delta2d, iwGradientsOut, true, false, 1.0, 0.0);
+        bGradientsOut.assign(delta2d.sum(0));
+
+        //Recurrent weights: previous output (in processing order) for each time step; zeros for the first time step
+        INDArray out3d = buffers.out.permute(2, 0, 1);
+        if (timeSeriesLength > 1) {
+            if (forwards) {
+                buffers.hPrev3d.get(interval(1, timeSeriesLength), all(), all())
+                                .assign(out3d.get(interval(0, timeSeriesLength - 1), all(), all()));
+            } else {
+                buffers.hPrev3d.get(interval(0, timeSeriesLength - 1), all(), all())
+                                .assign(out3d.get(interval(1, timeSeriesLength), all(), all()));
+            }
+        }
+        int first = (forwards ? 0 : timeSeriesLength - 1);
+        buffers.hPrev3d.get(interval(first, first + 1), all(), all()).assign(0);
+        Nd4j.gemm(buffers.hPrev2d, delta2d, rwGradientsOut.get(all(), interval(0, 4 * hiddenLayerSize)), true, false,
+                        1.0, 0.0);
+
+        //Peephole weights: sum over examples and time steps
+        Level1 l1BLAS = Nd4j.getBlasWrapper().level1();
+        rwGradientsOut.get(all(), interval(4 * hiddenLayerSize, 4 * hiddenLayerSize + 3)).assign(0);
+        INDArray rwGradientsFF = rwGradientsOut.get(all(), point(4 * hiddenLayerSize));
+        INDArray rwGradientsOO = rwGradientsOut.get(all(), point(4 * hiddenLayerSize + 1));
+        INDArray rwGradientsGG = rwGradientsOut.get(all(), point(4 * hiddenLayerSize + 2));
+
+        INDArray deltaO = delta.get(all(), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize), all());
+        Nd4j.getExecutioner().exec(new MulOp(deltaO, buffers.memCell, buffers.product));
+        l1BLAS.axpy(hiddenLayerSize, 1.0, buffers.product.sum(0, 2), rwGradientsOO);
+
+        if (timeSeriesLength > 1) {
+            //Forget and input modulation gates: deltas at time t with memory cell state at the previous time step
+            INDArrayIndex current = (forwards ? interval(1, timeSeriesLength) : interval(0, timeSeriesLength - 1));
+            INDArrayIndex previous = (forwards ? interval(0, timeSeriesLength - 1) : interval(1, timeSeriesLength));
+            INDArray prevMemCell = buffers.memCell.get(all(), all(), previous);
+            INDArray product = buffers.product.get(all(), all(), interval(0, timeSeriesLength - 1));
+
+            INDArray deltaF = delta.get(all(), interval(hiddenLayerSize, 2 * hiddenLayerSize), current);
+            Nd4j.getExecutioner().exec(new MulOp(deltaF, prevMemCell, product));
+            l1BLAS.axpy(hiddenLayerSize, 1.0, product.sum(0, 2), rwGradientsFF);
+
+            INDArray deltaG = delta.get(all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize), current);
+            Nd4j.getExecutioner().exec(new MulOp(deltaG, prevMemCell, product));
+            l1BLAS.axpy(hiddenLayerSize, 1.0, product.sum(0, 2), rwGradientsGG);
+        }
+
+        //Epsilons for the layer below: eps2d = delta2d * W^T, as eps2d^T = W * delta2d^T. Reuses the input buffer
+        Nd4j.gemm(inputWeights, delta2d, buffers.x2d.transpose(), false, true, 1.0, 0.0);
+        INDArray epsilonNext = Nd4j.create(new int[] {miniBatchSize, prevLayerSize, timeSeriesLength}, 'f');
+        epsilonNext.assign(buffers.x3d.permute(1, 2, 0));
+
+        Gradient retGradient = new DefaultGradient();
+        retGradient.gradientForVariable().put(inputWeightKey, iwGradientsOut);
+        retGradient.gradientForVariable().put(recurrentWeightKey, rwGradientsOut);
+        retGradient.gradientForVariable().put(biasWeightKey, bGradientsOut);
+
+        return new Pair<>(retGradient, epsilonNext);
+    }
+}
@@ -54,6 +54,9 @@ import java.util.Map;
 public class GravesBidirectionalLSTM
                 extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.GravesBidirectionalLSTM> {
 
+    //Buffers for fused execution, shared by both directions (which are executed one after the other)
+    protected transient FusedLSTMHelpers.Buffers fusedBuffers;
+
     public GravesBidirectionalLSTM(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -93,27 +96,11 @@ public class GravesBidirectionalLSTM
 
         final FwdPassReturn fwdPass = activateHelperDirectional(true, null, null, true, true);
 
-        final Pair<Gradient, INDArray> forwardsGradient = LSTMHelpers.backpropGradientHelper(this.conf,
-                        this.layerConf().getGateActivationFn(), this.input,
-                        getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS),
-                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS), epsilon,
-                        truncatedBPTT, tbpttBackwardLength, fwdPass, true,
-                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS,
-                        GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS,
-                        GravesBidirectionalLSTMParamInitializer.BIAS_KEY_FORWARDS, gradientViews, maskArray);
-
-
+        final Pair<Gradient, INDArray> forwardsGradient = backpropGradientDirectional(epsilon, fwdPass, true);
 
         final FwdPassReturn backPass = activateHelperDirectional(true, null, null, true, false);
 
-        final Pair<Gradient, INDArray> backwardsGradient = LSTMHelpers.backpropGradientHelper(this.conf,
-                        this.layerConf().getGateActivationFn(), this.input,
-                        getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS),
-                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS), epsilon,
-                        truncatedBPTT, tbpttBackwardLength, backPass, false,
-                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS,
-                        GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS,
-                        GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS, gradientViews, maskArray);
+        final Pair<Gradient, INDArray> backwardsGradient = backpropGradientDirectional(epsilon, backPass, false);
 
 
         //merge the gradient, which is key value pair of String,INDArray
@@ -183,21 +170,8 @@ public class GravesBidirectionalLSTM
     private INDArray activateOutput(final boolean training, boolean forBackprop) {
 
 
-        final FwdPassReturn forwardsEval =
-                        LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
-                                        getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS),
-                                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS),
-                                        getParam(GravesBidirectionalLSTMParamInitializer.BIAS_KEY_FORWARDS), training,
-                                        null, null, forBackprop, true,
-                                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS, maskArray);
-
-        final FwdPassReturn backwardsEval =
-                        LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
-                                        getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS),
-                                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS),
-                                        getParam(GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS), training,
-                                        null, null, forBackprop, false,
-                                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS, maskArray);
+        final FwdPassReturn forwardsEval = activateHelperDirectional(training, null, null, forBackprop, true);
+        final FwdPassReturn backwardsEval = activateHelperDirectional(training, null, null, forBackprop, false);
 
 
         //sum outputs
@@ -221,12 +195,49 @@ public class GravesBidirectionalLSTM
             biasKey = GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS;
         }
 
+        if (layerConf().isFusedExecution()) {
+            return FusedLSTMHelpers.activateHelper(getFusedBuffers(), this, this.conf,
+                            this.layerConf().getGateActivationFn(), this.input, getParam(recurrentKey),
+                            getParam(inputKey), getParam(biasKey), training, prevOutputActivations, prevMemCellState,
+                            forBackprop, forwards, inputKey, maskArray);
+        }
+
         return LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
                         getParam(recurrentKey), getParam(inputKey), getParam(biasKey), training, prevOutputActivations,
                         prevMemCellState, forBackprop, forwards, inputKey, maskArray);
 
     }
 
+    private Pair<Gradient, INDArray> backpropGradientDirectional(final INDArray epsilon, final FwdPassReturn fwdPass,
+                    boolean forwards) {
+        String recurrentKey = GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS;
+        String inputKey = GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS;
+        String biasKey = GravesBidirectionalLSTMParamInitializer.BIAS_KEY_FORWARDS;
+
+        if (!forwards) {
+            recurrentKey = GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS;
+            inputKey = GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS;
+            biasKey = GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS;
+        }
+
+        if (layerConf().isFusedExecution()) {
+            return FusedLSTMHelpers.backpropGradientHelper(getFusedBuffers(), this.conf,
+                            this.layerConf().getGateActivationFn(), getParam(recurrentKey), getParam(inputKey),
+                            epsilon, false, -1, forwards, inputKey, recurrentKey, biasKey, gradientViews, maskArray);
+        }
+
+        return LSTMHelpers.backpropGradientHelper(this.conf, this.layerConf().getGateActivationFn(), this.input,
+                        getParam(recurrentKey), getParam(inputKey), epsilon, false, -1, fwdPass, forwards, inputKey,
+                        recurrentKey, biasKey, gradientViews, maskArray);
+    }
+
+    private FusedLSTMHelpers.Buffers getFusedBuffers() {
+        if (fusedBuffers == null) {
+            fusedBuffers = new FusedLSTMHelpers.Buffers();
+        }
+        return fusedBuffers;
+    }
+
     @Override
     public INDArray activationMean() {
         return activate();
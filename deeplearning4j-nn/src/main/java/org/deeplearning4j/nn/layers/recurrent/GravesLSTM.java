@@ -42,6 +42,9 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
     public static final String STATE_KEY_PREV_ACTIVATION = "prevAct";
     public static final String STATE_KEY_PREV_MEMCELL = "prevMem";
 
+    //Buffers for fused execution: allocated on first use, and only if enabled in the layer configuration
+    protected transient FusedLSTMHelpers.Buffers fusedBuffers;
+
     public GravesLSTM(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -91,6 +94,14 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         }
 
 
+        if (layerConf().isFusedExecution()) {
+            return FusedLSTMHelpers.backpropGradientHelper(getFusedBuffers(), this.conf,
+                            this.layerConf().getGateActivationFn(), recurrentWeights, inputWeights, epsilon,
+                            truncatedBPTT, tbpttBackwardLength, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY,
+                            GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY, GravesLSTMParamInitializer.BIAS_KEY,
+                            gradientViews, null);
+        }
+
         return LSTMHelpers.backpropGradientHelper(this.conf, this.layerConf().getGateActivationFn(), this.input,
                         recurrentWeights, inputWeights, epsilon, truncatedBPTT, tbpttBackwardLength, fwdPass, true,
                         GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY,
@@ -139,11 +150,25 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         final INDArray inputWeights = getParam(GravesLSTMParamInitializer.INPUT_WEIGHT_KEY); //Shape: [n^(L-1),4*hiddenLayerSize]; order: [wi,wf,wo,wg]
         final INDArray biases = getParam(GravesLSTMParamInitializer.BIAS_KEY); //by row: IFOG			//Shape: [4,hiddenLayerSize]; order: [bi,bf,bo,bg]^T
 
+        if (layerConf().isFusedExecution()) {
+            return FusedLSTMHelpers.activateHelper(getFusedBuffers(), this, this.conf,
+                            this.layerConf().getGateActivationFn(), this.input, recurrentWeights, inputWeights, biases,
+                            training, prevOutputActivations, prevMemCellState, forBackprop, true,
+                            GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
+        }
+
         return LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
                         recurrentWeights, inputWeights, biases, training, prevOutputActivations, prevMemCellState,
                         forBackprop, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
     }
 
+    private FusedLSTMHelpers.Buffers getFusedBuffers() {
+        if (fusedBuffers == null) {
+            fusedBuffers = new FusedLSTMHelpers.Buffers();
+        }
+        return fusedBuffers;
+    }
+
     @Override
     public INDArray activationMean() {
         return activate();
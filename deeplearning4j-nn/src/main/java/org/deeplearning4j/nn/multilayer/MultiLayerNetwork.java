@@ -953,65 +953,72 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
             iter = iterator;
         }
 
-        if (trainingListeners.size() > 0) {
-            for (TrainingListener tl : trainingListeners) {
-                tl.onEpochStart(this);
+        try {
+            if (trainingListeners.size() > 0) {
+                for (TrainingListener tl : trainingListeners) {
+                    tl.onEpochStart(this);
+                }
             }
-        }
 
-        if (layerWiseConfigurations.isPretrain()) {
-            pretrain(iter);
-            if (iter.resetSupported()) {
-                iter.reset();
-            }
-            //            while (iter.hasNext()) {
-            //                DataSet next = iter.next();
-            //                if (next.getFeatureMatrix() == null || next.getLabels() == null)
-            //                    break;
-            //                setInput(next.getFeatureMatrix());
-            //                setLabels(next.getLabels());
-            //                finetune();
-            //            }
-        }
-        if (layerWiseConfigurations.isBackprop()) {
-            update(TaskUtils.buildTask(iter));
-            if (!iter.hasNext() && iter.resetSupported()) {
-                iter.reset();
+            if (layerWiseConfigurations.isPretrain()) {
+                pretrain(iter);
+                if (iter.resetSupported()) {
+                    iter.reset();
+                }
+                //            while (iter.hasNext()) {
+                //                DataSet next = iter.next();
+                //                if (next.getFeatureMatrix() == null || next.getLabels() == null)
+                //                    break;
+                //                setInput(next.getFeatureMatrix());
+                //                setLabels(next.getLabels());
+                //                finetune();
+                //            }
             }
-            while (iter.hasNext()) {
-                DataSet next = iter.next();
-                if (next.getFeatureMatrix() == null || next.getLabels() == null)
-                    break;
+            if (layerWiseConfigurations.isBackprop()) {
+                update(TaskUtils.buildTask(iter));
+                if (!iter.hasNext() && iter.resetSupported()) {
+                    iter.reset();
+                }
+                while (iter.hasNext()) {
+                    DataSet next = iter.next();
+                    if (next.getFeatureMatrix() == null || next.getLabels() == null)
+                        break;
 
-                boolean hasMaskArrays = next.hasMaskArrays();
+                    boolean hasMaskArrays = next.hasMaskArrays();
 
-                if (layerWiseConfigurations.getBackpropType() == BackpropType.TruncatedBPTT) {
-                    doTruncatedBPTT(next.getFeatureMatrix(), next.getLabels(), next.getFeaturesMaskArray(),
-                                    next.getLabelsMaskArray());
-                } else {
-                    if (hasMaskArrays)
-                        setLayerMaskArrays(next.getFeaturesMaskArray(), next.getLabelsMaskArray());
-                    setInput(next.getFeatureMatrix());
-                    setLabels(next.getLabels());
-                    if (solver == null) {
-                        solver = new Solver.Builder().configure(conf()).listeners(getListeners()).model(this).build();
+                    if (layerWiseConfigurations.getBackpropType() == BackpropType.TruncatedBPTT) {
+                        doTruncatedBPTT(next.getFeatureMatrix(), next.getLabels(), next.getFeaturesMaskArray(),
+                                        next.getLabelsMaskArray());
+                    } else {
+                        if (hasMaskArrays)
+                            setLayerMaskArrays(next.getFeaturesMaskArray(), next.getLabelsMaskArray());
+                        setInput(next.getFeatureMatrix());
+                        setLabels(next.getLabels());
+                        if (solver == null) {
+                            solver = new Solver.Builder().configure(conf()).listeners(getListeners()).model(this)
+                                            .build();
+                        }
+                        solver.optimize();
                     }
-                    solver.optimize();
-                }
 
-                if (hasMaskArrays)
-                    clearLayerMaskArrays();
+                    if (hasMaskArrays)
+                        clearLayerMaskArrays();
 
-                Nd4j.getMemoryManager().invokeGcOccasionally();
+                    Nd4j.getMemoryManager().invokeGcOccasionally();
+                }
+            } else if (layerWiseConfigurations.isPretrain()) {
+                log.warn("Warning: finetune is not applied.");
             }
-        } else if (layerWiseConfigurations.isPretrain()) {
-            log.warn("Warning: finetune is not applied.");
-        }
 
-        if (trainingListeners.size() > 0) {
-            for (TrainingListener tl : trainingListeners) {
-                tl.onEpochEnd(this);
+            if (trainingListeners.size() > 0) {
+                for (TrainingListener tl : trainingListeners) {
+                    tl.onEpochEnd(this);
+                }
             }
+        } finally {
+            // background prefetch threads have to be stopped, even if training was interrupted by exception
+            if (iter != iterator)
+                ((AsyncDataSetIterator) iter).shutdown();
         }
     }
 
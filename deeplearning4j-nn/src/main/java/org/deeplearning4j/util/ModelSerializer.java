@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
@@ -23,7 +24,10 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.heartbeat.reports.Task;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -39,6 +43,8 @@ public class ModelSerializer {
     public static final String OLD_UPDATER_BIN = "updater.bin";
     public static final String UPDATER_BIN = "updaterState.bin";
     public static final String NORMALIZER_BIN = "normalizer.bin";
+    public static final String COEFFICIENTS_RAW_BIN = "coefficientsRaw.bin";
+    public static final String UPDATER_RAW_BIN = "updaterStateRaw.bin";
 
     private ModelSerializer() {}
 
@@ -50,8 +56,22 @@ public class ModelSerializer {
      * @throws IOException
      */
     public static void writeModel(@NonNull Model model, @NonNull File file, boolean saveUpdater) throws IOException {
+        writeModel(model, file, saveUpdater, false);
+    }
+
+    /**
+     * Write a model to a file
+     * @param model the model to write
+     * @param file the file to write to
+     * @param saveUpdater whether to save the updater or not
+     * @param uncompressedParams if true, parameters and updater state are written uncompressed and page-aligned,
+     *                           which is much faster to write, and allows memory-mapped restore
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull Model model, @NonNull File file, boolean saveUpdater,
+                    boolean uncompressedParams) throws IOException {
         try (BufferedOutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
-            writeModel(model, stream, saveUpdater);
+            writeModel(model, stream, saveUpdater, uncompressedParams);
         }
     }
 
@@ -64,9 +84,7 @@ public class ModelSerializer {
      * @throws IOException
      */
     public static void writeModel(@NonNull Model model, @NonNull String path, boolean saveUpdater) throws IOException {
-        try (BufferedOutputStream stream = new BufferedOutputStream(new FileOutputStream(path))) {
-            writeModel(model, stream, saveUpdater);
-        }
+        writeModel(model, new File(path), saveUpdater, false);
     }
 
     /**
@@ -78,7 +96,26 @@ public class ModelSerializer {
      */
     public static void writeModel(@NonNull Model model, @NonNull OutputStream stream, boolean saveUpdater)
                     throws IOException {
-        ZipOutputStream zipfile = new ZipOutputStream(new CloseShieldOutputStream(stream));
+        writeModel(model, stream, saveUpdater, false);
+    }
+
+    /**
+     * Write a model to an output stream
+     *
+     * PLEASE NOTE: with uncompressedParams = true, memory-mapped restore is only possible if the model is the only
+     * content written to the stream, i.e. the stream starts at the beginning of the file
+     *
+     * @param model the model to save
+     * @param stream the output stream to write to
+     * @param saveUpdater whether to save the updater for the model or not
+     * @param uncompressedParams if true, parameters and updater state are written uncompressed and page-aligned,
+     *                           which is much faster to write, and allows memory-mapped restore
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull Model model, @NonNull OutputStream stream, boolean saveUpdater,
+                    boolean uncompressedParams) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(new CloseShieldOutputStream(stream));
+        ZipOutputStream zipfile = new ZipOutputStream(counter);
 
         // Save configuration as JSON
         String json = "";
@@ -91,6 +128,19 @@ public class ModelSerializer {
         zipfile.putNextEntry(config);
         zipfile.write(json.getBytes());
 
+        if (uncompressedParams) {
+            List<RawArrayFormat.Entry> entries = new ArrayList<>();
+            entries.add(RawArrayFormat.write(zipfile, counter, COEFFICIENTS_RAW_BIN, model.params()));
+
+            INDArray updaterState = saveUpdater ? getUpdaterState(model) : null;
+            if (updaterState != null && updaterState.length() > 0)
+                entries.add(RawArrayFormat.write(zipfile, counter, UPDATER_RAW_BIN, updaterState));
+
+            RawArrayFormat.writeIndex(zipfile, entries);
+            zipfile.close();
+            return;
+        }
+
         // Save parameters as binary
         ZipEntry coefficients = new ZipEntry("coefficients.bin");
         zipfile.putNextEntry(coefficients);
@@ -103,12 +153,7 @@ public class ModelSerializer {
         }
 
         if (saveUpdater) {
-            INDArray updaterState = null;
-            if (model instanceof MultiLayerNetwork) {
-                updaterState = ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
-            } else if (model instanceof ComputationGraph) {
-                updaterState = ((ComputationGraph) model).getUpdater().getStateViewArray();
-            }
+            INDArray updaterState = getUpdaterState(model);
 
             if (updaterState != null && updaterState.length() > 0) {
                 ZipEntry updater = new ZipEntry(UPDATER_BIN);
@@ -127,6 +172,15 @@ public class ModelSerializer {
         zipfile.close();
     }
 
+    private static INDArray getUpdaterState(Model model) {
+        if (model instanceof MultiLayerNetwork) {
+            return ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
+        } else if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).getUpdater().getStateViewArray();
+        }
+        return null;
+    }
+
     /**
      * Load a multi layer network from a file
      *
@@ -181,6 +235,8 @@ public class ModelSerializer {
         }
 
 
+        Map<String, RawArrayFormat.Entry> rawEntries = RawArrayFormat.readIndex(zipFile);
+
         ZipEntry coefficients = zipFile.getEntry("coefficients.bin");
         if (coefficients != null) {
             InputStream stream = zipFile.getInputStream(coefficients);
@@ -189,6 +245,9 @@ public class ModelSerializer {
 
             dis.close();
             gotCoefficients = true;
+        } else if (rawEntries.containsKey(COEFFICIENTS_RAW_BIN)) {
+            params = RawArrayFormat.read(file, zipFile, rawEntries.get(COEFFICIENTS_RAW_BIN));
+            gotCoefficients = true;
         }
 
         if (loadUpdater) {
@@ -215,6 +274,9 @@ public class ModelSerializer {
 
                 dis.close();
                 gotUpdaterState = true;
+            } else if (rawEntries.containsKey(UPDATER_RAW_BIN)) {
+                updaterState = RawArrayFormat.read(file, zipFile, rawEntries.get(UPDATER_RAW_BIN));
+                gotUpdaterState = true;
             }
         }
 
@@ -398,6 +460,8 @@ public class ModelSerializer {
         }
 
 
+        Map<String, RawArrayFormat.Entry> rawEntries = RawArrayFormat.readIndex(zipFile);
+
         ZipEntry coefficients = zipFile.getEntry("coefficients.bin");
         if (coefficients != null) {
             InputStream stream = zipFile.getInputStream(coefficients);
@@ -406,6 +470,9 @@ public class ModelSerializer {
 
             dis.close();
             gotCoefficients = true;
+        } else if (rawEntries.containsKey(COEFFICIENTS_RAW_BIN)) {
+            params = RawArrayFormat.read(file, zipFile, rawEntries.get(COEFFICIENTS_RAW_BIN));
+            gotCoefficients = true;
         }
 
 
@@ -432,6 +499,9 @@ public class ModelSerializer {
 
                 dis.close();
                 gotUpdaterState = true;
+            } else if (rawEntries.containsKey(UPDATER_RAW_BIN)) {
+                updaterState = RawArrayFormat.read(file, zipFile, rawEntries.get(UPDATER_RAW_BIN));
+                gotUpdaterState = true;
             }
         }
 
@@ -0,0 +1,304 @@
+package org.deeplearning4j.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Uncompressed ("raw") format of INDArray entries within ModelSerializer zip files.
+ *
+ * Each raw entry is STORED (not deflated), and consists of zero padding, 8 bytes of magic, and array data in native
+ * byte order. Padding is chosen so that data starts at page boundary within the file. Absolute data offsets, along
+ * with data type, byte order and shape, are kept in a separate small index entry, so on restore the data can be
+ * memory-mapped and copied straight into the target array, without inflating and decoding it through streams.
+ *
+ * If the file layout doesn't match the index (i.e. the zip was rewritten by some other tool), data is read through
+ * regular zip entry stream instead.
+ */
+@Slf4j
+final class RawArrayFormat {
+    static final String INDEX_BIN = "rawIndex.bin";
+
+    private static final int VERSION = 1;
+    private static final int PAGE_SIZE = 4096;
+    private static final long MAGIC = 0x444C344A52415731L; // "DL4JRAW1"
+
+    // zip local file header: 30 bytes + name, and 20 bytes of zip64 extra field for large entries
+    private static final int LOC_HEADER = 30;
+    private static final int ZIP64_EXTRA = 20;
+
+    // elements per chunk, for both writes and mapped reads
+    private static final int CHUNK = 1 << 24;
+
+    private RawArrayFormat() {}
+
+    /**
+     * Description of single raw entry, as stored in index
+     */
+    static class Entry {
+        final String name;
+        final long dataOffset;
+        final DataBuffer.Type type;
+        final boolean littleEndian;
+        final int[] shape;
+
+        Entry(String name, long dataOffset, DataBuffer.Type type, boolean littleEndian, int[] shape) {
+            this.name = name;
+            this.dataOffset = dataOffset;
+            this.type = type;
+            this.littleEndian = littleEndian;
+            this.shape = shape;
+        }
+
+        int elementSize() {
+            return type == DataBuffer.Type.DOUBLE ? 8 : 4;
+        }
+
+        long length() {
+            long length = 1;
+            for (int s : shape)
+                length *= s;
+            return length;
+        }
+
+        long byteLength() {
+            return length() * elementSize();
+        }
+    }
+
+    /**
+     * This method writes array as STORED entry. Counter should wrap the stream zip is written to, so absolute
+     * position of data within the file is known.
+     */
+    static Entry write(ZipOutputStream zip, CountingOutputStream counter, String name, INDArray array)
+                    throws IOException {
+        INDArray flat = array;
+        if (flat.isView() || !flat.isRowVector() || flat.ordering() != 'c')
+            flat = Nd4j.toFlattened('c', array);
+
+        DataBuffer.Type type = Nd4j.dataType() == DataBuffer.Type.DOUBLE ? DataBuffer.Type.DOUBLE
+                        : DataBuffer.Type.FLOAT;
+        ByteOrder order = ByteOrder.nativeOrder();
+        Entry entry = new Entry(name, 0, type, order == ByteOrder.LITTLE_ENDIAN, array.shape());
+        long byteLength = entry.byteLength();
+
+        // previous entry is flushed on close, and zip local header goes right before entry data,
+        // so we can predict where data will start
+        zip.closeEntry();
+        byte[] nameBytes = name.getBytes("UTF-8");
+        long entryStart = counter.getByteCount() + LOC_HEADER + nameBytes.length;
+        if (byteLength + PAGE_SIZE >= 0xFFFFFFFFL)
+            entryStart += ZIP64_EXTRA;
+        int padding = 8 + (int) ((PAGE_SIZE - (entryStart + 8) % PAGE_SIZE) % PAGE_SIZE);
+
+        byte[] header = new byte[padding];
+        ByteBuffer.wrap(header).putLong(padding - 8, MAGIC);
+
+        // STORED entries need crc & size upfront, so data is traversed twice
+        CRC32 crc = new CRC32();
+        crc.update(header);
+        writeData(flat, type, order, crc, null);
+
+        ZipEntry zipEntry = new ZipEntry(name);
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(padding + byteLength);
+        zipEntry.setCompressedSize(padding + byteLength);
+        zipEntry.setCrc(crc.getValue());
+        zip.putNextEntry(zipEntry);
+
+        long actualStart = counter.getByteCount();
+        if (actualStart != entryStart)
+            log.debug("Entry [{}] starts at [{}] instead of [{}], data won't be page-aligned", name, actualStart,
+                            entryStart);
+
+        zip.write(header);
+        writeData(flat, type, order, null, zip);
+        zip.closeEntry();
+
+        return new Entry(name, actualStart + padding, type, entry.littleEndian, entry.shape);
+    }
+
+    private static void writeData(INDArray flat, DataBuffer.Type type, ByteOrder order, CRC32 crc, OutputStream out)
+                    throws IOException {
+        int length = flat.length();
+        ByteBuffer bytes = null;
+        for (int from = 0; from < length; from += CHUNK) {
+            int to = Math.min(length, from + CHUNK);
+            INDArray chunk = flat.get(NDArrayIndex.point(0), NDArrayIndex.interval(from, to)).dup();
+
+            int size = (to - from) * (type == DataBuffer.Type.DOUBLE ? 8 : 4);
+            if (bytes == null || bytes.capacity() < size)
+                bytes = ByteBuffer.allocate(size).order(order);
+            bytes.clear();
+            if (type == DataBuffer.Type.DOUBLE)
+                bytes.asDoubleBuffer().put(chunk.data().asDouble());
+            else
+                bytes.asFloatBuffer().put(chunk.data().asFloat());
+
+            if (crc != null)
+                crc.update(bytes.array(), 0, size);
+            if (out != null)
+                out.write(bytes.array(), 0, size);
+        }
+    }
+
+    /**
+     * This method writes index of raw entries, as regular deflated entry
+     */
+    static void writeIndex(ZipOutputStream zip, List<Entry> entries) throws IOException {
+        zip.putNextEntry(new ZipEntry(INDEX_BIN));
+        DataOutputStream dos = new DataOutputStream(zip);
+        dos.writeInt(VERSION);
+        dos.writeInt(entries.size());
+        for (Entry entry : entries) {
+            dos.writeUTF(entry.name);
+            dos.writeLong(entry.dataOffset);
+            dos.writeUTF(entry.type.name());
+            dos.writeBoolean(entry.littleEndian);
+            dos.writeInt(entry.shape.length);
+            for (int s : entry.shape)
+                dos.writeInt(s);
+        }
+        dos.flush();
+        zip.closeEntry();
+    }
+
+    /**
+     * @return raw entries by name, or empty map if there's no index within file
+     */
+    static Map<String, Entry> readIndex(ZipFile zipFile) throws IOException {
+        Map<String, Entry> result = new HashMap<>();
+        ZipEntry index = zipFile.getEntry(INDEX_BIN);
+        if (index == null)
+            return result;
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(zipFile.getInputStream(index)))) {
+            int version = dis.readInt();
+            if (version != VERSION)
+                throw new IllegalStateException("Unsupported raw entries version: [" + version + "]");
+
+            int count = dis.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = dis.readUTF();
+                long dataOffset = dis.readLong();
+                DataBuffer.Type type = DataBuffer.Type.valueOf(dis.readUTF());
+                boolean littleEndian = dis.readBoolean();
+                int[] shape = new int[dis.readInt()];
+                for (int j = 0; j < shape.length; j++)
+                    shape[j] = dis.readInt();
+                result.put(name, new Entry(name, dataOffset, type, littleEndian, shape));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method restores array from raw entry. Data is memory-mapped if file layout allows that, and read through
+     * zip entry stream otherwise.
+     */
+    static INDArray read(File file, ZipFile zipFile, Entry entry) throws IOException {
+        ZipEntry zipEntry = zipFile.getEntry(entry.name);
+        if (zipEntry == null)
+            throw new IllegalStateException("Raw entry [" + entry.name + "] wasn't found");
+
+        INDArray result = Nd4j.createUninitialized(entry.shape, 'c');
+        INDArray flat = result.reshape('c', 1, result.length());
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            if (zipEntry.getMethod() == ZipEntry.STORED && isMappable(channel, entry)) {
+                readMapped(channel, entry, flat);
+                return result;
+            }
+        }
+
+        log.debug("Raw entry [{}] can't be memory-mapped, reading it as stream", entry.name);
+        try (InputStream is = new BufferedInputStream(zipFile.getInputStream(zipEntry))) {
+            DataInputStream dis = new DataInputStream(is);
+            long padding = zipEntry.getSize() - entry.byteLength();
+            if (padding < 0 || dis.skip(padding) != padding)
+                throw new EOFException("Raw entry [" + entry.name + "] is truncated");
+
+            ByteOrder order = entry.littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            int length = flat.length();
+            byte[] bytes = null;
+            for (int from = 0; from < length; from += CHUNK) {
+                int to = Math.min(length, from + CHUNK);
+                int size = (to - from) * entry.elementSize();
+                if (bytes == null || bytes.length < size)
+                    bytes = new byte[size];
+                dis.readFully(bytes, 0, size);
+                assignConverted(flat, from, to, ByteBuffer.wrap(bytes, 0, size).order(order), entry.type);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isMappable(FileChannel channel, Entry entry) throws IOException {
+        if (entry.dataOffset < 8 || entry.dataOffset + entry.byteLength() > channel.size())
+            return false;
+
+        ByteBuffer magic = ByteBuffer.allocate(8);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, entry.dataOffset - 8 + magic.position()) < 0)
+                return false;
+        }
+        return magic.getLong(0) == MAGIC;
+    }
+
+    private static void readMapped(FileChannel channel, Entry entry, INDArray flat) throws IOException {
+        ByteOrder order = entry.littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        // data can be used as is only if it's already in the format of current backend
+        boolean direct = order == ByteOrder.nativeOrder() && entry.type == Nd4j.dataType();
+
+        int length = flat.length();
+        for (int from = 0; from < length; from += CHUNK) {
+            int to = Math.min(length, from + CHUNK);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                            entry.dataOffset + (long) from * entry.elementSize(),
+                            (long) (to - from) * entry.elementSize());
+            mapped.order(order);
+
+            if (direct) {
+                // mapped region is wrapped without copy, and copied once into the target array
+                DataBuffer buffer = Nd4j.createBuffer(mapped, entry.type, to - from);
+                target(flat, from, to).assign(Nd4j.create(buffer, new int[] {1, to - from}));
+            } else {
+                assignConverted(flat, from, to, mapped, entry.type);
+            }
+        }
+    }
+
+    private static void assignConverted(INDArray flat, int from, int to, ByteBuffer bytes, DataBuffer.Type type) {
+        if (type == DataBuffer.Type.DOUBLE) {
+            double[] data = new double[to - from];
+            bytes.asDoubleBuffer().get(data);
+            target(flat, from, to).assign(Nd4j.create(data));
+        } else {
+            float[] data = new float[to - from];
+            bytes.asFloatBuffer().get(data);
+            target(flat, from, to).assign(Nd4j.create(data));
+        }
+    }
+
+    private static INDArray target(INDArray flat, int from, int to) {
+        if (from == 0 && to == flat.length())
+            return flat;
+        return flat.get(NDArrayIndex.point(0), NDArrayIndex.interval(from, to));
+    }
+}
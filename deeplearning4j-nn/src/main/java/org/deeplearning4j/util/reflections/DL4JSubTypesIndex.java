@@ -0,0 +1,159 @@
+package org.deeplearning4j.util.reflections;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Build-time index of DL4J subtypes (layers, graph vertices, preprocessors etc), used for JSON/YAML configuration
+ * mapping instead of scanning the whole classpath at runtime.
+ *
+ * Index is a plain text resource at {@link #INDEX_RESOURCE}: one fully qualified (binary) class name per line, with
+ * empty lines and lines starting with '#' ignored. Every jar on the classpath can provide its own index, so custom
+ * layers etc can be registered by adding such a resource to the user jar - either manually, or by running
+ * {@link #main(String[])} over compiled classes as part of the build.
+ */
+public class DL4JSubTypesIndex {
+    private static final Logger log = LoggerFactory.getLogger(DL4JSubTypesIndex.class);
+
+    public static final String INDEX_RESOURCE = "META-INF/deeplearning4j/json-subtypes";
+
+    private DL4JSubTypesIndex() {}
+
+    /**
+     * This method reads all indexes available to the class loader, and returns concrete classes that are subtypes of
+     * any of the base classes. Classes that can't be loaded are skipped.
+     *
+     * @param classLoader class loader to look up indexes and classes with
+     * @param baseClasses base classes/interfaces
+     */
+    public static Set<Class<?>> load(ClassLoader classLoader, List<Class<?>> baseClasses) throws IOException {
+        Set<Class<?>> result = new LinkedHashSet<>();
+        Enumeration<URL> indexes = classLoader.getResources(INDEX_RESOURCE);
+        while (indexes.hasMoreElements()) {
+            URL index = indexes.nextElement();
+            for (String className : readIndex(index)) {
+                Class<?> c;
+                try {
+                    c = Class.forName(className, false, classLoader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    log.warn("Skipping class [{}] listed in subtype index [{}]: {}", className, index, e.toString());
+                    continue;
+                }
+
+                if (isSubtype(c, baseClasses)) {
+                    result.add(c);
+                } else {
+                    log.warn("Skipping class [{}] listed in subtype index [{}]: not a concrete subtype of {}",
+                                    className, index, baseClasses);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<String> readIndex(URL index) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                    continue;
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if class is concrete, and is assignable to any of the base classes
+     */
+    public static boolean isSubtype(Class<?> c, List<Class<?>> baseClasses) {
+        if (Modifier.isAbstract(c.getModifiers()) || Modifier.isInterface(c.getModifiers()) || c.isAnonymousClass()
+                        || c.isLocalClass())
+            return false;
+
+        for (Class<?> baseClass : baseClasses) {
+            if (baseClass.isAssignableFrom(c))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method generates index for compiled classes within given directory, and writes it to
+     * {@link #INDEX_RESOURCE} within the same directory. Compiled classes and their dependencies should be on the
+     * classpath.
+     *
+     * Usage: DL4JSubTypesIndex &lt;classesDirectory&gt; &lt;baseClass&gt; [&lt;baseClass&gt;...]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2)
+            throw new IllegalArgumentException(
+                            "Usage: DL4JSubTypesIndex <classesDirectory> <baseClass> [<baseClass>...]");
+
+        File root = new File(args[0]);
+        ClassLoader classLoader = DL4JSubTypesIndex.class.getClassLoader();
+        List<Class<?>> baseClasses = new ArrayList<>();
+        for (int i = 1; i < args.length; i++)
+            baseClasses.add(Class.forName(args[i], false, classLoader));
+
+        List<String> classNames = new ArrayList<>();
+        collectClassNames(root, "", classNames);
+
+        Set<String> subtypes = new TreeSet<>();
+        for (String className : classNames) {
+            Class<?> c;
+            try {
+                c = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.debug("Skipping class [{}]: {}", className, e.toString());
+                continue;
+            }
+            if (isSubtype(c, baseClasses))
+                subtypes.add(className);
+        }
+
+        File index = new File(root, INDEX_RESOURCE);
+        if (!index.getParentFile().exists() && !index.getParentFile().mkdirs())
+            throw new IOException("Can't create directory [" + index.getParentFile() + "]");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(index), "UTF-8")) {
+            writer.write("# Generated by " + DL4JSubTypesIndex.class.getName() + "\n");
+            for (String className : subtypes)
+                writer.write(className + "\n");
+        }
+        log.info("Written [{}] subtypes to [{}]", subtypes.size(), index.getAbsolutePath());
+    }
+
+    private static void collectClassNames(File dir, String packagePrefix, List<String> classNames) {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                collectClassNames(file, packagePrefix + name + ".", classNames);
+            } else if (name.endsWith(".class") && !name.equals("package-info.class")) {
+                classNames.add(packagePrefix + name.substring(0, name.length() - ".class".length()));
+            }
+        }
+    }
+}
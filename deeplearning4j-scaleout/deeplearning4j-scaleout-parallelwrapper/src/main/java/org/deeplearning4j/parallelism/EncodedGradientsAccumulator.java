@@ -0,0 +1,227 @@
+package org.deeplearning4j.parallelism;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.util.ArrayUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared buffer of encoded updates, used by {@link ParallelWrapper} in
+ * {@link ParallelWrapper.TrainingMode#SHARED_GRADIENTS} mode.
+ *
+ * Each worker adds its local update (gradient after updater has been applied) to a residual vector, and only
+ * elements of the residual with absolute value of at least threshold are shared: they are encoded as signed indices
+ * (+/-(index + 1), each meaning +/- threshold), and subtracted from the residual. Everything below threshold is kept
+ * in residual, and shared on later iterations, once accumulated.
+ *
+ * Encoded updates are published to lock-free queues of all other workers, and each worker applies pending updates of
+ * its peers before its own next iteration, so no worker ever waits for the others. Since every worker (eventually)
+ * applies exactly the same set of encoded updates, params of all workers are equal once all queues are drained.
+ * Updater state isn't shared: each worker's updater only sees that worker's own gradients.
+ *
+ * PLEASE NOTE: residual is copied to host memory and scanned there, so this class is designed for CPU backend.
+ */
+public class EncodedGradientsAccumulator {
+    protected final int workers;
+    protected final double threshold;
+    protected final List<Queue<int[]>> queues;
+    protected final INDArray[] residuals;
+
+    protected final AtomicLong updatesCounter = new AtomicLong(0);
+    protected final AtomicLong encodedCounter = new AtomicLong(0);
+    protected final AtomicLong elementsCounter = new AtomicLong(0);
+
+    /**
+     * @param workers   number of workers sharing updates
+     * @param threshold minimal absolute value of accumulated update element to be shared
+     */
+    public EncodedGradientsAccumulator(int workers, double threshold) {
+        if (workers < 1)
+            throw new IllegalArgumentException("Number of workers must be positive");
+        if (threshold <= 0.0)
+            throw new IllegalArgumentException("Threshold must be positive");
+
+        this.workers = workers;
+        this.threshold = threshold;
+        this.residuals = new INDArray[workers];
+        this.queues = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++)
+            queues.add(new ConcurrentLinkedQueue<int[]>());
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * This method encodes update of specified worker, applies encoded update to worker's own params,
+     * and publishes it to all other workers.
+     *
+     * PLEASE NOTE: should be called only from the thread of specified worker
+     *
+     * @param workerId id of worker
+     * @param update   local update, as calculated by updater
+     * @param params   params of worker's model
+     * @return number of shared elements
+     */
+    public int storeUpdate(int workerId, @NonNull INDArray update, @NonNull INDArray params) {
+        int[] encoded = encode(workerId, update);
+
+        updatesCounter.incrementAndGet();
+        elementsCounter.addAndGet(update.length());
+        if (encoded.length == 0)
+            return 0;
+
+        encodedCounter.addAndGet(encoded.length);
+        applyUpdate(encoded, params);
+
+        for (int i = 0; i < workers; i++) {
+            if (i != workerId)
+                queues.get(i).add(encoded);
+        }
+
+        return encoded.length;
+    }
+
+    /**
+     * This method applies all updates published by other workers since previous call
+     *
+     * PLEASE NOTE: should be called either from the thread of specified worker, or while this worker is idle
+     *
+     * @param workerId id of worker
+     * @param params   params of worker's model
+     * @return number of applied updates
+     */
+    public int applyPendingUpdates(int workerId, @NonNull INDArray params) {
+        Queue<int[]> queue = queues.get(workerId);
+        int cnt = 0;
+        int[] encoded;
+        while ((encoded = queue.poll()) != null) {
+            applyUpdate(encoded, params);
+            cnt++;
+        }
+
+        return cnt;
+    }
+
+    /**
+     * This method discards all updates published by other workers, but not yet applied by specified worker.
+     * Used when worker picks up params from elsewhere, which already include these updates.
+     *
+     * @param workerId id of worker
+     */
+    public void discardPendingUpdates(int workerId) {
+        queues.get(workerId).clear();
+    }
+
+    /**
+     * This method returns number of updates published by other workers, but not yet applied by specified worker
+     *
+     * @param workerId id of worker
+     * @return
+     */
+    public int getPendingUpdates(int workerId) {
+        return queues.get(workerId).size();
+    }
+
+    /**
+     * This method returns number of local updates stored so far
+     *
+     * @return
+     */
+    public long getUpdatesCount() {
+        return updatesCounter.get();
+    }
+
+    /**
+     * This method returns ratio of shared elements to total number of update elements, i.e. compression achieved by
+     * encoding. Lower values mean less traffic between workers.
+     *
+     * @return
+     */
+    public double getEncodedRatio() {
+        long elements = elementsCounter.get();
+        return elements == 0 ? 0.0 : encodedCounter.get() / (double) elements;
+    }
+
+    /**
+     * This method discards all pending updates and residuals
+     */
+    public void reset() {
+        for (int i = 0; i < workers; i++) {
+            queues.get(i).clear();
+            residuals[i] = null;
+        }
+    }
+
+    protected int[] encode(int workerId, INDArray update) {
+        INDArray residual = residuals[workerId];
+        if (residual == null || residual.length() != update.length()) {
+            residual = Nd4j.zeros(1, update.length());
+            residuals[workerId] = residual;
+        }
+
+        residual.addi(update.reshape(1, update.length()));
+
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        // residual is created here, so it's never a view: its whole buffer is copied to host array with single bulk
+        // copy, scanned there, and copied back only if anything was shared
+        DataBuffer buffer = residual.data();
+        double[] values = buffer.asDouble();
+        int[] encoded = new int[16];
+        int cnt = 0;
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            int e;
+            if (value >= threshold) {
+                values[i] = value - threshold;
+                e = i + 1;
+            } else if (value <= -threshold) {
+                values[i] = value + threshold;
+                e = -(i + 1);
+            } else
+                continue;
+
+            if (cnt == encoded.length)
+                encoded = Arrays.copyOf(encoded, encoded.length * 2);
+            encoded[cnt++] = e;
+        }
+
+        if (cnt > 0)
+            buffer.setData(values);
+
+        return cnt == encoded.length ? encoded : Arrays.copyOf(encoded, cnt);
+    }
+
+    protected void applyUpdate(int[] encoded, INDArray params) {
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        // updates are subtracted from params, same as StepFunction does for updater output
+        if (Arrays.equals(params.stride(), ArrayUtil.calcStrides(params.shape()))) {
+            // params are contiguous (possibly with offset, i.e. view of flattened params), so we skip index resolution
+            DataBuffer buffer = params.data();
+            int offset = params.offset();
+            for (int e : encoded) {
+                int idx = offset + Math.abs(e) - 1;
+                buffer.put(idx, buffer.getDouble(idx) - (e > 0 ? threshold : -threshold));
+            }
+        } else {
+            for (int e : encoded) {
+                int idx = Math.abs(e) - 1;
+                params.putScalar(idx, params.getDouble(idx) - (e > 0 ? threshold : -threshold));
+            }
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package org.deeplearning4j.parallelism;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.parallelism.inference.InferenceStats;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class provides thread-safe inference on top of MultiLayerNetwork or ComputationGraph.
+ *
+ * Requests submitted from any number of threads are put into a single queue. Each worker thread holds its own model
+ * replica (sharing the same parameters view, if there's only one device available), takes requests from that queue,
+ * merges them into mini-batches of up to batchLimit examples, waiting no longer than batchWaitTime for more requests,
+ * and returns results back via futures.
+ *
+ * PLEASE NOTE: Inputs within one request must have examples along dimension 0. Requests with different shapes
+ * (i.e. time series of different length) are never merged into the same batch.
+ */
+@Slf4j
+public class ParallelInference implements AutoCloseable {
+    protected Model model;
+    protected int workers;
+    protected int batchLimit;
+    protected int queueLimit;
+    protected long batchWaitNanos;
+    protected BlockingQueue<InferenceRequest> queue;
+    protected volatile InferenceWorker zoo[];
+    protected InferenceStats stats;
+
+    protected ParallelInference(@NonNull Model model, int workers, int batchLimit, int queueLimit,
+                    long batchWaitNanos) {
+        if (!(model instanceof MultiLayerNetwork) && !(model instanceof ComputationGraph))
+            throw new IllegalArgumentException("ParallelInference supports only MultiLayerNetwork and ComputationGraph");
+
+        this.model = model;
+        this.workers = workers;
+        this.batchLimit = batchLimit;
+        this.queueLimit = queueLimit;
+        this.batchWaitNanos = batchWaitNanos;
+        this.queue = new LinkedBlockingQueue<>(queueLimit);
+        this.stats = new InferenceStats(batchLimit);
+
+        init();
+    }
+
+    protected void init() {
+        INDArray params = model.params();
+        if (params == null)
+            throw new IllegalStateException("Model should be initialized before ParallelInference is created");
+
+        zoo = new InferenceWorker[workers];
+        for (int cnt = 0; cnt < workers; cnt++) {
+            zoo[cnt] = new InferenceWorker(cnt, model);
+
+            Nd4j.getAffinityManager().attachThreadToDevice(zoo[cnt], cnt % Nd4j.getAffinityManager().getNumberOfDevices());
+            zoo[cnt].start();
+        }
+    }
+
+    /**
+     * This method does blocking forward pass for single-input model.
+     * Returns first network output.
+     *
+     * @param input input features, with examples along dimension 0
+     * @return
+     */
+    public INDArray output(@NonNull INDArray input) {
+        return output(new INDArray[] {input})[0];
+    }
+
+    /**
+     * This method does blocking forward pass, and returns all network outputs
+     *
+     * @param input input features, with examples along dimension 0
+     * @return
+     */
+    public INDArray[] output(@NonNull INDArray[] input) {
+        try {
+            return outputAsync(input).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * This method submits input for inference and returns immediately.
+     * If request queue is full, this method blocks until there's free space in queue.
+     *
+     * @param input input features, with examples along dimension 0
+     * @return future, holding all network outputs for given input
+     */
+    public CompletableFuture<INDArray[]> outputAsync(@NonNull INDArray... input) {
+        if (zoo == null)
+            throw new IllegalStateException("ParallelInference was shut down already");
+
+        if (input.length == 0)
+            throw new IllegalArgumentException("At least one input is required");
+
+        int size = input[0].size(0);
+        for (INDArray array : input)
+            if (array.size(0) != size)
+                throw new IllegalArgumentException("All inputs should have the same number of examples");
+
+        InferenceRequest request = new InferenceRequest(input, size);
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        // shutdown() might have drained the queue before our request was added. If request is still in queue, nobody
+        // will complete it. Otherwise, it was taken by a worker or by shutdown(), and will be completed there
+        if (zoo == null && queue.remove(request))
+            request.future.completeExceptionally(new IllegalStateException("ParallelInference was shut down"));
+
+        return request.future;
+    }
+
+    /**
+     * @return number of requests waiting in queue
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return batch size histogram and latency counters
+     */
+    public InferenceStats getStats() {
+        return stats;
+    }
+
+    /**
+     * This method stops all workers. All pending requests will be completed exceptionally.
+     */
+    public synchronized void shutdown() {
+        if (zoo != null) {
+            for (int i = 0; i < zoo.length; i++) {
+                if (zoo[i] != null)
+                    zoo[i].shutdown();
+            }
+            zoo = null;
+        }
+
+        List<InferenceRequest> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (InferenceRequest request : pending)
+            request.future.completeExceptionally(new IllegalStateException("ParallelInference was shut down"));
+    }
+
+    @Override
+    public void close() throws Exception {
+        shutdown();
+    }
+
+
+    public static class Builder {
+        protected Model model;
+        protected int workers = Nd4j.getAffinityManager().getNumberOfDevices();
+        protected int batchLimit = 32;
+        protected int queueLimit = 64;
+        protected long batchWaitNanos = TimeUnit.MILLISECONDS.toNanos(2);
+
+        /**
+         * Build ParallelInference for MultiLayerNetwork or ComputationGraph
+         *
+         * @param model initialized model
+         */
+        public Builder(@NonNull Model model) {
+            this.model = model;
+        }
+
+        /**
+         * This method defines number of model replicas, each served by its own thread.
+         *
+         * Default value: number of available devices
+         *
+         * @param num
+         * @return
+         */
+        public Builder workers(int num) {
+            if (num < 1)
+                throw new IllegalStateException("Number of workers should be positive value");
+
+            this.workers = num;
+            return this;
+        }
+
+        /**
+         * This method defines max number of examples that can be merged into single batch.
+         * Set it to 1 to disable batching.
+         *
+         * Default value: 32
+         *
+         * @param limit
+         * @return
+         */
+        public Builder batchLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalStateException("Batch limit should be positive value");
+
+            this.batchLimit = limit;
+            return this;
+        }
+
+        /**
+         * This method defines max number of requests waiting in queue.
+         * When queue is full, submitting threads will block.
+         *
+         * Default value: 64
+         *
+         * @param limit
+         * @return
+         */
+        public Builder queueLimit(int limit) {
+            if (limit < 1)
+                throw new IllegalStateException("Queue limit should be positive value");
+
+            this.queueLimit = limit;
+            return this;
+        }
+
+        /**
+         * This method defines max time worker will wait for additional requests before running incomplete batch.
+         * Higher values give larger batches and better throughput, at cost of latency.
+         *
+         * Default value: 2 milliseconds
+         *
+         * @param time
+         * @param timeUnit
+         * @return
+         */
+        public Builder batchWaitTime(long time, @NonNull TimeUnit timeUnit) {
+            if (time < 0)
+                throw new IllegalStateException("Batch wait time can't be negative");
+
+            this.batchWaitNanos = timeUnit.toNanos(time);
+            return this;
+        }
+
+        /**
+         * This method returns ParallelInference instance
+         *
+         * @return
+         */
+        public ParallelInference build() {
+            return new ParallelInference(model, workers, batchLimit, queueLimit, batchWaitNanos);
+        }
+    }
+
+
+    protected static class InferenceRequest {
+        protected final INDArray[] input;
+        protected final int size;
+        protected final long submitted = System.nanoTime();
+        protected final CompletableFuture<INDArray[]> future = new CompletableFuture<>();
+
+        protected InferenceRequest(INDArray[] input, int size) {
+            this.input = input;
+            this.size = size;
+        }
+
+        /**
+         * Requests can be merged together only if all inputs have the same shape, except dimension 0
+         */
+        protected boolean isCompatible(InferenceRequest other) {
+            if (input.length != other.input.length)
+                return false;
+
+            for (int i = 0; i < input.length; i++) {
+                int[] shapeA = input[i].shape();
+                int[] shapeB = other.input[i].shape();
+                if (shapeA.length != shapeB.length)
+                    return false;
+
+                for (int e = 1; e < shapeA.length; e++)
+                    if (shapeA[e] != shapeB[e])
+                        return false;
+            }
+
+            return true;
+        }
+    }
+
+
+    private class InferenceWorker extends Thread implements Runnable {
+        private Model originalModel;
+        private Model replicatedModel;
+        private AtomicBoolean shouldStop = new AtomicBoolean(false);
+        // request that didn't fit into previous batch
+        private InferenceRequest carry;
+
+        private InferenceWorker(int threadId, @NonNull Model model) {
+            this.originalModel = model;
+            this.setDaemon(true);
+            this.setName("ParallelInference worker " + threadId);
+        }
+
+        public void shutdown() {
+            shouldStop.set(true);
+        }
+
+        protected void initReplica() {
+            // with single device all replicas just reference the same params, otherwise each device gets own copy
+            boolean cloneParams = Nd4j.getAffinityManager().getNumberOfDevices() > 1;
+
+            if (originalModel instanceof MultiLayerNetwork) {
+                MultiLayerNetwork network = new MultiLayerNetwork(
+                                ((MultiLayerNetwork) originalModel).getLayerWiseConfigurations().clone());
+                network.init(originalModel.params(), cloneParams);
+                this.replicatedModel = network;
+            } else {
+                ComputationGraph graph = new ComputationGraph(
+                                ((ComputationGraph) originalModel).getConfiguration().clone());
+                graph.init(originalModel.params(), cloneParams);
+                this.replicatedModel = graph;
+            }
+
+            if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+        }
+
+        @Override
+        public void run() {
+            initReplica();
+
+            List<InferenceRequest> batch = new ArrayList<>();
+            while (!shouldStop.get()) {
+                try {
+                    InferenceRequest first = carry != null ? carry : queue.poll(100, TimeUnit.MILLISECONDS);
+                    carry = null;
+                    if (first == null)
+                        continue;
+
+                    batch.clear();
+                    batch.add(first);
+                    int examples = first.size;
+
+                    long deadline = System.nanoTime() + batchWaitNanos;
+                    while (examples < batchLimit) {
+                        long remaining = deadline - System.nanoTime();
+                        InferenceRequest next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                                        : queue.poll();
+                        if (next == null)
+                            break;
+
+                        if (examples + next.size > batchLimit || !first.isCompatible(next)) {
+                            carry = next;
+                            break;
+                        }
+
+                        batch.add(next);
+                        examples += next.size;
+                    }
+
+                    process(batch, examples);
+                } catch (InterruptedException e) {
+                    // requests taken from queue so far won't be processed (no-op for already completed ones)
+                    for (InferenceRequest request : batch)
+                        request.future.completeExceptionally(
+                                        new IllegalStateException("ParallelInference was shut down"));
+
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            if (carry != null)
+                carry.future.completeExceptionally(new IllegalStateException("ParallelInference was shut down"));
+        }
+
+        protected INDArray[] output(INDArray[] input) {
+            if (replicatedModel instanceof MultiLayerNetwork)
+                return new INDArray[] {((MultiLayerNetwork) replicatedModel).output(input[0], false)};
+            else
+                return ((ComputationGraph) replicatedModel).output(false, input);
+        }
+
+        protected void process(List<InferenceRequest> batch, int examples) {
+            try {
+                if (batch.size() == 1) {
+                    InferenceRequest request = batch.get(0);
+                    INDArray[] result = output(request.input);
+                    stats.recordBatch(examples);
+                    complete(request, result);
+                    return;
+                }
+
+                int numInputs = batch.get(0).input.length;
+                INDArray[] merged = new INDArray[numInputs];
+                for (int i = 0; i < numInputs; i++) {
+                    INDArray[] parts = new INDArray[batch.size()];
+                    for (int r = 0; r < parts.length; r++)
+                        parts[r] = batch.get(r).input[i];
+
+                    merged[i] = Nd4j.concat(0, parts);
+                }
+
+                INDArray[] result = output(merged);
+                stats.recordBatch(examples);
+
+                int offset = 0;
+                for (InferenceRequest request : batch) {
+                    INDArray[] split = new INDArray[result.length];
+                    for (int o = 0; o < result.length; o++)
+                        split[o] = slice(result[o], offset, offset + request.size);
+
+                    offset += request.size;
+                    complete(request, split);
+                }
+            } catch (Exception e) {
+                log.error("Inference failed for batch of {} requests", batch.size(), e);
+                for (InferenceRequest request : batch)
+                    request.future.completeExceptionally(e);
+            }
+        }
+
+        protected INDArray slice(INDArray array, int from, int to) {
+            INDArrayIndex[] indices = new INDArrayIndex[array.rank()];
+            indices[0] = NDArrayIndex.interval(from, to);
+            for (int i = 1; i < indices.length; i++)
+                indices[i] = NDArrayIndex.all();
+
+            return array.get(indices).dup();
+        }
+
+        protected void complete(InferenceRequest request, INDArray[] result) {
+            // stats are updated first: caller may check them as soon as future is completed
+            stats.recordLatency(System.nanoTime() - request.submitted);
+            request.future.complete(result);
+        }
+    }
+}
@@ -8,15 +8,23 @@ import org.deeplearning4j.api.storage.StatsStorageRouterProvider;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.api.storage.listener.RoutingIterationListener;
 import org.deeplearning4j.datasets.iterator.AsyncDataSetIterator;
-import org.deeplearning4j.datasets.iterator.AsyncMultiDataSetIterator;
+import org.deeplearning4j.datasets.iterator.ParallelDataSetIterator;
+import org.deeplearning4j.datasets.iterator.ParallelMultiDataSetIterator;
 import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.conf.BackpropType;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.stepfunctions.NegativeGradientStepFunction;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.optimize.api.IterationListener;
+import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.optimize.solvers.BaseOptimizer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.api.DataSet;
@@ -46,9 +54,27 @@ import java.util.concurrent.locks.LockSupport;
 // TODO: We want this thing to be NUMA-aware in foreseable future
 @Slf4j
 public class ParallelWrapper implements AutoCloseable {
+
+    /**
+     * AVERAGING: each worker fits its own copy of the model, and params (and optionally updaters state) are averaged
+     * across all workers every averagingFrequency iterations. All workers are synchronized before each averaging.
+     *
+     * SHARED_GRADIENTS: each worker calculates update locally, threshold-encodes it (keeping the remainder as residual),
+     * and shares encoded update with other workers via {@link EncodedGradientsAccumulator}. Workers apply updates of
+     * their peers as they arrive, without any synchronization between them. Each minibatch is a single plain SGD
+     * step, so only STOCHASTIC_GRADIENT_DESCENT with 1 iteration and default step function is supported.
+     */
+    public enum TrainingMode {
+        AVERAGING, SHARED_GRADIENTS
+    }
+
+    // max number of DataSets queued per worker in SHARED_GRADIENTS mode
+    protected static final int SHARED_BACKLOG = 2;
+
     protected Model model;
     protected int workers = 2;
     protected int prefetchSize = 2;
+    protected int prefetchWorkers = 1;
     protected int averagingFrequency = 1;
     protected Trainer zoo[];
     protected AtomicLong iterationsCounter = new AtomicLong(0);
@@ -60,6 +86,9 @@ public class ParallelWrapper implements AutoCloseable {
     protected List<IterationListener> listeners = new ArrayList<>();
     protected StatsStorageRouter storageRouter;
     protected boolean isMQ;
+    protected TrainingMode trainingMode = TrainingMode.AVERAGING;
+    protected EncodedGradientsAccumulator accumulator;
+    protected int dispatchPosition = 0;
 
     // log uncaught exceptions
     Thread.UncaughtExceptionHandler handler = new Thread.UncaughtExceptionHandler() {
@@ -98,6 +127,9 @@ public class ParallelWrapper implements AutoCloseable {
             }
             zoo = null;
         }
+
+        if (accumulator != null)
+            accumulator.reset();
     }
 
     /**
@@ -141,10 +173,28 @@ public class ParallelWrapper implements AutoCloseable {
 
         MultiDataSetIterator iterator;
         if (prefetchSize > 0 && source.asyncSupported()) {
-            iterator = new AsyncMultiDataSetIterator(source, prefetchSize);
+            iterator = new ParallelMultiDataSetIterator(source, prefetchSize, prefetchWorkers);
         } else
             iterator = source;
 
+        if (trainingMode == TrainingMode.SHARED_GRADIENTS) {
+            startSharedTraining();
+            while (iterator.hasNext() && !stopFit.get()) {
+                MultiDataSet dataSet = iterator.next();
+
+                if (dataSet == null)
+                    throw new ND4JIllegalStateException("You can't have NULL as MultiDataSet");
+
+                nextSharedTrainer().feedMultiDataSet(dataSet);
+            }
+
+            if (iterator instanceof ParallelMultiDataSetIterator)
+                ((ParallelMultiDataSetIterator) iterator).shutdown();
+
+            finishSharedTraining();
+            return;
+        }
+
         AtomicInteger locker = new AtomicInteger(0);
 
         while (iterator.hasNext() && !stopFit.get()) {
@@ -197,6 +247,10 @@ public class ParallelWrapper implements AutoCloseable {
             }
         }
 
+        // fit might be stopped before source is exhausted, so prefetch threads have to be released explicitly
+        if (iterator instanceof ParallelMultiDataSetIterator)
+            ((ParallelMultiDataSetIterator) iterator).shutdown();
+
         // sanity checks, or the dataset may never average
         if (!wasAveraged)
             log.warn("Parameters were never averaged on current fit(). Ratios of batch size, num workers, and averaging frequency may be responsible.");
@@ -267,6 +321,105 @@ public class ParallelWrapper implements AutoCloseable {
         ((ComputationGraph) model).setScore(score);
     }
 
+    /**
+     * This method tells all workers to pick up current params of the model before their next iteration
+     * (model could be modified by user between fit() calls)
+     */
+    private void startSharedTraining() {
+        for (int cnt = 0; cnt < workers; cnt++) {
+            zoo[cnt].syncRequired = true;
+        }
+    }
+
+    /**
+     * This method returns next worker that has room for one more DataSet. Unlike averaging, we don't wait for all
+     * workers here: faster workers just get more DataSets.
+     */
+    private Trainer nextSharedTrainer() {
+        while (true) {
+            for (int i = 0; i < workers; i++) {
+                int cnt = (dispatchPosition + i) % workers;
+                if (zoo[cnt].getBacklog() < SHARED_BACKLOG) {
+                    dispatchPosition = cnt + 1;
+                    return zoo[cnt];
+                }
+            }
+
+            LockSupport.parkNanos(50000L);
+        }
+    }
+
+    /**
+     * This method waits for all workers to finish, applies all pending updates, and propagates resulting params
+     * (equal for all workers at this point) back to the original model. Updater state is not equal for all workers:
+     * each worker's updater only sees that worker's own gradients, so updater state is averaged over workers
+     */
+    private void finishSharedTraining() {
+        for (int cnt = 0; cnt < workers; cnt++) {
+            zoo[cnt].waitTillRunning();
+        }
+
+        List<Model> replicas = new ArrayList<>();
+        double score = 0.0;
+        int scored = 0;
+        for (int cnt = 0; cnt < workers; cnt++) {
+            if (zoo[cnt].catchUp()) {
+                replicas.add(zoo[cnt].getModel());
+
+                if (zoo[cnt].sharedIterations > 0) {
+                    score += zoo[cnt].getModel().score();
+                    scored++;
+                }
+            } else {
+                // this worker wasn't initialized yet, so it'll pick up model params on its first iteration
+                accumulator.discardPendingUpdates(cnt);
+            }
+        }
+
+        if (replicas.isEmpty())
+            return;
+
+        model.setParams(replicas.get(0).params());
+
+        INDArray state = null;
+        for (Model replica : replicas) {
+            INDArray view = model instanceof MultiLayerNetwork
+                            ? ((MultiLayerNetwork) replica).getUpdater().getStateViewArray()
+                            : ((ComputationGraph) replica).getUpdater().getStateViewArray();
+            if (view == null)
+                continue;
+
+            if (state == null)
+                state = view.dup();
+            else
+                state.addi(view);
+        }
+
+        if (state != null) {
+            state.divi(replicas.size());
+            if (model instanceof MultiLayerNetwork)
+                ((MultiLayerNetwork) model).getUpdater().setStateViewArray((MultiLayerNetwork) model, state, false);
+            else
+                ((ComputationGraph) model).getUpdater().setStateViewArray(state);
+        }
+
+        if (scored > 0) {
+            score /= scored;
+            if (model instanceof MultiLayerNetwork)
+                ((MultiLayerNetwork) model).setScore(score);
+            else if (model instanceof ComputationGraph)
+                ((ComputationGraph) model).setScore(score);
+
+            if (reportScore)
+                log.info("Shared gradients score: {}; encoded ratio: {}", score, accumulator.getEncodedRatio());
+        }
+
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        log.debug("Updates shared: {}", accumulator.getUpdatesCount());
+    }
+
 
     /**
      * This method allows you to specify IterationListeners for this model.
@@ -368,10 +521,28 @@ public class ParallelWrapper implements AutoCloseable {
                                 .setNumberOfBuckets(Nd4j.getAffinityManager().getNumberOfDevices()).build();
                 iterator = new AsyncDataSetIterator(source, prefetchSize, queue);
             } else
-                iterator = new AsyncDataSetIterator(source, prefetchSize);
+                iterator = new ParallelDataSetIterator(source, prefetchSize, prefetchWorkers);
         } else
             iterator = source;
 
+        if (trainingMode == TrainingMode.SHARED_GRADIENTS) {
+            startSharedTraining();
+            while (iterator.hasNext() && !stopFit.get()) {
+                DataSet dataSet = iterator.next();
+
+                if (dataSet == null)
+                    throw new ND4JIllegalStateException("You can't have NULL as DataSet");
+
+                nextSharedTrainer().feedDataSet(dataSet);
+            }
+
+            if (iterator instanceof ParallelDataSetIterator)
+                ((ParallelDataSetIterator) iterator).shutdown();
+
+            finishSharedTraining();
+            return;
+        }
+
         AtomicInteger locker = new AtomicInteger(0);
         int whiles = 0;
         while (iterator.hasNext() && !stopFit.get()) {
@@ -456,6 +627,10 @@ public class ParallelWrapper implements AutoCloseable {
             }
         }
 
+        // fit might be stopped before source is exhausted, so prefetch threads have to be released explicitly
+        if (iterator instanceof ParallelDataSetIterator)
+            ((ParallelDataSetIterator) iterator).shutdown();
+
         // sanity checks, or the dataset may never average
         if (!wasAveraged)
             log.warn("Parameters were never averaged on current fit(). Ratios of batch size, num workers, and averaging frequency may be responsible.");
@@ -469,11 +644,14 @@ public class ParallelWrapper implements AutoCloseable {
         protected T model;
         protected int workers = Nd4j.getAffinityManager().getNumberOfDevices();
         protected int prefetchSize = 16;
+        protected int prefetchWorkers = 1;
         protected int averagingFrequency = 1;
         protected boolean reportScore = false;
         protected boolean averageUpdaters = true;
         protected boolean legacyAveraging = true;
         protected boolean isMQ = false; // Nd4j.getAffinityManager().getNumberOfDevices() > 1;
+        protected TrainingMode trainingMode = TrainingMode.AVERAGING;
+        protected double threshold = 1e-3;
 
         /**
          * Build ParallelWrapper for MultiLayerNetwork
@@ -558,6 +736,23 @@ public class ParallelWrapper implements AutoCloseable {
             return this;
         }
 
+        /**
+         * Number of background threads used for data prefetching. Calls to source iterator are serialized,
+         * so extra threads are useful mostly for overlapping preprocessing & host->device transfers.
+         *
+         * Default value: 1
+         *
+         * @param workers any positive number
+         * @return
+         */
+        public Builder prefetchWorkers(int workers) {
+            if (workers < 1)
+                throw new IllegalArgumentException("Number of prefetch workers must be positive");
+
+            this.prefetchWorkers = workers;
+            return this;
+        }
+
         /**
          * If set to true, legacy averaging method is used. This might be used as fallback on multi-gpu systems without P2P access available.
          *
@@ -583,6 +778,43 @@ public class ParallelWrapper implements AutoCloseable {
             return this;
         }
 
+        /**
+         * This method allows to choose how workers exchange their progress. See {@link TrainingMode} for details.
+         *
+         * PLEASE NOTE: SHARED_GRADIENTS mode is experimental feature, and supports standard backprop only
+         * (no pretraining, no truncated BPTT), with STOCHASTIC_GRADIENT_DESCENT optimization algorithm, 1 iteration
+         * per minibatch and default step function: Solver is bypassed in this mode, and update is applied as params
+         * -= update. Other configurations are rejected by {@link #build()}. averagingFrequency, averageUpdaters and
+         * legacyAveraging options are ignored in this mode.
+         *
+         * Default value: AVERAGING
+         *
+         * @param mode
+         * @return
+         */
+        public Builder trainingMode(@NonNull TrainingMode mode) {
+            this.trainingMode = mode;
+            return this;
+        }
+
+        /**
+         * Threshold used for updates encoding in SHARED_GRADIENTS mode: only accumulated update elements with
+         * absolute value of at least threshold are shared between workers, in steps of threshold.
+         * Lower values mean more precise updates, but more traffic between workers.
+         *
+         * Default value: 1e-3
+         *
+         * @param threshold any positive number
+         * @return
+         */
+        public Builder gradientsThreshold(double threshold) {
+            if (threshold <= 0.0)
+                throw new IllegalArgumentException("Threshold must be positive");
+
+            this.threshold = threshold;
+            return this;
+        }
+
         /**
          * This method returns ParallelWrapper instance
          *
@@ -595,6 +827,53 @@ public class ParallelWrapper implements AutoCloseable {
             wrapper.averageUpdaters = this.averageUpdaters;
             wrapper.legacyAveraging = this.legacyAveraging;
             wrapper.isMQ = this.isMQ;
+            wrapper.prefetchWorkers = this.prefetchWorkers;
+            wrapper.trainingMode = this.trainingMode;
+
+            if (trainingMode == TrainingMode.SHARED_GRADIENTS) {
+                boolean supported;
+                NeuralNetConfiguration solverConf = null;
+                if (model instanceof MultiLayerNetwork) {
+                    MultiLayerConfiguration conf = ((MultiLayerNetwork) model).getLayerWiseConfigurations();
+                    supported = conf.isBackprop() && !conf.isPretrain()
+                                    && conf.getBackpropType() != BackpropType.TruncatedBPTT;
+                    solverConf = conf.getConf(0);
+                } else if (model instanceof ComputationGraph) {
+                    ComputationGraphConfiguration conf = ((ComputationGraph) model).getConfiguration();
+                    supported = conf.isBackprop() && !conf.isPretrain()
+                                    && conf.getBackpropType() != BackpropType.TruncatedBPTT;
+                    solverConf = conf.getDefaultConfiguration();
+                } else
+                    supported = false;
+
+                if (!supported)
+                    throw new IllegalStateException(
+                                    "SHARED_GRADIENTS training mode supports only MultiLayerNetwork and ComputationGraph "
+                                                    + "with standard backprop (no pretraining, no truncated BPTT)");
+
+                // each minibatch is handled as single plain SGD step, Solver isn't involved
+                if (solverConf != null) {
+                    if (solverConf.getOptimizationAlgo() != OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+                        throw new IllegalStateException(
+                                        "SHARED_GRADIENTS training mode supports only STOCHASTIC_GRADIENT_DESCENT "
+                                                        + "optimization algorithm, got ["
+                                                        + solverConf.getOptimizationAlgo() + "] instead");
+
+                    if (solverConf.getNumIterations() != 1)
+                        throw new IllegalStateException(
+                                        "SHARED_GRADIENTS training mode supports only 1 iteration per minibatch, got ["
+                                                        + solverConf.getNumIterations() + "] instead");
+
+                    if (solverConf.getStepFunction() != null
+                                    && !(solverConf.getStepFunction() instanceof NegativeGradientStepFunction))
+                        throw new IllegalStateException(
+                                        "SHARED_GRADIENTS training mode supports only default step function, got ["
+                                                        + solverConf.getStepFunction().getClass().getSimpleName()
+                                                        + "] instead");
+                }
+
+                wrapper.accumulator = new EncodedGradientsAccumulator(workers, threshold);
+            }
 
             return wrapper;
         }
@@ -614,6 +893,11 @@ public class ParallelWrapper implements AutoCloseable {
         private final String uuid = UUID.randomUUID().toString();
         private boolean onRootModel = false;
 
+        // SHARED_GRADIENTS mode only
+        private volatile boolean modelReady = false;
+        private volatile boolean syncRequired = true;
+        private long sharedIterations = 0;
+
 
 
         public Trainer(int threadId, Model model, int rootDevice, boolean useMDS) {
@@ -695,6 +979,116 @@ public class ParallelWrapper implements AutoCloseable {
                 ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
         }
 
+        /**
+         * This method returns number of DataSets fed to this worker, but not processed yet
+         */
+        public int getBacklog() {
+            // if Trainer thread got exception during training - rethrow it here
+            if (thrownException != null)
+                throw new RuntimeException(thrownException);
+
+            return running.get();
+        }
+
+        /**
+         * This method brings model of this worker up to date: picks up params of the original model if requested,
+         * and applies updates shared by other workers so far.
+         *
+         * PLEASE NOTE: should be called either from this thread, or while this worker is idle
+         *
+         * @return false if model of this worker isn't initialized yet
+         */
+        protected boolean catchUp() {
+            if (!modelReady)
+                return false;
+
+            if (syncRequired) {
+                replicatedModel.setParams(originalModel.params());
+                syncRequired = false;
+            }
+
+            accumulator.applyPendingUpdates(threadId, replicatedModel.params());
+            return true;
+        }
+
+        protected void fitShared(DataSet dataSet) {
+            INDArray[] featuresMasks = dataSet.getFeaturesMaskArray() != null
+                            ? new INDArray[] {dataSet.getFeaturesMaskArray()} : null;
+            INDArray[] labelsMasks = dataSet.getLabelsMaskArray() != null
+                            ? new INDArray[] {dataSet.getLabelsMaskArray()} : null;
+
+            fitShared(new INDArray[] {dataSet.getFeatures()}, new INDArray[] {dataSet.getLabels()}, featuresMasks,
+                            labelsMasks);
+        }
+
+        protected void fitShared(MultiDataSet dataSet) {
+            fitShared(dataSet.getFeatures(), dataSet.getLabels(), dataSet.getFeaturesMaskArrays(),
+                            dataSet.getLabelsMaskArrays());
+        }
+
+        /**
+         * This method does single SGD iteration: same as Solver does, but instead of applying whole update to params,
+         * update is passed to accumulator, which applies & shares encoded part of it
+         */
+        protected void fitShared(INDArray[] features, INDArray[] labels, INDArray[] featuresMasks,
+                        INDArray[] labelsMasks) {
+            catchUp();
+
+            int iteration = BaseOptimizer.getIterationCount(replicatedModel);
+            Gradient gradient;
+            Collection<IterationListener> listeners;
+            if (replicatedModel instanceof MultiLayerNetwork) {
+                MultiLayerNetwork network = (MultiLayerNetwork) replicatedModel;
+                network.setInput(features[0]);
+                network.setLabels(labels[0]);
+                network.setLayerMaskArrays(featuresMasks == null ? null : featuresMasks[0],
+                                labelsMasks == null ? null : labelsMasks[0]);
+
+                listeners = network.getListeners();
+                network.computeGradientAndScore();
+                notifyGradientCalculation(listeners);
+                gradient = network.gradient();
+                network.getUpdater().update(network, gradient, iteration, network.batchSize());
+            } else {
+                ComputationGraph graph = (ComputationGraph) replicatedModel;
+                graph.setInputs(features);
+                graph.setLabels(labels);
+                graph.setLayerMaskArrays(featuresMasks, labelsMasks);
+
+                listeners = graph.getListeners();
+                graph.computeGradientAndScore();
+                notifyGradientCalculation(listeners);
+                gradient = graph.gradient();
+                graph.getUpdater().update(graph, gradient, iteration, graph.batchSize());
+            }
+
+            accumulator.storeUpdate(threadId, gradient.gradient(), replicatedModel.params());
+
+            if (replicatedModel instanceof MultiLayerNetwork)
+                ((MultiLayerNetwork) replicatedModel).clearLayerMaskArrays();
+            else
+                ((ComputationGraph) replicatedModel).clearLayerMaskArrays();
+
+            if (listeners != null) {
+                for (IterationListener listener : listeners)
+                    listener.iterationDone(replicatedModel, iteration);
+            }
+
+            BaseOptimizer.incrementIterationCount(replicatedModel, 1);
+            sharedIterations++;
+        }
+
+        protected void notifyGradientCalculation(Collection<IterationListener> listeners) {
+            if (listeners == null)
+                return;
+
+            // same as BaseOptimizer does: gradient is calculated, but updater isn't applied yet
+            for (IterationListener listener : listeners) {
+                if (listener instanceof TrainingListener)
+                    ((TrainingListener) listener).onGradientCalculation(replicatedModel);
+            }
+        }
+
         public boolean isRunning() {
             // if Trainer thread got exception during training - rethrow it here
             if (thrownException != null)
@@ -764,6 +1158,8 @@ public class ParallelWrapper implements AutoCloseable {
                     }
                 }
 
+                modelReady = true;
+
                 if (!useMDS) {
                     while (!shouldStop.get()) {
                         DataSet dataSet = queue.poll(100, TimeUnit.MILLISECONDS);
@@ -772,7 +1168,9 @@ public class ParallelWrapper implements AutoCloseable {
                             //if (Nd4j.getAffinityManager().getDeviceForCurrentThread() != Nd4j.getAffinityManager().getDeviceForArray(dataSet.getFeatures()))
                             //    log.debug("Thread: {}; Bad align for data: {}/{}", Thread.currentThread().getId(), Nd4j.getAffinityManager().getDeviceForCurrentThread(), Nd4j.getAffinityManager().getDeviceForArray(dataSet.getFeatures()));
 
-                            if (replicatedModel instanceof MultiLayerNetwork) {
+                            if (accumulator != null) {
+                                fitShared(dataSet);
+                            } else if (replicatedModel instanceof MultiLayerNetwork) {
                                 ((MultiLayerNetwork) replicatedModel).fit(dataSet);
                             } else if (replicatedModel instanceof ComputationGraph) {
                                 ((ComputationGraph) replicatedModel).fit(dataSet);
@@ -790,7 +1188,10 @@ public class ParallelWrapper implements AutoCloseable {
                         MultiDataSet dataSet = queueMDS.poll(100, TimeUnit.MILLISECONDS);
                         if (dataSet != null) {
                             if (replicatedModel instanceof ComputationGraph) {
-                                ((ComputationGraph) replicatedModel).fit(dataSet);
+                                if (accumulator != null)
+                                    fitShared(dataSet);
+                                else
+                                    ((ComputationGraph) replicatedModel).fit(dataSet);
                             } else
                                 throw new RuntimeException("MultiDataSet can be fit into ComputationGraph only");
 
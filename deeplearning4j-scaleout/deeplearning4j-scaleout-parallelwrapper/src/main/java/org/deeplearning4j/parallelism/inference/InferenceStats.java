@@ -0,0 +1,150 @@
+package org.deeplearning4j.parallelism.inference;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters collected by {@link org.deeplearning4j.parallelism.ParallelInference}.
+ *
+ * Everything here is lock-free and updated from worker threads, so values read from
+ * another thread are only a consistent snapshot per counter, not across counters.
+ *
+ * Latencies are kept in a log2 histogram of microseconds: bucket i holds requests that took [2^(i-1), 2^i) us,
+ * which is enough to estimate p50/p99 without storing individual samples.
+ *
+ * Batch sizes are kept in a histogram with one bucket per size up to batchLimit, plus one overflow bucket: single
+ * request may contain more examples than batchLimit, and it's executed as one batch then.
+ */
+public class InferenceStats {
+    protected static final int LATENCY_BUCKETS = 40;
+
+    protected final AtomicLongArray batchSizes;
+    protected final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+    protected final AtomicLong requests = new AtomicLong(0);
+    protected final AtomicLong batches = new AtomicLong(0);
+    protected final AtomicLong examples = new AtomicLong(0);
+    protected final AtomicLong totalLatency = new AtomicLong(0);
+    protected final AtomicLong maxLatency = new AtomicLong(0);
+
+    public InferenceStats(int batchLimit) {
+        // sizes 0..batchLimit, and overflow bucket
+        this.batchSizes = new AtomicLongArray(batchLimit + 2);
+    }
+
+    /**
+     * Records one executed batch
+     *
+     * @param size number of examples within batch
+     */
+    public void recordBatch(int size) {
+        batches.incrementAndGet();
+        examples.addAndGet(size);
+        int overflow = batchSizes.length() - 1;
+        batchSizes.incrementAndGet(size < overflow ? size : overflow);
+    }
+
+    /**
+     * Records end-to-end latency of one request, from submission till result available
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void recordLatency(long nanos) {
+        requests.incrementAndGet();
+        totalLatency.addAndGet(nanos);
+
+        long max;
+        while (nanos > (max = maxLatency.get())) {
+            if (maxLatency.compareAndSet(max, nanos))
+                break;
+        }
+
+        long micros = Math.max(nanos / 1000, 0);
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        latencies.incrementAndGet(Math.min(bucket, LATENCY_BUCKETS - 1));
+    }
+
+    /**
+     * @return number of requests served so far
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return number of batches executed so far
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * @return histogram of executed batch sizes, of length batchLimit + 2: element i (for i <= batchLimit) is the
+     *         number of batches that contained i examples, and the last element is the number of batches that
+     *         contained more than batchLimit examples
+     */
+    public long[] getBatchSizeHistogram() {
+        long[] result = new long[batchSizes.length()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = batchSizes.get(i);
+
+        return result;
+    }
+
+    /**
+     * @return average number of examples per executed batch
+     */
+    public double getAverageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0.0 : (double) examples.get() / count;
+    }
+
+    /**
+     * @return average request latency, in milliseconds
+     */
+    public double getAverageLatencyMillis() {
+        long cnt = requests.get();
+        return cnt == 0 ? 0.0 : totalLatency.get() / (cnt * 1e6);
+    }
+
+    /**
+     * @return maximum observed request latency, in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatency.get() / 1e6;
+    }
+
+    /**
+     * This method returns upper bound estimation of latency percentile, based on log2 histogram
+     *
+     * @param percentile value in range (0, 100], i.e. 99.0 for p99
+     * @return latency in milliseconds
+     */
+    public double getLatencyPercentileMillis(double percentile) {
+        long cnt = 0;
+        long[] counts = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            counts[i] = latencies.get(i);
+            cnt += counts[i];
+        }
+
+        if (cnt == 0)
+            return 0.0;
+
+        long threshold = (long) Math.ceil(cnt * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= threshold)
+                return (1L << i) / 1000.0;
+        }
+
+        return getMaxLatencyMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InferenceStats[requests=%d, batches=%d, avgBatch=%.2f, avgLatency=%.3fms, p99=%.3fms, maxLatency=%.3fms]",
+                        getRequests(), getBatches(), getAverageBatchSize(), getAverageLatencyMillis(),
+                        getLatencyPercentileMillis(99.0), getMaxLatencyMillis());
+    }
+}
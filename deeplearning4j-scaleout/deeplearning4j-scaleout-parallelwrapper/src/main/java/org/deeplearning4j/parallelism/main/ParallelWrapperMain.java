@@ -39,6 +39,11 @@ public class ParallelWrapperMain {
     private boolean averageUpdaters = true;
     @Parameter(names = {"--legacyAveraging"}, description = "Whether to use legacy averaging", arity = 1)
     private boolean legacyAveraging = true;
+    @Parameter(names = {"--trainingMode"}, description = "Training mode: AVERAGING or SHARED_GRADIENTS", arity = 1)
+    private String trainingMode = ParallelWrapper.TrainingMode.AVERAGING.name();
+    @Parameter(names = {"--gradientsThreshold"},
+                    description = "Updates encoding threshold, used in SHARED_GRADIENTS training mode", arity = 1)
+    private double gradientsThreshold = 1e-3;
     @Parameter(names = {"--dataSetIteratorFactoryClazz"},
                     description = "The fully qualified class name of the multi data set iterator class to use.",
                     arity = 1)
@@ -95,6 +100,10 @@ public class ParallelWrapperMain {
                         // optional parameter, set to false ONLY if your system has support P2P memory access across PCIe (hint: AWS do not support P2P)
                         .useLegacyAveraging(legacyAveraging)
 
+                        // AVERAGING, or SHARED_GRADIENTS to let workers exchange encoded updates without synchronization
+                        .trainingMode(ParallelWrapper.TrainingMode.valueOf(trainingMode.toUpperCase()))
+                        .gradientsThreshold(gradientsThreshold)
+
                         .build();
 
         if (dataSetIteratorFactoryClazz != null) {
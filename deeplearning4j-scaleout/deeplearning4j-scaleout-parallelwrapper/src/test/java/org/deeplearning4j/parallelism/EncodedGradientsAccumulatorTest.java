@@ -0,0 +1,94 @@
+package org.deeplearning4j.parallelism;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertEquals;
+
+public class EncodedGradientsAccumulatorTest {
+
+    @Test
+    public void testEncodingWithResidual() throws Exception {
+        // values used here are exact in floating point, so we can compare arrays directly
+        EncodedGradientsAccumulator accumulator = new EncodedGradientsAccumulator(2, 0.25);
+
+        INDArray params0 = Nd4j.zeros(1, 4);
+        INDArray params1 = Nd4j.zeros(1, 4);
+        INDArray update = Nd4j.create(new double[] {0.75, -0.375, 0.125, 0.0});
+
+        // first update: 2 elements are above threshold
+        assertEquals(2, accumulator.storeUpdate(0, update, params0));
+        assertEquals(Nd4j.create(new double[] {-0.25, 0.25, 0.0, 0.0}), params0);
+
+        // worker 1 gets exactly the same update
+        assertEquals(1, accumulator.getPendingUpdates(1));
+        assertEquals(0, accumulator.getPendingUpdates(0));
+        assertEquals(1, accumulator.applyPendingUpdates(1, params1));
+        assertEquals(params0, params1);
+
+        // residual is {0.5, -0.125, 0.125, 0.0} now, so second update shares 3 elements
+        assertEquals(3, accumulator.storeUpdate(0, update, params0));
+        assertEquals(Nd4j.create(new double[] {-0.5, 0.5, -0.25, 0.0}), params0);
+
+        accumulator.applyPendingUpdates(1, params1);
+        assertEquals(params0, params1);
+        assertEquals(0, accumulator.getPendingUpdates(1));
+    }
+
+    @Test
+    public void testApplyToViews() throws Exception {
+        EncodedGradientsAccumulator accumulator = new EncodedGradientsAccumulator(3, 0.25);
+        INDArray update = Nd4j.create(new double[] {0.75, -0.375, 0.125, 0.0});
+
+        INDArray params0 = Nd4j.zeros(1, 4);
+        // contiguous view with offset, and strided view
+        INDArray params1 = Nd4j.zeros(3, 4).getRow(1);
+        INDArray params2 = Nd4j.zeros(4, 3).getColumn(2);
+
+        accumulator.storeUpdate(0, update, params0);
+        accumulator.applyPendingUpdates(1, params1);
+        accumulator.applyPendingUpdates(2, params2);
+
+        assertEquals(params0, params1);
+        assertEquals(params0, params2.reshape(1, 4));
+    }
+
+    @Test
+    public void testConcurrentWorkers() throws Exception {
+        final int workers = 4;
+        final int length = 1000;
+        // power of 2 threshold: params are equal regardless of order in which updates were applied
+        final EncodedGradientsAccumulator accumulator = new EncodedGradientsAccumulator(workers, 1.0 / 1024);
+        final INDArray[] params = new INDArray[workers];
+        Thread[] threads = new Thread[workers];
+
+        for (int i = 0; i < workers; i++) {
+            final int workerId = i;
+            params[i] = Nd4j.zeros(1, length);
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int e = 0; e < 50; e++) {
+                        accumulator.applyPendingUpdates(workerId, params[workerId]);
+                        INDArray update = Nd4j.rand(1, length).subi(0.5).muli(1e-2);
+                        accumulator.storeUpdate(workerId, update, params[workerId]);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads)
+            thread.join();
+
+        // once all pending updates are applied, all workers have the same params
+        for (int i = 0; i < workers; i++)
+            accumulator.applyPendingUpdates(i, params[i]);
+
+        for (int i = 1; i < workers; i++)
+            assertEquals(params[0], params[i]);
+
+        assertEquals(workers * 50, accumulator.getUpdatesCount());
+    }
+}
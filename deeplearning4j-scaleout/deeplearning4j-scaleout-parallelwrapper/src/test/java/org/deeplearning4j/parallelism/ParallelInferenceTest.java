@@ -0,0 +1,100 @@
+package org.deeplearning4j.parallelism;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.parallelism.inference.InferenceStats;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelInferenceTest {
+
+    private static MultiLayerNetwork getNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).weightInit(WeightInit.XAVIER)
+                        .list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .backprop(true).pretrain(false).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    @Test
+    public void testBatchedOutputEquality() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        INDArray input = Nd4j.rand(200, 4);
+        INDArray expected = net.output(input, false);
+
+        ParallelInference inference = new ParallelInference.Builder(net).workers(2).batchLimit(16).queueLimit(256)
+                        .batchWaitTime(5, TimeUnit.MILLISECONDS).build();
+
+        try {
+            List<CompletableFuture<INDArray[]>> futures = new ArrayList<>();
+            for (int i = 0; i < input.rows(); i++)
+                futures.add(inference.outputAsync(input.getRow(i).dup()));
+
+            for (int i = 0; i < futures.size(); i++) {
+                INDArray[] result = futures.get(i).get();
+                assertEquals(1, result.length);
+                assertEquals(expected.getRow(i), result[0]);
+            }
+
+            assertEquals(200, inference.getStats().getRequests());
+            assertTrue(inference.getStats().getBatches() <= 200);
+            assertTrue(inference.getStats().getAverageBatchSize() >= 1.0);
+        } finally {
+            inference.shutdown();
+        }
+    }
+
+    @Test
+    public void testBlockingOutput() throws Exception {
+        MultiLayerNetwork net = getNetwork();
+        INDArray input = Nd4j.rand(5, 4);
+        INDArray expected = net.output(input, false);
+
+        ParallelInference inference = new ParallelInference.Builder(net).workers(2).batchLimit(1).build();
+
+        try {
+            assertEquals(expected, inference.output(input));
+
+            // single request of 5 examples exceeds batchLimit of 1, so it goes to overflow bucket
+            assertArrayEquals(new long[] {0, 0, 1}, inference.getStats().getBatchSizeHistogram());
+            assertEquals(5.0, inference.getStats().getAverageBatchSize(), 1e-10);
+        } finally {
+            inference.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchSizeHistogram() {
+        InferenceStats stats = new InferenceStats(4);
+        stats.recordBatch(1);
+        stats.recordBatch(4);
+        stats.recordBatch(4);
+        stats.recordBatch(5);
+        stats.recordBatch(100);
+
+        assertArrayEquals(new long[] {0, 1, 0, 0, 2, 2}, stats.getBatchSizeHistogram());
+        assertEquals(5, stats.getBatches());
+        assertEquals(114 / 5.0, stats.getAverageBatchSize(), 1e-10);
+    }
+}
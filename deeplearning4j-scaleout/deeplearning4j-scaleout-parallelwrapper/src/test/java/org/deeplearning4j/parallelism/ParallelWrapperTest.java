@@ -1,5 +1,6 @@
 package org.deeplearning4j.parallelism;
 
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
@@ -14,6 +15,7 @@ import org.deeplearning4j.nn.conf.layers.setup.ConvolutionLayerSetup;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -24,6 +26,8 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.junit.Assert.assertTrue;
+
 
 /**
  * Created by agibsonccc on 11/12/16.
@@ -128,5 +132,127 @@ public class ParallelWrapperTest {
         wrapper.shutdown();
     }
 
+    private static MultiLayerNetwork getIrisNetwork() {
+        return getIrisNetwork(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT, 1);
+    }
+
+    private static MultiLayerNetwork getIrisNetwork(OptimizationAlgorithm algorithm, int iterations) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .optimizationAlgo(algorithm).iterations(iterations).updater(Updater.NESTEROVS)
+                        .momentum(0.9).learningRate(0.1).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .backprop(true).pretrain(false).build();
+
+        MultiLayerNetwork model = new MultiLayerNetwork(conf);
+        model.init();
+        return model;
+    }
+
+    @Test
+    public void testSharedGradientsMode() throws Exception {
+        MultiLayerNetwork model = getIrisNetwork();
+        DataSetIterator iterator = new IrisDataSetIterator(10, 150);
+        DataSet all = new IrisDataSetIterator(150, 150).next();
+
+        double scoreBefore = model.score(all);
+
+        ParallelWrapper wrapper = new ParallelWrapper.Builder(model).workers(4).prefetchBuffer(8)
+                        .trainingMode(ParallelWrapper.TrainingMode.SHARED_GRADIENTS).gradientsThreshold(1e-3)
+                        .reportScoreAfterAveraging(true).build();
+
+        for (int i = 0; i < 20; i++) {
+            wrapper.fit(iterator);
+        }
+        wrapper.shutdown();
+
+        double scoreAfter = model.score(all);
+        log.info("Score before: {}, after: {}", scoreBefore, scoreAfter);
+        assertTrue(scoreAfter < scoreBefore);
+    }
+
+    @Test
+    public void testTrainingModesConvergeEqually() throws Exception {
+        DataSet all = new IrisDataSetIterator(150, 150).next();
+        double[] scores = new double[ParallelWrapper.TrainingMode.values().length];
+
+        for (ParallelWrapper.TrainingMode mode : ParallelWrapper.TrainingMode.values()) {
+            MultiLayerNetwork model = getIrisNetwork();
+            DataSetIterator iterator = new IrisDataSetIterator(10, 150);
+
+            ParallelWrapper wrapper = new ParallelWrapper.Builder(model).workers(2).prefetchBuffer(4)
+                            .averagingFrequency(1).trainingMode(mode).build();
+            for (int i = 0; i < 20; i++)
+                wrapper.fit(iterator);
+            wrapper.shutdown();
+
+            scores[mode.ordinal()] = model.score(all);
+            log.info("Mode: {}; score: {}", mode, scores[mode.ordinal()]);
+        }
+
+        // threshold encoding is lossy, but shouldn't make convergence much worse than averaging
+        double averaging = scores[ParallelWrapper.TrainingMode.AVERAGING.ordinal()];
+        double shared = scores[ParallelWrapper.TrainingMode.SHARED_GRADIENTS.ordinal()];
+        assertTrue("Shared gradients score " + shared + " vs averaging score " + averaging, shared < 2 * averaging);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSharedGradientsRejectsLbfgs() {
+        new ParallelWrapper.Builder(getIrisNetwork(OptimizationAlgorithm.LBFGS, 1))
+                        .trainingMode(ParallelWrapper.TrainingMode.SHARED_GRADIENTS).build();
+    }
 
+    @Test(expected = IllegalStateException.class)
+    public void testSharedGradientsRejectsMultipleIterations() {
+        new ParallelWrapper.Builder(getIrisNetwork(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT, 5))
+                        .trainingMode(ParallelWrapper.TrainingMode.SHARED_GRADIENTS).build();
+    }
+
+    /**
+     * Convergence and throughput comparison of AVERAGING and SHARED_GRADIENTS training modes for different number
+     * of CPU workers. Run manually: results are only logged.
+     */
+    @Test
+    @Ignore
+    public void testTrainingModesComparison() throws Exception {
+        int batchSize = 32;
+        int nEpochs = 2;
+
+        DataSetIterator mnistTrain = new MnistDataSetIterator(batchSize, true, 12345);
+        DataSet mnistTest = new MnistDataSetIterator(10000, false, 12345).next();
+
+        for (int workers : new int[] {8, 16, 32}) {
+            for (ParallelWrapper.TrainingMode mode : ParallelWrapper.TrainingMode.values()) {
+                MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+                                .updater(Updater.NESTEROVS).momentum(0.9).learningRate(0.01)
+                                .weightInit(WeightInit.XAVIER).list()
+                                .layer(0, new DenseLayer.Builder().nIn(784).nOut(500).activation(Activation.RELU)
+                                                .build())
+                                .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(500)
+                                                .nOut(10).activation(Activation.SOFTMAX).build())
+                                .backprop(true).pretrain(false).build();
+                MultiLayerNetwork model = new MultiLayerNetwork(conf);
+                model.init();
+
+                ParallelWrapper wrapper = new ParallelWrapper.Builder(model).workers(workers).prefetchBuffer(workers)
+                                .averagingFrequency(3).useLegacyAveraging(false).trainingMode(mode).build();
+
+                for (int i = 0; i < nEpochs; i++) {
+                    long time1 = System.currentTimeMillis();
+                    wrapper.fit(mnistTrain);
+                    long time2 = System.currentTimeMillis();
+
+                    Evaluation eval = new Evaluation(10);
+                    eval.eval(mnistTest.getLabels(), model.output(mnistTest.getFeatureMatrix(), false));
+                    log.info("Workers: {}; mode: {}; epoch: {}; time: {} ms; examples/sec: {}; score: {}; accuracy: {}",
+                                    workers, mode, i, (time2 - time1), 60000 * 1000L / Math.max(1, time2 - time1),
+                                    model.score(mnistTest), eval.accuracy());
+                }
+
+                wrapper.shutdown();
+            }
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import java.io.Serializable;
+
+/**
+ * Averaged syn0 rows of one partition, packed into primitive arrays: row i of the block belongs to word indexes[i],
+ * and occupies vectors[i * vectorLength .. (i + 1) * vectorLength).
+ */
+public class Syn0Block implements Serializable {
+    private final int[] indexes;
+    private final double[] vectors;
+    private final int vectorLength;
+    private final int maxCount;
+
+    public Syn0Block(int[] indexes, double[] vectors, int vectorLength, int maxCount) {
+        this.indexes = indexes;
+        this.vectors = vectors;
+        this.vectorLength = vectorLength;
+        this.maxCount = maxCount;
+    }
+
+    public int[] getIndexes() {
+        return indexes;
+    }
+
+    public double[] getVectors() {
+        return vectors;
+    }
+
+    public int getVectorLength() {
+        return vectorLength;
+    }
+
+    /**
+     * @return max number of partitions that contributed to a single word of this block
+     */
+    public int getMaxCount() {
+        return maxCount;
+    }
+}
@@ -0,0 +1,13 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+import scala.Tuple2;
+
+import java.util.Iterator;
+
+public class Syn0BlockFunction extends BaseFlatMapFunctionAdaptee<Iterator<Tuple2<Integer, Syn0Update>>, Syn0Block> {
+
+    public Syn0BlockFunction(int vectorLength) {
+        super(new Syn0BlockFunctionAdapter(vectorLength));
+    }
+}
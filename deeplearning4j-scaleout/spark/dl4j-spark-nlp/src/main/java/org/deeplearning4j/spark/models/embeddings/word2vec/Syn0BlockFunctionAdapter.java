@@ -0,0 +1,50 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Averages reduced syn0 updates of one partition, and packs them into single {@link Syn0Block}, so driver receives
+ * one object per partition instead of one per word
+ */
+public class Syn0BlockFunctionAdapter
+                implements FlatMapFunctionAdapter<Iterator<Tuple2<Integer, Syn0Update>>, Syn0Block> {
+
+    private final int vectorLength;
+
+    public Syn0BlockFunctionAdapter(int vectorLength) {
+        this.vectorLength = vectorLength;
+    }
+
+    @Override
+    public Iterable<Syn0Block> call(Iterator<Tuple2<Integer, Syn0Update>> iterator) throws Exception {
+        List<Tuple2<Integer, Syn0Update>> updates = new ArrayList<>();
+        while (iterator.hasNext())
+            updates.add(iterator.next());
+
+        if (updates.isEmpty())
+            return Collections.emptyList();
+
+        int[] indexes = new int[updates.size()];
+        double[] vectors = new double[updates.size() * vectorLength];
+        int maxCount = 0;
+        for (int i = 0; i < updates.size(); i++) {
+            Syn0Update update = updates.get(i)._2();
+            double[] sum = update.getSum();
+            int count = update.getCount();
+
+            indexes[i] = updates.get(i)._1();
+            for (int j = 0; j < vectorLength; j++)
+                vectors[i * vectorLength + j] = sum[j] / count;
+
+            maxCount = Math.max(maxCount, count);
+        }
+
+        return Collections.singletonList(new Syn0Block(indexes, vectors, vectorLength, maxCount));
+    }
+}
@@ -0,0 +1,35 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import java.io.Serializable;
+
+/**
+ * Sum of syn0 vectors obtained for one word from different partitions, together with number of summed vectors.
+ * Used as combiner value for distributed averaging of syn0.
+ */
+public class Syn0Update implements Serializable {
+    private final double[] sum;
+    private int count;
+
+    public Syn0Update(double[] vector) {
+        this.sum = vector;
+        this.count = 1;
+    }
+
+    /**
+     * Adds other update to this one, in place
+     */
+    public Syn0Update merge(Syn0Update other) {
+        for (int i = 0; i < sum.length; i++)
+            sum[i] += other.sum[i];
+        count += other.count;
+        return this;
+    }
+
+    public double[] getSum() {
+        return sum;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
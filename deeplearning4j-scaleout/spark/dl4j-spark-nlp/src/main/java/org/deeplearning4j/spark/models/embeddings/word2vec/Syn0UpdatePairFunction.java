@@ -0,0 +1,24 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.api.java.function.PairFunction;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import scala.Tuple2;
+
+import java.util.Map;
+
+/**
+ * Keys syn0 vector obtained on a partition by word index, for reduceByKey
+ */
+public class Syn0UpdatePairFunction implements PairFunction<Map.Entry<VocabWord, INDArray>, Integer, Syn0Update> {
+
+    @Override
+    public Tuple2<Integer, Syn0Update> call(Map.Entry<VocabWord, INDArray> entry) {
+        INDArray vector = entry.getValue();
+        double[] sum = new double[vector.length()];
+        for (int i = 0; i < sum.length; i++)
+            sum[i] = vector.getDouble(i);
+
+        return new Tuple2<>(entry.getKey().getIndex(), new Syn0Update(sum));
+    }
+}
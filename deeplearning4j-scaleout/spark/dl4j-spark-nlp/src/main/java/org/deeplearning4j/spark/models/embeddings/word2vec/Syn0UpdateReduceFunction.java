@@ -0,0 +1,14 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.api.java.function.Function2;
+
+/**
+ * Combines syn0 updates of the same word: vectors are summed up, counts are added
+ */
+public class Syn0UpdateReduceFunction implements Function2<Syn0Update, Syn0Update, Syn0Update> {
+
+    @Override
+    public Syn0Update call(Syn0Update a, Syn0Update b) {
+        return a.merge(b);
+    }
+}
@@ -26,7 +26,6 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.broadcast.Broadcast;
-import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectorsImpl;
@@ -36,6 +35,7 @@ import org.deeplearning4j.spark.text.functions.CountCumSum;
 import org.deeplearning4j.spark.text.functions.TextPipeline;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.heartbeat.reports.Environment;
@@ -49,7 +49,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -207,40 +206,31 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
         FlatMapFunction firstIterFunc =
                         new FirstIterationFunction(word2vecVarMapBroadcast, expTableBroadcast, vocabCacheBroadcast);
         @SuppressWarnings("unchecked")
-        JavaRDD<Pair<VocabWord, INDArray>> indexSyn0UpdateEntryRDD =
-                        vocabWordListSentenceCumSumRDD.mapPartitions(firstIterFunc).map(new MapToPairFunction());
+        JavaRDD<Map.Entry<VocabWord, INDArray>> indexSyn0UpdateEntryRDD =
+                        vocabWordListSentenceCumSumRDD.mapPartitions(firstIterFunc);
 
-        // Get all the syn0 updates into a list in driver
-        List<Pair<VocabWord, INDArray>> syn0UpdateEntries = indexSyn0UpdateEntryRDD.collect();
+        // Averaging is done on the cluster: vectors of the same word are summed up and counted by reduceByKey,
+        // and each partition of averaged rows is packed into single block, so driver gets one object per partition
+        log.info("Averaging results...");
+        JavaRDD<Syn0Block> syn0BlocksRDD = indexSyn0UpdateEntryRDD.mapToPair(new Syn0UpdatePairFunction())
+                        .reduceByKey(new Syn0UpdateReduceFunction()).mapPartitions(new Syn0BlockFunction(layerSize));
 
-        // Instantiate syn0
-        INDArray syn0 = Nd4j.zeros(vocabCache.numWords(), layerSize);
+        List<Syn0Block> syn0Blocks = syn0BlocksRDD.collect();
 
-        // Updating syn0 first pass: just add vectors obtained from different nodes
-        log.info("Averaging results...");
-        Map<VocabWord, AtomicInteger> updates = new HashMap<>();
-        Map<Long, Long> updaters = new HashMap<>();
-        for (Pair<VocabWord, INDArray> syn0UpdateEntry : syn0UpdateEntries) {
-            syn0.getRow(syn0UpdateEntry.getFirst().getIndex()).addi(syn0UpdateEntry.getSecond());
-
-            // for proper averaging we need to divide resulting sums later, by the number of additions
-            if (updates.containsKey(syn0UpdateEntry.getFirst())) {
-                updates.get(syn0UpdateEntry.getFirst()).incrementAndGet();
-            } else
-                updates.put(syn0UpdateEntry.getFirst(), new AtomicInteger(1));
-
-            if (!updaters.containsKey(syn0UpdateEntry.getFirst().getVocabId())) {
-                updaters.put(syn0UpdateEntry.getFirst().getVocabId(), syn0UpdateEntry.getFirst().getAffinityId());
+        // Instantiate syn0, and copy averaged rows straight into its buffer
+        INDArray syn0 = Nd4j.zeros(vocabCache.numWords(), layerSize);
+        DataBuffer syn0Buffer = syn0.data();
+        for (Syn0Block block : syn0Blocks) {
+            int[] indexes = block.getIndexes();
+            double[] vectors = block.getVectors();
+            for (int i = 0; i < indexes.length; i++) {
+                long offset = (long) indexes[i] * layerSize;
+                for (int j = 0; j < layerSize; j++)
+                    syn0Buffer.put(offset + j, vectors[i * layerSize + j]);
             }
-        }
 
-        // Updating syn0 second pass: average obtained vectors
-        for (Map.Entry<VocabWord, AtomicInteger> entry : updates.entrySet()) {
-            if (entry.getValue().get() > 1) {
-                if (entry.getValue().get() > maxRep)
-                    maxRep = entry.getValue().get();
-                syn0.getRow(entry.getKey().getIndex()).divi(entry.getValue().get());
-            }
+            if (block.getMaxCount() > maxRep)
+                maxRep = block.getMaxCount();
         }
 
         long totals = 0;
@@ -31,6 +31,10 @@ import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.spark.models.embeddings.word2vec.FirstIterationFunction;
 import org.deeplearning4j.spark.models.embeddings.word2vec.FirstIterationFunctionAdapter;
 import org.deeplearning4j.spark.models.embeddings.word2vec.MapToPairFunction;
+import org.deeplearning4j.spark.models.embeddings.word2vec.Syn0Block;
+import org.deeplearning4j.spark.models.embeddings.word2vec.Syn0BlockFunction;
+import org.deeplearning4j.spark.models.embeddings.word2vec.Syn0UpdatePairFunction;
+import org.deeplearning4j.spark.models.embeddings.word2vec.Syn0UpdateReduceFunction;
 import org.deeplearning4j.spark.models.embeddings.word2vec.Word2Vec;
 import org.deeplearning4j.spark.text.functions.CountCumSum;
 import org.deeplearning4j.spark.text.functions.TextPipeline;
@@ -38,6 +42,7 @@ import org.deeplearning4j.text.stopwords.StopWords;
 import org.junit.Before;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Tuple2;
@@ -516,5 +521,44 @@ public class TextPipelineTest extends BaseSparkTest {
                         .mapPartitions(firstIterationFunction).map(new MapToPairFunction());
     }
 
-}
+    @Test
+    public void testSyn0Averaging() throws Exception {
+        JavaSparkContext sc = getContext();
+
+        // 10 words, word i is seen by (i % 3) + 1 partitions, each contributing vector filled with p + i
+        int vectorLength = 4;
+        List<Map.Entry<VocabWord, INDArray>> updates = new ArrayList<>();
+        for (int p = 0; p < 3; p++) {
+            for (int i = 0; i < 10; i++) {
+                if (p > i % 3)
+                    continue;
+                VocabWord word = new VocabWord(1.0, "word" + i);
+                word.setIndex(i);
+                updates.add(new AbstractMap.SimpleEntry<>(word, Nd4j.valueArrayOf(new int[] {1, vectorLength}, p + i)));
+            }
+        }
 
+        List<Syn0Block> blocks = sc.parallelize(updates, 3).mapToPair(new Syn0UpdatePairFunction())
+                        .reduceByKey(new Syn0UpdateReduceFunction()).mapPartitions(new Syn0BlockFunction(vectorLength))
+                        .collect();
+
+        Set<Integer> seen = new HashSet<>();
+        int maxCount = 0;
+        for (Syn0Block block : blocks) {
+            maxCount = Math.max(maxCount, block.getMaxCount());
+            for (int r = 0; r < block.getIndexes().length; r++) {
+                int i = block.getIndexes()[r];
+                assertTrue(seen.add(i));
+
+                // average of p + i over p in [0, i % 3]
+                double expected = i + (i % 3) / 2.0;
+                for (int j = 0; j < vectorLength; j++)
+                    assertEquals(expected, block.getVectors()[r * vectorLength + j], 1e-12);
+            }
+        }
+        assertEquals(10, seen.size());
+        assertEquals(3, maxCount);
+
+        sc.stop();
+    }
+}
@@ -0,0 +1,17 @@
+package org.deeplearning4j.spark.api;
+
+/**
+ * Approach used by {@link org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster} to sum the
+ * parameters and updater state of all workers at the end of each averaging period.
+ *
+ * <b>Direct</b>: single level aggregation; every worker's result is sent to the driver.<br>
+ * <b>Tree</b>: multi-level tree aggregation (see {@code JavaRDD.treeAggregate}), with a configurable depth.
+ *  Partial sums are computed on the executors, reducing the amount of data (and the number of concurrent transfers)
+ *  received by the driver.<br>
+ * <b>Sharded</b>: the flattened parameter and updater state vectors are split into shards, and each shard is summed
+ *  on a different executor (via reduceByKey). The driver receives only one copy of the (summed) parameters, whatever the
+ *  number of workers. Requires an additional shuffle.
+ */
+public enum AggregationMode {
+    Direct, Tree, Sharded
+}
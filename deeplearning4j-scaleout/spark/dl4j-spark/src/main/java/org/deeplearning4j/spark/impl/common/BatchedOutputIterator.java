@@ -0,0 +1,94 @@
+package org.deeplearning4j.spark.impl.common;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the output of a function (scores, network output etc) that is calculated lazily, one batch of input
+ * at a time, as the iterator is consumed. Used so that the output for a whole partition doesn't have to be
+ * materialized before it is returned to Spark.<br>
+ * Also implements Iterable (returning itself), and hence should only be iterated over once.
+ */
+public abstract class BatchedOutputIterator<T> implements Iterator<T>, Iterable<T> {
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private boolean complete = false;
+
+    /**
+     * Calculate the output for the next batch of input
+     *
+     * @return Output for the next batch, or null if there is no more input
+     */
+    protected abstract Iterator<T> nextBatch();
+
+    /**
+     * Called once, after the output for the last batch has been calculated. Can be used to release resources
+     */
+    protected void onComplete() {
+        //No op by default
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (complete) {
+                return false;
+            }
+
+            Iterator<T> next = nextBatch();
+            if (next == null) {
+                complete = true;
+                onComplete();
+                return false;
+            }
+            current = next;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    /**
+     * @return Iterator over the given values, boxing each value only when it is returned
+     */
+    public static Iterator<Double> iterator(final double[] values) {
+        return new Iterator<Double>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < values.length;
+            }
+
+            @Override
+            public Double next() {
+                if (i >= values.length) {
+                    throw new NoSuchElementException();
+                }
+                return values[i++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Not supported");
+            }
+        };
+    }
+}
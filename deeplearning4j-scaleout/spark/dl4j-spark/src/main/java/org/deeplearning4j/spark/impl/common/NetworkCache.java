@@ -0,0 +1,193 @@
+package org.deeplearning4j.spark.impl.common;
+
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkEnv;
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Executor-wide cache of initialized networks, used by the scoring, evaluation and feed-forward functions.<br>
+ * Without the cache, each partition would build a network from the JSON configuration, initialize it and copy the
+ * broadcast parameters, which can take longer than the actual scoring when there are many small partitions.<br>
+ * Networks are keyed by Spark application id, parameters broadcast id, configuration and network type. The application
+ * id is required as broadcast ids restart from 0 for each SparkContext, while the cache lives as long as the JVM (i.e.,
+ * across contexts in local mode, notebooks and tests). As networks are not thread safe,
+ * each network is used by one task at a time: tasks borrow a network, and return it with
+ * {@link #release(String, Broadcast, Model)} when done. Networks that are not returned are simply garbage collected.<br>
+ * Networks for the most recently used keys are kept (up to {@link #DEFAULT_MAX_ENTRIES} keys by default, configurable
+ * via system property {@link #MAX_ENTRIES_PROPERTY}), with up to one idle network per available processor for each key.
+ */
+@Slf4j
+public class NetworkCache {
+
+    /**
+     * System property used to set the maximum number of cached keys (i.e., number of different networks/parameters)
+     */
+    public static final String MAX_ENTRIES_PROPERTY = "org.deeplearning4j.spark.networkcache.maxentries";
+    public static final int DEFAULT_MAX_ENTRIES = 4;
+
+    private static final int MAX_IDLE_PER_KEY = Runtime.getRuntime().availableProcessors();
+
+    private static final Map<Key, Deque<Model>> cache = new LinkedHashMap<Key, Deque<Model>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Deque<Model>> eldest) {
+            return size() > maxEntries();
+        }
+    };
+
+    private NetworkCache() {}
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final String applicationId;
+        private final long paramsBroadcastId;
+        private final String config;
+        private final Class<? extends Model> type;
+
+        private Key(String json, Broadcast<INDArray> params, Class<? extends Model> type) {
+            this.applicationId = applicationId();
+            this.paramsBroadcastId = params.id();
+            this.config = json;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Get a MultiLayerNetwork with the given configuration and parameters, from the cache if possible.
+     * Should be returned via {@link #release(String, Broadcast, Model)} once the calling task no longer uses it.
+     *
+     * @param json   MultiLayerConfiguration, as json
+     * @param params Network parameters
+     */
+    public static MultiLayerNetwork getMultiLayerNetwork(String json, Broadcast<INDArray> params) {
+        MultiLayerNetwork network = (MultiLayerNetwork) borrow(new Key(json, params, MultiLayerNetwork.class));
+        if (network != null) {
+            return network;
+        }
+
+        network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(json));
+        network.init();
+        INDArray val = params.value().unsafeDuplication();
+        if (val.length() != network.numParams(false))
+            throw new IllegalStateException(
+                            "Network did not have same number of parameters as the broadcast set parameters");
+        network.setParameters(val);
+        return network;
+    }
+
+    /**
+     * Get a ComputationGraph with the given configuration and parameters, from the cache if possible.
+     * Should be returned via {@link #release(String, Broadcast, Model)} once the calling task no longer uses it.
+     *
+     * @param json   ComputationGraphConfiguration, as json
+     * @param params Network parameters
+     */
+    public static ComputationGraph getComputationGraph(String json, Broadcast<INDArray> params) {
+        ComputationGraph network = (ComputationGraph) borrow(new Key(json, params, ComputationGraph.class));
+        if (network != null) {
+            return network;
+        }
+
+        network = new ComputationGraph(ComputationGraphConfiguration.fromJson(json));
+        network.init();
+        INDArray val = params.value().unsafeDuplication();
+        if (val.length() != network.numParams(false))
+            throw new IllegalStateException(
+                            "Network did not have same number of parameters as the broadcast set parameters");
+        network.setParams(val);
+        return network;
+    }
+
+    /**
+     * Return a network obtained from {@link #getMultiLayerNetwork(String, Broadcast)} or
+     * {@link #getComputationGraph(String, Broadcast)} to the cache, so it can be reused by other tasks
+     *
+     * @param json    Configuration used to get the network
+     * @param params  Parameters used to get the network
+     * @param network Network to return. Must not be used by the caller after this call
+     */
+    public static void release(String json, Broadcast<INDArray> params, Model network) {
+        if (network == null) {
+            return;
+        }
+
+        Key key = new Key(json, params, network.getClass());
+        synchronized (cache) {
+            Deque<Model> idle = cache.get(key);
+            if (idle == null) {
+                idle = new ArrayDeque<>();
+                cache.put(key, idle);
+            }
+            if (idle.size() < MAX_IDLE_PER_KEY) {
+                idle.push(network);
+            }
+        }
+    }
+
+    /**
+     * Remove all cached networks
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return Number of idle networks currently cached, over all keys
+     */
+    public static int size() {
+        synchronized (cache) {
+            int size = 0;
+            for (Deque<Model> idle : cache.values()) {
+                size += idle.size();
+            }
+            return size;
+        }
+    }
+
+    private static Model borrow(Key key) {
+        synchronized (cache) {
+            Deque<Model> idle = cache.get(key);
+            if (idle == null || idle.isEmpty()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("No cached network for parameters broadcast {}, creating new {}", key.paramsBroadcastId,
+                                    key.type.getSimpleName());
+                }
+                return null;
+            }
+            return idle.pop();
+        }
+    }
+
+    private static String applicationId() {
+        //spark.app.id is set in the configuration of both the driver and the executors once the context has started
+        SparkEnv env = SparkEnv.get();
+        return env == null ? "" : env.conf().get("spark.app.id", "");
+    }
+
+    private static int maxEntries() {
+        String value = System.getProperty(MAX_ENTRIES_PROPERTY);
+        if (value == null) {
+            return DEFAULT_MAX_ENTRIES;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for system property {}: \"{}\", using default of {}", MAX_ENTRIES_PROPERTY, value,
+                            DEFAULT_MAX_ENTRIES);
+            return DEFAULT_MAX_ENTRIES;
+        }
+    }
+}
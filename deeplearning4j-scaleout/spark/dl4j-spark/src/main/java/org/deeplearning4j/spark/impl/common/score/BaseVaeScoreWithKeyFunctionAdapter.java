@@ -21,7 +21,10 @@ package org.deeplearning4j.spark.impl.common.score;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.layers.variational.VariationalAutoencoder;
+import org.deeplearning4j.spark.impl.common.BatchedOutputIterator;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.factory.Nd4j;
@@ -59,58 +62,78 @@ public abstract class BaseVaeScoreWithKeyFunctionAdapter<K>
         this.batchSize = batchSize;
     }
 
-    public abstract VariationalAutoencoder getVaeLayer();
+    /**
+     * @return Network to use for scoring, usually from {@link NetworkCache}. Returned to the cache once scoring is done
+     */
+    public abstract Model getNetwork();
+
+    /**
+     * @return VAE layer of the network returned by {@link #getNetwork()}
+     */
+    public abstract VariationalAutoencoder getVaeLayer(Model network);
 
     public abstract INDArray computeScore(VariationalAutoencoder vae, INDArray toScore);
 
 
     @Override
-    public Iterable<Tuple2<K, Double>> call(Iterator<Tuple2<K, INDArray>> iterator) throws Exception {
+    public Iterable<Tuple2<K, Double>> call(final Iterator<Tuple2<K, INDArray>> iterator) throws Exception {
         if (!iterator.hasNext()) {
             return Collections.emptyList();
         }
 
-        VariationalAutoencoder vae = getVaeLayer();
-
-        List<Tuple2<K, Double>> ret = new ArrayList<>();
-
-        List<INDArray> collect = new ArrayList<>(batchSize);
-        List<K> collectKey = new ArrayList<>(batchSize);
-        int totalCount = 0;
-        while (iterator.hasNext()) {
-            collect.clear();
-            collectKey.clear();
-            int nExamples = 0;
-            while (iterator.hasNext() && nExamples < batchSize) {
-                Tuple2<K, INDArray> t2 = iterator.next();
-                INDArray features = t2._2();
-                int n = features.size(0);
-                if (n != 1)
-                    throw new IllegalStateException("Cannot score examples with one key per data set if "
-                                    + "data set contains more than 1 example (numExamples: " + n + ")");
-                collect.add(features);
-                collectKey.add(t2._1());
-                nExamples += n;
+        final Model network = getNetwork();
+        final VariationalAutoencoder vae = getVaeLayer(network);
+
+        return new BatchedOutputIterator<Tuple2<K, Double>>() {
+            private final List<INDArray> collect = new ArrayList<>(batchSize);
+            private final List<K> collectKey = new ArrayList<>(batchSize);
+            private int totalCount = 0;
+
+            @Override
+            protected Iterator<Tuple2<K, Double>> nextBatch() {
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+
+                collect.clear();
+                collectKey.clear();
+                int nExamples = 0;
+                while (iterator.hasNext() && nExamples < batchSize) {
+                    Tuple2<K, INDArray> t2 = iterator.next();
+                    INDArray features = t2._2();
+                    int n = features.size(0);
+                    if (n != 1)
+                        throw new IllegalStateException("Cannot score examples with one key per data set if "
+                                        + "data set contains more than 1 example (numExamples: " + n + ")");
+                    collect.add(features);
+                    collectKey.add(t2._1());
+                    nExamples += n;
+                }
+                totalCount += nExamples;
+
+                INDArray toScore = Nd4j.vstack(collect);
+                INDArray scores = computeScore(vae, toScore);
+
+                double[] doubleScores = scores.data().asDouble();
+
+                List<Tuple2<K, Double>> ret = new ArrayList<>(doubleScores.length);
+                for (int i = 0; i < doubleScores.length; i++) {
+                    ret.add(new Tuple2<>(collectKey.get(i), doubleScores[i]));
+                }
+                return ret.iterator();
             }
-            totalCount += nExamples;
 
-            INDArray toScore = Nd4j.vstack(collect);
-            INDArray scores = computeScore(vae, toScore);
+            @Override
+            protected void onComplete() {
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
-            double[] doubleScores = scores.data().asDouble();
+                NetworkCache.release(jsonConfig.getValue(), params, network);
 
-            for (int i = 0; i < doubleScores.length; i++) {
-                ret.add(new Tuple2<>(collectKey.get(i), doubleScores[i]));
+                if (log.isDebugEnabled()) {
+                    log.debug("Scored {} examples ", totalCount);
+                }
             }
-        }
-
-        if (Nd4j.getExecutioner() instanceof GridExecutioner)
-            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
-
-        if (log.isDebugEnabled()) {
-            log.debug("Scored {} examples ", totalCount);
-        }
-
-        return ret;
+        };
     }
 }
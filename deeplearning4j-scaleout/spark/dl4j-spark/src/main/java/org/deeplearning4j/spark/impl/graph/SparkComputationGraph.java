@@ -66,6 +66,7 @@ public class SparkComputationGraph extends SparkListenable {
     private ComputationGraphConfiguration conf;
     private ComputationGraph network;
     private double lastScore;
+    private int evalScoreBatchSize = DEFAULT_EVAL_SCORE_BATCH_SIZE;
 
     private transient AtomicInteger iterationsCount = new AtomicInteger(0);
 
@@ -117,6 +118,25 @@ public class SparkComputationGraph extends SparkListenable {
         trainingMaster.setCollectTrainingStats(collectTrainingStats);
     }
 
+    /**
+     * Set the minibatch size used in each worker by the scoring and evaluation methods that don't take a batch size
+     * argument. Default: {@link #DEFAULT_EVAL_SCORE_BATCH_SIZE}
+     *
+     * @param evalScoreBatchSize Minibatch size for scoring and evaluation
+     */
+    public void setEvalScoreBatchSize(int evalScoreBatchSize) {
+        if (evalScoreBatchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + evalScoreBatchSize);
+        this.evalScoreBatchSize = evalScoreBatchSize;
+    }
+
+    /**
+     * @return Minibatch size used by scoring and evaluation methods that don't take a batch size argument
+     */
+    public int getEvalScoreBatchSize() {
+        return evalScoreBatchSize;
+    }
+
     public SparkTrainingStats getSparkTrainingStats() {
         return trainingMaster.getTrainingStats();
     }
@@ -289,7 +309,7 @@ public class SparkComputationGraph extends SparkListenable {
      * @param average Whether to sum the scores, or average them
      */
     public double calculateScore(JavaRDD<DataSet> data, boolean average) {
-        return calculateScore(data, average, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return calculateScore(data, average, evalScoreBatchSize);
     }
 
     /**
@@ -325,7 +345,7 @@ public class SparkComputationGraph extends SparkListenable {
      * @param average Whether to sum the scores, or average them
      */
     public double calculateScoreMultiDataSet(JavaRDD<MultiDataSet> data, boolean average) {
-        return calculateScoreMultiDataSet(data, average, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return calculateScoreMultiDataSet(data, average, evalScoreBatchSize);
     }
 
     /**
@@ -370,7 +390,7 @@ public class SparkComputationGraph extends SparkListenable {
      */
     public <K> JavaPairRDD<K, Double> scoreExamples(JavaPairRDD<K, DataSet> data, boolean includeRegularizationTerms) {
         return scoreExamplesMultiDataSet(data.mapToPair(new PairDataSetToMultiDataSetFn<K>()),
-                        includeRegularizationTerms, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+                        includeRegularizationTerms, evalScoreBatchSize);
     }
 
     /**
@@ -394,7 +414,7 @@ public class SparkComputationGraph extends SparkListenable {
      * @see ComputationGraph#scoreExamples(MultiDataSet, boolean)
      */
     public JavaDoubleRDD scoreExamplesMultiDataSet(JavaRDD<MultiDataSet> data, boolean includeRegularizationTerms) {
-        return scoreExamplesMultiDataSet(data, includeRegularizationTerms, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return scoreExamplesMultiDataSet(data, includeRegularizationTerms, evalScoreBatchSize);
     }
 
     /**
@@ -430,7 +450,7 @@ public class SparkComputationGraph extends SparkListenable {
      */
     public <K> JavaPairRDD<K, Double> scoreExamplesMultiDataSet(JavaPairRDD<K, MultiDataSet> data,
                     boolean includeRegularizationTerms) {
-        return scoreExamplesMultiDataSet(data, includeRegularizationTerms, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return scoreExamplesMultiDataSet(data, includeRegularizationTerms, evalScoreBatchSize);
     }
 
     /**
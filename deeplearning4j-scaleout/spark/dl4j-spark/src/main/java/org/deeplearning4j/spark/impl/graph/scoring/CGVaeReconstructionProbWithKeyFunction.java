@@ -2,9 +2,10 @@ package org.deeplearning4j.spark.impl.graph.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.deeplearning4j.nn.api.Layer;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.layers.variational.VariationalAutoencoder;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.deeplearning4j.spark.impl.common.score.BaseVaeReconstructionProbWithKeyFunctionAdapter;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
@@ -31,16 +32,13 @@ public class CGVaeReconstructionProbWithKeyFunction<K> extends BaseVaeReconstruc
     }
 
     @Override
-    public VariationalAutoencoder getVaeLayer() {
-        ComputationGraph network =
-                        new ComputationGraph(ComputationGraphConfiguration.fromJson((String) jsonConfig.getValue()));
-        network.init();
-        INDArray val = ((INDArray) params.value()).unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcasted set parameters");
-        network.setParams(val);
+    public Model getNetwork() {
+        return NetworkCache.getComputationGraph((String) jsonConfig.getValue(), params);
+    }
 
+    @Override
+    public VariationalAutoencoder getVaeLayer(Model model) {
+        ComputationGraph network = (ComputationGraph) model;
         Layer l = network.getLayer(0);
         if (!(l instanceof VariationalAutoencoder)) {
             throw new RuntimeException(
@@ -20,8 +20,9 @@ package org.deeplearning4j.spark.impl.graph.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.BatchedOutputIterator;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
@@ -82,125 +83,97 @@ class GraphFeedForwardWithKeyFunctionAdapter<K>
 
 
     @Override
-    public Iterable<Tuple2<K, INDArray[]>> call(Iterator<Tuple2<K, INDArray[]>> iterator) throws Exception {
+    public Iterable<Tuple2<K, INDArray[]>> call(final Iterator<Tuple2<K, INDArray[]>> iterator) throws Exception {
         if (!iterator.hasNext()) {
             return Collections.emptyList();
         }
 
-        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParams(val);
+        final String json = jsonConfig.getValue();
+        final ComputationGraph network = NetworkCache.getComputationGraph(json, params);
 
         //Issue: for 2d data (MLPs etc) we can just stack the examples.
         //But: for 3d and 4d: in principle the data sizes could be different
-        //We could handle that with mask arrays - but it gets messy. The approach used here is simpler but less efficient
-
-        List<INDArray[]> featuresList = new ArrayList<>(batchSize);
-        List<K> keyList = new ArrayList<>(batchSize);
-        List<Integer> origSizeList = new ArrayList<>();
-
-        int[][] firstShapes = null;
-        boolean sizesDiffer = false;
-        int tupleCount = 0;
-        while (iterator.hasNext()) {
-            Tuple2<K, INDArray[]> t2 = iterator.next();
-            if (firstShapes == null) {
-                firstShapes = new int[t2._2().length][0];
-                for (int i = 0; i < firstShapes.length; i++) {
-                    firstShapes[i] = t2._2()[i].shape();
-                }
-            } else if (!sizesDiffer) {
-                for (int i = 0; i < firstShapes.length; i++) {
-                    for (int j = 1; j < firstShapes[i].length; j++) {
-                        if (firstShapes[i][j] != featuresList.get(tupleCount - 1)[i].size(j)) {
-                            sizesDiffer = true;
-                            break;
-                        }
-                    }
-                }
-            }
-            featuresList.add(t2._2());
-            keyList.add(t2._1());
-            origSizeList.add(t2._2()[0].size(0));
-            tupleCount++;
-        }
+        //We could handle that with mask arrays - but it gets messy. The approach used here is simpler but less efficient:
+        //a batch ends when the next example has a different size, and that example starts the next batch
 
-        if (tupleCount == 0) {
-            return Collections.emptyList();
-        }
+        return new BatchedOutputIterator<Tuple2<K, INDArray[]>>() {
+            private Tuple2<K, INDArray[]> pending;
 
-        List<Tuple2<K, INDArray[]>> output = new ArrayList<>(tupleCount);
-        int currentArrayIndex = 0;
-
-        while (currentArrayIndex < featuresList.size()) {
-            int firstIdx = currentArrayIndex;
-            int nextIdx = currentArrayIndex;
-            int examplesInBatch = 0;
-            List<INDArray[]> toMerge = new ArrayList<>();
-            firstShapes = null;
-            while (nextIdx < featuresList.size() && examplesInBatch < batchSize) {
-                INDArray[] f = featuresList.get(nextIdx);
-                if (firstShapes == null) {
-                    firstShapes = new int[f.length][0];
-                    for (int i = 0; i < firstShapes.length; i++) {
-                        firstShapes[i] = f[i].shape();
-                    }
-                } else if (sizesDiffer) {
-                    boolean breakWhile = false;
-                    for (int i = 0; i < firstShapes.length; i++) {
-                        for (int j = 1; j < firstShapes[i].length; j++) {
-                            if (firstShapes[i][j] != featuresList.get(nextIdx)[i].size(j)) {
-                                //Next example has a different size. So: don't add it to the current batch, just process what we have
-                                breakWhile = true;
-                                break;
+            @Override
+            protected Iterator<Tuple2<K, INDArray[]>> nextBatch() {
+                if (pending == null && !iterator.hasNext()) {
+                    return null;
+                }
+
+                List<INDArray[]> toMerge = new ArrayList<>();
+                List<K> keyList = new ArrayList<>();
+                int[][] firstShapes = null;
+                int examplesInBatch = 0;
+                while ((pending != null || iterator.hasNext()) && examplesInBatch < batchSize) {
+                    Tuple2<K, INDArray[]> t2 = (pending != null ? pending : iterator.next());
+                    pending = null;
+                    INDArray[] f = t2._2();
+                    if (firstShapes == null) {
+                        firstShapes = new int[f.length][0];
+                        for (int i = 0; i < firstShapes.length; i++) {
+                            firstShapes[i] = f[i].shape();
+                        }
+                    } else {
+                        boolean sizesDiffer = false;
+                        for (int i = 0; i < firstShapes.length && !sizesDiffer; i++) {
+                            for (int j = 1; j < firstShapes[i].length; j++) {
+                                if (firstShapes[i][j] != f[i].size(j)) {
+                                    sizesDiffer = true;
+                                    break;
+                                }
                             }
                         }
+                        if (sizesDiffer) {
+                            //Next example has a different size. So: don't add it to the current batch, just process what we have
+                            pending = t2;
+                            break;
+                        }
                     }
-                    if (breakWhile) {
-                        break;
-                    }
-                }
 
-                toMerge.add(f);
-                examplesInBatch += f[0].size(0);
-                nextIdx++;
-            }
+                    toMerge.add(f);
+                    keyList.add(t2._1());
+                    examplesInBatch += f[0].size(0);
+                }
 
-            INDArray[] batchFeatures = new INDArray[toMerge.get(0).length];
-            for (int i = 0; i < batchFeatures.length; i++) {
-                INDArray[] tempArr = new INDArray[toMerge.size()];
-                for (int j = 0; j < tempArr.length; j++) {
-                    tempArr[j] = toMerge.get(j)[i];
+                INDArray[] batchFeatures = new INDArray[toMerge.get(0).length];
+                for (int i = 0; i < batchFeatures.length; i++) {
+                    INDArray[] tempArr = new INDArray[toMerge.size()];
+                    for (int j = 0; j < tempArr.length; j++) {
+                        tempArr[j] = toMerge.get(j)[i];
+                    }
+                    batchFeatures[i] = Nd4j.concat(0, tempArr);
                 }
-                batchFeatures[i] = Nd4j.concat(0, tempArr);
-            }
 
+                INDArray[] out = network.output(false, batchFeatures);
 
-            INDArray[] out = network.output(false, batchFeatures);
+                List<Tuple2<K, INDArray[]>> output = new ArrayList<>(toMerge.size());
+                examplesInBatch = 0;
+                for (int i = 0; i < toMerge.size(); i++) {
+                    int numExamples = toMerge.get(i)[0].size(0);
+                    INDArray[] outSubset = new INDArray[out.length];
+                    for (int j = 0; j < out.length; j++) {
+                        outSubset[j] = getSubset(examplesInBatch, examplesInBatch + numExamples, out[j]);
+                    }
+                    examplesInBatch += numExamples;
 
-            examplesInBatch = 0;
-            for (int i = firstIdx; i < nextIdx; i++) {
-                int numExamples = origSizeList.get(i);
-                INDArray[] outSubset = new INDArray[out.length];
-                for (int j = 0; j < out.length; j++) {
-                    outSubset[j] = getSubset(examplesInBatch, examplesInBatch + numExamples, out[j]);
+                    output.add(new Tuple2<>(keyList.get(i), outSubset));
                 }
-                examplesInBatch += numExamples;
-
-                output.add(new Tuple2<>(keyList.get(i), outSubset));
+                return output.iterator();
             }
 
-            currentArrayIndex += (nextIdx - firstIdx);
-        }
-
-        if (Nd4j.getExecutioner() instanceof GridExecutioner)
-            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+            @Override
+            protected void onComplete() {
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
-        return output;
+                NetworkCache.release(json, params, network);
+            }
+        };
     }
 
     private INDArray getSubset(int exampleStart, int exampleEnd, INDArray from) {
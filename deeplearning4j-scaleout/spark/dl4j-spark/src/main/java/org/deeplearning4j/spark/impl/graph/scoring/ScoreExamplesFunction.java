@@ -20,8 +20,9 @@ package org.deeplearning4j.spark.impl.graph.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.BatchedOutputIterator;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.deeplearning4j.spark.util.BaseDoubleFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
@@ -77,53 +78,51 @@ class ScoreExamplesFunctionAdapter implements FlatMapFunctionAdapter<Iterator<Mu
 
 
     @Override
-    public Iterable<Double> call(Iterator<MultiDataSet> iterator) throws Exception {
+    public Iterable<Double> call(final Iterator<MultiDataSet> iterator) throws Exception {
         if (!iterator.hasNext()) {
             return Collections.emptyList();
         }
 
-        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParams(val);
-
-        List<Double> ret = new ArrayList<>();
-
-        List<MultiDataSet> collect = new ArrayList<>(batchSize);
-        int totalCount = 0;
-        while (iterator.hasNext()) {
-            collect.clear();
-            int nExamples = 0;
-            while (iterator.hasNext() && nExamples < batchSize) {
-                MultiDataSet ds = iterator.next();
-                int n = ds.getFeatures(0).size(0);
-                collect.add(ds);
-                nExamples += n;
+        final String json = jsonConfig.getValue();
+        final ComputationGraph network = NetworkCache.getComputationGraph(json, params);
+
+        return new BatchedOutputIterator<Double>() {
+            private final List<MultiDataSet> collect = new ArrayList<>(batchSize);
+            private int totalCount = 0;
+
+            @Override
+            protected Iterator<Double> nextBatch() {
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+
+                collect.clear();
+                int nExamples = 0;
+                while (iterator.hasNext() && nExamples < batchSize) {
+                    MultiDataSet ds = iterator.next();
+                    int n = ds.getFeatures(0).size(0);
+                    collect.add(ds);
+                    nExamples += n;
+                }
+                totalCount += nExamples;
+
+                MultiDataSet data = org.nd4j.linalg.dataset.MultiDataSet.merge(collect);
+
+                INDArray scores = network.scoreExamples(data, addRegularization);
+                return BatchedOutputIterator.iterator(scores.data().asDouble());
             }
-            totalCount += nExamples;
 
+            @Override
+            protected void onComplete() {
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
-            MultiDataSet data = org.nd4j.linalg.dataset.MultiDataSet.merge(collect);
+                NetworkCache.release(json, params, network);
 
-
-            INDArray scores = network.scoreExamples(data, addRegularization);
-            double[] doubleScores = scores.data().asDouble();
-
-            for (double doubleScore : doubleScores) {
-                ret.add(doubleScore);
+                if (log.isDebugEnabled()) {
+                    log.debug("Scored {} examples ", totalCount);
+                }
             }
-        }
-
-        if (Nd4j.getExecutioner() instanceof GridExecutioner)
-            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
-
-        if (log.isDebugEnabled()) {
-            log.debug("Scored {} examples ", totalCount);
-        }
-
-        return ret;
+        };
     }
 }
@@ -20,8 +20,9 @@ package org.deeplearning4j.spark.impl.graph.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.BatchedOutputIterator;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
@@ -90,59 +91,64 @@ class ScoreExamplesWithKeyFunctionAdapter<K>
 
 
     @Override
-    public Iterable<Tuple2<K, Double>> call(Iterator<Tuple2<K, MultiDataSet>> iterator) throws Exception {
+    public Iterable<Tuple2<K, Double>> call(final Iterator<Tuple2<K, MultiDataSet>> iterator) throws Exception {
         if (!iterator.hasNext()) {
             return Collections.emptyList();
         }
 
-        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParams(val);
-
-        List<Tuple2<K, Double>> ret = new ArrayList<>();
-
-        List<MultiDataSet> collect = new ArrayList<>(batchSize);
-        List<K> collectKey = new ArrayList<>(batchSize);
-        int totalCount = 0;
-        while (iterator.hasNext()) {
-            collect.clear();
-            collectKey.clear();
-            int nExamples = 0;
-            while (iterator.hasNext() && nExamples < batchSize) {
-                Tuple2<K, MultiDataSet> t2 = iterator.next();
-                MultiDataSet ds = t2._2();
-                int n = ds.getFeatures(0).size(0);
-                if (n != 1)
-                    throw new IllegalStateException("Cannot score examples with one key per data set if "
-                                    + "data set contains more than 1 example (numExamples: " + n + ")");
-                collect.add(ds);
-                collectKey.add(t2._1());
-                nExamples += n;
+        final String json = jsonConfig.getValue();
+        final ComputationGraph network = NetworkCache.getComputationGraph(json, params);
+
+        return new BatchedOutputIterator<Tuple2<K, Double>>() {
+            private final List<MultiDataSet> collect = new ArrayList<>(batchSize);
+            private final List<K> collectKey = new ArrayList<>(batchSize);
+            private int totalCount = 0;
+
+            @Override
+            protected Iterator<Tuple2<K, Double>> nextBatch() {
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+
+                collect.clear();
+                collectKey.clear();
+                int nExamples = 0;
+                while (iterator.hasNext() && nExamples < batchSize) {
+                    Tuple2<K, MultiDataSet> t2 = iterator.next();
+                    MultiDataSet ds = t2._2();
+                    int n = ds.getFeatures(0).size(0);
+                    if (n != 1)
+                        throw new IllegalStateException("Cannot score examples with one key per data set if "
+                                        + "data set contains more than 1 example (numExamples: " + n + ")");
+                    collect.add(ds);
+                    collectKey.add(t2._1());
+                    nExamples += n;
+                }
+                totalCount += nExamples;
+
+                MultiDataSet data = org.nd4j.linalg.dataset.MultiDataSet.merge(collect);
+
+                INDArray scores = network.scoreExamples(data, addRegularization);
+                double[] doubleScores = scores.data().asDouble();
+
+                List<Tuple2<K, Double>> ret = new ArrayList<>(doubleScores.length);
+                for (int i = 0; i < doubleScores.length; i++) {
+                    ret.add(new Tuple2<>(collectKey.get(i), doubleScores[i]));
+                }
+                return ret.iterator();
             }
-            totalCount += nExamples;
 
-            MultiDataSet data = org.nd4j.linalg.dataset.MultiDataSet.merge(collect);
+            @Override
+            protected void onComplete() {
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
+                NetworkCache.release(json, params, network);
 
-            INDArray scores = network.scoreExamples(data, addRegularization);
-            double[] doubleScores = scores.data().asDouble();
-
-            for (int i = 0; i < doubleScores.length; i++) {
-                ret.add(new Tuple2<>(collectKey.get(i), doubleScores[i]));
+                if (log.isDebugEnabled()) {
+                    log.debug("Scored {} examples ", totalCount);
+                }
             }
-        }
-
-        if (Nd4j.getExecutioner() instanceof GridExecutioner)
-            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
-
-        if (log.isDebugEnabled()) {
-            log.debug("Scored {} examples ", totalCount);
-        }
-
-        return ret;
+        };
     }
 }
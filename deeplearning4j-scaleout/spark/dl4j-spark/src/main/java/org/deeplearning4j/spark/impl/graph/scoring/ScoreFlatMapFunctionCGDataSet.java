@@ -22,8 +22,8 @@ import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.datasets.iterator.IteratorDataSetIterator;
-import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.DataSet;
@@ -72,13 +72,7 @@ class ScoreFlatMapFunctionCGDataSetAdapter
 
         DataSetIterator iter = new IteratorDataSetIterator(dataSetIterator, minibatchSize); //Does batching where appropriate
 
-        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(json));
-        network.init();
-        INDArray val = params.value().unsafeDuplication(); //.value() is shared by all executors on single machine -> OK, as params are not changed in score function
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParams(val);
+        ComputationGraph network = NetworkCache.getComputationGraph(json, params);
 
         List<Tuple2<Integer, Double>> out = new ArrayList<>();
         while (iter.hasNext()) {
@@ -91,6 +85,8 @@ class ScoreFlatMapFunctionCGDataSetAdapter
         if (Nd4j.getExecutioner() instanceof GridExecutioner)
             ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
+        NetworkCache.release(json, params, network);
+
         return out;
     }
 }
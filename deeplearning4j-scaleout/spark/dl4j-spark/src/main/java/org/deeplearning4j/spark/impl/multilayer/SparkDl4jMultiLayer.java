@@ -79,6 +79,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
     private MultiLayerConfiguration conf;
     private MultiLayerNetwork network;
     private double lastScore;
+    private int evalScoreBatchSize = DEFAULT_EVAL_SCORE_BATCH_SIZE;
 
     /**
      * Instantiate a multi layer spark instance
@@ -169,6 +170,25 @@ public class SparkDl4jMultiLayer extends SparkListenable {
         trainingMaster.setCollectTrainingStats(collectTrainingStats);
     }
 
+    /**
+     * Set the minibatch size used in each worker by the scoring and evaluation methods that don't take a batch size
+     * argument. Default: {@link #DEFAULT_EVAL_SCORE_BATCH_SIZE}
+     *
+     * @param evalScoreBatchSize Minibatch size for scoring and evaluation
+     */
+    public void setEvalScoreBatchSize(int evalScoreBatchSize) {
+        if (evalScoreBatchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive, got " + evalScoreBatchSize);
+        this.evalScoreBatchSize = evalScoreBatchSize;
+    }
+
+    /**
+     * @return Minibatch size used by scoring and evaluation methods that don't take a batch size argument
+     */
+    public int getEvalScoreBatchSize() {
+        return evalScoreBatchSize;
+    }
+
     /**
      * Get the training statistics, after collection of stats has been enabled using {@link #setCollectTrainingStats(boolean)}
      *
@@ -317,7 +337,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @param average Whether to sum the scores, or average them
      */
     public double calculateScore(JavaRDD<DataSet> data, boolean average) {
-        return calculateScore(data, average, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return calculateScore(data, average, evalScoreBatchSize);
     }
 
     /**
@@ -363,7 +383,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @see MultiLayerNetwork#scoreExamples(DataSet, boolean)
      */
     public JavaDoubleRDD scoreExamples(JavaRDD<DataSet> data, boolean includeRegularizationTerms) {
-        return scoreExamples(data, includeRegularizationTerms, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return scoreExamples(data, includeRegularizationTerms, evalScoreBatchSize);
     }
 
     /**
@@ -404,7 +424,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @see MultiLayerNetwork#scoreExamples(DataSet, boolean)
      */
     public <K> JavaPairRDD<K, Double> scoreExamples(JavaPairRDD<K, DataSet> data, boolean includeRegularizationTerms) {
-        return scoreExamples(data, includeRegularizationTerms, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return scoreExamples(data, includeRegularizationTerms, evalScoreBatchSize);
     }
 
     /**
@@ -470,7 +490,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @return     {@link RegressionEvaluation} instance with regression performance
      */
     public RegressionEvaluation evaluateRegression(JavaRDD<DataSet> data) {
-        return evaluateRegression(data, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return evaluateRegression(data, evalScoreBatchSize);
     }
 
     /**
@@ -494,7 +514,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @return Evaluation object; results of evaluation on all examples in the data set
      */
     public Evaluation evaluate(JavaRDD<DataSet> data, List<String> labelsList) {
-        return evaluate(data, labelsList, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return evaluate(data, labelsList, evalScoreBatchSize);
     }
 
     /**
@@ -505,7 +525,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @return ROC for the entire data set
      */
     public ROC evaluateROC(JavaRDD<DataSet> data) {
-        return evaluateROC(data, DEFAULT_ROC_THRESHOLD_STEPS, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return evaluateROC(data, DEFAULT_ROC_THRESHOLD_STEPS, evalScoreBatchSize);
     }
 
     /**
@@ -527,7 +547,7 @@ public class SparkDl4jMultiLayer extends SparkListenable {
      * @return ROC for the entire data set
      */
     public ROCMultiClass evaluateROCMultiClass(JavaRDD<DataSet> data) {
-        return evaluateROCMultiClass(data, DEFAULT_ROC_THRESHOLD_STEPS, DEFAULT_EVAL_SCORE_BATCH_SIZE);
+        return evaluateROCMultiClass(data, DEFAULT_ROC_THRESHOLD_STEPS, evalScoreBatchSize);
     }
 
     /**
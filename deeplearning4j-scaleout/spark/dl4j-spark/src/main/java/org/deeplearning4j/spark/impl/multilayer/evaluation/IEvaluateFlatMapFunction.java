@@ -22,8 +22,8 @@ import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.eval.IEvaluation;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.slf4j.Logger;
@@ -87,13 +87,7 @@ class IEvaluateFlatMapFunctionAdapter<T extends IEvaluation> implements FlatMapF
             return Collections.emptyList();
         }
 
-        MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(json.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParameters(val);
+        MultiLayerNetwork network = NetworkCache.getMultiLayerNetwork(json.getValue(), params);
 
         List<DataSet> collect = new ArrayList<>();
         int totalCount = 0;
@@ -134,6 +128,8 @@ class IEvaluateFlatMapFunctionAdapter<T extends IEvaluation> implements FlatMapF
             log.debug("Evaluated {} examples ", totalCount);
         }
 
+        NetworkCache.release(json.getValue(), params, network);
+
         return Collections.singletonList(evaluation);
     }
 }
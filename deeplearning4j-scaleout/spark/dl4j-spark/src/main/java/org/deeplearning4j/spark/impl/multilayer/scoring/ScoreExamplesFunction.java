@@ -20,8 +20,9 @@ package org.deeplearning4j.spark.impl.multilayer.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.BatchedOutputIterator;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.deeplearning4j.spark.util.BaseDoubleFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
@@ -77,52 +78,51 @@ class ScoreExamplesFunctionAdapter implements FlatMapFunctionAdapter<Iterator<Da
 
 
     @Override
-    public Iterable<Double> call(Iterator<DataSet> iterator) throws Exception {
+    public Iterable<Double> call(final Iterator<DataSet> iterator) throws Exception {
         if (!iterator.hasNext()) {
             return Collections.emptyList();
         }
 
-        MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(jsonConfig.getValue()));
-        network.init();
-        INDArray val = params.value().unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParameters(val);
-
-        List<Double> ret = new ArrayList<>();
-
-        List<DataSet> collect = new ArrayList<>(batchSize);
-        int totalCount = 0;
-        while (iterator.hasNext()) {
-            collect.clear();
-            int nExamples = 0;
-            while (iterator.hasNext() && nExamples < batchSize) {
-                DataSet ds = iterator.next();
-                int n = ds.numExamples();
-                collect.add(ds);
-                nExamples += n;
+        final String json = jsonConfig.getValue();
+        final MultiLayerNetwork network = NetworkCache.getMultiLayerNetwork(json, params);
+
+        return new BatchedOutputIterator<Double>() {
+            private final List<DataSet> collect = new ArrayList<>(batchSize);
+            private int totalCount = 0;
+
+            @Override
+            protected Iterator<Double> nextBatch() {
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+
+                collect.clear();
+                int nExamples = 0;
+                while (iterator.hasNext() && nExamples < batchSize) {
+                    DataSet ds = iterator.next();
+                    int n = ds.numExamples();
+                    collect.add(ds);
+                    nExamples += n;
+                }
+                totalCount += nExamples;
+
+                DataSet data = DataSet.merge(collect);
+
+                INDArray scores = network.scoreExamples(data, addRegularization);
+                return BatchedOutputIterator.iterator(scores.data().asDouble());
             }
-            totalCount += nExamples;
 
-            DataSet data = DataSet.merge(collect);
+            @Override
+            protected void onComplete() {
+                if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                    ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
 
+                NetworkCache.release(json, params, network);
 
-            INDArray scores = network.scoreExamples(data, addRegularization);
-            double[] doubleScores = scores.data().asDouble();
-
-            for (double doubleScore : doubleScores) {
-                ret.add(doubleScore);
+                if (log.isDebugEnabled()) {
+                    log.debug("Scored {} examples ", totalCount);
+                }
             }
-        }
-
-        if (Nd4j.getExecutioner() instanceof GridExecutioner)
-            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
-
-        if (log.isDebugEnabled()) {
-            log.debug("Scored {} examples ", totalCount);
-        }
-
-        return ret;
+        };
     }
 }
@@ -2,9 +2,10 @@ package org.deeplearning4j.spark.impl.multilayer.scoring;
 
 import org.apache.spark.broadcast.Broadcast;
 import org.deeplearning4j.nn.api.Layer;
-import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.layers.variational.VariationalAutoencoder;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.NetworkCache;
 import org.deeplearning4j.spark.impl.common.score.BaseVaeReconstructionProbWithKeyFunctionAdapter;
 import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -54,16 +55,13 @@ class VaeReconstructionProbWithKeyFunctionAdapter<K> extends BaseVaeReconstructi
     }
 
     @Override
-    public VariationalAutoencoder getVaeLayer() {
-        MultiLayerNetwork network =
-                        new MultiLayerNetwork(MultiLayerConfiguration.fromJson((String) jsonConfig.getValue()));
-        network.init();
-        INDArray val = ((INDArray) params.value()).unsafeDuplication();
-        if (val.length() != network.numParams(false))
-            throw new IllegalStateException(
-                            "Network did not have same number of parameters as the broadcast set parameters");
-        network.setParameters(val);
+    public Model getNetwork() {
+        return NetworkCache.getMultiLayerNetwork((String) jsonConfig.getValue(), params);
+    }
 
+    @Override
+    public VariationalAutoencoder getVaeLayer(Model model) {
+        MultiLayerNetwork network = (MultiLayerNetwork) model;
         Layer l = network.getLayer(0);
         if (!(l instanceof VariationalAutoencoder)) {
             throw new RuntimeException(
@@ -46,6 +46,7 @@ import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingAggregationTuple;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementAddFunction;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementCombineFunction;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingShardFunction;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
 import org.deeplearning4j.spark.util.SparkUtils;
 import org.deeplearning4j.util.UIDProvider;
@@ -56,6 +57,7 @@ import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.factory.Nd4j;
+import scala.Tuple2;
 
 import java.io.IOException;
 import java.net.URI;
@@ -100,6 +102,9 @@ public class ParameterAveragingTrainingMaster
     private StorageLevel storageLevelStreams = StorageLevel.MEMORY_ONLY();
     private RDDTrainingApproach rddTrainingApproach = RDDTrainingApproach.Export;
     private String exportDirectory = null;
+    private AggregationMode aggregationMode = AggregationMode.Direct;
+    private int aggregationDepth = 2;
+    private Integer aggregationShards = null;
     private Random rng;
 
     private Collection<TrainingHook> trainingHookList;
@@ -134,6 +139,9 @@ public class ParameterAveragingTrainingMaster
         this.rddTrainingApproach = builder.rddTrainingApproach;
         this.exportDirectory = builder.exportDirectory;
         this.trainingHookList = builder.trainingHooks;
+        this.aggregationMode = builder.aggregationMode;
+        this.aggregationDepth = builder.aggregationDepth;
+        this.aggregationShards = builder.aggregationShards;
 
         if (builder.rngSeed == null) {
             this.rng = new Random();
@@ -855,13 +863,26 @@ public class ParameterAveragingTrainingMaster
 
         if (collectTrainingStats)
             stats.logAggregateStartTime();
-        ParameterAveragingAggregationTuple tuple = results.aggregate(null, new ParameterAveragingElementAddFunction(),
-                        new ParameterAveragingElementCombineFunction());
+
+        boolean persisted = false;
+        if (collectTrainingStats) {
+            //Execute the training job first, so that aggregation time can be measured separately from worker time
+            results = results.persist(StorageLevel.MEMORY_AND_DISK());
+            results.count();
+            persisted = true;
+            stats.logSplitAggregationStart();
+        }
+
+        ParameterAveragingAggregationTuple tuple = aggregateResults(results);
         INDArray params = tuple.getParametersSum();
         int aggCount = tuple.getAggregationsCount();
         SparkTrainingStats aggregatedStats = tuple.getSparkTrainingStats();
-        if (collectTrainingStats)
+        if (collectTrainingStats) {
+            stats.logSplitAggregationEnd(splitNum, aggCount, aggregationMode.toString());
             stats.logAggregationEndTime();
+        }
+        if (persisted)
+            results.unpersist(false);
 
 
         if (collectTrainingStats)
@@ -937,6 +958,68 @@ public class ParameterAveragingTrainingMaster
     }
 
 
+    /**
+     * Sum the parameters, updater state, scores etc of all worker results, using the configured {@link AggregationMode}
+     */
+    private ParameterAveragingAggregationTuple aggregateResults(JavaRDD<ParameterAveragingTrainingResult> results) {
+        switch (aggregationMode) {
+            case Tree:
+                return results.treeAggregate(null, new ParameterAveragingElementAddFunction(),
+                                new ParameterAveragingElementCombineFunction(), aggregationDepth);
+            case Sharded:
+                return aggregateResultsSharded(results);
+            case Direct:
+            default:
+                return results.aggregate(null, new ParameterAveragingElementAddFunction(),
+                                new ParameterAveragingElementCombineFunction());
+        }
+    }
+
+    private ParameterAveragingAggregationTuple aggregateResultsSharded(
+                    JavaRDD<ParameterAveragingTrainingResult> results) {
+        int numShards = (aggregationShards != null ? aggregationShards : numWorkers);
+        List<Tuple2<Integer, ParameterAveragingAggregationTuple>> shards = results
+                        .flatMapToPair(new ParameterAveragingShardFunction(numShards))
+                        .reduceByKey(new ParameterAveragingElementCombineFunction(), numShards).collect();
+        if (shards.isEmpty())
+            return new ParameterAveragingAggregationTuple(null, null, 0.0, 0, null, null, null, null);
+
+        int maxShard = 0;
+        for (Tuple2<Integer, ParameterAveragingAggregationTuple> t2 : shards)
+            maxShard = Math.max(maxShard, t2._1());
+        ParameterAveragingAggregationTuple[] sorted = new ParameterAveragingAggregationTuple[maxShard + 1];
+        for (Tuple2<Integer, ParameterAveragingAggregationTuple> t2 : shards)
+            sorted[t2._1()] = t2._2();
+        if (shards.size() != sorted.length)
+            throw new IllegalStateException("Sharded aggregation failed: expected " + sorted.length
+                            + " shards, got " + shards.size());
+
+        //Score, stats and listener info are only present on shard 0
+        ParameterAveragingAggregationTuple first = sorted[0];
+        if (first.getParametersSum() == null)
+            return first;
+
+        List<INDArray> paramShards = new ArrayList<>(sorted.length);
+        List<INDArray> updaterShards = new ArrayList<>(sorted.length);
+        for (ParameterAveragingAggregationTuple t : sorted) {
+            paramShards.add(t.getParametersSum());
+            if (t.getUpdaterStateSum() != null)
+                updaterShards.add(t.getUpdaterStateSum());
+        }
+
+        INDArray params = (paramShards.size() == 1 ? paramShards.get(0)
+                        : Nd4j.hstack(paramShards.toArray(new INDArray[paramShards.size()])));
+        INDArray updaterState = null;
+        if (updaterShards.size() == 1)
+            updaterState = updaterShards.get(0);
+        else if (updaterShards.size() > 1)
+            updaterState = Nd4j.hstack(updaterShards.toArray(new INDArray[updaterShards.size()]));
+
+        return new ParameterAveragingAggregationTuple(params, updaterState, first.getScoreSum(),
+                        first.getAggregationsCount(), first.getSparkTrainingStats(), first.getListenerMetaData(),
+                        first.getListenerStaticInfo(), first.getListenerUpdates());
+    }
+
     private JavaRDD<String> exportIfRequired(JavaSparkContext sc, JavaRDD<DataSet> trainingData) {
         ExportSupport.assertExportSupported(sc);
         if (collectTrainingStats)
@@ -1096,6 +1179,9 @@ public class ParameterAveragingTrainingMaster
         private String exportDirectory = null;
         private Long rngSeed;
         private Collection<TrainingHook> trainingHooks;
+        private AggregationMode aggregationMode = AggregationMode.Direct;
+        private int aggregationDepth = 2;
+        private Integer aggregationShards = null;
 
 
         /**
@@ -1312,6 +1398,44 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * Approach used to aggregate (sum) the parameters and updater state of the workers after each averaging period.
+         * See {@link AggregationMode} for details.<br>
+         * Default: {@link AggregationMode#Direct}
+         *
+         * @param aggregationMode Aggregation mode to use
+         */
+        public Builder aggregationMode(AggregationMode aggregationMode) {
+            this.aggregationMode = aggregationMode;
+            return this;
+        }
+
+        /**
+         * Depth of the aggregation tree, when using {@link AggregationMode#Tree}. Default: 2
+         *
+         * @param aggregationDepth Depth of the tree (must be >= 1)
+         */
+        public Builder aggregationDepth(int aggregationDepth) {
+            if (aggregationDepth < 1)
+                throw new IllegalArgumentException("Invalid aggregation depth: " + aggregationDepth + " (must be >= 1)");
+            this.aggregationDepth = aggregationDepth;
+            return this;
+        }
+
+        /**
+         * Number of shards to split parameters and updater state into, when using {@link AggregationMode#Sharded}.
+         * Default: number of workers
+         *
+         * @param aggregationShards Number of shards (must be >= 1)
+         */
+        public Builder aggregationShards(int aggregationShards) {
+            if (aggregationShards < 1)
+                throw new IllegalArgumentException(
+                                "Invalid number of aggregation shards: " + aggregationShards + " (must be >= 1)");
+            this.aggregationShards = aggregationShards;
+            return this;
+        }
+
         public ParameterAveragingTrainingMaster build() {
             return new ParameterAveragingTrainingMaster(this);
         }
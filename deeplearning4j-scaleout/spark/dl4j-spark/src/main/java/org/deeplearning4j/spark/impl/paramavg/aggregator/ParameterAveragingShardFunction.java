@@ -0,0 +1,83 @@
+package org.deeplearning4j.spark.impl.paramavg.aggregator;
+
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingResult;
+import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Function used for sharded parameter averaging: splits the (flattened) parameters and updater state of a
+ * {@link ParameterAveragingTrainingResult} into contiguous shards, keyed by shard index, so that each shard can be summed
+ * separately (via reduceByKey with {@link ParameterAveragingElementCombineFunction}).<br>
+ * Score, training stats and listener info are attached to shard 0 only.
+ */
+public class ParameterAveragingShardFunction extends
+                BasePairFlatMapFunctionAdaptee<ParameterAveragingTrainingResult, Integer, ParameterAveragingAggregationTuple> {
+
+    public ParameterAveragingShardFunction(int numShards) {
+        super(new ParameterAveragingShardFunctionAdapter(numShards));
+    }
+
+    /**
+     * Number of shards actually used for parameters of the given length: every shard must contain at least one parameter
+     */
+    public static int numShards(int numShards, int numParams) {
+        return Math.max(1, Math.min(numShards, numParams));
+    }
+
+    /**
+     * Returns the given shard of a row vector as a new (detached) row vector, or null if the shard is empty
+     */
+    public static INDArray getShard(INDArray rowVector, int shard, int numShards) {
+        if (rowVector == null)
+            return null;
+        int length = rowVector.length();
+        int start = (int) ((long) shard * length / numShards);
+        int end = (int) ((long) (shard + 1) * length / numShards);
+        if (start == end)
+            return null;
+        return rowVector.get(NDArrayIndex.point(0), NDArrayIndex.interval(start, end)).dup();
+    }
+}
+
+
+class ParameterAveragingShardFunctionAdapter implements
+                FlatMapFunctionAdapter<ParameterAveragingTrainingResult, Tuple2<Integer, ParameterAveragingAggregationTuple>> {
+
+    private final int numShards;
+
+    public ParameterAveragingShardFunctionAdapter(int numShards) {
+        this.numShards = numShards;
+    }
+
+    @Override
+    public Iterable<Tuple2<Integer, ParameterAveragingAggregationTuple>> call(ParameterAveragingTrainingResult result)
+                    throws Exception {
+        INDArray params = result.getParameters();
+        INDArray updaterState = result.getUpdaterState();
+        int n = (params == null ? 1 : ParameterAveragingShardFunction.numShards(numShards, params.length()));
+
+        List<Tuple2<Integer, ParameterAveragingAggregationTuple>> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ParameterAveragingAggregationTuple.ParameterAveragingAggregationTupleBuilder b =
+                            ParameterAveragingAggregationTuple.builder()
+                                            .parametersSum(ParameterAveragingShardFunction.getShard(params, i, n))
+                                            .updaterStateSum(ParameterAveragingShardFunction.getShard(updaterState,
+                                                            i, n))
+                                            .aggregationsCount(1);
+            if (i == 0) {
+                b.scoreSum(result.getScore()).sparkTrainingStats(result.getSparkTrainingStats())
+                                .listenerMetaData(result.getListenerMetaData())
+                                .listenerStaticInfo(result.getListenerStaticInfo())
+                                .listenerUpdates(result.getListenerUpdates());
+            }
+            out.add(new Tuple2<>(i, b.build()));
+        }
+        return out;
+    }
+}
@@ -30,6 +30,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     public static final String FILENAME_AGGREGATE_TIME = "parameterAveragingMasterAggregateTimesMs.txt";
     public static final String FILENAME_PROCESS_PARAMS_TIME = "parameterAveragingMasterProcessParamsUpdaterTimesMs.txt";
     public static final String FILENAME_REPARTITION_STATS = "parameterAveragingMasterRepartitionTimesMs.txt";
+    public static final String FILENAME_SPLIT_AGGREGATION_TIME = "parameterAveragingMasterSplitAggregationTimesMs.txt";
 
     public static final String PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS = "parameterAveragingMasterExportTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS =
@@ -46,6 +47,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     "ParameterAveragingMasterProcessParamsUpdaterTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS =
                     "ParameterAveragingMasterRepartitionTimesMs";
+    public static final String PARAMETER_AVERAGING_MASTER_SPLIT_AGGREGATION_TIMES_MS =
+                    "ParameterAveragingMasterSplitAggregationTimesMs";
 
     private static Set<String> columnNames = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
                     PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS, PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS,
@@ -53,7 +56,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     PARAMETER_AVERAGING_MASTER_SPLIT_TIMES_MS, PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS,
-                    PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS)));
+                    PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS,
+                    PARAMETER_AVERAGING_MASTER_SPLIT_AGGREGATION_TIMES_MS)));
 
     private SparkTrainingStats workerStats;
     private List<EventStats> parameterAveragingMasterExportTimesMs;
@@ -65,6 +69,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     private List<EventStats> paramaterAveragingMasterAggregateTimesMs;
     private List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs;
     private List<EventStats> parameterAveragingMasterRepartitionTimesMs;
+    //Parameter/updater aggregation only (excluding worker training time), one entry per split
+    private List<EventStats> parameterAveragingMasterSplitAggregationTimesMs;
 
 
     public ParameterAveragingTrainingMasterStats(SparkTrainingStats workerStats,
@@ -77,6 +83,24 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     List<EventStats> parameterAveragingMasterAggregateTimesMs,
                     List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs,
                     List<EventStats> parameterAveragingMasterRepartitionTimesMs) {
+        this(workerStats, parameterAveragingMasterExportTimesMs, parameterAveragingMasterCountRddSizeTimesMs,
+                        parameterAveragingMasterBroadcastCreateTimeMs, parameterAveragingMasterFitTimeMs,
+                        parameterAveragingMasterSplitTimeMs, parameterAveragingMasterMapPartitionsTimesMs,
+                        parameterAveragingMasterAggregateTimesMs, parameterAveragingMasterProcessParamsUpdaterTimesMs,
+                        parameterAveragingMasterRepartitionTimesMs, new ArrayList<EventStats>());
+    }
+
+    public ParameterAveragingTrainingMasterStats(SparkTrainingStats workerStats,
+                    List<EventStats> parameterAveragingMasterExportTimesMs,
+                    List<EventStats> parameterAveragingMasterCountRddSizeTimesMs,
+                    List<EventStats> parameterAveragingMasterBroadcastCreateTimeMs,
+                    List<EventStats> parameterAveragingMasterFitTimeMs,
+                    List<EventStats> parameterAveragingMasterSplitTimeMs,
+                    List<EventStats> parameterAveragingMasterMapPartitionsTimesMs,
+                    List<EventStats> parameterAveragingMasterAggregateTimesMs,
+                    List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs,
+                    List<EventStats> parameterAveragingMasterRepartitionTimesMs,
+                    List<EventStats> parameterAveragingMasterSplitAggregationTimesMs) {
         this.workerStats = workerStats;
         this.parameterAveragingMasterExportTimesMs = parameterAveragingMasterExportTimesMs;
         this.parameterAveragingMasterCountRddSizeTimesMs = parameterAveragingMasterCountRddSizeTimesMs;
@@ -87,6 +111,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         this.paramaterAveragingMasterAggregateTimesMs = parameterAveragingMasterAggregateTimesMs;
         this.parameterAveragingMasterProcessParamsUpdaterTimesMs = parameterAveragingMasterProcessParamsUpdaterTimesMs;
         this.parameterAveragingMasterRepartitionTimesMs = parameterAveragingMasterRepartitionTimesMs;
+        this.parameterAveragingMasterSplitAggregationTimesMs = parameterAveragingMasterSplitAggregationTimesMs;
     }
 
 
@@ -119,6 +144,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return parameterAveragingMasterProcessParamsUpdaterTimesMs;
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
                 return parameterAveragingMasterRepartitionTimesMs;
+            case PARAMETER_AVERAGING_MASTER_SPLIT_AGGREGATION_TIMES_MS:
+                return parameterAveragingMasterSplitAggregationTimesMs;
             default:
                 if (workerStats != null)
                     return workerStats.getValue(key);
@@ -147,6 +174,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return "ProcessParams";
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
                 return "Repartition";
+            case PARAMETER_AVERAGING_MASTER_SPLIT_AGGREGATION_TIMES_MS:
+                return "AggregateOnly";
             default:
                 if (workerStats != null)
                     return workerStats.getShortNameForKey(key);
@@ -167,6 +196,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             case PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
+            case PARAMETER_AVERAGING_MASTER_SPLIT_AGGREGATION_TIMES_MS:
                 return true;
             default:
                 if (workerStats != null)
@@ -203,6 +233,14 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             if (o.parameterAveragingMasterRepartitionTimesMs != null)
                 parameterAveragingMasterRepartitionTimesMs.addAll(o.parameterAveragingMasterRepartitionTimesMs);
         }
+        if (parameterAveragingMasterSplitAggregationTimesMs == null) {
+            if (o.parameterAveragingMasterSplitAggregationTimesMs != null)
+                parameterAveragingMasterSplitAggregationTimesMs = o.parameterAveragingMasterSplitAggregationTimesMs;
+        } else {
+            if (o.parameterAveragingMasterSplitAggregationTimesMs != null)
+                parameterAveragingMasterSplitAggregationTimesMs
+                                .addAll(o.parameterAveragingMasterSplitAggregationTimesMs);
+        }
     }
 
     @Override
@@ -270,6 +308,13 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             sb.append(StatsUtils.getDurationAsString(parameterAveragingMasterProcessParamsUpdaterTimesMs, ","))
                             .append("\n");
 
+        sb.append(String.format(f, PARAMETER_AVERAGING_MASTER_SPLIT_AGGREGATION_TIMES_MS));
+        if (parameterAveragingMasterSplitAggregationTimesMs == null)
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(parameterAveragingMasterSplitAggregationTimesMs, ","))
+                            .append("\n");
+
         if (workerStats != null)
             sb.append(workerStats.statsAsString());
 
@@ -322,6 +367,12 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             StatsUtils.exportStats(parameterAveragingMasterRepartitionTimesMs, repartitionPath, d, sc);
         }
 
+        //Aggregation only, per split
+        if (parameterAveragingMasterSplitAggregationTimesMs != null) {
+            String splitAggregationPath = FilenameUtils.concat(outputPath, FILENAME_SPLIT_AGGREGATION_TIME);
+            StatsUtils.exportStats(parameterAveragingMasterSplitAggregationTimesMs, splitAggregationPath, d, sc);
+        }
+
         if (workerStats != null)
             workerStats.exportStatFiles(outputPath, sc);
     }
@@ -337,6 +388,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         private long lastMapPartitionsStartTime;
         private long lastAggregateStartTime;
         private long lastProcessParamsUpdaterStartTime;
+        private long lastSplitAggregationStartTime;
 
         private SparkTrainingStats workerStats;
 
@@ -349,6 +401,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         private List<EventStats> mapPartitions = new ArrayList<>();
         private List<EventStats> aggregateTimes = new ArrayList<>();
         private List<EventStats> processParamsUpdaterTimes = new ArrayList<>();
+        private List<EventStats> splitAggregationTimes = new ArrayList<>();
 
         private final TimeSource timeSource = TimeSourceProvider.getInstance();
 
@@ -438,6 +491,16 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                             now - lastProcessParamsUpdaterStartTime));
         }
 
+        public void logSplitAggregationStart() {
+            lastSplitAggregationStartTime = timeSource.currentTimeMillis();
+        }
+
+        public void logSplitAggregationEnd(int splitNum, int numAggregated, String aggregationMode) {
+            long now = timeSource.currentTimeMillis();
+            splitAggregationTimes.add(new AggregationEventStats(lastSplitAggregationStartTime,
+                            now - lastSplitAggregationStartTime, splitNum, numAggregated, aggregationMode));
+        }
+
         public void addWorkerStats(SparkTrainingStats workerStats) {
             if (this.workerStats == null)
                 this.workerStats = workerStats;
@@ -448,7 +511,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         public ParameterAveragingTrainingMasterStats build() {
             return new ParameterAveragingTrainingMasterStats(workerStats, exportTimes, countTimes, broadcastTimes,
                             fitTimes, splitTimes, mapPartitions, aggregateTimes, processParamsUpdaterTimes,
-                            repartitionTimes);
+                            repartitionTimes, splitAggregationTimes);
         }
 
     }
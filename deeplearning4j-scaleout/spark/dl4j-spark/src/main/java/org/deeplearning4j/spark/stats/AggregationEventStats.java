@@ -0,0 +1,45 @@
+package org.deeplearning4j.spark.stats;
+
+import lombok.Getter;
+
+/**
+ * Event stats implementation for parameter aggregation: includes split number, number of aggregated results and the
+ * aggregation mode used
+ */
+public class AggregationEventStats extends BaseEventStats {
+
+    @Getter
+    private final int splitNum;
+    @Getter
+    private final int numAggregated;
+    @Getter
+    private final String aggregationMode;
+
+    public AggregationEventStats(long startTime, long durationMs, int splitNum, int numAggregated,
+                    String aggregationMode) {
+        super(startTime, durationMs);
+        this.splitNum = splitNum;
+        this.numAggregated = numAggregated;
+        this.aggregationMode = aggregationMode;
+    }
+
+    public AggregationEventStats(String machineId, String jvmId, long threadId, long startTime, long durationMs,
+                    int splitNum, int numAggregated, String aggregationMode) {
+        super(machineId, jvmId, threadId, startTime, durationMs);
+        this.splitNum = splitNum;
+        this.numAggregated = numAggregated;
+        this.aggregationMode = aggregationMode;
+    }
+
+    @Override
+    public String asString(String delimiter) {
+        return super.asString(delimiter) + delimiter + splitNum + delimiter + numAggregated + delimiter
+                        + aggregationMode;
+    }
+
+    @Override
+    public String getStringHeader(String delimiter) {
+        return super.getStringHeader(delimiter) + delimiter + "splitNum" + delimiter + "numAggregated" + delimiter
+                        + "aggregationMode";
+    }
+}
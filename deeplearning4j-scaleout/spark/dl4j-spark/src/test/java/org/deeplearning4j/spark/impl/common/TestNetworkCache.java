@@ -0,0 +1,110 @@
+package org.deeplearning4j.spark.impl.common;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestNetworkCache extends BaseSparkTest {
+
+    private MultiLayerNetwork getNetwork() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).list()
+                        .layer(0, new DenseLayer.Builder().nIn(nIn).nOut(5).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(nOut)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        return net;
+    }
+
+    @Test
+    public void testCacheReuse() {
+        NetworkCache.clear();
+
+        MultiLayerNetwork net = getNetwork();
+        String json = net.getLayerWiseConfigurations().toJson();
+        Broadcast<INDArray> params = sc.broadcast(net.params());
+
+        MultiLayerNetwork n1 = NetworkCache.getMultiLayerNetwork(json, params);
+        MultiLayerNetwork n2 = NetworkCache.getMultiLayerNetwork(json, params);
+        assertNotSame(n1, n2); //n1 is in use -> new network
+        assertEquals(net.params(), n1.params());
+        assertEquals(net.output(input), n1.output(input));
+
+        NetworkCache.release(json, params, n1);
+        NetworkCache.release(json, params, n2);
+        assertEquals(2, NetworkCache.size());
+
+        MultiLayerNetwork n3 = NetworkCache.getMultiLayerNetwork(json, params);
+        assertTrue(n3 == n1 || n3 == n2);
+        assertEquals(1, NetworkCache.size());
+        NetworkCache.release(json, params, n3);
+
+        //Different parameters broadcast: must not reuse networks with old parameters
+        Broadcast<INDArray> params2 = sc.broadcast(net.params().mul(2));
+        MultiLayerNetwork n4 = NetworkCache.getMultiLayerNetwork(json, params2);
+        assertNotSame(n1, n4);
+        assertNotSame(n2, n4);
+        assertEquals(net.params().mul(2), n4.params());
+
+        NetworkCache.clear();
+        assertEquals(0, NetworkCache.size());
+    }
+
+    @Test
+    public void testNoReuseAcrossContexts() {
+        NetworkCache.clear();
+
+        MultiLayerNetwork net = getNetwork();
+        String json = net.getLayerWiseConfigurations().toJson();
+        Broadcast<INDArray> params = sc.broadcast(net.params());
+        NetworkCache.release(json, params, NetworkCache.getMultiLayerNetwork(json, params));
+        assertEquals(1, NetworkCache.size());
+
+        //New context: broadcast ids start from 0 again, but cached networks from the old context must not be used
+        sc.close();
+        sc = null;
+        sc = getContext();
+
+        Broadcast<INDArray> params2 = sc.broadcast(net.params().mul(2));
+        MultiLayerNetwork n = NetworkCache.getMultiLayerNetwork(json, params2);
+        assertEquals(net.params().mul(2), n.params());
+
+        NetworkCache.clear();
+    }
+
+    @Test
+    public void testScoreExamplesManyPartitions() {
+        NetworkCache.clear();
+
+        MultiLayerNetwork net = getNetwork();
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net, null);
+        sparkNet.setEvalScoreBatchSize(8);
+
+        //Many small partitions: each partition after the first (on each thread) should use a cached network
+        List<Double> scores = sparkNet.scoreExamples(sparkData.repartition(50), false).collect();
+        assertEquals(nRows, scores.size());
+
+        INDArray expected = net.scoreExamples(data, false);
+        double sumExpected = expected.sumNumber().doubleValue();
+        double sum = 0.0;
+        for (Double d : scores) {
+            sum += d;
+        }
+        assertEquals(sumExpected, sum, 1e-4);
+        assertTrue(NetworkCache.size() >= 1);
+    }
+}
@@ -15,6 +15,7 @@ import org.deeplearning4j.nn.conf.layers.variational.VariationalAutoencoder;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.spark.api.AggregationMode;
 import org.deeplearning4j.spark.api.RDDTrainingApproach;
 import org.deeplearning4j.spark.api.Repartition;
 import org.deeplearning4j.spark.api.TrainingMaster;
@@ -337,6 +338,71 @@ public class TestCompareParameterAveragingSparkVsSingleMachine {
         }
     }
 
+    @Test
+    public void testAverageEveryStepAggregationModes() {
+        //As per testAverageEveryStep, but with Nesterov momentum: the Nesterovs update and its state are linear in the
+        // gradient, so with equal number of examples per worker, averaging both parameters and updater state every step
+        // is identical to single machine training - for all aggregation modes. This checks that updater state is
+        // aggregated (and not just copied from one worker) too.
+        //3 shards: uneven shard sizes (param and updater state count not divisible by 3)
+
+        int miniBatchSizePerWorker = 10;
+        int nWorkers = 4;
+
+        for (AggregationMode mode : new AggregationMode[] {AggregationMode.Direct, AggregationMode.Tree,
+                        AggregationMode.Sharded}) {
+            for (boolean saveUpdater : new boolean[] {true, false}) {
+                JavaSparkContext sc = getContext(nWorkers);
+
+                try {
+                    int[] seeds = {1, 2, 3};
+
+                    MultiLayerNetwork net = new MultiLayerNetwork(getConf(12345, Updater.NESTEROVS));
+                    net.init();
+                    for (int i = 0; i < seeds.length; i++) {
+                        DataSet ds = getOneDataSet(miniBatchSizePerWorker * nWorkers, seeds[i]);
+                        if (!saveUpdater)
+                            net.setUpdater(null);
+                        net.fit(ds);
+                    }
+                    INDArray finalParams = net.params().dup();
+                    INDArray finalUpdaterState = net.getUpdater().getStateViewArray().dup();
+
+                    ParameterAveragingTrainingMaster tm = new ParameterAveragingTrainingMaster.Builder(1)
+                                    .averagingFrequency(1).batchSizePerWorker(miniBatchSizePerWorker)
+                                    .saveUpdater(saveUpdater).workerPrefetchNumBatches(0)
+                                    .rddTrainingApproach(RDDTrainingApproach.Export).aggregationMode(mode)
+                                    .aggregationDepth(2).aggregationShards(3).build();
+                    SparkDl4jMultiLayer sparkNet =
+                                    new SparkDl4jMultiLayer(sc, getConf(12345, Updater.NESTEROVS), tm);
+                    sparkNet.setCollectTrainingStats(true);
+
+                    for (int i = 0; i < seeds.length; i++) {
+                        List<DataSet> list =
+                                        getOneDataSetAsIndividalExamples(miniBatchSizePerWorker * nWorkers, seeds[i]);
+                        JavaRDD<DataSet> rdd = sc.parallelize(list);
+
+                        sparkNet.fit(rdd);
+                    }
+
+                    System.out.println(sparkNet.getSparkTrainingStats().statsAsString());
+
+                    INDArray finalSparkParams = sparkNet.getNetwork().params().dup();
+                    assertEquals(mode.toString(), finalParams, finalSparkParams);
+                    assertEquals(net.score(), sparkNet.getScore(), 1e-3);
+
+                    if (saveUpdater) {
+                        INDArray finalSparkUpdaterState = sparkNet.getNetwork().getUpdater().getStateViewArray();
+                        assertNotEquals(Nd4j.zeros(finalUpdaterState.shape()), finalUpdaterState);
+                        assertEquals(mode.toString(), finalUpdaterState, finalSparkUpdaterState);
+                    }
+                } finally {
+                    sc.stop();
+                }
+            }
+        }
+    }
+
     @Test
     public void testAverageEveryStepCNN() {
         //Idea: averaging every step with SGD (SGD updater + optimizer) is mathematically identical to doing the learning
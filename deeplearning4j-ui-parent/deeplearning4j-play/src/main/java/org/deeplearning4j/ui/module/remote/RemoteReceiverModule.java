@@ -3,6 +3,7 @@ package org.deeplearning4j.ui.module.remote;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.api.storage.*;
+import org.deeplearning4j.api.storage.impl.RemoteUIBatchFormat;
 import org.deeplearning4j.ui.api.FunctionType;
 import org.deeplearning4j.ui.api.HttpMethod;
 import org.deeplearning4j.ui.api.Route;
@@ -14,6 +15,7 @@ import play.mvc.Result;
 import play.mvc.Results;
 
 import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -57,7 +59,8 @@ public class RemoteReceiverModule implements UIModule {
     @Override
     public List<Route> getRoutes() {
         Route r = new Route("/remoteReceive", HttpMethod.POST, FunctionType.Supplier, this::receiveData);
-        return Collections.singletonList(r);
+        Route rBatch = new Route("/remoteReceive/batch", HttpMethod.POST, FunctionType.Supplier, this::receiveBatch);
+        return Arrays.asList(r, rBatch);
     }
 
     @Override
@@ -76,7 +79,7 @@ public class RemoteReceiverModule implements UIModule {
         //No op
     }
 
-    private Result receiveData() {
+    private Result checkAvailable() {
         if (!enabled.get()) {
             return Results.forbidden(
                             "UI server remote listening is currently disabled. Use UIServer.getInstance().enableRemoteListener()");
@@ -86,6 +89,14 @@ public class RemoteReceiverModule implements UIModule {
             return Results.internalServerError(
                             "UI Server remote listener: no StatsStorage instance is set/available to store results");
         }
+        return null;
+    }
+
+    private Result receiveData() {
+        Result unavailable = checkAvailable();
+        if (unavailable != null) {
+            return unavailable;
+        }
 
         JsonNode jn = request().body().asJson();
         JsonNode type = jn.get("type");
@@ -100,7 +111,13 @@ public class RemoteReceiverModule implements UIModule {
         }
 
         String dc = dataClass.asText();
-        String content = data.asText();
+        byte[] content;
+        try {
+            content = DatatypeConverter.parseBase64Binary(data.asText());
+        } catch (Exception e) {
+            log.warn("Received incorrectly formatted data from remote listener: data is not base64 encoded", e);
+            return Results.badRequest("Received incorrectly formatted data");
+        }
 
         switch (type.asText().toLowerCase()) {
             case "metadata":
@@ -128,7 +145,78 @@ public class RemoteReceiverModule implements UIModule {
         return Results.ok("Receiver got data: ");
     }
 
-    private StorageMetaData getMetaData(String dataClass, String content) {
+    /**
+     * Receive a batch of items, as posted by RemoteUIStatsStorageRouter (see {@link RemoteUIBatchFormat}).
+     * Consecutive items of the same type are passed on to the StatsStorageRouter together, preserving order.
+     */
+    private Result receiveBatch() {
+        Result unavailable = checkAvailable();
+        if (unavailable != null) {
+            return unavailable;
+        }
+
+        Http.RawBuffer raw = request().body().asRaw();
+        byte[] bytes = (raw == null ? null : raw.asBytes(Integer.MAX_VALUE));
+        if (bytes == null) {
+            log.warn("Received incorrectly formatted batch from remote listener: no content");
+            return Results.badRequest("Received incorrectly formatted data");
+        }
+
+        List<RemoteUIBatchFormat.Entry> entries;
+        try {
+            entries = RemoteUIBatchFormat.read(bytes);
+        } catch (IOException e) {
+            log.warn("Received incorrectly formatted batch from remote listener", e);
+            return Results.badRequest("Received incorrectly formatted data");
+        }
+
+        StorageType currentType = null;
+        List<Persistable> current = new ArrayList<>();
+        for (RemoteUIBatchFormat.Entry e : entries) {
+            if (e.getType() != currentType) {
+                putAll(currentType, current);
+                current.clear();
+                currentType = e.getType();
+            }
+
+            Persistable p;
+            if (e.getType() == StorageType.MetaData) {
+                p = getMetaData(e.getClassName(), e.getBytes());
+            } else {
+                p = getPersistable(e.getClassName(), e.getBytes());
+            }
+            if (p != null) {
+                current.add(p);
+            }
+        }
+        putAll(currentType, current);
+
+        return Results.ok("Receiver got data: " + entries.size());
+    }
+
+    private void putAll(StorageType type, List<Persistable> list) {
+        if (type == null || list.isEmpty()) {
+            return;
+        }
+
+        switch (type) {
+            case MetaData:
+                List<StorageMetaData> meta = new ArrayList<>(list.size());
+                for (Persistable p : list) {
+                    meta.add((StorageMetaData) p);
+                }
+                statsStorage.putStorageMetaData(meta);
+                break;
+            case StaticInfo:
+                statsStorage.putStaticInfo(new ArrayList<>(list));
+                break;
+            case Update:
+                statsStorage.putUpdate(new ArrayList<>(list));
+                break;
+        }
+    }
+
+    private StorageMetaData getMetaData(String dataClass, byte[] bytes) {
 
         StorageMetaData meta;
         try {
@@ -146,7 +234,6 @@ public class RemoteReceiverModule implements UIModule {
         }
 
         try {
-            byte[] bytes = DatatypeConverter.parseBase64Binary(content);
             meta.decode(bytes);
         } catch (Exception e) {
             log.warn("Skipping invalid remote UI data: exception encountered when deserializing data", e);
@@ -156,7 +243,7 @@ public class RemoteReceiverModule implements UIModule {
         return meta;
     }
 
-    private Persistable getPersistable(String dataClass, String content) {
+    private Persistable getPersistable(String dataClass, byte[] bytes) {
         Persistable p;
         try {
             Class<?> c = Class.forName(dataClass);
@@ -173,7 +260,6 @@ public class RemoteReceiverModule implements UIModule {
         }
 
         try {
-            byte[] bytes = DatatypeConverter.parseBase64Binary(content);
             p.decode(bytes);
         } catch (Exception e) {
             log.warn("Skipping invalid remote data: exception encountered when deserializing data", e);
@@ -637,8 +637,7 @@ public class TrainModule implements UIModule {
             return new Triple<>(null, conf, null);
         } else {
             try {
-                NeuralNetConfiguration layer =
-                                NeuralNetConfiguration.mapper().readValue(config, NeuralNetConfiguration.class);
+                NeuralNetConfiguration layer = NeuralNetConfiguration.fromJson(config);
                 return new Triple<>(null, null, layer);
             } catch (Exception e) {
                 e.printStackTrace();
@@ -98,6 +98,44 @@ public class TestRemoteReceiver {
     }
 
 
+    @Test
+    @Ignore
+    public void testRemoteThroughput() throws Exception {
+        //Posts many updates to a local UI, and reports requests/sec and bytes/sec posted
+        List<Persistable> updates = Collections.synchronizedList(new ArrayList<Persistable>());
+        CollectionStatsStorageRouter collectionRouter = new CollectionStatsStorageRouter(
+                        new ArrayList<StorageMetaData>(), new ArrayList<Persistable>(), updates);
+
+        UIServer s = UIServer.getInstance();
+        s.enableRemoteListener(collectionRouter, false);
+
+        int nUpdates = 100000;
+        RemoteUIStatsStorageRouter remoteRouter = new RemoteUIStatsStorageRouter("http://localhost:9000",
+                        RemoteUIStatsStorageRouter.DEFAULT_PATH, 10, 1000, 2.0, nUpdates,
+                        RemoteUIStatsStorageRouter.QueueFullPolicy.DROP_OLDEST, 1000, true);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < nUpdates; i++) {
+            SbeStatsReport update = new SbeStatsReport();
+            update.reportIterationCount(i);
+            update.reportIDs("sid", "tid", "wid", start + i);
+            update.reportPerformance(10, 20, 30, 40, 50);
+            remoteRouter.putUpdate(update);
+        }
+
+        while (updates.size() < nUpdates) {
+            Thread.sleep(10);
+        }
+        double seconds = (System.currentTimeMillis() - start) / 1000.0;
+
+        System.out.println("Updates: " + nUpdates + ", requests: " + remoteRouter.getRequestCount() + ", bytes: "
+                        + remoteRouter.getPostedBytes() + ", time: " + seconds + " sec");
+        System.out.println("Requests/sec: " + remoteRouter.getRequestCount() / seconds + ", bytes/sec: "
+                        + remoteRouter.getPostedBytes() / seconds + ", updates/sec: " + nUpdates / seconds);
+
+        assertEquals(0, remoteRouter.getDroppedCount());
+    }
+
     @Test
     @Ignore
     public void testRemoteFull() throws Exception {
@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * An implementation of the {@link StatsStorage} interface, backed by MapDB
@@ -22,7 +23,7 @@ public abstract class BaseCollectionStatsStorage implements StatsStorage {
 
     protected Map<SessionTypeWorkerId, Map<Long, Persistable>> updates = new ConcurrentHashMap<>();
 
-    protected List<StatsStorageListener> listeners = new ArrayList<>();
+    protected List<StatsStorageListener> listeners = new CopyOnWriteArrayList<>();
 
     protected BaseCollectionStatsStorage() {
 
@@ -0,0 +1,242 @@
+package org.deeplearning4j.ui.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.api.storage.Persistable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for {@link org.deeplearning4j.api.storage.StatsStorage} implementations.<br>
+ * Records passed to {@link #add(RecordType, Collection)} are buffered in a bounded queue, and handed over to a
+ * {@link BatchWriter} by a single background thread. A batch is written as soon as maxBatchSize records are available,
+ * or flushIntervalMs after the first record of the batch was taken from the queue, whichever comes first.<br>
+ * When the queue is full, add() blocks until the writer catches up: i.e., a slow disk slows down the producer,
+ * instead of using an unbounded amount of memory.<br>
+ * If the writer fails, the exception is rethrown on the next call of add(), flush() or close().
+ */
+@Slf4j
+public class WriteBehindQueue {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    public enum RecordType {
+        StorageMetaData, StaticInfo, Update
+    }
+
+    @AllArgsConstructor
+    @Data
+    public static class Record {
+        private final RecordType type;
+        private final Persistable persistable;
+    }
+
+    /**
+     * Writes a batch of records. Called from the background thread only; records are passed in the order they were
+     * added.
+     */
+    public interface BatchWriter {
+        void write(List<Record> batch) throws Exception;
+    }
+
+    //Markers: flush and shutdown requests are passed through the queue, so that they are ordered w.r.t. the records
+    private static class Marker extends Record {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final boolean shutdown;
+
+        private Marker(boolean shutdown) {
+            super(null, null);
+            this.shutdown = shutdown;
+        }
+    }
+
+    private final BlockingQueue<Record> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+    private final BatchWriter batchWriter;
+    private final Thread thread;
+
+    private volatile Throwable exception;
+    private volatile boolean closed;
+
+    /**
+     * @param name            Name for the writer thread
+     * @param queueCapacity   Maximum number of records waiting to be written
+     * @param maxBatchSize    Maximum number of records per batch
+     * @param flushIntervalMs Maximum time (milliseconds) records are held back, waiting for a batch to fill up
+     * @param batchWriter     Writer for the batches
+     */
+    public WriteBehindQueue(String name, int queueCapacity, int maxBatchSize, long flushIntervalMs,
+                    BatchWriter batchWriter) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("Queue capacity must be > 0, got " + queueCapacity);
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("Max batch size must be > 0, got " + maxBatchSize);
+        if (flushIntervalMs < 0)
+            throw new IllegalArgumentException("Flush interval must be >= 0, got " + flushIntervalMs);
+
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchWriter = batchWriter;
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWriter();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Add records to the queue, blocking while the queue is full
+     */
+    public void add(RecordType type, Collection<? extends Persistable> persistables) {
+        checkState();
+        for (Persistable p : persistables) {
+            putUninterruptibly(new Record(type, p));
+        }
+    }
+
+    /**
+     * Block until all records added before this call have been written
+     */
+    public void flush() {
+        checkState();
+        Marker marker = new Marker(false);
+        putUninterruptibly(marker);
+        awaitUninterruptibly(marker);
+        checkState();
+    }
+
+    /**
+     * Write all remaining records, and stop the background thread. Subsequent calls have no effect.
+     */
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        if (thread.isAlive()) {
+            Marker marker = new Marker(true);
+            putUninterruptibly(marker);
+            awaitUninterruptibly(marker);
+        }
+        if (exception != null)
+            throw new RuntimeException("Error writing stats storage records", exception);
+    }
+
+    /**
+     * @return Number of records currently waiting to be written
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private void checkState() {
+        if (exception != null)
+            throw new RuntimeException("Error writing stats storage records", exception);
+        if (closed)
+            throw new IllegalStateException("Write-behind queue has been closed");
+    }
+
+    private void putUninterruptibly(Record r) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    //Don't block forever if the writer thread has died
+                    if (queue.offer(r, 100, TimeUnit.MILLISECONDS))
+                        return;
+                    if (!thread.isAlive()) {
+                        if (exception != null)
+                            throw new RuntimeException("Error writing stats storage records", exception);
+                        throw new IllegalStateException("Write-behind thread is not running");
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitUninterruptibly(Marker marker) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (marker.latch.await(100, TimeUnit.MILLISECONDS) || !thread.isAlive())
+                        return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        List<Record> batch = new ArrayList<>(maxBatchSize);
+        List<Marker> markers = new ArrayList<>();
+        boolean shutdown = false;
+        try {
+            while (!shutdown) {
+                Record first = queue.take();
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                Record r = first;
+                while (true) {
+                    if (r instanceof Marker) {
+                        //Flush or shut down: write what we have now, without waiting for the batch to fill up
+                        markers.add((Marker) r);
+                        shutdown = ((Marker) r).shutdown;
+                        break;
+                    }
+                    batch.add(r);
+                    if (batch.size() >= maxBatchSize)
+                        break;
+
+                    r = queue.poll();
+                    if (r == null) {
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0)
+                            break;
+                        r = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (r == null)
+                            break;
+                    }
+                }
+
+                if (!batch.isEmpty() && exception == null) {
+                    try {
+                        batchWriter.write(batch);
+                    } catch (Throwable t) {
+                        log.error("Error writing batch of {} stats storage records", batch.size(), t);
+                        exception = t;
+                    }
+                }
+                batch.clear();
+
+                for (Marker m : markers)
+                    m.latch.countDown();
+                markers.clear();
+            }
+        } catch (InterruptedException e) {
+            log.warn("Write-behind thread was interrupted; {} records were not written", queue.size());
+        }
+    }
+}
@@ -3,6 +3,9 @@ package org.deeplearning4j.ui.storage.mapdb;
 import lombok.Data;
 import org.deeplearning4j.api.storage.*;
 import org.deeplearning4j.ui.storage.BaseCollectionStatsStorage;
+import org.deeplearning4j.ui.storage.WriteBehindQueue;
+import org.deeplearning4j.ui.storage.WriteBehindQueue.Record;
+import org.deeplearning4j.ui.storage.WriteBehindQueue.RecordType;
 import org.jetbrains.annotations.NotNull;
 import org.mapdb.*;
 
@@ -15,7 +18,10 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An implementation of the {@link StatsStorage} interface, backed by MapDB (in-memory or file).<br>
- * See also {@link org.deeplearning4j.ui.storage.InMemoryStatsStorage} and {@link org.deeplearning4j.ui.storage.FileStatsStorage}
+ * See also {@link org.deeplearning4j.ui.storage.InMemoryStatsStorage} and {@link org.deeplearning4j.ui.storage.FileStatsStorage}<br>
+ * With {@link Builder#writeBehind(boolean)}, the put methods only enqueue the records: a background thread stores them
+ * in batches, with one commit per batch, and listeners are notified once a batch has been committed.
+ * Use {@link #flush()} to wait for pending records to be stored; {@link #close()} stores all pending records first.
  *
  * @author Alex Black
  */
@@ -31,6 +37,8 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
     private Map<Integer, String> integerToClass; //For storage
     private Atomic.Integer classCounter;
 
+    private final WriteBehindQueue writeBehindQueue;
+
     public MapDBStatsStorage() {
         this(new Builder());
     }
@@ -76,6 +84,19 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
                 updates.put(id, m);
             }
         }
+
+        if (builder.isWriteBehind()) {
+            writeBehindQueue = new WriteBehindQueue("MapDBStatsStorage writer", builder.getWriteQueueCapacity(),
+                            builder.getWriteBatchSize(), builder.getWriteFlushIntervalMs(),
+                            new WriteBehindQueue.BatchWriter() {
+                                @Override
+                                public void write(List<Record> batch) throws Exception {
+                                    writeRecords(batch);
+                                }
+                            });
+        } else {
+            writeBehindQueue = null;
+        }
     }
 
     @Override
@@ -100,9 +121,16 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
 
     @Override
     public void close() {
-        db.commit(); //For write ahead log: need to ensure that we persist all data to disk...
-        db.close();
-        isClosed = true;
+        try {
+            if (writeBehindQueue != null) {
+                //Store all pending records before closing
+                writeBehindQueue.close();
+            }
+        } finally {
+            db.commit(); //For write ahead log: need to ensure that we persist all data to disk...
+            db.close();
+            isClosed = true;
+        }
     }
 
     @Override
@@ -110,65 +138,117 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
         return isClosed;
     }
 
+    /**
+     * Write-behind mode: block until all records passed to the put methods before this call have been stored.
+     * Otherwise: no-op, as records are stored before the put methods return.
+     */
+    public void flush() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
+    }
+
     // ----- Store new info -----
 
     @Override
     public void putStaticInfo(Persistable staticInfo) {
-        List<StatsStorageEvent> sses = checkStorageEvents(staticInfo);
-        if (!sessionIDs.contains(staticInfo.getSessionID())) {
-            sessionIDs.add(staticInfo.getSessionID());
-        }
-        SessionTypeWorkerId id = new SessionTypeWorkerId(staticInfo.getSessionID(), staticInfo.getTypeID(),
-                        staticInfo.getWorkerID());
-
-        this.staticInfo.put(id, staticInfo);
-        db.commit(); //For write ahead log: need to ensure that we persist all data to disk...
-        StatsStorageEvent sse = null;
-        if (listeners.size() > 0)
-            sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostStaticInfo, staticInfo.getSessionID(),
-                            staticInfo.getTypeID(), staticInfo.getWorkerID(), staticInfo.getTimeStamp());
-        for (StatsStorageListener l : listeners) {
-            l.notify(sse);
-        }
+        putStaticInfo(Collections.singletonList(staticInfo));
+    }
 
-        notifyListeners(sses);
+    @Override
+    public void putStaticInfo(Collection<? extends Persistable> staticInfo) {
+        put(RecordType.StaticInfo, staticInfo);
     }
 
     @Override
     public void putUpdate(Persistable update) {
-        List<StatsStorageEvent> sses = checkStorageEvents(update);
-        Map<Long, Persistable> updateMap =
-                        getUpdateMap(update.getSessionID(), update.getTypeID(), update.getWorkerID(), true);
-        updateMap.put(update.getTimeStamp(), update);
-        db.commit(); //For write ahead log: need to ensure that we persist all data to disk...
-
-        StatsStorageEvent sse = null;
-        if (listeners.size() > 0)
-            sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostUpdate, update.getSessionID(),
-                            update.getTypeID(), update.getWorkerID(), update.getTimeStamp());
-        for (StatsStorageListener l : listeners) {
-            l.notify(sse);
-        }
+        putUpdate(Collections.singletonList(update));
+    }
 
-        notifyListeners(sses);
+    @Override
+    public void putUpdate(Collection<? extends Persistable> updates) {
+        put(RecordType.Update, updates);
     }
 
     @Override
     public void putStorageMetaData(StorageMetaData storageMetaData) {
-        List<StatsStorageEvent> sses = checkStorageEvents(storageMetaData);
-        SessionTypeId id = new SessionTypeId(storageMetaData.getSessionID(), storageMetaData.getTypeID());
-        this.storageMetaData.put(id, storageMetaData);
-        db.commit(); //For write ahead log: need to ensure that we persist all data to disk...
-
-        StatsStorageEvent sse = null;
-        if (listeners.size() > 0)
-            sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostMetaData,
-                            storageMetaData.getSessionID(), storageMetaData.getTypeID(), storageMetaData.getWorkerID(),
-                            storageMetaData.getTimeStamp());
-        for (StatsStorageListener l : listeners) {
-            l.notify(sse);
+        putStorageMetaData(Collections.singletonList(storageMetaData));
+    }
+
+    @Override
+    public void putStorageMetaData(Collection<? extends StorageMetaData> storageMetaData) {
+        put(RecordType.StorageMetaData, storageMetaData);
+    }
+
+    private void put(RecordType type, Collection<? extends Persistable> collection) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.add(type, collection);
+            return;
+        }
+
+        List<Record> records = new ArrayList<>(collection.size());
+        for (Persistable p : collection) {
+            records.add(new Record(type, p));
+        }
+        writeRecords(records);
+    }
+
+    /**
+     * Store the given records with a single commit, then notify the listeners.
+     * Called from the put methods, or from the background thread in write-behind mode.
+     */
+    private void writeRecords(List<Record> records) {
+        List<StatsStorageEvent> sses = null;
+
+        synchronized (this) {
+            for (Record r : records) {
+                Persistable p = r.getPersistable();
+                List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
+                if (ssesTemp != null) {
+                    if (sses == null)
+                        sses = ssesTemp;
+                    else
+                        sses.addAll(ssesTemp);
+                }
+
+                StatsStorageListener.EventType eventType;
+                switch (r.getType()) {
+                    case StorageMetaData:
+                        SessionTypeId metaId = new SessionTypeId(p.getSessionID(), p.getTypeID());
+                        this.storageMetaData.put(metaId, (StorageMetaData) p);
+                        eventType = StatsStorageListener.EventType.PostMetaData;
+                        break;
+                    case StaticInfo:
+                        if (!sessionIDs.contains(p.getSessionID())) {
+                            sessionIDs.add(p.getSessionID());
+                        }
+                        SessionTypeWorkerId staticId =
+                                        new SessionTypeWorkerId(p.getSessionID(), p.getTypeID(), p.getWorkerID());
+                        this.staticInfo.put(staticId, p);
+                        eventType = StatsStorageListener.EventType.PostStaticInfo;
+                        break;
+                    case Update:
+                        Map<Long, Persistable> updateMap =
+                                        getUpdateMap(p.getSessionID(), p.getTypeID(), p.getWorkerID(), true);
+                        updateMap.put(p.getTimeStamp(), p);
+                        eventType = StatsStorageListener.EventType.PostUpdate;
+                        break;
+                    default:
+                        throw new RuntimeException("Unknown record type: " + r.getType());
+                }
+
+                if (listeners.size() > 0) {
+                    StatsStorageEvent sse = new StatsStorageEvent(this, eventType, p.getSessionID(), p.getTypeID(),
+                                    p.getWorkerID(), p.getTimeStamp());
+                    if (sses == null)
+                        sses = new ArrayList<>();
+                    sses.add(sse);
+                }
+            }
+            db.commit(); //For write ahead log: need to ensure that we persist all data to disk...
         }
 
+        //Notify only after commit: otherwise, listeners could receive events before the contents are available
         notifyListeners(sses);
     }
 
@@ -178,6 +258,10 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
 
         private File file;
         private boolean useWriteAheadLog = true;
+        private boolean writeBehind = false;
+        private int writeQueueCapacity = WriteBehindQueue.DEFAULT_QUEUE_CAPACITY;
+        private int writeBatchSize = WriteBehindQueue.DEFAULT_MAX_BATCH_SIZE;
+        private long writeFlushIntervalMs = WriteBehindQueue.DEFAULT_FLUSH_INTERVAL_MS;
 
         public Builder() {
             this(null);
@@ -197,6 +281,39 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
             return this;
         }
 
+        /**
+         * If true: put methods only enqueue records, which are stored in batches by a background thread.
+         * Default: false
+         */
+        public Builder writeBehind(boolean writeBehind) {
+            this.writeBehind = writeBehind;
+            return this;
+        }
+
+        /**
+         * Write-behind mode: maximum number of records waiting to be stored. put methods block when the queue is full
+         */
+        public Builder writeQueueCapacity(int writeQueueCapacity) {
+            this.writeQueueCapacity = writeQueueCapacity;
+            return this;
+        }
+
+        /**
+         * Write-behind mode: maximum number of records stored with a single commit
+         */
+        public Builder writeBatchSize(int writeBatchSize) {
+            this.writeBatchSize = writeBatchSize;
+            return this;
+        }
+
+        /**
+         * Write-behind mode: maximum time (milliseconds) records are held back before being stored
+         */
+        public Builder writeFlushIntervalMs(long writeFlushIntervalMs) {
+            this.writeFlushIntervalMs = writeFlushIntervalMs;
+            return this;
+        }
+
         public MapDBStatsStorage build() {
             return new MapDBStatsStorage(this);
         }
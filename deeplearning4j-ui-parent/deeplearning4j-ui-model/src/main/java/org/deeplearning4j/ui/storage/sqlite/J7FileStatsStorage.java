@@ -3,10 +3,14 @@ package org.deeplearning4j.ui.storage.sqlite;
 import lombok.NonNull;
 import org.deeplearning4j.api.storage.*;
 import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.ui.storage.WriteBehindQueue;
+import org.deeplearning4j.ui.storage.WriteBehindQueue.Record;
+import org.deeplearning4j.ui.storage.WriteBehindQueue.RecordType;
 
 import java.io.*;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A Java 7 compatible file-based {@link StatsStorage} implementation, based on SQLite.
@@ -14,6 +18,12 @@ import java.util.*;
  * on MapDB).
  * Obviously, the storage formats for J7FileStatsStorage and {@link org.deeplearning4j.ui.storage.FileStatsStorage} are
  * incompatible.
+ * <p>
+ * By default, each put method writes its records in a single transaction before returning. In write-behind mode
+ * (see {@link #J7FileStatsStorage(File, boolean)}), the put methods only enqueue the records: a background thread writes
+ * them in batches, and listeners are notified once a batch has been committed. Use {@link #flush()} to wait for all
+ * pending records to be written; {@link #close()} writes all pending records before closing the database.
+ * Persistable objects must not be modified after being passed to a put method in write-behind mode.
  *
  * @author Alex Black
  */
@@ -22,6 +32,7 @@ public class J7FileStatsStorage implements StatsStorage {
     private static final String TABLE_NAME_METADATA = "StorageMetaData";
     private static final String TABLE_NAME_STATIC_INFO = "StaticInfo";
     private static final String TABLE_NAME_UPDATES = "Updates";
+    private static final String INDEX_NAME_UPDATES_TIME = "UpdatesSessionTypeTimestamp";
 
     private static final String INSERT_META_SQL = "INSERT OR REPLACE INTO " + TABLE_NAME_METADATA
                     + " (SessionID, TypeID, ObjectClass, ObjectBytes) VALUES ( ?, ?, ?, ? );";
@@ -30,14 +41,56 @@ public class J7FileStatsStorage implements StatsStorage {
     private static final String INSERT_UPDATE_SQL = "INSERT OR REPLACE INTO " + TABLE_NAME_UPDATES
                     + " (SessionID, TypeID, WorkerID, Timestamp, ObjectClass, ObjectBytes) VALUES ( ?, ?, ?, ?, ?, ? );";
 
+    //Latest update for each worker: uses the primary key index (SessionID, TypeID, WorkerID, Timestamp) for the
+    //group by, instead of the O(n^2) self join on all updates for the session
+    private static final String LATEST_UPDATE_ALL_WORKERS_SQL = "SELECT u.ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " u INNER JOIN (SELECT WorkerID, MAX(Timestamp) AS MaxTimestamp FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? GROUP BY WorkerID) m"
+                    + " ON u.WorkerID = m.WorkerID AND u.Timestamp = m.MaxTimestamp"
+                    + " WHERE u.SessionID = ? AND u.TypeID = ?;";
+    private static final String UPDATES_AFTER_WORKER_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? AND Timestamp > ? ORDER BY Timestamp;";
+    private static final String UPDATES_AFTER_SQL = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                    + " WHERE SessionID = ? AND TypeID = ? AND Timestamp > ? ORDER BY Timestamp;";
+
     private final File file;
     private final Connection connection;
-    private List<StatsStorageListener> listeners = new ArrayList<>();
+    private final Object lock = new Object();
+    private final WriteBehindQueue writeBehindQueue;
+    private List<StatsStorageListener> listeners = new CopyOnWriteArrayList<>();
+
+    //IDs already known to be present in the DB. Used to avoid DB queries when checking for new session/type/worker IDs
+    private final Set<String> knownSessionIDs = new HashSet<>();
+    private final Set<Pair<String, String>> knownTypeIDs = new HashSet<>();
+    private final Set<List<String>> knownWorkerIDs = new HashSet<>();
 
     /**
      * @param file Storage location for the stats
      */
     public J7FileStatsStorage(@NonNull File file) {
+        this(file, false);
+    }
+
+    /**
+     * @param file        Storage location for the stats
+     * @param writeBehind If true: write records asynchronously in batches, using the default queue capacity, batch
+     *                    size and flush interval (see {@link WriteBehindQueue})
+     */
+    public J7FileStatsStorage(@NonNull File file, boolean writeBehind) {
+        this(file, writeBehind, WriteBehindQueue.DEFAULT_QUEUE_CAPACITY, WriteBehindQueue.DEFAULT_MAX_BATCH_SIZE,
+                        WriteBehindQueue.DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * @param file            Storage location for the stats
+     * @param writeBehind     If true: write records asynchronously in batches
+     * @param queueCapacity   Write-behind mode: maximum number of records waiting to be written. put methods block
+     *                        when the queue is full
+     * @param maxBatchSize    Write-behind mode: maximum number of records written in one transaction
+     * @param flushIntervalMs Write-behind mode: maximum time (milliseconds) records are held back before being written
+     */
+    public J7FileStatsStorage(@NonNull File file, boolean writeBehind, int queueCapacity, int maxBatchSize,
+                    long flushIntervalMs) {
         this.file = file;
 
         try {
@@ -51,6 +104,18 @@ public class J7FileStatsStorage implements StatsStorage {
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+
+        if (writeBehind) {
+            writeBehindQueue = new WriteBehindQueue("J7FileStatsStorage writer (" + file.getName() + ")",
+                            queueCapacity, maxBatchSize, flushIntervalMs, new WriteBehindQueue.BatchWriter() {
+                                @Override
+                                public void write(List<Record> batch) throws Exception {
+                                    writeRecords(batch);
+                                }
+                            });
+        } else {
+            writeBehindQueue = null;
+        }
     }
 
     private void initializeTables() throws SQLException {
@@ -99,6 +164,11 @@ public class J7FileStatsStorage implements StatsStorage {
                             + "PRIMARY KEY ( SessionID, TypeID, WorkerID, Timestamp )" + ");");
         }
 
+        //Index for getAllUpdatesAfter(sessionID, typeID, timestamp), which queries across all workers. Also added to
+        //files created by earlier versions
+        statement.executeUpdate("CREATE INDEX IF NOT EXISTS " + INDEX_NAME_UPDATES_TIME + " ON " + TABLE_NAME_UPDATES
+                        + " ( SessionID, TypeID, Timestamp );");
+
         statement.close();
 
     }
@@ -124,59 +194,97 @@ public class J7FileStatsStorage implements StatsStorage {
         }
     }
 
-    private <T> T queryAndGet(String sql, int columnIndex) {
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            if (!rs.next())
-                return null;
-            byte[] bytes = rs.getBytes(columnIndex);
-            return deserialize(bytes);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+    private static void setParameters(PreparedStatement ps, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            ps.setObject(i + 1, params[i]);
         }
     }
 
-    private List<String> selectDistinct(String columnName, boolean queryMeta, boolean queryStatic, boolean queryUpdates,
-                    String conditionColumn, String conditionValue) {
-        Set<String> unique = new HashSet<>();
+    private <T> T queryAndGet(String sql, int columnIndex, Object... params) {
+        synchronized (lock) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                setParameters(ps, params);
+                ResultSet rs = ps.executeQuery();
+                if (!rs.next())
+                    return null;
+                byte[] bytes = rs.getBytes(columnIndex);
+                return deserialize(bytes);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
 
-        try (Statement statement = connection.createStatement()) {
-            if (queryMeta) {
-                queryHelper(statement, querySqlHelper(columnName, TABLE_NAME_METADATA, conditionColumn, conditionValue),
-                                unique);
+    private List<Persistable> queryAndGetList(String sql, int columnIndex, Object... params) {
+        synchronized (lock) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                setParameters(ps, params);
+                ResultSet rs = ps.executeQuery();
+                List<Persistable> out = new ArrayList<>();
+                while (rs.next()) {
+                    byte[] bytes = rs.getBytes(columnIndex);
+                    out.add((Persistable) deserialize(bytes));
+                }
+                return out;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
+        }
+    }
 
-            if (queryStatic) {
-                queryHelper(statement,
-                                querySqlHelper(columnName, TABLE_NAME_STATIC_INFO, conditionColumn, conditionValue),
-                                unique);
+    private int queryCount(String sql, Object... params) {
+        synchronized (lock) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                setParameters(ps, params);
+                return ps.executeQuery().getInt(1);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
+        }
+    }
+
+    private List<String> selectDistinct(String columnName, boolean queryMeta, boolean queryStatic, boolean queryUpdates,
+                    String conditionSql, Object... params) {
+        Set<String> unique = new HashSet<>();
+
+        synchronized (lock) {
+            try {
+                if (queryMeta) {
+                    queryHelper(querySqlHelper(columnName, TABLE_NAME_METADATA, conditionSql), params, unique);
+                }
 
-            if (queryUpdates) {
-                queryHelper(statement, querySqlHelper(columnName, TABLE_NAME_UPDATES, conditionColumn, conditionValue),
-                                unique);
+                if (queryStatic) {
+                    queryHelper(querySqlHelper(columnName, TABLE_NAME_STATIC_INFO, conditionSql), params, unique);
+                }
+
+                if (queryUpdates) {
+                    queryHelper(querySqlHelper(columnName, TABLE_NAME_UPDATES, conditionSql), params, unique);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
 
         return new ArrayList<>(unique);
     }
 
-    private String querySqlHelper(String columnName, String table, String conditionColumn, String conditionValue) {
+    private String querySqlHelper(String columnName, String table, String conditionSql) {
         String unique = "SELECT DISTINCT " + columnName + " FROM " + table;
-        if (conditionColumn != null) {
-            unique += " WHERE " + conditionColumn + " = '" + conditionValue + "'";
+        if (conditionSql != null) {
+            unique += " WHERE " + conditionSql;
         }
         unique += ";";
         return unique;
     }
 
-    private void queryHelper(Statement statement, String q, Set<String> unique) throws SQLException {
-        ResultSet rs = statement.executeQuery(q);
-        while (rs.next()) {
-            String str = rs.getString(1);
-            unique.add(str);
+    private void queryHelper(String q, Object[] params, Set<String> unique) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(q)) {
+            setParameters(ps, params);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                String str = rs.getString(1);
+                unique.add(str);
+            }
         }
     }
 
@@ -193,18 +301,22 @@ public class J7FileStatsStorage implements StatsStorage {
         String wid = p.getWorkerID();
 
         //Is this a new session ID? type ID? worker ID?
+        //IDs are cached once seen: records of a batch aren't visible to DB queries until the batch is executed
+        List<String> workerKey = Arrays.asList(sid, tid, wid);
+        if (knownWorkerIDs.contains(workerKey))
+            return null;
+        Pair<String, String> typeKey = new Pair<>(sid, tid);
 
-        //This is not the most efficient approach
         boolean isNewSID = false;
         boolean isNewTID = false;
         boolean isNewWID = false;
-        if (!listSessionIDs().contains(sid)) {
+        if (!knownSessionIDs.contains(sid) && !listSessionIDs().contains(sid)) {
             isNewSID = true;
             isNewTID = true;
             isNewWID = true;
         }
 
-        if (!isNewTID && !listTypeIDsForSession(sid).contains(tid)) {
+        if (!isNewTID && !knownTypeIDs.contains(typeKey) && !listTypeIDsForSession(sid).contains(tid)) {
             isNewTID = true;
         }
 
@@ -212,6 +324,10 @@ public class J7FileStatsStorage implements StatsStorage {
             isNewWID = true;
         }
 
+        knownSessionIDs.add(sid);
+        knownTypeIDs.add(typeKey);
+        knownWorkerIDs.add(workerKey);
+
         if (isNewSID) {
             newSID = new StatsStorageEvent(this, StatsStorageListener.EventType.NewSessionID, p.getSessionID(),
                             p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
@@ -237,50 +353,143 @@ public class J7FileStatsStorage implements StatsStorage {
         return sses;
     }
 
-    @Override
-    public void putStorageMetaData(StorageMetaData storageMetaData) {
-        putStorageMetaData(Collections.singletonList(storageMetaData));
-    }
-
-    @Override
-    public void putStorageMetaData(Collection<? extends StorageMetaData> collection) {
+    /**
+     * Write the given records in a single transaction, then notify the listeners.
+     * Called from the put methods, or from the background thread in write-behind mode.
+     */
+    private void writeRecords(List<Record> records) throws SQLException {
         List<StatsStorageEvent> sses = null;
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_META_SQL);
-
-            for (StorageMetaData storageMetaData : collection) {
-                List<StatsStorageEvent> ssesTemp = checkStorageEvents(storageMetaData);
-                if (ssesTemp != null) {
-                    if (sses == null)
-                        sses = ssesTemp;
-                    else
-                        sses.addAll(ssesTemp);
-                }
 
-                if (listeners.size() > 0) {
-                    StatsStorageEvent sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostMetaData,
-                                    storageMetaData.getSessionID(), storageMetaData.getTypeID(),
-                                    storageMetaData.getWorkerID(), storageMetaData.getTimeStamp());
-                    if (sses == null)
-                        sses = new ArrayList<>();
-                    sses.add(sse);
+        synchronized (lock) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement psMeta = connection.prepareStatement(INSERT_META_SQL);
+                            PreparedStatement psStatic = connection.prepareStatement(INSERT_STATIC_SQL);
+                            PreparedStatement psUpdate = connection.prepareStatement(INSERT_UPDATE_SQL)) {
+                int nMeta = 0;
+                int nStatic = 0;
+                int nUpdate = 0;
+                for (Record r : records) {
+                    Persistable p = r.getPersistable();
+                    List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
+                    if (ssesTemp != null) {
+                        if (sses == null)
+                            sses = ssesTemp;
+                        else
+                            sses.addAll(ssesTemp);
+                    }
+
+                    Pair<String, byte[]> pair = serializeForDB(p);
+                    StatsStorageListener.EventType eventType;
+                    switch (r.getType()) {
+                        case StorageMetaData:
+                            psMeta.setString(1, p.getSessionID());
+                            psMeta.setString(2, p.getTypeID());
+                            psMeta.setString(3, pair.getFirst());
+                            psMeta.setBytes(4, pair.getSecond());
+                            psMeta.addBatch();
+                            nMeta++;
+                            eventType = StatsStorageListener.EventType.PostMetaData;
+                            break;
+                        case StaticInfo:
+                            psStatic.setString(1, p.getSessionID());
+                            psStatic.setString(2, p.getTypeID());
+                            psStatic.setString(3, p.getWorkerID());
+                            psStatic.setString(4, pair.getFirst());
+                            psStatic.setBytes(5, pair.getSecond());
+                            psStatic.addBatch();
+                            nStatic++;
+                            eventType = StatsStorageListener.EventType.PostStaticInfo;
+                            break;
+                        case Update:
+                            psUpdate.setString(1, p.getSessionID());
+                            psUpdate.setString(2, p.getTypeID());
+                            psUpdate.setString(3, p.getWorkerID());
+                            psUpdate.setLong(4, p.getTimeStamp());
+                            psUpdate.setString(5, pair.getFirst());
+                            psUpdate.setBytes(6, pair.getSecond());
+                            psUpdate.addBatch();
+                            nUpdate++;
+                            eventType = StatsStorageListener.EventType.PostUpdate;
+                            break;
+                        default:
+                            throw new RuntimeException("Unknown record type: " + r.getType());
+                    }
+
+                    if (listeners.size() > 0) {
+                        StatsStorageEvent sse = new StatsStorageEvent(this, eventType, p.getSessionID(),
+                                        p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
+                        if (sses == null)
+                            sses = new ArrayList<>();
+                        sses.add(sse);
+                    }
                 }
 
+                if (nMeta > 0)
+                    psMeta.executeBatch();
+                if (nStatic > 0)
+                    psStatic.executeBatch();
+                if (nUpdate > 0)
+                    psUpdate.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                //Rolled back records may have been added to the ID caches
+                knownSessionIDs.clear();
+                knownTypeIDs.clear();
+                knownWorkerIDs.clear();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
 
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
-                Pair<String, byte[]> p = serializeForDB(storageMetaData);
+        //Notify only after commit: otherwise, listeners could receive events before the contents are available
+        notifyListeners(sses);
+    }
 
-                ps.setString(1, storageMetaData.getSessionID());
-                ps.setString(2, storageMetaData.getTypeID());
-                ps.setString(3, p.getFirst());
-                ps.setObject(4, p.getSecond());
-                ps.executeUpdate();
-            }
+    private void put(RecordType type, Collection<? extends Persistable> collection) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.add(type, collection);
+            return;
+        }
+
+        List<Record> records = new ArrayList<>(collection.size());
+        for (Persistable p : collection) {
+            records.add(new Record(type, p));
+        }
+        try {
+            writeRecords(records);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+    }
 
-        notifyListeners(sses);
+    /**
+     * Write-behind mode: block until all records passed to the put methods before this call have been written.
+     * Otherwise: no-op, as records are written before the put methods return.
+     */
+    public void flush() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
+    }
+
+    /**
+     * @return True if records are written asynchronously
+     */
+    public boolean isWriteBehind() {
+        return writeBehindQueue != null;
+    }
+
+    @Override
+    public void putStorageMetaData(StorageMetaData storageMetaData) {
+        putStorageMetaData(Collections.singletonList(storageMetaData));
+    }
+
+    @Override
+    public void putStorageMetaData(Collection<? extends StorageMetaData> collection) {
+        put(RecordType.StorageMetaData, collection);
     }
 
     @Override
@@ -290,42 +499,7 @@ public class J7FileStatsStorage implements StatsStorage {
 
     @Override
     public void putStaticInfo(Collection<? extends Persistable> collection) {
-        List<StatsStorageEvent> sses = null;
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_STATIC_SQL);
-
-            for (Persistable p : collection) {
-                List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
-                if (ssesTemp != null) {
-                    if (sses == null)
-                        sses = ssesTemp;
-                    else
-                        sses.addAll(ssesTemp);
-                }
-
-                if (listeners.size() > 0) {
-                    StatsStorageEvent sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostStaticInfo,
-                                    p.getSessionID(), p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
-                    if (sses == null)
-                        sses = new ArrayList<>();
-                    sses.add(sse);
-                }
-
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
-                Pair<String, byte[]> pair = serializeForDB(p);
-
-                ps.setString(1, p.getSessionID());
-                ps.setString(2, p.getTypeID());
-                ps.setString(3, p.getWorkerID());
-                ps.setString(4, pair.getFirst());
-                ps.setBytes(5, pair.getSecond());
-                ps.executeUpdate();
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-
-        notifyListeners(sses);
+        put(RecordType.StaticInfo, collection);
     }
 
     @Override
@@ -335,52 +509,24 @@ public class J7FileStatsStorage implements StatsStorage {
 
     @Override
     public void putUpdate(Collection<? extends Persistable> collection) {
-        List<StatsStorageEvent> sses = null;
-
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_UPDATE_SQL);
-
-            for (Persistable p : collection) {
-                List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
-                if (ssesTemp != null) {
-                    if (sses == null)
-                        sses = ssesTemp;
-                    else
-                        sses.addAll(ssesTemp);
-                }
-
-                if (listeners.size() > 0) {
-                    StatsStorageEvent sse = new StatsStorageEvent(this, StatsStorageListener.EventType.PostUpdate,
-                                    p.getSessionID(), p.getTypeID(), p.getWorkerID(), p.getTimeStamp());
-                    if (sses == null)
-                        sses = new ArrayList<>();
-                    sses.add(sse);
-                }
-
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
-                Pair<String, byte[]> pair = serializeForDB(p);
-
-                ps.setString(1, p.getSessionID());
-                ps.setString(2, p.getTypeID());
-                ps.setString(3, p.getWorkerID());
-                ps.setLong(4, p.getTimeStamp());
-                ps.setString(5, pair.getFirst());
-                ps.setObject(6, pair.getSecond());
-                ps.executeUpdate();
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-
-        notifyListeners(sses);
+        put(RecordType.Update, collection);
     }
 
     @Override
     public void close() throws IOException {
         try {
-            connection.close();
-        } catch (Exception e) {
-            throw new IOException(e);
+            if (writeBehindQueue != null) {
+                //Write (and commit) all pending records before closing
+                writeBehindQueue.close();
+            }
+        } finally {
+            synchronized (lock) {
+                try {
+                    connection.close();
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
         }
     }
 
@@ -395,186 +541,105 @@ public class J7FileStatsStorage implements StatsStorage {
 
     @Override
     public List<String> listSessionIDs() {
-        return selectDistinct("SessionID", true, true, false, null, null);
+        return selectDistinct("SessionID", true, true, false, null);
     }
 
     @Override
     public boolean sessionExists(String sessionID) {
-        String existsMetaSQL = "SELECT 1 FROM " + TABLE_NAME_METADATA + " WHERE SessionID = '" + sessionID + "';";
-        String existsStaticSQL = "SELECT 1 FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '" + sessionID + "';";
+        String existsMetaSQL = "SELECT 1 FROM " + TABLE_NAME_METADATA + " WHERE SessionID = ? LIMIT 1;";
+        String existsStaticSQL = "SELECT 1 FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = ? LIMIT 1;";
+
+        synchronized (lock) {
+            try (PreparedStatement psMeta = connection.prepareStatement(existsMetaSQL);
+                            PreparedStatement psStatic = connection.prepareStatement(existsStaticSQL)) {
+                psMeta.setString(1, sessionID);
+                if (psMeta.executeQuery().next()) {
+                    return true;
+                }
 
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(existsMetaSQL);
-            if (rs.next()) {
-                return true;
+                psStatic.setString(1, sessionID);
+                return psStatic.executeQuery().next();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-
-            rs = statement.executeQuery(existsStaticSQL);
-            return rs.next();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
     }
 
     @Override
     public Persistable getStaticInfo(String sessionID, String typeID, String workerID) {
-        String selectStaticSQL = "SELECT ObjectBytes FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '"
-                        + sessionID + "' AND TypeID = '" + typeID + "' AND WorkerID = '" + workerID + "';";
-        return queryAndGet(selectStaticSQL, 1);
+        String selectStaticSQL = "SELECT ObjectBytes FROM " + TABLE_NAME_STATIC_INFO
+                        + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ?;";
+        return queryAndGet(selectStaticSQL, 1, sessionID, typeID, workerID);
     }
 
     @Override
     public List<Persistable> getAllStaticInfos(String sessionID, String typeID) {
-        String selectStaticSQL = "SELECT * FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "';";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(selectStaticSQL);
-            List<Persistable> out = new ArrayList<>();
-            while (rs.next()) {
-                byte[] bytes = rs.getBytes(5);
-                out.add((Persistable) deserialize(bytes));
-            }
-            return out;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        String selectStaticSQL =
+                        "SELECT ObjectBytes FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = ? AND TypeID = ?;";
+        return queryAndGetList(selectStaticSQL, 1, sessionID, typeID);
     }
 
     @Override
     public List<String> listTypeIDsForSession(String sessionID) {
-        return selectDistinct("TypeID", true, true, true, "SessionID", sessionID);
+        return selectDistinct("TypeID", true, true, true, "SessionID = ?", sessionID);
     }
 
     @Override
     public List<String> listWorkerIDsForSession(String sessionID) {
-        return selectDistinct("WorkerID", false, true, true, "SessionID", sessionID);
+        return selectDistinct("WorkerID", false, true, true, "SessionID = ?", sessionID);
     }
 
     @Override
     public List<String> listWorkerIDsForSessionAndType(String sessionID, String typeID) {
-        String uniqueStatic = "SELECT DISTINCT WorkerID FROM " + TABLE_NAME_STATIC_INFO + " WHERE SessionID = '"
-                        + sessionID + "' AND TypeID = '" + typeID + "';";
-        String uniqueUpdates = "SELECT DISTINCT WorkerID FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '"
-                        + sessionID + "' AND TypeID = '" + typeID + "';";
-
-        Set<String> unique = new HashSet<>();
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(uniqueStatic);
-            while (rs.next()) {
-                String str = rs.getString(1);
-                unique.add(str);
-            }
-
-            rs = statement.executeQuery(uniqueUpdates);
-            while (rs.next()) {
-                String str = rs.getString(1);
-                unique.add(str);
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-
-        return new ArrayList<>(unique);
+        return selectDistinct("WorkerID", false, true, true, "SessionID = ? AND TypeID = ?", sessionID, typeID);
     }
 
     @Override
     public int getNumUpdateRecordsFor(String sessionID) {
-        String sql = "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID + "';";
-        try (Statement statement = connection.createStatement()) {
-            return statement.executeQuery(sql).getInt(1);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        String sql = "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = ?;";
+        return queryCount(sql, sessionID);
     }
 
     @Override
     public int getNumUpdateRecordsFor(String sessionID, String typeID, String workerID) {
-        String sql = "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "' AND WorkerID = '" + workerID + "';";
-        try (Statement statement = connection.createStatement()) {
-            return statement.executeQuery(sql).getInt(1);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        String sql = "SELECT COUNT(*) FROM " + TABLE_NAME_UPDATES
+                        + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ?;";
+        return queryCount(sql, sessionID, typeID, workerID);
     }
 
     @Override
     public Persistable getLatestUpdate(String sessionID, String typeID, String workerID) {
-        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "' AND WorkerID = '" + workerID
-                        + "' ORDER BY Timestamp DESC LIMIT 1;";
-        return queryAndGet(sql, 1);
+        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                        + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? ORDER BY Timestamp DESC LIMIT 1;";
+        return queryAndGet(sql, 1, sessionID, typeID, workerID);
     }
 
     @Override
     public Persistable getUpdate(String sessionID, String typeId, String workerID, long timestamp) {
-        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeId + "' AND WorkerID = '" + workerID + "' AND Timestamp = '"
-                        + timestamp + "';";
-        return queryAndGet(sql, 1);
+        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_UPDATES
+                        + " WHERE SessionID = ? AND TypeID = ? AND WorkerID = ? AND Timestamp = ?;";
+        return queryAndGet(sql, 1, sessionID, typeId, workerID, timestamp);
     }
 
     @Override
     public List<Persistable> getLatestUpdateAllWorkers(String sessionID, String typeID) {
-        String sql = "SELECT * FROM " + TABLE_NAME_UPDATES + " t1" + " LEFT JOIN " + TABLE_NAME_UPDATES
-                        + " t2 ON t1.SessionID = t2.SessionID AND "
-                        + "t1.TypeID = t2.TypeID AND t1.WorkerID = t2.WorkerID AND t1.Timestamp < t2.Timestamp "
-                        + "WHERE t2.Timestamp IS NULL AND t1.SessionID = '" + sessionID + "' AND t1.TypeID = '" + typeID
-                        + "';";
-
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            List<Persistable> out = new ArrayList<>();
-            while (rs.next()) {
-                byte[] bytes = rs.getBytes(6);
-                out.add((Persistable) deserialize(bytes));
-            }
-            return out;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return queryAndGetList(LATEST_UPDATE_ALL_WORKERS_SQL, 1, sessionID, typeID, sessionID, typeID);
     }
 
     @Override
     public List<Persistable> getAllUpdatesAfter(String sessionID, String typeID, String workerID, long timestamp) {
-        String sql = "SELECT * FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID + "' AND TypeID = '"
-                        + typeID + "' " + "AND Timestamp > " + timestamp + ";";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            List<Persistable> out = new ArrayList<>();
-            while (rs.next()) {
-                byte[] bytes = rs.getBytes(6);
-                out.add((Persistable) deserialize(bytes));
-            }
-            return out;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return queryAndGetList(UPDATES_AFTER_WORKER_SQL, 1, sessionID, typeID, workerID, timestamp);
     }
 
     @Override
     public List<Persistable> getAllUpdatesAfter(String sessionID, String typeID, long timestamp) {
-        String sql = "SELECT * FROM " + TABLE_NAME_UPDATES + " WHERE SessionID = '" + sessionID + "'  "
-                        + "AND Timestamp > " + timestamp + ";";
-        try (Statement statement = connection.createStatement()) {
-            ResultSet rs = statement.executeQuery(sql);
-            List<Persistable> out = new ArrayList<>();
-            while (rs.next()) {
-                byte[] bytes = rs.getBytes(6);
-                out.add((Persistable) deserialize(bytes));
-            }
-            return out;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        return queryAndGetList(UPDATES_AFTER_SQL, 1, sessionID, typeID, timestamp);
     }
 
     @Override
     public StorageMetaData getStorageMetaData(String sessionID, String typeID) {
-        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_METADATA + " WHERE SessionID = '" + sessionID
-                        + "' AND TypeID = '" + typeID + "' LIMIT 1;";
-        return queryAndGet(sql, 1);
+        String sql = "SELECT ObjectBytes FROM " + TABLE_NAME_METADATA + " WHERE SessionID = ? AND TypeID = ? LIMIT 1;";
+        return queryAndGet(sql, 1, sessionID, typeID);
     }
 
     @Override
@@ -306,6 +306,75 @@ public class TestStatsStorage {
         }
     }
 
+    @Test
+    public void testWriteBehind() throws IOException {
+
+        for (int i = 0; i < 2; i++) {
+            File f = Files.createTempFile("TestWriteBehindStatsStore", ".db").toFile();
+            f.delete(); //Don't want file to exist...
+            boolean useJ7Storage = (i == 1);
+
+            StatsStorage ss;
+            if (i == 0) {
+                ss = new MapDBStatsStorage.Builder().file(f).writeBehind(true).writeQueueCapacity(16)
+                                .writeBatchSize(8).writeFlushIntervalMs(50).build();
+            } else {
+                ss = new J7FileStatsStorage(f, true, 16, 8, 50);
+            }
+
+            CountingListener l = new CountingListener();
+            ss.registerStatsStorageListener(l);
+
+            ss.putStaticInfo(getInitReport(0, 0, 0, useJ7Storage));
+            ss.putStaticInfo(getInitReport(0, 0, 1, useJ7Storage));
+            int nUpdates = 100; //More than queue capacity: put methods should block, not fail
+            for (int j = 0; j < nUpdates; j++) {
+                ss.putUpdate(getReport(0, 0, j % 2, 1000 + j, useJ7Storage));
+            }
+
+            if (i == 0) {
+                ((MapDBStatsStorage) ss).flush();
+            } else {
+                ((J7FileStatsStorage) ss).flush();
+            }
+
+            assertEquals(1, l.countNewSession);
+            assertEquals(2, l.countNewWorkerId);
+            assertEquals(2, l.countStaticInfo);
+            assertEquals(nUpdates, l.countUpdate);
+
+            assertEquals(nUpdates, ss.getNumUpdateRecordsFor("sid0"));
+            assertEquals(getReport(0, 0, 0, 1000 + nUpdates - 2, useJ7Storage),
+                            ss.getLatestUpdate("sid0", "tid0", "wid0"));
+            assertEquals(getReport(0, 0, 1, 1000 + nUpdates - 1, useJ7Storage),
+                            ss.getLatestUpdate("sid0", "tid0", "wid1"));
+            assertEquals(2, ss.getLatestUpdateAllWorkers("sid0", "tid0").size());
+
+            List<Persistable> after = ss.getAllUpdatesAfter("sid0", "tid0", "wid1", 1000 + nUpdates - 10);
+            assertEquals(5, after.size());
+            for (int j = 0; j < after.size(); j++) {
+                assertEquals("wid1", after.get(j).getWorkerID());
+                assertEquals(1000 + nUpdates - 9 + 2 * j, after.get(j).getTimeStamp());
+            }
+            assertEquals(9, ss.getAllUpdatesAfter("sid0", "tid0", 1000 + nUpdates - 10).size());
+
+            //Pending records should be written on close
+            ss.putUpdate(getReport(0, 0, 0, 5000, useJ7Storage));
+            ss.close();
+            assertTrue(ss.isClosed());
+
+            if (i == 0) {
+                ss = new MapDBStatsStorage.Builder().file(f).build();
+            } else {
+                ss = new J7FileStatsStorage(f);
+            }
+            assertEquals(nUpdates + 1, ss.getNumUpdateRecordsFor("sid0"));
+            assertEquals(getReport(0, 0, 0, 5000, useJ7Storage), ss.getLatestUpdate("sid0", "tid0", "wid0"));
+            assertEquals(getInitReport(0, 0, 1, useJ7Storage), ss.getStaticInfo("sid0", "tid0", "wid1"));
+            ss.close();
+        }
+    }
+
     private static StatsInitializationReport getInitReport(int idNumber, int tid, int wid, boolean useJ7Storage) {
         StatsInitializationReport rep;
         if (useJ7Storage) {